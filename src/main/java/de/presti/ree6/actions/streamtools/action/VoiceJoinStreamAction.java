@@ -4,7 +4,7 @@ import de.presti.ree6.actions.ActionInfo;
 import de.presti.ree6.actions.streamtools.IStreamAction;
 import de.presti.ree6.actions.streamtools.StreamActionEvent;
 import de.presti.ree6.main.Main;
-import io.sentry.Sentry;
+import de.presti.ree6.utils.others.SentryReporter;
 import lombok.NoArgsConstructor;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 import org.jetbrains.annotations.NotNull;
@@ -39,7 +39,7 @@ public class VoiceJoinStreamAction implements IStreamAction {
 
             return true;
         } catch (Exception exception) {
-            Sentry.captureMessage("Invalid Voice Channel ID! Related guild: " + event.getGuild().getIdLong());
+            SentryReporter.captureMessage("Invalid Voice Channel ID! Related guild: " + event.getGuild().getIdLong());
         }
 
         return false;
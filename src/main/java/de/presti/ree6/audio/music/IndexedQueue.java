@@ -0,0 +1,412 @@
+package de.presti.ree6.audio.music;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Thread-safe queue that supports positional access, used as Song-Queue.
+ * The elements are stored in a treap ordered by their position, so accessing, removing, inserting or moving
+ * an element at any position and skipping multiple elements takes O(log n).
+ * Every element remembers when it has been added, which allows to restore the original order after a shuffle.
+ *
+ * @param <T> the type of the elements.
+ */
+public class IndexedQueue<T> {
+
+    /**
+     * The root of the treap, null if the queue is empty.
+     */
+    private Node<T> root;
+
+    /**
+     * The sequence number of the next added element.
+     */
+    private long nextSequence;
+
+    /**
+     * Get the amount of elements.
+     *
+     * @return the amount of elements.
+     */
+    public synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Check if the queue is empty.
+     *
+     * @return true, if there are no elements.
+     */
+    public synchronized boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Add an element to the end of the queue.
+     *
+     * @param value the element.
+     */
+    public synchronized void add(T value) {
+        root = merge(root, new Node<>(value, nextSequence++));
+    }
+
+    /**
+     * Add every element to the end of the queue.
+     *
+     * @param values the elements.
+     */
+    public synchronized void addAll(List<T> values) {
+        for (T value : values) {
+            add(value);
+        }
+    }
+
+    /**
+     * Insert an element at a position.
+     *
+     * @param index the position, 0 is the start of the queue.
+     * @param value the element.
+     * @throws IndexOutOfBoundsException if the position is outside the queue.
+     */
+    public synchronized void add(int index, T value) {
+        checkIndex(index, size(root) + 1);
+
+        Node<T>[] parts = split(root, index);
+        root = merge(merge(parts[0], new Node<>(value, nextSequence++)), parts[1]);
+    }
+
+    /**
+     * Get the element at a position.
+     *
+     * @param index the position, 0 is the start of the queue.
+     * @return the element.
+     * @throws IndexOutOfBoundsException if the position is outside the queue.
+     */
+    public synchronized T get(int index) {
+        checkIndex(index, size(root));
+
+        Node<T> node = root;
+
+        while (true) {
+            int leftSize = size(node.left);
+
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * Remove and return the first element.
+     *
+     * @return the first element, or null if the queue is empty.
+     */
+    public synchronized T poll() {
+        return root == null ? null : remove(0);
+    }
+
+    /**
+     * Remove the element at a position.
+     *
+     * @param index the position, 0 is the start of the queue.
+     * @return the removed element.
+     * @throws IndexOutOfBoundsException if the position is outside the queue.
+     */
+    public synchronized T remove(int index) {
+        checkIndex(index, size(root));
+
+        Node<T>[] parts = split(root, index);
+        Node<T>[] removed = split(parts[1], 1);
+        root = merge(parts[0], removed[1]);
+        return removed[0].value;
+    }
+
+    /**
+     * Remove the first elements.
+     *
+     * @param count the amount of elements to remove.
+     * @return the last removed element, or null if nothing has been removed.
+     */
+    public synchronized T removeFirst(int count) {
+        if (count <= 0 || root == null) return null;
+
+        Node<T>[] parts = split(root, Math.min(count, size(root)));
+        root = parts[1];
+
+        Node<T> last = parts[0];
+        while (last.right != null) {
+            last = last.right;
+        }
+
+        return last.value;
+    }
+
+    /**
+     * Move an element to another position.
+     *
+     * @param from the current position of the element.
+     * @param to   the new position of the element, as position in the queue after the move.
+     * @throws IndexOutOfBoundsException if a position is outside the queue.
+     */
+    public synchronized void move(int from, int to) {
+        checkIndex(from, size(root));
+        checkIndex(to, size(root));
+
+        Node<T>[] parts = split(root, from);
+        Node<T>[] moved = split(parts[1], 1);
+        Node<T>[] target = split(merge(parts[0], moved[1]), to);
+        root = merge(merge(target[0], moved[0]), target[1]);
+    }
+
+    /**
+     * Remove every element.
+     */
+    public synchronized void clear() {
+        root = null;
+    }
+
+    /**
+     * Shuffle the queue, the original order can be restored with {@link #unshuffle()}.
+     */
+    public synchronized void shuffle() {
+        List<Node<T>> nodes = new ArrayList<>(size(root));
+        collect(root, nodes);
+
+        // The shape of the treap doesn't depend on the elements, so they are only swapped between the nodes.
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = nodes.size() - 1; i > 0; i--) {
+            nodes.get(i).swap(nodes.get(random.nextInt(i + 1)));
+        }
+    }
+
+    /**
+     * Restore the order in which the elements have been added, moved elements are restored as well.
+     */
+    public synchronized void unshuffle() {
+        List<Node<T>> nodes = new ArrayList<>(size(root));
+        collect(root, nodes);
+
+        List<Node<T>> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparingLong(node -> node.sequence));
+
+        List<T> values = new ArrayList<>(sorted.size());
+        long[] sequences = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            values.add(sorted.get(i).value);
+            sequences[i] = sorted.get(i).sequence;
+        }
+
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.get(i).value = values.get(i);
+            nodes.get(i).sequence = sequences[i];
+        }
+    }
+
+    /**
+     * Get a part of the queue, e.g. to show it page by page.
+     *
+     * @param offset the position of the first element.
+     * @param limit  the maximum amount of elements.
+     * @return the elements, empty if the offset is outside the queue.
+     */
+    public synchronized List<T> subList(int offset, int limit) {
+        List<T> values = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+        collect(root, Math.max(0, offset), limit, values);
+        return values;
+    }
+
+    /**
+     * Get every element.
+     *
+     * @return a copy of the queue, in order.
+     */
+    public synchronized List<T> toList() {
+        return subList(0, size(root));
+    }
+
+    /**
+     * Collect every node of a treap in order.
+     *
+     * @param node  the root of the treap.
+     * @param nodes the list to add the nodes to.
+     */
+    private static <T> void collect(Node<T> node, List<Node<T>> nodes) {
+        if (node == null) return;
+
+        collect(node.left, nodes);
+        nodes.add(node);
+        collect(node.right, nodes);
+    }
+
+    /**
+     * Collect the elements of a treap in a range, only visits the nodes in front of and inside the range.
+     *
+     * @param node   the root of the treap.
+     * @param offset the position of the first element, relative to the treap.
+     * @param limit  the maximum amount of elements.
+     * @param values the list to add the elements to.
+     */
+    private static <T> void collect(Node<T> node, int offset, int limit, List<T> values) {
+        if (node == null || values.size() >= limit) return;
+
+        int leftSize = size(node.left);
+
+        if (offset < leftSize) {
+            collect(node.left, offset, limit, values);
+        }
+
+        if (offset <= leftSize && values.size() < limit) {
+            values.add(node.value);
+        }
+
+        collect(node.right, Math.max(0, offset - leftSize - 1), limit, values);
+    }
+
+    /**
+     * Split a treap into the first elements and the rest.
+     *
+     * @param node  the root of the treap.
+     * @param count the amount of elements in the first part.
+     * @return the root of the first part and the root of the rest, each can be null.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] split(Node<T> node, int count) {
+        if (node == null) return new Node[]{null, null};
+
+        int leftSize = size(node.left);
+
+        if (count <= leftSize) {
+            Node<T>[] parts = split(node.left, count);
+            node.left = parts[1];
+            node.update();
+            return new Node[]{parts[0], node};
+        }
+
+        Node<T>[] parts = split(node.right, count - leftSize - 1);
+        node.right = parts[0];
+        node.update();
+        return new Node[]{node, parts[1]};
+    }
+
+    /**
+     * Merge two treaps, every element of the first one is placed in front of the second one.
+     *
+     * @param left  the root of the first treap, can be null.
+     * @param right the root of the second treap, can be null.
+     * @return the root of the merged treap.
+     */
+    private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    /**
+     * Get the size of a treap.
+     *
+     * @param node the root of the treap, can be null.
+     * @return the amount of elements.
+     */
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Check if a position is inside a range.
+     *
+     * @param index the position.
+     * @param size  the size of the range.
+     * @throws IndexOutOfBoundsException if the position is outside the range.
+     */
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
+        }
+    }
+
+    /**
+     * A node of the treap.
+     *
+     * @param <T> the type of the element.
+     */
+    private static class Node<T> {
+
+        /**
+         * The element.
+         */
+        private T value;
+
+        /**
+         * The sequence number of the element, the order in which it has been added.
+         */
+        private long sequence;
+
+        /**
+         * The random priority, which keeps the treap balanced.
+         */
+        private final int priority = ThreadLocalRandom.current().nextInt();
+
+        /**
+         * The amount of elements in the subtree of this node.
+         */
+        private int size = 1;
+
+        /**
+         * The elements in front of this element.
+         */
+        private Node<T> left;
+
+        /**
+         * The elements after this element.
+         */
+        private Node<T> right;
+
+        /**
+         * Constructor used to create a node without children.
+         *
+         * @param value    the element.
+         * @param sequence the sequence number of the element.
+         */
+        private Node(T value, long sequence) {
+            this.value = value;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Update the size after the children changed.
+         */
+        private void update() {
+            size = 1 + IndexedQueue.size(left) + IndexedQueue.size(right);
+        }
+
+        /**
+         * Swap the element and its sequence number with another node.
+         *
+         * @param other the other node.
+         */
+        private void swap(Node<T> other) {
+            T otherValue = other.value;
+            long otherSequence = other.sequence;
+            other.value = value;
+            other.sequence = sequence;
+            value = otherValue;
+            sequence = otherSequence;
+        }
+    }
+}
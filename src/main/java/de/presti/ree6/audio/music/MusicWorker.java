@@ -19,7 +19,7 @@ import de.presti.ree6.utils.apis.SpotifyAPIHandler;
 import de.presti.ree6.utils.apis.YouTubeAPIHandler;
 import de.presti.ree6.utils.data.Data;
 import de.presti.ree6.utils.others.FormatUtil;
-import io.sentry.Sentry;
+import de.presti.ree6.utils.others.SentryReporter;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.Permission;
@@ -37,6 +37,7 @@ import net.dv8tion.jda.api.managers.AudioManager;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -56,6 +57,11 @@ public class MusicWorker {
      */
     public final Map<Long, GuildMusicManager> musicManagers;
 
+    /**
+     * The QueueStore used to store the queues on the disk, null if the music module is disabled.
+     */
+    private QueueStore queueStore;
+
     /**
      * The constructor of the Music-worker.
      */
@@ -71,9 +77,40 @@ public class MusicWorker {
             playerManager.registerSourceManager(new TwitchStreamAudioSourceManager());
             playerManager.registerSourceManager(new YoutubeAudioSourceManager());
             playerManager.registerSourceManager(new RestrictedHttpAudioSourceManager());
+
+            if (Main.getInstance().getConfig().getConfiguration().getBoolean("bot.misc.restoreMusicQueues", true)) {
+                queueStore = new QueueStore(this);
+            }
         }
     }
 
+    /**
+     * Get the QueueStore used to store the queues on the disk.
+     *
+     * @return the {@link QueueStore}, or null if the queues are not stored.
+     */
+    public QueueStore getQueueStore() {
+        return queueStore;
+    }
+
+    /**
+     * Get the GuildMusicManager of every Guild.
+     *
+     * @return a copy of every GuildMusicManager.
+     */
+    public synchronized List<GuildMusicManager> getGuildMusicManagers() {
+        return List.copyOf(musicManagers.values());
+    }
+
+    /**
+     * Get the amount of players that are currently playing a track.
+     *
+     * @return the amount of active players.
+     */
+    public synchronized int getActivePlayerCount() {
+        return (int) musicManagers.values().stream().filter(musicManager -> musicManager.getPlayer().getPlayingTrack() != null).count();
+    }
+
     /**
      * Retrieve the GuildMusicManager of a Guild.
      *
@@ -327,7 +364,7 @@ public class MusicWorker {
                     isspotify = true;
                     spotiftrackinfos = SpotifyAPIHandler.getInstance().convert(value);
                 } catch (Exception exception) {
-                    Sentry.captureException(exception);
+                    SentryReporter.captureException(exception);
                 } finally {
                     if (spotiftrackinfos == null) spotiftrackinfos = new ArrayList<>();
                 }
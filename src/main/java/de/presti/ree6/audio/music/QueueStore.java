@@ -0,0 +1,400 @@
+package de.presti.ree6.audio.music;
+
+import com.google.gson.Gson;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.utils.others.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Stores the queue of every Guild on the disk, so the music continues where it stopped after a restart or crash.
+ * Changes of a queue only mark it as changed, every changed queue is written once per interval, and playing queues
+ * are written in a longer interval to keep the stored position of the current track close to the actual one.
+ * Tracks are stored in the encoding of lavaplayer, so they can be restored without loading them again.
+ * <p>
+ * There is no prefetch of the upcoming tracks: every queued track is already a loaded {@link AudioTrack},
+ * and opening its stream ahead of time isn't possible with the public API of lavaplayer.
+ */
+@Slf4j
+public class QueueStore extends ListenerAdapter {
+
+    /**
+     * The directory of the stored queues, every queue is stored in a file named after the ID of the Guild.
+     */
+    private static final Path DIRECTORY = Path.of("storage", "music");
+
+    /**
+     * The interval in which changed queues are written.
+     */
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(5);
+
+    /**
+     * The interval in which playing queues are written, to store the position of the current track.
+     */
+    private static final long POSITION_INTERVAL = Duration.ofSeconds(30).toMillis();
+
+    /**
+     * The Gson instance used to read and write the queues.
+     */
+    private static final Gson GSON = new Gson();
+
+    /**
+     * The MusicWorker whose queues are stored.
+     */
+    private final MusicWorker musicWorker;
+
+    /**
+     * The AudioPlayerManager used to encode and decode the tracks.
+     */
+    private final AudioPlayerManager playerManager;
+
+    /**
+     * The directory of the stored queues.
+     */
+    private final Path directory;
+
+    /**
+     * The IDs of the Guilds whose queue changed since it has been written.
+     */
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The time in millis a queue has been written the last time, mapped by the ID of the Guild.
+     */
+    private final Map<Long, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * The IDs of the Guilds whose stored queue has not been restored yet.
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor used to load the IDs of the stored queues and to start writing changed queues.
+     *
+     * @param musicWorker the MusicWorker whose queues are stored.
+     */
+    public QueueStore(MusicWorker musicWorker) {
+        this(musicWorker, musicWorker.playerManager, DIRECTORY);
+
+        ThreadUtil.createThread(x -> flush(false), null, FLUSH_INTERVAL, true, false);
+    }
+
+    /**
+     * Constructor used to load the IDs of the stored queues of a directory.
+     *
+     * @param musicWorker   the MusicWorker whose queues are stored.
+     * @param playerManager the AudioPlayerManager used to encode and decode the tracks.
+     * @param directory     the directory of the stored queues.
+     */
+    QueueStore(MusicWorker musicWorker, AudioPlayerManager playerManager, Path directory) {
+        this.musicWorker = musicWorker;
+        this.playerManager = playerManager;
+        this.directory = directory;
+
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    String name = file.getFileName().toString();
+                    if (!name.endsWith(".json")) continue;
+
+                    try {
+                        pending.add(Long.parseLong(name.substring(0, name.length() - ".json".length())));
+                    } catch (NumberFormatException ignore) {
+                        log.warn("[Music] Ignoring the unknown file {} in the stored queues.", file);
+                    }
+                }
+            } catch (IOException exception) {
+                log.error("[Music] Couldn't load the stored queues!", exception);
+            }
+        }
+    }
+
+    /**
+     * Mark the queue of a Guild as changed, it will be written with the next flush.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public void markChanged(long guildId) {
+        changed.add(guildId);
+    }
+
+    /**
+     * Restore the queues of every Guild that is already loaded, Guilds that are loaded later are restored once they are ready.
+     */
+    public void restoreAll() {
+        if (pending.isEmpty()) return;
+
+        long start = System.currentTimeMillis();
+        int restored = 0;
+
+        for (Long guildId : List.copyOf(pending)) {
+            Guild guild = BotWorker.getShardManager().getGuildById(guildId);
+            if (guild != null && restore(guild)) restored++;
+        }
+
+        log.info("[Music] Restored {} queues in {}ms.", restored, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onGuildReady(@NotNull GuildReadyEvent event) {
+        if (pending.contains(event.getGuild().getIdLong())) {
+            long start = System.currentTimeMillis();
+
+            if (restore(event.getGuild())) {
+                log.info("[Music] Restored the queue of {} in {}ms.", event.getGuild().getId(), System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * Write the queue of every Guild that changed, or that is playing and hasn't been written for a while.
+     *
+     * @param all if every queue should be written, e.g. on shutdown.
+     */
+    public synchronized void flush(boolean all) {
+        long now = System.currentTimeMillis();
+
+        for (GuildMusicManager musicManager : musicWorker.getGuildMusicManagers()) {
+            long guildId = musicManager.getGuild().getIdLong();
+
+            // The stored queue would be overwritten with the empty queue of a Guild that hasn't been restored yet.
+            if (pending.contains(guildId)) continue;
+
+            boolean playing = musicManager.getPlayer().getPlayingTrack() != null;
+
+            if (!changed.remove(guildId) && !all && (!playing || now - lastWrites.getOrDefault(guildId, 0L) < POSITION_INTERVAL)) {
+                continue;
+            }
+
+            try {
+                write(musicManager);
+                lastWrites.put(guildId, now);
+            } catch (Exception exception) {
+                log.error("[Music] Couldn't store the queue of {}!", guildId, exception);
+            }
+        }
+    }
+
+    /**
+     * Write the queue of a Guild, or delete it if nothing is playing and the queue is empty.
+     *
+     * @param musicManager the GuildMusicManager of the Guild.
+     * @throws IOException if the queue couldn't be written.
+     */
+    private void write(GuildMusicManager musicManager) throws IOException {
+        long guildId = musicManager.getGuild().getIdLong();
+        AudioTrack current = musicManager.getPlayer().getPlayingTrack();
+        List<AudioTrack> queue = musicManager.getScheduler().getQueue().toList();
+        AudioChannel audioChannel = musicManager.getGuild().getAudioManager().getConnectedChannel();
+
+        if ((current == null && queue.isEmpty()) || audioChannel == null) {
+            Files.deleteIfExists(getPath(guildId));
+            return;
+        }
+
+        MessageChannelUnion channel = musicManager.getScheduler().getChannel();
+
+        write(guildId, capture(audioChannel.getIdLong(), channel != null ? channel.getIdLong() : 0,
+                musicManager.getScheduler().isLoop(), current, queue));
+    }
+
+    /**
+     * Create the snapshot of a queue.
+     *
+     * @param audioChannelId the ID of the Audio-Channel the Bot is connected to.
+     * @param channelId      the ID of the channel the music messages are sent to, 0 if unknown.
+     * @param loop           if the current track is looped.
+     * @param current        the current track, can be null.
+     * @param queue          the tracks of the queue, in order.
+     * @return the {@link Snapshot}.
+     * @throws IOException if a track couldn't be encoded.
+     */
+    Snapshot capture(long audioChannelId, long channelId, boolean loop, AudioTrack current, List<AudioTrack> queue) throws IOException {
+        List<String> tracks = new ArrayList<>(queue.size());
+        for (AudioTrack track : queue) {
+            tracks.add(encode(track));
+        }
+
+        return new Snapshot(audioChannelId, channelId, loop, current != null ? encode(current) : null,
+                current != null ? current.getPosition() : 0, tracks);
+    }
+
+    /**
+     * Write the snapshot of a queue.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param snapshot the {@link Snapshot}.
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    void write(long guildId, Snapshot snapshot) throws IOException {
+        Path path = getPath(guildId);
+
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(path.getFileName() + ".tmp");
+        Files.writeString(temporary, GSON.toJson(snapshot));
+
+        // Only complete queues are ever visible, a crash while writing keeps the previous queue.
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the stored snapshot of a queue.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the {@link Snapshot}.
+     * @throws IOException if the snapshot couldn't be read.
+     */
+    Snapshot read(long guildId) throws IOException {
+        return GSON.fromJson(Files.readString(getPath(guildId)), Snapshot.class);
+    }
+
+    /**
+     * Queue the tracks of a snapshot, the current track continues at its stored position.
+     *
+     * @param snapshot  the {@link Snapshot}.
+     * @param scheduler the TrackScheduler of the Guild.
+     */
+    void apply(Snapshot snapshot, TrackScheduler scheduler) {
+        AudioTrack current = decode(snapshot.current());
+
+        if (current != null) {
+            current.setPosition(snapshot.position());
+            scheduler.queue(current);
+        }
+
+        for (String track : snapshot.queue()) {
+            AudioTrack audioTrack = decode(track);
+            if (audioTrack != null) scheduler.queue(audioTrack);
+        }
+
+        scheduler.setLoop(snapshot.loop());
+    }
+
+    /**
+     * Check if the stored queue of a Guild has not been restored yet.
+     *
+     * @param guildId the ID of the Guild.
+     * @return true, if there is a stored queue that has not been restored yet.
+     */
+    boolean isPending(long guildId) {
+        return pending.contains(guildId);
+    }
+
+    /**
+     * Restore the stored queue of a Guild, if nothing is playing on it and someone is still in the Audio-Channel.
+     *
+     * @param guild the Guild.
+     * @return true, if the queue has been restored.
+     */
+    private boolean restore(Guild guild) {
+        if (!pending.remove(guild.getIdLong())) return false;
+
+        Path path = getPath(guild.getIdLong());
+
+        try {
+            Snapshot snapshot = read(guild.getIdLong());
+            AudioChannel audioChannel = guild.getChannelById(AudioChannel.class, snapshot.audioChannelId());
+            GuildMusicManager musicManager = musicWorker.getGuildAudioPlayer(guild);
+
+            if (musicManager.getPlayer().getPlayingTrack() != null) return false;
+
+            if (audioChannel == null || audioChannel.getMembers().stream().allMatch(member -> member.getUser().isBot())) {
+                Files.deleteIfExists(path);
+                return false;
+            }
+
+            if (guild.getGuildChannelById(snapshot.channelId()) instanceof MessageChannelUnion channel) {
+                musicManager.getScheduler().setChannel(channel);
+            }
+
+            apply(snapshot, musicManager.getScheduler());
+            musicWorker.connectToAudioChannel(guild.getAudioManager(), audioChannel);
+            return true;
+        } catch (Exception exception) {
+            log.error("[Music] Couldn't restore the queue of {}!", guild.getId(), exception);
+            return false;
+        }
+    }
+
+    /**
+     * Encode a track.
+     *
+     * @param track the {@link AudioTrack}.
+     * @return the encoded track as Base64.
+     * @throws IOException if the track couldn't be encoded.
+     */
+    private String encode(AudioTrack track) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        playerManager.encodeTrack(new MessageOutput(outputStream), track);
+        return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+    }
+
+    /**
+     * Decode a track.
+     *
+     * @param track the encoded track as Base64, can be null.
+     * @return the {@link AudioTrack}, or null if it couldn't be decoded, e.g. because its source isn't registered anymore.
+     */
+    private AudioTrack decode(String track) {
+        if (track == null) return null;
+
+        try {
+            DecodedTrackHolder holder = playerManager.decodeTrack(new MessageInput(new ByteArrayInputStream(Base64.getDecoder().decode(track))));
+            return holder != null ? holder.decodedTrack : null;
+        } catch (Exception exception) {
+            log.warn("[Music] Skipping a stored track that couldn't be decoded!", exception);
+            return null;
+        }
+    }
+
+    /**
+     * Get the path of the stored queue of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the path.
+     */
+    private Path getPath(long guildId) {
+        return directory.resolve(guildId + ".json");
+    }
+
+    /**
+     * The stored queue of a Guild.
+     *
+     * @param audioChannelId the ID of the Audio-Channel the Bot was connected to.
+     * @param channelId      the ID of the channel the music messages are sent to, 0 if unknown.
+     * @param loop           if the current track is looped.
+     * @param current        the encoded current track, null if nothing was playing.
+     * @param position       the position of the current track in millis.
+     * @param queue          the encoded tracks of the queue, in order.
+     */
+    record Snapshot(long audioChannelId, long channelId, boolean loop, String current, long position, List<String> queue) {
+    }
+}
@@ -16,10 +16,6 @@ import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * This class schedules tracks for the audio player. It contains the queue of
@@ -41,7 +37,7 @@ public class TrackScheduler extends AudioEventAdapter {
     /**
      * The Song-Queue.
      */
-    private final BlockingQueue<AudioTrack> queue;
+    private final IndexedQueue<AudioTrack> queue;
 
     /**
      * The Channel where the command had been executed.
@@ -62,7 +58,7 @@ public class TrackScheduler extends AudioEventAdapter {
     public TrackScheduler(GuildMusicManager guildMusicManager, AudioPlayer player) {
         this.guildMusicManager = guildMusicManager;
         this.player = player;
-        this.queue = new LinkedBlockingQueue<>();
+        this.queue = new IndexedQueue<>();
     }
 
     /**
@@ -87,10 +83,10 @@ public class TrackScheduler extends AudioEventAdapter {
         // player was already playing so this
         // track goes to the queue instead.
         if (!player.startTrack(track, !force)) {
-            if (!queue.offer(track)) {
-                log.error("[TrackScheduler] Couldn't offer a new Track!");
-            }
+            queue.add(track);
         }
+
+        markChanged();
     }
 
 
@@ -120,17 +116,23 @@ public class TrackScheduler extends AudioEventAdapter {
      */
     public void setLoop(boolean loop) {
         this.loop = loop;
+        markChanged();
     }
 
     /**
      * Shuffle the current playlsist.
      */
     public void shuffle() {
-        ArrayList<AudioTrack> audioTrackArrayList = new ArrayList<>();
-        audioTrackArrayList.addAll(queue.stream().toList());
-        Collections.shuffle(audioTrackArrayList);
-        queue.clear();
-        queue.addAll(audioTrackArrayList);
+        queue.shuffle();
+        markChanged();
+    }
+
+    /**
+     * Restore the order of the current playlist from before it has been shuffled.
+     */
+    public void unshuffle() {
+        queue.unshuffle();
+        markChanged();
     }
 
     /**
@@ -163,9 +165,9 @@ public class TrackScheduler extends AudioEventAdapter {
     /**
      * Get the current Queue.
      *
-     * @return the {@link BlockingQueue<AudioTrack>}.
+     * @return the {@link IndexedQueue<AudioTrack>}.
      */
-    public BlockingQueue<AudioTrack> getQueue() {
+    public IndexedQueue<AudioTrack> getQueue() {
         return queue;
     }
 
@@ -174,6 +176,19 @@ public class TrackScheduler extends AudioEventAdapter {
      */
     public void clearQueue() {
         queue.clear();
+        markChanged();
+    }
+
+    /**
+     * Mark the Queue as changed, so that it will be stored.
+     */
+    private void markChanged() {
+        MusicWorker musicWorker = Main.getInstance().getMusicWorker();
+        QueueStore queueStore = musicWorker != null ? musicWorker.getQueueStore() : null;
+
+        if (queueStore != null) {
+            queueStore.markChanged(guildMusicManager.getGuild().getIdLong());
+        }
     }
 
     /**
@@ -204,9 +219,7 @@ public class TrackScheduler extends AudioEventAdapter {
         AudioTrack track = null;
 
         if (position > 0 && !queue.isEmpty() && queue.size() >= position) {
-            for (int currentPosition = 0; currentPosition < position; currentPosition++) {
-                track = queue.poll();
-            }
+            track = queue.removeFirst(position);
         } else if (position == 0) {
             track = queue.poll();
         }
@@ -279,6 +292,17 @@ public class TrackScheduler extends AudioEventAdapter {
                 .setFooter(guildMusicManager.getGuild().getName() + " - " + Data.getAdvertisement(), guildMusicManager.getGuild().getIconUrl()), 5, getChannel());
     }
 
+    /**
+     * Override the default onTrackStart method, to store the Queue with the new track.
+     *
+     * @param player the current AudioPlayer.
+     * @param track  the started Track.
+     */
+    @Override
+    public void onTrackStart(AudioPlayer player, AudioTrack track) {
+        markChanged();
+    }
+
     /**
      * Override the default onTrackEnd method, to inform user about the next song or problems.
      *
@@ -288,6 +312,8 @@ public class TrackScheduler extends AudioEventAdapter {
      */
     @Override
     public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason) {
+        markChanged();
+
         // Only start the next track if the end reason is suitable for it (FINISHED or
         // LOAD_FAILED)
 
@@ -1,5 +1,7 @@
 package de.presti.ree6.bot;
 
+import de.presti.ree6.bot.cluster.ClusterManager;
+import de.presti.ree6.bot.util.RecentMemberCachePolicy;
 import de.presti.ree6.bot.version.BotState;
 import de.presti.ree6.bot.version.BotVersion;
 import de.presti.ree6.main.Main;
@@ -12,11 +14,18 @@ import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
 import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 
 import java.awt.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -68,6 +77,12 @@ public class BotWorker {
     @Getter
     private static long startTime;
 
+    /**
+     * The policy used to cache recently active Members, null if it is not used.
+     */
+    @Getter
+    private static RecentMemberCachePolicy recentMemberCachePolicy;
+
 
     /**
      * Create a new {@link net.dv8tion.jda.api.sharding.ShardManager} instance and set the rest information for later use.
@@ -81,15 +96,69 @@ public class BotWorker {
         token = Main.getInstance().getConfig().getConfiguration().getString(getVersion().getTokenPath());
         state = BotState.INIT;
 
-        shardManager = DefaultShardManagerBuilder
+        Set<String> policies = new HashSet<>();
+        for (String policy : Main.getInstance().getConfig().getConfiguration().getString("bot.misc.memberCachePolicy", "voice,owner,recent").split(",")) {
+            if (!policy.isBlank()) policies.add(policy.trim().toLowerCase(Locale.ROOT));
+        }
+
+        DefaultShardManagerBuilder builder = DefaultShardManagerBuilder
                 .createDefault(token)
                 .setShardsTotal(shardAmount)
                 .enableIntents(GatewayIntent.GUILD_MESSAGES, GatewayIntent.GUILD_INVITES, GatewayIntent.DIRECT_MESSAGES,
                         GatewayIntent.GUILD_INVITES, GatewayIntent.GUILD_VOICE_STATES, GatewayIntent.MESSAGE_CONTENT,
                         GatewayIntent.GUILD_WEBHOOKS, GatewayIntent.GUILD_MEMBERS, GatewayIntent.GUILD_MODERATION)
-                .setMemberCachePolicy(MemberCachePolicy.ALL)
-                .disableCache(CacheFlag.EMOJI, CacheFlag.ACTIVITY)
-                .build();
+                .setMemberCachePolicy(createMemberCachePolicy(policies))
+                // Only request every Member on startup, if every Member should be cached anyway.
+                .setChunkingFilter(policies.contains("all") ? ChunkingFilter.ALL : ChunkingFilter.NONE)
+                .disableCache(CacheFlag.EMOJI, CacheFlag.ACTIVITY);
+
+        if (ClusterManager.isEnabled()) {
+            // Only run the shards of this node.
+            builder.setShards(ClusterManager.getFirstShard(ClusterManager.getNodeId()), ClusterManager.getLastShard(ClusterManager.getNodeId()));
+        }
+
+        if (policies.contains("online")) {
+            // The online status of Members is only sent with the presence intent.
+            builder.enableIntents(GatewayIntent.GUILD_PRESENCES).enableCache(CacheFlag.ONLINE_STATUS);
+        }
+
+        shardManager = builder.build();
+    }
+
+    /**
+     * Create the {@link MemberCachePolicy} out of the configured policies.
+     * If more than one policy is configured, a Member is cached if any of them wants to cache it.
+     *
+     * @param policies the names of the policies.
+     * @return the {@link MemberCachePolicy}.
+     */
+    private static MemberCachePolicy createMemberCachePolicy(Set<String> policies) {
+        if (policies.contains("all")) return MemberCachePolicy.ALL;
+
+        List<MemberCachePolicy> memberCachePolicies = new ArrayList<>();
+
+        for (String policy : policies) {
+            switch (policy) {
+                case "voice" -> memberCachePolicies.add(MemberCachePolicy.VOICE);
+                case "online" -> memberCachePolicies.add(MemberCachePolicy.ONLINE);
+                case "owner" -> memberCachePolicies.add(MemberCachePolicy.OWNER);
+                case "booster" -> memberCachePolicies.add(MemberCachePolicy.BOOSTER);
+                case "pending" -> memberCachePolicies.add(MemberCachePolicy.PENDING);
+                case "recent" -> { }
+                default -> log.warn("Unknown member cache policy: {}", policy);
+            }
+        }
+
+        MemberCachePolicy keep = memberCachePolicies.isEmpty() ? MemberCachePolicy.NONE :
+                MemberCachePolicy.any(memberCachePolicies.get(0), memberCachePolicies.subList(1, memberCachePolicies.size()).toArray(MemberCachePolicy[]::new));
+
+        if (!policies.contains("recent")) return keep;
+
+        recentMemberCachePolicy = new RecentMemberCachePolicy(Duration.ofMinutes(
+                Main.getInstance().getConfig().getConfiguration().getLong("bot.misc.recentMemberDuration", 30)));
+        recentMemberCachePolicy.start(keep);
+
+        return keep.or(recentMemberCachePolicy);
     }
 
     /**
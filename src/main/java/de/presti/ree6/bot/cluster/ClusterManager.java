@@ -0,0 +1,394 @@
+package de.presti.ree6.bot.cluster;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.Setting;
+import de.presti.ree6.utils.others.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.simpleyaml.configuration.file.YamlFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Utility class used to run the shards of the Bot in multiple processes.
+ * Every node runs an even part of the shards, in the order of the configured nodes.
+ * Jobs that may only run once, e.g. the notifier polls, only run on the leader, which is elected through a lease in the Database.
+ * Nodes reach each other through a {@link ClusterServer}, e.g. to access a channel of a shard that runs on another node.
+ * <p>
+ * If the cluster mode is disabled, this node runs every shard and is always the leader.
+ */
+@Slf4j
+public class ClusterManager {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private ClusterManager() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The Guild ID of the Setting that stores the lease.
+     */
+    private static final String LEASE_GUILD = "0";
+
+    /**
+     * The name of the Setting that stores the lease.
+     */
+    private static final String LEASE_NAME = "cluster_leader";
+
+    /**
+     * The time given to other nodes to write the lease, before checking who got it.
+     */
+    private static final Duration LEASE_SETTLE = Duration.ofSeconds(1);
+
+    /**
+     * The handlers of the messages of other nodes, mapped by their type.
+     */
+    private static final Map<String, Function<JsonObject, JsonObject>> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * The listeners that are called when this node became or stopped being the leader.
+     */
+    private static final List<Consumer<Boolean>> leaderListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The HTTP Client used to reach other nodes.
+     */
+    private static final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    /**
+     * If the cluster mode is enabled.
+     */
+    private static boolean enabled;
+
+    /**
+     * The ID of this node.
+     */
+    private static int nodeId;
+
+    /**
+     * The addresses of every node, the index is the ID of the node.
+     */
+    private static List<String> nodes = List.of();
+
+    /**
+     * The amount of shards over all nodes.
+     */
+    private static int shardsTotal = 1;
+
+    /**
+     * The secret sent with every message.
+     */
+    private static String secret = "";
+
+    /**
+     * The time a lease is valid.
+     */
+    private static Duration leaseDuration = Duration.ofSeconds(30);
+
+    /**
+     * The time in millis until this node holds the lease.
+     */
+    private static volatile long leaderUntil;
+
+    /**
+     * If this node was the leader at the last renewal.
+     */
+    private static boolean wasLeader;
+
+    /**
+     * The server receiving messages of other nodes.
+     */
+    private static ClusterServer clusterServer;
+
+    /**
+     * Load the cluster configuration and, if the cluster mode is enabled, start receiving messages and competing for the lease.
+     *
+     * @param configuration the Configuration.
+     * @param shards        the amount of shards over all nodes.
+     */
+    public static void init(YamlFile configuration, int shards) {
+        shardsTotal = shards;
+        enabled = configuration.getBoolean("cluster.enabled", false);
+        if (!enabled) return;
+
+        // Allows starting every node with the same configuration.
+        nodeId = Integer.getInteger("ree6.cluster.nodeId", configuration.getInt("cluster.nodeId", 0));
+        nodes = List.copyOf(configuration.getStringList("cluster.nodes"));
+        secret = configuration.getString("cluster.secret", "");
+        leaseDuration = Duration.ofSeconds(Math.max(5, configuration.getLong("cluster.leaseDuration", 30)));
+
+        if (nodeId < 0 || nodeId >= nodes.size() || nodes.size() > shardsTotal) {
+            throw new IllegalArgumentException("Invalid cluster configuration, node " + nodeId + " of " + nodes.size() + " nodes with " + shardsTotal + " shards!");
+        }
+
+        String[] address = nodes.get(nodeId).split(":");
+
+        try {
+            clusterServer = new ClusterServer(address[0], Integer.parseInt(address[1]), secret, handlers);
+        } catch (IOException exception) {
+            throw new IllegalStateException("Couldn't start the Cluster Server!", exception);
+        }
+
+        log.info("[Cluster] Running node {} of {} with the shards {} to {} of {}.", nodeId, nodes.size(),
+                getFirstShard(nodeId), getLastShard(nodeId), shardsTotal);
+
+        ThreadUtil.createThread(x -> {
+            try {
+                renewLease();
+            } catch (Exception exception) {
+                log.error("[Cluster] Failed to renew the lease!", exception);
+                setLeader(false);
+            }
+        }, null, leaseDuration.dividedBy(3), true, true);
+    }
+
+    /**
+     * Check if the cluster mode is enabled.
+     *
+     * @return true, if the shards are split over multiple nodes.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Check if this node should run the jobs that may only run once.
+     *
+     * @return true, if this node holds the lease or the cluster mode is disabled.
+     */
+    public static boolean isLeader() {
+        return !enabled || leaderUntil > System.currentTimeMillis();
+    }
+
+    /**
+     * Get the first shard of a node.
+     *
+     * @param node the ID of the node.
+     * @return the ID of the first shard.
+     */
+    public static int getFirstShard(int node) {
+        return enabled ? node * shardsTotal / nodes.size() : 0;
+    }
+
+    /**
+     * Get the last shard of a node.
+     *
+     * @param node the ID of the node.
+     * @return the ID of the last shard.
+     */
+    public static int getLastShard(int node) {
+        return enabled ? (node + 1) * shardsTotal / nodes.size() - 1 : shardsTotal - 1;
+    }
+
+    /**
+     * Get the ID of this node.
+     *
+     * @return the ID of this node.
+     */
+    public static int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Get the node that runs the shard of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the ID of the node.
+     */
+    public static int getNodeOfGuild(long guildId) {
+        if (!enabled) return nodeId;
+
+        int shard = (int) ((guildId >>> 22) % shardsTotal);
+
+        for (int node = 0; node < nodes.size(); node++) {
+            if (shard <= getLastShard(node)) return node;
+        }
+
+        return nodes.size() - 1;
+    }
+
+    /**
+     * Register the handler of a message type.
+     *
+     * @param type    the type of the message.
+     * @param handler the handler, gets the payload and returns the response or null.
+     */
+    public static void registerHandler(String type, Function<JsonObject, JsonObject> handler) {
+        handlers.put(type, handler);
+    }
+
+    /**
+     * Register a listener that is called with true when this node became the leader, and with false when it stopped being the leader.
+     *
+     * @param listener the listener.
+     */
+    public static void addLeaderListener(Consumer<Boolean> listener) {
+        leaderListeners.add(listener);
+    }
+
+    /**
+     * Send a message to a node.
+     *
+     * @param node    the ID of the node.
+     * @param type    the type of the message.
+     * @param payload the payload.
+     * @return a {@link CompletableFuture} with the response of the node.
+     */
+    public static CompletableFuture<JsonObject> send(int node, String type, JsonObject payload) {
+        if (!enabled || node == nodeId) {
+            Function<JsonObject, JsonObject> handler = handlers.get(type);
+            return CompletableFuture.supplyAsync(() -> handler != null ? handler.apply(payload) : null);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://" + nodes.get(node) + "/cluster/" + type))
+                .timeout(Duration.ofSeconds(5))
+                .header("Authorization", secret)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Node " + node + " answered " + type + " with " + response.statusCode());
+            }
+
+            return JsonParser.parseString(response.body()).getAsJsonObject();
+        });
+    }
+
+    /**
+     * Send a message to every other node.
+     *
+     * @param type    the type of the message.
+     * @param payload the payload.
+     * @return a {@link CompletableFuture} with the responses of every node that answered.
+     */
+    public static CompletableFuture<List<JsonObject>> broadcast(String type, JsonObject payload) {
+        if (!enabled) return CompletableFuture.completedFuture(List.of());
+
+        List<CompletableFuture<JsonObject>> futures = new ArrayList<>();
+
+        for (int node = 0; node < nodes.size(); node++) {
+            if (node == nodeId) continue;
+
+            int target = node;
+            futures.add(send(node, type, payload).exceptionally(throwable -> {
+                log.warn("[Cluster] Couldn't send {} to node {}: {}", type, target, throwable.getMessage());
+                return null;
+            }));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignore -> futures.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList());
+    }
+
+    /**
+     * Take or renew the lease, if no other node holds it.
+     * There is no compare-and-set on the Database, so after writing the lease it is read again after a short time,
+     * only the node whose write survived holds the lease.
+     *
+     * @throws InterruptedException if the Thread has been interrupted while waiting for other nodes.
+     */
+    private static void renewLease() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        String[] lease = readLease();
+
+        boolean ownLease = lease != null && Integer.parseInt(lease[0]) == nodeId;
+        boolean freeLease = lease == null || Long.parseLong(lease[1]) < now;
+
+        if (!ownLease && !freeLease) {
+            setLeader(false);
+            return;
+        }
+
+        long expiresAt = now + leaseDuration.toMillis();
+        SQLSession.getSqlConnector().getSqlWorker().setSetting(LEASE_GUILD, LEASE_NAME, "Cluster leader", nodeId + ":" + expiresAt);
+
+        // Someone else might have taken the free lease at the same time.
+        if (!ownLease) {
+            Thread.sleep(LEASE_SETTLE.toMillis());
+
+            lease = readLease();
+            if (lease == null || Integer.parseInt(lease[0]) != nodeId) {
+                setLeader(false);
+                return;
+            }
+        }
+
+        // Stop acting as leader a bit before the lease runs out, in case the next renewal is late.
+        leaderUntil = expiresAt - LEASE_SETTLE.toMillis();
+        setLeader(true);
+    }
+
+    /**
+     * Read the lease from the Database.
+     *
+     * @return the ID of the node and the time in millis the lease expires, or null if there is no lease.
+     */
+    private static String[] readLease() {
+        Setting setting = SQLSession.getSqlConnector().getSqlWorker().getEntity(new Setting(), "SELECT * FROM Settings WHERE GID=:gid AND NAME=:name",
+                Map.of("gid", LEASE_GUILD, "name", LEASE_NAME));
+
+        if (setting == null || setting.getStringValue() == null) return null;
+
+        String[] lease = setting.getStringValue().split(":");
+        return lease.length == 2 ? lease : null;
+    }
+
+    /**
+     * Update the leader state and inform the listeners if it changed.
+     *
+     * @param leader if this node is the leader.
+     */
+    private static synchronized void setLeader(boolean leader) {
+        if (!leader) leaderUntil = 0;
+
+        if (leader == wasLeader) return;
+        wasLeader = leader;
+
+        log.info("[Cluster] Node {} {} the leader.", nodeId, leader ? "is now" : "is no longer");
+        leaderListeners.forEach(listener -> {
+            try {
+                listener.accept(leader);
+            } catch (Exception exception) {
+                log.error("[Cluster] A leader listener failed!", exception);
+            }
+        });
+    }
+
+    /**
+     * Give up the lease and stop receiving messages.
+     */
+    public static void shutdown() {
+        if (!enabled) return;
+
+        if (isLeader()) {
+            // Let another node take over right away, instead of waiting for the lease to expire.
+            SQLSession.getSqlConnector().getSqlWorker().setSetting(LEASE_GUILD, LEASE_NAME, "Cluster leader", nodeId + ":0");
+            leaderUntil = 0;
+        }
+
+        if (clusterServer != null) {
+            clusterServer.stop();
+        }
+    }
+}
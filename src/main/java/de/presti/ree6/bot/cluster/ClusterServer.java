@@ -0,0 +1,90 @@
+package de.presti.ree6.bot.cluster;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * A small HTTP Server that receives the messages of the other nodes of the cluster on /cluster/{type}.
+ */
+@Slf4j
+public class ClusterServer {
+
+    /**
+     * The underlying HTTP Server.
+     */
+    private final HttpServer httpServer;
+
+    /**
+     * Constructor used to create and start the Server.
+     *
+     * @param host     the host to bind to.
+     * @param port     the port to bind to.
+     * @param secret   the secret every request has to send, empty to accept every request.
+     * @param handlers the handlers of the messages, mapped by their type. A handler gets the payload and returns the response or null.
+     * @throws IOException if the Server couldn't be bound.
+     */
+    public ClusterServer(String host, int port, String secret, Map<String, Function<JsonObject, JsonObject>> handlers) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+
+        httpServer.createContext("/cluster/", exchange -> {
+            try (exchange) {
+                if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+
+                if (!secret.isEmpty() && !secret.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                    exchange.sendResponseHeaders(401, -1);
+                    return;
+                }
+
+                String type = exchange.getRequestURI().getPath().substring("/cluster/".length());
+                Function<JsonObject, JsonObject> handler = handlers.get(type);
+
+                if (handler == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+
+                JsonObject payload;
+                try (InputStream inputStream = exchange.getRequestBody()) {
+                    payload = JsonParser.parseString(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+                }
+
+                JsonObject response = handler.apply(payload);
+                byte[] body = (response != null ? response : new JsonObject()).toString().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            } catch (Exception exception) {
+                log.error("[Cluster] Failed to handle a message!", exception);
+            }
+        });
+
+        httpServer.setExecutor(Executors.newFixedThreadPool(4));
+        httpServer.start();
+
+        log.info("[Cluster] Listening for cluster messages on {}:{}", host, port);
+    }
+
+    /**
+     * Stop the Server.
+     */
+    public void stop() {
+        httpServer.stop(0);
+    }
+}
@@ -0,0 +1,137 @@
+package de.presti.ree6.bot.util;
+
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Utility class used to load every Member of a Guild on demand, since not every Member is cached.
+ * Concurrent requests for the same Guild share one chunk request, and the result is reused for a short cooldown,
+ * so that e.g. many joins in a short time don't request every Member again and again.
+ * Joins and leaves during the cooldown are applied to the reused list, so it always matches the Guild.
+ */
+@Slf4j
+public class MemberLoader {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private MemberLoader() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The time the loaded Members of a Guild are reused.
+     */
+    private static final Duration COOLDOWN = Duration.ofMinutes(2);
+
+    /**
+     * The running or recently finished loads, mapped by the ID of the Guild.
+     */
+    private static final Map<Long, Load> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Load every Member of a Guild.
+     *
+     * @param guild the {@link Guild}.
+     * @return a {@link CompletableFuture} with every Member of the Guild.
+     */
+    public static CompletableFuture<List<Member>> load(Guild guild) {
+        long guildId = guild.getIdLong();
+        Load load = loads.get(guildId);
+        if (load != null) return load.members();
+
+        CompletableFuture<List<Member>> created = new CompletableFuture<>();
+        load = loads.putIfAbsent(guildId, new Load(created, created));
+        if (load != null) return load.members();
+
+        guild.loadMembers().onSuccess(members -> {
+            created.complete(Collections.unmodifiableList(members));
+            CompletableFuture.delayedExecutor(COOLDOWN.toMillis(), TimeUnit.MILLISECONDS).execute(() -> remove(guildId, created));
+        }).onError(throwable -> {
+            log.error("[MemberLoader] Failed to load the Members of {} ({})!", guild.getName(), guild.getId(), throwable);
+            remove(guildId, created);
+            created.completeExceptionally(throwable);
+        });
+
+        return created;
+    }
+
+    /**
+     * Add a Member that joined to the loaded Members of its Guild, if they are currently reused.
+     *
+     * @param member the {@link Member} that joined.
+     */
+    public static void memberJoined(Member member) {
+        patch(member.getGuild().getIdLong(), members -> {
+            if (members.stream().noneMatch(loaded -> loaded.getIdLong() == member.getIdLong())) {
+                members.add(member);
+            }
+        });
+    }
+
+    /**
+     * Remove a Member that left from the loaded Members of its Guild, if they are currently reused.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the Member that left.
+     */
+    public static void memberLeft(long guildId, long userId) {
+        patch(guildId, members -> members.removeIf(loaded -> loaded.getIdLong() == userId));
+    }
+
+    /**
+     * Apply a change to the loaded Members of a Guild.
+     * The change is chained onto the current load, so it is also applied to a load that is still running.
+     *
+     * @param guildId the ID of the Guild.
+     * @param change  the change of the Members.
+     */
+    private static void patch(long guildId, Consumer<List<Member>> change) {
+        loads.computeIfPresent(guildId, (key, load) -> new Load(load.origin(), load.members().thenApply(members -> {
+            List<Member> patched = new ArrayList<>(members);
+            change.accept(patched);
+            return Collections.unmodifiableList(patched);
+        })));
+    }
+
+    /**
+     * Remove a load, unless it has been replaced by a newer one already.
+     *
+     * @param guildId the ID of the Guild.
+     * @param origin  the future of the chunk request of the load.
+     */
+    private static void remove(long guildId, CompletableFuture<List<Member>> origin) {
+        loads.computeIfPresent(guildId, (key, load) -> load.origin() == origin ? null : load);
+    }
+
+    /**
+     * Forget the loaded Members of a Guild, e.g. when the Guild has been left.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void invalidate(long guildId) {
+        loads.remove(guildId);
+    }
+
+    /**
+     * A load of the Members of a Guild.
+     *
+     * @param origin  the future of the chunk request, used to identify the load.
+     * @param members the Members of the chunk request, with every join and leave since applied.
+     */
+    private record Load(CompletableFuture<List<Member>> origin, CompletableFuture<List<Member>> members) {
+    }
+}
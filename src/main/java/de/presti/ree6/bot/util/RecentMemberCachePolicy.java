@@ -0,0 +1,173 @@
+package de.presti.ree6.bot.util;
+
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.utils.others.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link MemberCachePolicy} that caches Members that have been active recently.
+ * Sending a message or using an interaction counts as activity, Members that have not been active for the configured
+ * duration are unloaded again, unless another policy wants to keep them.
+ */
+@Slf4j
+public class RecentMemberCachePolicy extends ListenerAdapter implements MemberCachePolicy {
+
+    /**
+     * The interval in which inactive Members are unloaded.
+     */
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * The time in millis a Member has been active the last time, mapped by the ID of the Guild and Member.
+     */
+    private final Map<Key, Long> lastActive = new ConcurrentHashMap<>();
+
+    /**
+     * The time in millis a Member stays cached after being active.
+     */
+    private final long duration;
+
+    /**
+     * Constructor.
+     *
+     * @param duration the time a Member stays cached after being active.
+     */
+    public RecentMemberCachePolicy(Duration duration) {
+        this.duration = duration.toMillis();
+    }
+
+    /**
+     * Start unloading inactive Members.
+     *
+     * @param keep the policy of Members that should stay cached, even if they are inactive.
+     */
+    public void start(MemberCachePolicy keep) {
+        ThreadUtil.createThread(x -> {
+            try {
+                sweep(keep);
+            } catch (Exception exception) {
+                log.error("[MemberCache] Failed to unload inactive Members!", exception);
+            }
+        }, null, SWEEP_INTERVAL, true, false);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean cacheMember(@NotNull Member member) {
+        // JDA asks every time a Member is loaded or updated, and unloads an already cached Member if this returns false.
+        // The event of the first activity is built before the listener sees it, so the Member is cached from the next event on.
+        return isActive(member.getGuild().getIdLong(), member.getIdLong(), System.currentTimeMillis());
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onMessageReceived(@NotNull MessageReceivedEvent event) {
+        if (event.isFromGuild() && event.getMember() != null) {
+            touch(event.getMember());
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onGenericInteractionCreate(@NotNull GenericInteractionCreateEvent event) {
+        if (event.getMember() != null) {
+            touch(event.getMember());
+        }
+    }
+
+    /**
+     * Mark a Member as active.
+     *
+     * @param member the {@link Member}.
+     */
+    void touch(Member member) {
+        touch(member.getGuild().getIdLong(), member.getIdLong(), System.currentTimeMillis());
+    }
+
+    /**
+     * Mark a Member as active.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param memberId the ID of the Member.
+     * @param now      the current time in millis.
+     */
+    void touch(long guildId, long memberId, long now) {
+        lastActive.put(new Key(guildId, memberId), now);
+    }
+
+    /**
+     * Check if a Member has been active within the configured duration.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param memberId the ID of the Member.
+     * @param now      the current time in millis.
+     * @return true, if the Member should stay cached.
+     */
+    boolean isActive(long guildId, long memberId, long now) {
+        Long active = lastActive.get(new Key(guildId, memberId));
+        return active != null && now - active < duration;
+    }
+
+    /**
+     * Get the amount of Members that are currently tracked as active.
+     *
+     * @return the amount of tracked Members.
+     */
+    int getTrackedCount() {
+        return lastActive.size();
+    }
+
+    /**
+     * Unload every Member that has been inactive for too long.
+     *
+     * @param keep the policy of Members that should stay cached.
+     */
+    private void sweep(MemberCachePolicy keep) {
+        if (BotWorker.getShardManager() == null) return;
+
+        long now = System.currentTimeMillis();
+        int unloaded = 0;
+
+        for (Map.Entry<Key, Long> entry : lastActive.entrySet()) {
+            if (now - entry.getValue() < duration || !lastActive.remove(entry.getKey(), entry.getValue())) continue;
+
+            Guild guild = BotWorker.getShardManager().getGuildById(entry.getKey().guildId());
+            if (guild == null) continue;
+
+            Member member = guild.getMemberById(entry.getKey().memberId());
+            if (member == null || (keep != null && keep.cacheMember(member))) continue;
+
+            if (guild.unloadMember(member.getIdLong())) unloaded++;
+        }
+
+        if (unloaded > 0) {
+            log.debug("[MemberCache] Unloaded {} inactive Members.", unloaded);
+        }
+    }
+
+    /**
+     * The key of a Member.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param memberId the ID of the Member.
+     */
+    private record Key(long guildId, long memberId) {
+    }
+}
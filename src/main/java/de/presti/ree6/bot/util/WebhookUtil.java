@@ -1,15 +1,21 @@
 package de.presti.ree6.bot.util;
 
 import club.minnced.discord.webhook.WebhookClient;
+import club.minnced.discord.webhook.receive.ReadonlyMessage;
 import club.minnced.discord.webhook.send.WebhookMessage;
 import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.logger.LoggingProfile;
 import de.presti.ree6.logger.events.LogMessage;
 import de.presti.ree6.sql.SQLSession;
 import de.presti.ree6.sql.entities.webhook.Webhook;
+import de.presti.ree6.utils.metrics.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.Guild;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Class to handle Webhook sends.
@@ -26,6 +32,11 @@ public class WebhookUtil {
         throw new IllegalStateException("Utility class");
     }
 
+    /**
+     * Pattern used to get the HTTP status of a failed Webhook send.
+     */
+    private static final Pattern FAILURE_STATUS = Pattern.compile("failure (\\d{3})");
+
     /**
      * Send a Webhook-message to the wanted Webhook.
      *
@@ -65,8 +76,13 @@ public class WebhookUtil {
 
         // Try sending a Webhook to the given data.
         try (WebhookClient wcl = WebhookClient.withId(webhookId, webhookToken)) {
+            long start = System.nanoTime();
+
             // Send the message and handle exceptions.
-            wcl.send(message).exceptionally(throwable -> {
+            CompletableFuture<ReadonlyMessage> sendFuture = wcl.send(message);
+            sendFuture.whenComplete((readonlyMessage, throwable) ->
+                    Metrics.WEBHOOK_DURATION.observeSince(start, throwable == null ? "200" : getStatus(throwable)));
+            sendFuture.exceptionally(throwable -> {
                 // If the error 404 comes that means that the webhook is invalid.
                 if (throwable.getMessage().contains("failure 404")) {
 
@@ -98,14 +114,32 @@ public class WebhookUtil {
     }
 
     /**
-     * Delete a Webhook entry from the Guild.
+     * Get the HTTP status of a failed Webhook send.
+     *
+     * @param throwable the failure.
+     * @return the HTTP status or "error", if the failure wasn't caused by a response.
+     */
+    private static String getStatus(Throwable throwable) {
+        Matcher matcher = FAILURE_STATUS.matcher(String.valueOf(throwable.getMessage()));
+        return matcher.find() ? matcher.group(1) : "error";
+    }
+
+    /**
+     * Delete a Webhook entry from the Database and the Guild.
      *
      * @param guildId       the ID of the Guild.
      * @param webhookEntity the Webhook entity.
      */
     public static void deleteWebhook(String guildId, Webhook webhookEntity) {
+        if (webhookEntity == null) return;
+
+        SQLSession.getSqlConnector().getSqlWorker().deleteEntity(webhookEntity);
+
+        // Only after the entity has been deleted, otherwise the logging profile could be built again with the deleted Webhook.
+        LoggingProfile.invalidate(guildId);
+
         // Get the Guild from the ID.
-        Guild guild = BotWorker.getShardManager().getGuildById(guildId);
+        Guild guild = BotWorker.getShardManager() != null ? BotWorker.getShardManager().getGuildById(guildId) : null;
 
         if (guild != null) {
             // Delete the existing Webhook.
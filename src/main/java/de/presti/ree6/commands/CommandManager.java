@@ -10,6 +10,7 @@ import de.presti.ree6.sql.SQLSession;
 import de.presti.ree6.sql.entities.custom.CustomCommand;
 import de.presti.ree6.utils.data.ArrayUtil;
 import de.presti.ree6.utils.data.Data;
+import de.presti.ree6.utils.metrics.Metrics;
 import de.presti.ree6.utils.others.ThreadUtil;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -324,7 +325,7 @@ public class CommandManager {
             if (slashCommandInteractionEvent != null) {
                 sendMessage(LanguageService.getByGuild(guild, "command.perform.cooldown"), 5, textChannel, slashCommandInteractionEvent.getHook().setEphemeral(true));
                 deleteMessage(message, slashCommandInteractionEvent.getHook().setEphemeral(true));
-            } else if (messageContent.toLowerCase().startsWith(SQLSession.getSqlConnector().getSqlWorker().getSetting(guild.getId(), "chatprefix").getStringValue().toLowerCase())) {
+            } else if (messageContent.toLowerCase().startsWith(Metrics.timeSql("getSetting", () -> SQLSession.getSqlConnector().getSqlWorker().getSetting(guild.getId(), "chatprefix")).getStringValue().toLowerCase())) {
                 sendMessage(LanguageService.getByGuild(guild, "command.perform.cooldown"), 5, textChannel, null);
                 deleteMessage(message, null);
             }
@@ -377,7 +378,7 @@ public class CommandManager {
             return false;
         }
 
-        String currentPrefix = SQLSession.getSqlConnector().getSqlWorker().getSetting(guild.getId(), "chatprefix").getStringValue().toLowerCase();
+        String currentPrefix = Metrics.timeSql("getSetting", () -> SQLSession.getSqlConnector().getSqlWorker().getSetting(guild.getId(), "chatprefix")).getStringValue().toLowerCase();
 
         // Check if the message starts with the prefix.
         if (!messageContent.toLowerCase().startsWith(currentPrefix))
@@ -399,7 +400,7 @@ public class CommandManager {
 
         // Check if there is even a Command with that name.
         if (command == null && Data.isModuleActive("customcommands")) {
-            CustomCommand customCommand = SQLSession.getSqlConnector().getSqlWorker().getEntity(new CustomCommand(), "SELECT * FROM CustomCommand WHERE GID=:gid AND COMMAND=:command", Map.of("gid", guild.getId(), "command", arguments[0].toLowerCase()));
+            CustomCommand customCommand = Metrics.timeSql("getEntity", () -> SQLSession.getSqlConnector().getSqlWorker().getEntity(new CustomCommand(), "SELECT * FROM CustomCommand WHERE GID=:gid AND COMMAND=:command", Map.of("gid", guild.getId(), "command", arguments[0].toLowerCase())));
             if (customCommand != null) {
                 MessageChannelUnion messageChannelUnion = textChannel;
 
@@ -428,7 +429,7 @@ public class CommandManager {
         }
 
         // Check if the Command is blacklisted.
-        if (!SQLSession.getSqlConnector().getSqlWorker().getSetting(guild.getId(), "command_" + command.getClass().getAnnotation(Command.class).name().toLowerCase()).getBooleanValue() &&
+        if (!Metrics.timeSql("getSetting", () -> SQLSession.getSqlConnector().getSqlWorker().getSetting(guild.getId(), "command_" + command.getClass().getAnnotation(Command.class).name().toLowerCase())).getBooleanValue() &&
                 command.getClass().getAnnotation(Command.class).category() != Category.HIDDEN) {
             sendMessage(LanguageService.getByGuild(guild, "command.perform.blocked"), 5, textChannel, null);
             return false;
@@ -461,7 +462,7 @@ public class CommandManager {
         }
 
         // Check if the command is blocked or not.
-        if (!SQLSession.getSqlConnector().getSqlWorker().getSetting(slashCommandInteractionEvent.getGuild().getId(), "command_" + command.getClass().getAnnotation(Command.class).name().toLowerCase()).getBooleanValue() && command.getClass().getAnnotation(Command.class).category() != Category.HIDDEN) {
+        if (!Metrics.timeSql("getSetting", () -> SQLSession.getSqlConnector().getSqlWorker().getSetting(slashCommandInteractionEvent.getGuild().getId(), "command_" + command.getClass().getAnnotation(Command.class).name().toLowerCase())).getBooleanValue() && command.getClass().getAnnotation(Command.class).category() != Category.HIDDEN) {
             sendMessage(LanguageService.getByGuild(slashCommandInteractionEvent.getGuild(), "command.perform.blocked"), 5, null, slashCommandInteractionEvent.getHook().setEphemeral(true));
             return false;
         }
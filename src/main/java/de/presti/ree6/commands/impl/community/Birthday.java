@@ -6,6 +6,7 @@ import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.utils.others.BirthdayHandler;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
@@ -40,6 +41,7 @@ public class Birthday implements ICommand {
             case "remove" -> {
                 if (userMapping == null) {
                     SQLSession.getSqlConnector().getSqlWorker().removeBirthday(commandEvent.getGuild().getId(), commandEvent.getMember().getId());
+                    BirthdayHandler.remove(commandEvent.getGuild().getId(), commandEvent.getMember().getId());
                     commandEvent.reply(commandEvent.getResource("message.birthday.removed.self"), 5);
                 } else {
                     Member member = userMapping.getAsMember();
@@ -50,6 +52,7 @@ public class Birthday implements ICommand {
                         }
 
                         SQLSession.getSqlConnector().getSqlWorker().removeBirthday(commandEvent.getGuild().getId(), member.getId());
+                        BirthdayHandler.remove(commandEvent.getGuild().getId(), member.getId());
                         commandEvent.reply(commandEvent.getResource("message.birthday.removed.other", member.getAsMention()), 5);
                     } else {
                         commandEvent.reply(commandEvent.getResource("message.birthday.removed.noPerms"), 5);
@@ -62,6 +65,7 @@ public class Birthday implements ICommand {
                 if (userMapping == null) {
                     if (GenericValidator.isDate(date, "dd.MM.yyyy", true)) {
                         SQLSession.getSqlConnector().getSqlWorker().addBirthday(commandEvent.getGuild().getId(), commandEvent.getChannel().getId(), commandEvent.getMember().getId(), date);
+                        BirthdayHandler.add(commandEvent.getGuild().getId(), commandEvent.getChannel().getId(), commandEvent.getMember().getId(), date);
                         commandEvent.reply(commandEvent.getResource("message.birthday.added.self"), 5);
                     } else {
                         commandEvent.reply(commandEvent.getResource("message.default.dateError.date"), 5);
@@ -74,6 +78,7 @@ public class Birthday implements ICommand {
                                 commandEvent.reply(commandEvent.getResource("message.default.noMention.user"), 5);
                             } else {
                                 SQLSession.getSqlConnector().getSqlWorker().addBirthday(commandEvent.getGuild().getId(), commandEvent.getChannel().getId(), member.getId(), date);
+                                BirthdayHandler.add(commandEvent.getGuild().getId(), commandEvent.getChannel().getId(), member.getId(), date);
                                 commandEvent.reply(commandEvent.getResource("message.birthday.added.other", member.getAsMention()), 5);
                             }
                         } else {
@@ -8,6 +8,7 @@ import de.presti.ree6.sql.SQLSession;
 import de.presti.ree6.sql.entities.ScheduledMessage;
 import de.presti.ree6.sql.entities.webhook.WebhookScheduledMessage;
 import de.presti.ree6.utils.data.Data;
+import de.presti.ree6.utils.others.ScheduledMessageHandler;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Webhook;
 import net.dv8tion.jda.api.entities.channel.unions.GuildChannelUnion;
@@ -78,7 +79,7 @@ public class Schedule implements ICommand {
                                 Map.of("gid", commandEvent.getGuild().getIdLong(), "id", id.getAsLong()));
 
                 if (scheduledMessage != null) {
-                    SQLSession.getSqlConnector().getSqlWorker().deleteEntity(scheduledMessage);
+                    ScheduledMessageHandler.unschedule(scheduledMessage);
                     commandEvent.reply(commandEvent.getResource("message.schedule.delete.success"));
                 } else {
                     commandEvent.reply(commandEvent.getResource("message.schedule.delete.failed"));
@@ -92,6 +93,7 @@ public class Schedule implements ICommand {
                 OptionMapping minute = commandEvent.getOption("minute");
                 OptionMapping channel = commandEvent.getOption("channel");
                 OptionMapping repeat = commandEvent.getOption("repeat");
+                OptionMapping message = commandEvent.getOption("message");
 
                 long fullTime = 0;
                 if (month != null) fullTime += Duration.ofDays(31 * month.getAsLong()).toMillis();
@@ -123,6 +125,10 @@ public class Schedule implements ICommand {
                 scheduledMessage.setScheduledMessageWebhook(webhookScheduledMessage);
                 scheduledMessage.setDelayAmount(fullTime);
                 scheduledMessage.setRepeated(repeat.getAsBoolean());
+                scheduledMessage.setMessage(message.getAsString());
+                scheduledMessage = SQLSession.getSqlConnector().getSqlWorker().updateEntity(scheduledMessage);
+
+                ScheduledMessageHandler.schedule(scheduledMessage);
                 commandEvent.reply(commandEvent.getResource("message.schedule.added"));
             }
 
@@ -139,6 +145,7 @@ public class Schedule implements ICommand {
                 .addSubcommands(new SubcommandData("create", "Create a new scheduled Message.")
                         .addOption(OptionType.CHANNEL, "channel", "The channel it should be sent to.", true)
                         .addOption(OptionType.BOOLEAN, "repeat", "If the schedule should be repeated.", true)
+                        .addOption(OptionType.STRING, "message", "The message that should be sent.", true)
                                 .addOption(OptionType.INTEGER, "month", "The months of the delay.", false)
                                 .addOption(OptionType.INTEGER, "day", "The days of the delay.", false)
                                 .addOption(OptionType.INTEGER, "hour", "The hours of the delay.", false)
@@ -1,7 +1,5 @@
 package de.presti.ree6.commands.impl.fun;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
@@ -9,18 +7,17 @@ import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.apis.SearchAPI;
 import de.presti.ree6.utils.data.Data;
-import de.presti.ree6.utils.external.RequestUtility;
+import de.presti.ree6.utils.external.SearchResultCache;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import net.dv8tion.jda.internal.interactions.CommandDataImpl;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-
 /**
  * A command used to search for animes!
  */
@@ -32,10 +29,6 @@ public class Anime implements ICommand {
      */
     @Override
     public void onPerform(CommandEvent commandEvent) {
-        Message message = commandEvent.isSlashCommand() ?
-                commandEvent.getInteractionHook().sendMessage(commandEvent.getResource("message.anime.searching")).complete() :
-                commandEvent.getChannel().sendMessage(commandEvent.getResource("message.anime.searching")).complete();
-
         String[] args = commandEvent.getArguments();
 
         if (commandEvent.isSlashCommand()) {
@@ -52,34 +45,33 @@ public class Anime implements ICommand {
         if (builder.toString().endsWith(" "))
             builder = new StringBuilder(builder.substring(0, builder.length() - 1));
 
+        int index = 0;
+
+        OptionMapping resultMapping = commandEvent.getOption("result");
+        if (resultMapping != null)
+            index = Math.max(0, resultMapping.getAsInt() - 1);
+
         if (args.length > 0) {
-            sendAnime(commandEvent, message, builder.toString());
+            // Slash commands have already been deferred, so only text commands need a sign of life.
+            if (!commandEvent.isSlashCommand()) commandEvent.getChannel().sendTyping().queue();
+            sendAnime(commandEvent, builder.toString(), index);
         } else {
-            message.editMessage(commandEvent.getResource("message.default.invalidQuery")).queue();
+            commandEvent.reply(commandEvent.getResource("message.default.invalidQuery"));
         }
     }
 
     /**
      * Send the anime to the channel.
+     * The search results are shared by every query with the same normalized text, further pages will only be loaded
+     * once someone asks for a result that has not been loaded yet.
      * @param commandEvent the CommandEvent.
-     * @param message the Message.
      * @param query the query.
+     * @param index the position of the search result.
      */
-    public void sendAnime(CommandEvent commandEvent, Message message, String query) {
-        RequestUtility.Request request = RequestUtility.Request.builder()
-                .url("https://kitsu.io/api/edge/anime?filter[text]=" + URLEncoder.encode(query, StandardCharsets.UTF_8))
-                .build();
-        JsonElement jsonElement = RequestUtility.requestJson(request);
-
-        if (jsonElement != null &&
-                jsonElement.isJsonObject() &&
-                jsonElement.getAsJsonObject().has("data") &&
-                jsonElement.getAsJsonObject().get("data").isJsonArray()) {
-            JsonArray dataArray = jsonElement.getAsJsonObject().getAsJsonArray("data");
-
-            JsonObject data = !dataArray.isEmpty() && dataArray.get(0).isJsonObject() ?
-                    dataArray.get(0).getAsJsonObject() : new JsonObject();
+    public void sendAnime(CommandEvent commandEvent, String query, int index) {
+        JsonObject data = SearchResultCache.get(SearchAPI.KITSU_ANIME, query, index).join();
 
+        if (data != null) {
             JsonObject attributes = data.has("attributes") && data.get("attributes").isJsonObject()
                     ? data.getAsJsonObject("attributes") : new JsonObject();
 
@@ -142,13 +134,13 @@ public class Anime implements ICommand {
             em.setFooter(commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
 
             if (commandEvent.isSlashCommand()) {
-                message.editMessage(commandEvent.getResource("message.anime.found")).queue();
+                commandEvent.reply(commandEvent.getResource("message.anime.found"));
                 Main.getInstance().getCommandManager().sendMessage(em, commandEvent.getChannel(), null);
             } else {
-                message.editMessageEmbeds(em.build()).queue(message1 -> message1.editMessage(commandEvent.getResource("message.anime.found")).queue());
+                commandEvent.reply(new MessageCreateBuilder().setContent(commandEvent.getResource("message.anime.found")).setEmbeds(em.build()).build());
             }
         } else {
-            message.editMessage(commandEvent.getResource("message.anime.error")).queue();
+            commandEvent.reply(commandEvent.getResource("message.anime.error"));
         }
     }
 
@@ -158,7 +150,9 @@ public class Anime implements ICommand {
     @Override
     public CommandData getCommandData() {
         return new CommandDataImpl("anime", LanguageService.getDefault("command.description.anime"))
-                .addOption(OptionType.STRING, "search", "The search query to search for.", true);
+                .addOption(OptionType.STRING, "search", "The search query to search for.", true)
+                .addOptions(new OptionData(OptionType.INTEGER, "result", "The position of the search result to show.", false)
+                        .setMinValue(1).setMaxValue(SearchResultCache.MAX_RESULTS));
     }
 
     /**
@@ -1,13 +1,12 @@
 package de.presti.ree6.commands.impl.fun;
 
-import com.google.gson.JsonArray;
 import de.presti.ree6.bot.BotWorker;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
+import de.presti.ree6.utils.apis.MediaAPI;
 import de.presti.ree6.utils.data.Data;
-import de.presti.ree6.utils.external.RequestUtility;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 
@@ -23,13 +22,19 @@ public class CatImage implements ICommand {
     @Override
     public void onPerform(CommandEvent commandEvent) {
 
-        JsonArray js = RequestUtility.requestJson(RequestUtility.Request.builder().url("https://api.thecatapi.com/v1/images/search").build()).getAsJsonArray();
+        String url = MediaAPI.CAT.poll();
 
         EmbedBuilder em = new EmbedBuilder();
 
         em.setTitle(commandEvent.getResource("label.randomCatImage"));
         em.setColor(BotWorker.randomEmbedColor());
-        em.setImage(js.get(0).getAsJsonObject().get("url").getAsString());
+
+        if (url != null) {
+            em.setImage(url);
+        } else {
+            em.setDescription(commandEvent.getResource("message.default.retrievalError"));
+        }
+
         em.setFooter("Requested by " + commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
 
         commandEvent.reply(em.build());
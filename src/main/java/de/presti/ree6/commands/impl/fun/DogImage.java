@@ -1,13 +1,12 @@
 package de.presti.ree6.commands.impl.fun;
 
-import com.google.gson.JsonObject;
 import de.presti.ree6.bot.BotWorker;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
+import de.presti.ree6.utils.apis.MediaAPI;
 import de.presti.ree6.utils.data.Data;
-import de.presti.ree6.utils.external.RequestUtility;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 
@@ -22,13 +21,19 @@ public class DogImage implements ICommand {
      */
     @Override
     public void onPerform(CommandEvent commandEvent) {
-        JsonObject js = RequestUtility.requestJson(RequestUtility.Request.builder().url("https://dog.ceo/api/breeds/image/random").build()).getAsJsonObject();
+        String url = MediaAPI.DOG.poll();
 
         EmbedBuilder em = new EmbedBuilder();
 
         em.setTitle(commandEvent.getResource("label.randomDogImage"));
         em.setColor(BotWorker.randomEmbedColor());
-        em.setImage(js.get("message").getAsString());
+
+        if (url != null) {
+            em.setImage(url);
+        } else {
+            em.setDescription(commandEvent.getResource("message.default.retrievalError"));
+        }
+
         em.setFooter("Requested by " + commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
 
         commandEvent.reply(em.build());
@@ -1,11 +1,10 @@
 package de.presti.ree6.commands.impl.fun;
 
-import com.google.gson.JsonObject;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
-import de.presti.ree6.utils.external.RequestUtility;
+import de.presti.ree6.utils.apis.MediaAPI;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 
 /**
@@ -19,9 +18,9 @@ public class FunFact implements ICommand {
      */
     @Override
     public void onPerform(CommandEvent commandEvent) {
-        JsonObject js = RequestUtility.requestJson(RequestUtility.Request.builder().url("https://useless-facts.sameerkumar.website/api").build()).getAsJsonObject();
+        String fact = MediaAPI.FUN_FACT.poll();
 
-        commandEvent.reply(js.get("data").getAsString());
+        commandEvent.reply(fact != null ? fact : commandEvent.getResource("message.default.retrievalError"));
     }
 
     /**
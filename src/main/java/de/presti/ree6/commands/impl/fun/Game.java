@@ -6,6 +6,7 @@ import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.game.core.GameManager;
 import de.presti.ree6.game.core.GameSession;
+import de.presti.ree6.game.core.GameSessionException;
 import de.presti.ree6.game.core.base.GameInfo;
 import de.presti.ree6.game.core.base.GamePlayer;
 import de.presti.ree6.game.core.base.GameState;
@@ -51,7 +52,7 @@ public class Game implements ICommand {
                     return;
                 }
 
-                if (GameManager.getGames().stream().noneMatch(c -> c.getName().equalsIgnoreCase(value.getAsString().trim()))) {
+                if (!GameManager.getGameCache().containsKey(value.getAsString().trim().toLowerCase())) {
                     StringBuilder stringBuilder = new StringBuilder();
                     stringBuilder.append(commandEvent.getResource("message.game.availableGames")).append("```");
                     GameManager.getGameCache().forEach((entry, entryValue) -> stringBuilder.append("\n").append(entry).append("- ").append(LanguageService.getByEvent(commandEvent,entryValue.getAnnotation(GameInfo.class).description())));
@@ -66,8 +67,21 @@ public class Game implements ICommand {
                 GamePlayer gamePlayer = new GamePlayer(commandEvent.getMember().getUser());
                 gamePlayer.setInteractionHook(commandEvent.getInteractionHook());
 
-                GameManager.createGameSession(GameManager.generateInvite(), value.getAsString(), commandEvent.getMember(),
-                        commandEvent.getChannel(), participants).getGame().joinGame(gamePlayer);
+                GameSession gameSession;
+
+                try {
+                    gameSession = GameManager.createGameSession(value.getAsString(), commandEvent.getMember(),
+                            commandEvent.getChannel(), participants);
+                } catch (GameSessionException exception) {
+                    commandEvent.reply(commandEvent.getResource(switch (exception.getReason()) {
+                        case UNKNOWN_GAME -> "message.game.unknownGame";
+                        case LIMIT_REACHED -> "message.game.limitReached";
+                        case FAILED -> "message.game.createFailed";
+                    }));
+                    return;
+                }
+
+                gameSession.getGame().joinGame(gamePlayer);
             }
             case "join" -> {
 
@@ -87,6 +101,7 @@ public class Game implements ICommand {
                     return;
                 }
 
+                gameSession.touch();
                 gameSession.getParticipants().add(commandEvent.getMember().getUser());
                 GamePlayer gamePlayer = new GamePlayer(commandEvent.getMember().getUser());
                 gamePlayer.setInteractionHook(commandEvent.getInteractionHook());
@@ -6,15 +6,13 @@ import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.main.Main;
-import de.presti.ree6.utils.apis.Neko4JsAPI;
+import de.presti.ree6.utils.apis.MediaAPI;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.internal.interactions.CommandDataImpl;
-import pw.aru.api.nekos4j.image.Image;
-import pw.aru.api.nekos4j.image.ImageProvider;
 
 /**
  * A command to send someone a kiss.
@@ -74,15 +72,9 @@ public class Kiss implements ICommand {
     public void sendKiss(Member member, CommandEvent commandEvent) {
         Main.getInstance().getCommandManager().sendMessage(commandEvent.getResource("message.kiss", member.getAsMention(), commandEvent.getMember().getAsMention()), commandEvent.getChannel(), null);
 
-        ImageProvider ip = Neko4JsAPI.imageAPI.getImageProvider();
+        String url = MediaAPI.getNeko("kiss").poll();
 
-        Image im = null;
-        try {
-            im = ip.getRandomImage("kiss").execute();
-        } catch (Exception ignored) {
-        }
-
-        Main.getInstance().getCommandManager().sendMessage((im != null ? im.getUrl() : "https://images.ree6.de/notfound.png"), commandEvent.getChannel(), null);
+        Main.getInstance().getCommandManager().sendMessage((url != null ? url : "https://images.ree6.de/notfound.png"), commandEvent.getChannel(), null);
         if (commandEvent.isSlashCommand()) commandEvent.getInteractionHook().sendMessage(commandEvent.getResource("message.default.checkBelow")).queue();
     }
 }
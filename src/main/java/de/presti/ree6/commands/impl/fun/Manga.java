@@ -1,6 +1,5 @@
 package de.presti.ree6.commands.impl.fun;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import de.presti.ree6.commands.Category;
@@ -9,18 +8,18 @@ import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.apis.SearchAPI;
 import de.presti.ree6.utils.data.Data;
+import de.presti.ree6.utils.external.SearchResultCache;
 import de.presti.ree6.utils.external.RequestUtility;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import net.dv8tion.jda.internal.interactions.CommandDataImpl;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-
 /**
  * A command used to search for mangas!
  */
@@ -32,10 +31,6 @@ public class Manga implements ICommand {
      */
     @Override
     public void onPerform(CommandEvent commandEvent) {
-        Message message = commandEvent.isSlashCommand() ?
-                commandEvent.getInteractionHook().sendMessage(commandEvent.getResource("message.manga.searching")).complete() :
-                commandEvent.getChannel().sendMessage(commandEvent.getResource("message.manga.searching")).complete();
-
         String[] args = commandEvent.getArguments();
 
         if (commandEvent.isSlashCommand()) {
@@ -52,34 +47,33 @@ public class Manga implements ICommand {
         if (builder.toString().endsWith(" "))
             builder = new StringBuilder(builder.substring(0, builder.length() - 1));
 
+        int index = 0;
+
+        OptionMapping resultMapping = commandEvent.getOption("result");
+        if (resultMapping != null)
+            index = Math.max(0, resultMapping.getAsInt() - 1);
+
         if (args.length > 0) {
-            sendManga(commandEvent, message, builder.toString());
+            // Slash commands have already been deferred, so only text commands need a sign of life.
+            if (!commandEvent.isSlashCommand()) commandEvent.getChannel().sendTyping().queue();
+            sendManga(commandEvent, builder.toString(), index);
         } else {
-            message.editMessage(commandEvent.getResource("message.default.invalidQuery")).queue();
+            commandEvent.reply(commandEvent.getResource("message.default.invalidQuery"));
         }
     }
 
     /**
-     * Send the anime to the channel.
+     * Send the manga to the channel.
+     * The search results are shared by every query with the same normalized text, further pages will only be loaded
+     * once someone asks for a result that has not been loaded yet.
      * @param commandEvent the CommandEvent.
-     * @param message the Message.
      * @param query the query.
+     * @param index the position of the search result.
      */
-    public void sendManga(CommandEvent commandEvent, Message message, String query) {
-        RequestUtility.Request request = RequestUtility.Request.builder()
-                .url("https://kitsu.io/api/edge/manga?filter[text]=" + URLEncoder.encode(query, StandardCharsets.UTF_8))
-                .build();
-        JsonElement jsonElement = RequestUtility.requestJson(request);
-
-        if (jsonElement != null &&
-                jsonElement.isJsonObject() &&
-                jsonElement.getAsJsonObject().has("data") &&
-                jsonElement.getAsJsonObject().get("data").isJsonArray()) {
-            JsonArray dataArray = jsonElement.getAsJsonObject().getAsJsonArray("data");
-
-            JsonObject data = !dataArray.isEmpty() && dataArray.get(0).isJsonObject() ?
-                    dataArray.get(0).getAsJsonObject() : new JsonObject();
+    public void sendManga(CommandEvent commandEvent, String query, int index) {
+        JsonObject data = SearchResultCache.get(SearchAPI.KITSU_MANGA, query, index).join();
 
+        if (data != null) {
             JsonObject attributes = data.has("attributes") && data.get("attributes").isJsonObject()
                     ? data.getAsJsonObject("attributes") : new JsonObject();
 
@@ -142,13 +136,13 @@ public class Manga implements ICommand {
             em.setFooter(commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
 
             if (commandEvent.isSlashCommand()) {
-                message.editMessage(commandEvent.getResource("message.manga.found")).queue();
+                commandEvent.reply(commandEvent.getResource("message.manga.found"));
                 Main.getInstance().getCommandManager().sendMessage(em, commandEvent.getChannel(), null);
             } else {
-                message.editMessageEmbeds(em.build()).queue(message1 -> message1.editMessage(commandEvent.getResource("message.manga.found")).queue());
+                commandEvent.reply(new MessageCreateBuilder().setContent(commandEvent.getResource("message.manga.found")).setEmbeds(em.build()).build());
             }
         } else {
-            message.editMessage(commandEvent.getResource("message.manga.error")).queue();
+            commandEvent.reply(commandEvent.getResource("message.manga.error"));
         }
     }
 
@@ -158,6 +152,22 @@ public class Manga implements ICommand {
      * @return the genres.
      */
     public String tryResolvingGenres(JsonObject data) {
+        // The data is shared through the search cache, so remember the genres for the next time.
+        synchronized (data) {
+            if (!data.has("resolvedGenres")) {
+                data.addProperty("resolvedGenres", requestGenres(data));
+            }
+
+            return data.get("resolvedGenres").getAsString();
+        }
+    }
+
+    /**
+     * Request the genres from the related genre link.
+     * @param data the data.
+     * @return the genres.
+     */
+    private String requestGenres(JsonObject data) {
         if (data.has("relationships") &&
                 data.get("relationships").isJsonObject() &&
                 data.getAsJsonObject("relationships").has("genres")) {
@@ -204,7 +214,9 @@ public class Manga implements ICommand {
     @Override
     public CommandData getCommandData() {
         return new CommandDataImpl("manga", LanguageService.getDefault("command.description.manga"))
-                .addOption(OptionType.STRING, "search", "The search query to search for.", true);
+                .addOption(OptionType.STRING, "search", "The search query to search for.", true)
+                .addOptions(new OptionData(OptionType.INTEGER, "result", "The position of the search result to show.", false)
+                        .setMinValue(1).setMaxValue(SearchResultCache.MAX_RESULTS));
     }
 
     /**
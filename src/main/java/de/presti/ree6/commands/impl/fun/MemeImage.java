@@ -6,11 +6,13 @@ import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
+import de.presti.ree6.utils.apis.MediaAPI;
 import de.presti.ree6.utils.data.Data;
-import de.presti.ree6.utils.external.RequestUtility;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 
+import java.util.Objects;
+
 /**
  * A command to get random memes.
  */
@@ -23,7 +25,7 @@ public class MemeImage implements ICommand {
     @Override
     public void onPerform(CommandEvent commandEvent) {
 
-        JsonObject js = RequestUtility.requestJson(RequestUtility.Request.builder().url("https://meme-api.herokuapp.com/gimme").build()).getAsJsonObject();
+        JsonObject js = Objects.requireNonNullElseGet(MediaAPI.MEME.poll(), JsonObject::new);
 
         EmbedBuilder em = new EmbedBuilder();
 
@@ -5,13 +5,13 @@ import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
-import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.apis.MediaAPI;
 import de.presti.ree6.utils.data.Data;
-import de.presti.ree6.utils.external.RequestUtility;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 
 import java.awt.*;
+import java.util.Objects;
 
 /**
  * A command to give you a random pickup line
@@ -25,8 +25,7 @@ public class PickUpLine implements ICommand {
      */
     @Override
     public void onPerform(CommandEvent commandEvent) {
-        JsonObject jsonObject = RequestUtility.requestJson(RequestUtility.Request.builder().url("https://api.dagpi.xyz/data/pickupline")
-                .bearerAuth(Main.getInstance().getConfig().getConfiguration().getString("dagpi.apitoken")).build()).getAsJsonObject();
+        JsonObject jsonObject = Objects.requireNonNullElseGet(MediaAPI.PICKUP_LINE.poll(), JsonObject::new);
 
         EmbedBuilder em = new EmbedBuilder();
 
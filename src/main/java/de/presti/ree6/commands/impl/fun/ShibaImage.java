@@ -1,14 +1,13 @@
 package de.presti.ree6.commands.impl.fun;
 
-import com.google.gson.JsonArray;
 import de.presti.ree6.bot.BotWorker;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.apis.MediaAPI;
 import de.presti.ree6.utils.data.Data;
-import de.presti.ree6.utils.external.RequestUtility;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 
@@ -23,13 +22,19 @@ public class ShibaImage implements ICommand {
      */
     @Override
     public void onPerform(CommandEvent commandEvent) {
-        JsonArray js = RequestUtility.requestJson(RequestUtility.Request.builder().url("https://shibe.online/api/shibes?count=1&urls=true&httpsUrls=true").build()).getAsJsonArray();
+        String url = MediaAPI.SHIBA.poll();
 
         EmbedBuilder em = new EmbedBuilder();
 
         em.setTitle(commandEvent.getResource("label.randomShibaImage"));
         em.setColor(BotWorker.randomEmbedColor());
-        em.setImage(js.get(0).getAsString());
+
+        if (url != null) {
+            em.setImage(url);
+        } else {
+            em.setDescription(commandEvent.getResource("message.default.retrievalError"));
+        }
+
         em.setFooter("Requested by " + commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
 
         Main.getInstance().getCommandManager().sendMessage(em, commandEvent.getChannel(), commandEvent.getInteractionHook());
@@ -7,7 +7,7 @@ import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.main.Main;
 import de.presti.ree6.utils.data.Data;
-import io.sentry.Sentry;
+import de.presti.ree6.utils.others.SentryReporter;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
@@ -69,7 +69,7 @@ public class Addon implements ICommand {
                     Main.getInstance().getAddonManager().startAddon(addon);
                 } catch (Exception exception) {
                     commandEvent.reply("Couldn't load the addon called " + addonName, 5);
-                    Sentry.captureException(exception);
+                    SentryReporter.captureException(exception);
                 }
             }
 
@@ -0,0 +1,49 @@
+package de.presti.ree6.commands.impl.hidden;
+
+import de.presti.ree6.commands.Category;
+import de.presti.ree6.commands.CommandEvent;
+import de.presti.ree6.commands.interfaces.Command;
+import de.presti.ree6.commands.interfaces.ICommand;
+import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.data.Data;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+
+/**
+ * A command to reload the Configuration without restarting.
+ */
+@Command(name = "reload", description = "command.description.reload", category = Category.HIDDEN)
+public class Reload implements ICommand {
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onPerform(CommandEvent commandEvent) {
+        if (!commandEvent.getMember().getUser().getId().equalsIgnoreCase(Data.getBotOwner())) {
+            commandEvent.reply(commandEvent.getResource("message.default.insufficientPermission", "BE DEVELOPER"), 5);
+            return;
+        }
+
+        if (Main.getInstance().getConfig().reload()) {
+            commandEvent.reply(commandEvent.getResource("message.reload.success"));
+        } else {
+            commandEvent.reply(commandEvent.getResource("message.reload.failed"));
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public CommandData getCommandData() {
+        return null;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String[] getAlias() {
+        return new String[0];
+    }
+}
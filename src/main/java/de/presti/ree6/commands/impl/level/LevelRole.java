@@ -6,6 +6,7 @@ import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.utils.others.AutoRoleHandler;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
@@ -62,6 +63,7 @@ public class LevelRole implements ICommand {
                 } else {
                     SQLSession.getSqlConnector().getSqlWorker().addChatLevelReward(commandEvent.getGuild().getId(), role.getId(), level);
                 }
+                AutoRoleHandler.invalidate(commandEvent.getGuild().getId());
                 commandEvent.reply(commandEvent.getResource("message.levelRole.added", role.getName(), level));
             }
             case "remove" -> {
@@ -73,6 +75,7 @@ public class LevelRole implements ICommand {
                 } else {
                     SQLSession.getSqlConnector().getSqlWorker().removeChatLevelReward(commandEvent.getGuild().getId(), role.getId(), level);
                 }
+                AutoRoleHandler.invalidate(commandEvent.getGuild().getId());
                 commandEvent.reply(commandEvent.getResource("message.levelRole.removed", role.getName(), level));
             }
             case "list" -> {
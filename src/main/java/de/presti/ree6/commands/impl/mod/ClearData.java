@@ -33,6 +33,7 @@ public class ClearData implements ICommand {
         if (commandEvent.getMember().hasPermission(Permission.ADMINISTRATOR)) {
             if (!timeout.contains(commandEvent.getGuild().getId())) {
                 SQLSession.getSqlConnector().getSqlWorker().clearInvites(commandEvent.getGuild().getId());
+                InviteContainerManager.clearSnapshot(commandEvent.getGuild().getId());
                 if (commandEvent.getGuild().getSelfMember().hasPermission(Permission.MANAGE_SERVER))
                     commandEvent.getGuild().retrieveInvites().queue(invites -> invites.stream().filter(invite -> invite.getInviter() != null).forEach(invite -> SQLSession.getSqlConnector().getSqlWorker().setInvite(commandEvent.getGuild().getId(), invite.getInviter().getId(), invite.getCode(), invite.getUses())));
 
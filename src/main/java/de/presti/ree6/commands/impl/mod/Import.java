@@ -1,26 +1,22 @@
 package de.presti.ree6.commands.impl.mod;
 
-import com.google.gson.JsonElement;
-import de.presti.amari4j.entities.Leaderboard;
-import de.presti.amari4j.exception.InvalidAPIKeyException;
-import de.presti.amari4j.exception.InvalidGuildException;
-import de.presti.amari4j.exception.InvalidServerResponseException;
-import de.presti.amari4j.exception.RateLimitException;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.language.LanguageService;
-import de.presti.ree6.sql.SQLSession;
-import de.presti.ree6.sql.entities.level.ChatUserLevel;
-import de.presti.ree6.utils.apis.AmariAPI;
-import de.presti.ree6.utils.external.RequestUtility;
-import io.sentry.Sentry;
+import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.external.leaderboard.LeaderboardImportException;
+import de.presti.ree6.utils.external.leaderboard.LeaderboardImporter;
+import de.presti.ree6.utils.external.leaderboard.LeaderboardSource;
+import de.presti.ree6.utils.others.SentryReporter;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.internal.interactions.CommandDataImpl;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * A class used to import data from another Bot.
  */
@@ -38,112 +34,59 @@ public class Import implements ICommand {
         }
 
         if (commandEvent.getArguments(true).length == 1) {
-            switch (commandEvent.getArguments()[0].toLowerCase()) {
-                case "mee6" -> importFromMee6(commandEvent);
-
-                case "amari" -> importFromAmari(commandEvent);
+            LeaderboardSource source = LeaderboardImporter.getSource(commandEvent.getArguments()[0]);
 
-                default -> commandEvent.reply(commandEvent.getResource("message.import.unknownBot"), 5);
+            if (source == null) {
+                commandEvent.reply(commandEvent.getResource("message.import.unknownBot"), 5);
+                return;
             }
+
+            importLeaderboard(commandEvent, source);
         } else {
             commandEvent.reply(commandEvent.getResource("message.import.botRequired"), 5);
         }
     }
 
     /**
-     * Sends a request to an API to get the data from Mee6.
+     * Start or continue the import of the leaderboard of another Bot, and inform about the result once it is done.
      *
      * @param commandEvent The CommandEvent.
+     * @param source       The {@link LeaderboardSource} of the Bot.
      */
-    public void importFromMee6(CommandEvent commandEvent) {
-        RequestUtility.Request request = RequestUtility.Request
-                .builder()
-                .url("https://mee6.xyz/api/plugins/levels/leaderboard/" + commandEvent.getGuild().getId()).build();
-
-        JsonElement jsonElement = RequestUtility.requestJson(request);
-        if (jsonElement.isJsonObject() && jsonElement.getAsJsonObject().has("players")) {
-            JsonElement players = jsonElement.getAsJsonObject().get("players");
-
-            if (players.isJsonArray()) {
-                players.getAsJsonArray().forEach(player -> {
-                    if (player.isJsonObject()) {
-                        JsonElement id = player.getAsJsonObject().get("id");
-                        JsonElement xp = player.getAsJsonObject().get("xp");
-
-                        if (id.isJsonPrimitive() && xp.isJsonPrimitive()) {
-                            ChatUserLevel chatUserLevel = SQLSession.getSqlConnector().getSqlWorker().getChatLevelData(commandEvent.getGuild().getId(), id.getAsString());
-
-                            if (chatUserLevel != null && chatUserLevel.getExperience() > xp.getAsLong()) {
-                                return;
-                            }
-
-                            if (chatUserLevel == null) {
-                                chatUserLevel = new ChatUserLevel(commandEvent.getGuild().getId(), id.getAsString(), xp.getAsLong());
-                            } else {
-                                chatUserLevel.setExperience(xp.getAsLong());
-                            }
-
-                            SQLSession.getSqlConnector().getSqlWorker().updateEntity(chatUserLevel);
-                        }
-                    }
-                });
-                commandEvent.reply(commandEvent.getResource("message.import.success", jsonElement.getAsJsonObject().get("players").getAsJsonArray().size()), 5);
-            } else {
-                commandEvent.reply(commandEvent.getResource("command.perform.error"), 5);
-            }
-        } else {
-            int code = jsonElement.isJsonObject() && jsonElement.getAsJsonObject().has("status_code") &&
-                    jsonElement.getAsJsonObject().get("status_code").isJsonPrimitive() ? jsonElement.getAsJsonObject().getAsJsonPrimitive("status_code").getAsInt() : 0;
-
-            String reason = jsonElement.isJsonObject() && jsonElement.getAsJsonObject().has("error") &&
-                    jsonElement.getAsJsonObject().get("error").isJsonObject() && jsonElement.getAsJsonObject().getAsJsonObject("error").has("message") ?
-                    jsonElement.getAsJsonObject().getAsJsonObject("error").getAsJsonPrimitive("message").getAsString() : commandEvent.getResource("label.unknown");
+    public void importLeaderboard(CommandEvent commandEvent, LeaderboardSource source) {
+        int[] checkpoint = LeaderboardImporter.getCheckpoint(commandEvent.getGuild().getId(), source);
 
-            if (reason.matches("^[0-9]{2}$")) {
-                code = Integer.parseInt(reason);
-            }
+        CompletableFuture<Integer> future = LeaderboardImporter.start(commandEvent.getGuild().getId(), source);
 
-            commandEvent.reply(
-                    commandEvent.getResource(code == 404 ?
-                            "message.import.error.noData" :
-                            code == 401 ?
-                                    "message.import.error.visibility" :
-                                    "message.import.error.unknown", reason), 5);
+        // The only immediate failure is an import that is already running.
+        if (future.isCompletedExceptionally()) {
+            commandEvent.reply(commandEvent.getResource("message.import.running"), 5);
+            return;
         }
-    }
 
-    /**
-     * Sends a request to an API to get the data from Amari.
-     *
-     * @param commandEvent The CommandEvent.
-     */
-    public void importFromAmari(CommandEvent commandEvent) {
-        try {
-            Leaderboard leaderboard = AmariAPI.getAmari4J().getRawLeaderboard(commandEvent.getGuild().getId(), Integer.MAX_VALUE);
-
-            leaderboard.getMembers().forEach(member -> {
-                ChatUserLevel chatUserLevel = SQLSession.getSqlConnector().getSqlWorker().getChatLevelData(commandEvent.getGuild().getId(), member.getUserid());
-
-                if (chatUserLevel != null && chatUserLevel.getExperience() > member.getExperience()) {
-                    return;
-                }
-
-                if (chatUserLevel == null) {
-                    chatUserLevel = new ChatUserLevel(commandEvent.getGuild().getId(), member.getUserid(), member.getExperience());
-                } else {
-                    chatUserLevel.setExperience(member.getExperience());
-                }
-
-                SQLSession.getSqlConnector().getSqlWorker().updateEntity(chatUserLevel);
-            });
-            commandEvent.reply(commandEvent.getResource("message.import.success", leaderboard.getCount()), 5);
-        } catch (InvalidAPIKeyException | InvalidServerResponseException | RateLimitException e) {
-            // TODO:: make some extra stuff for the rate-limit.
-            commandEvent.reply(commandEvent.getResource("command.perform.error"), 5);
-            Sentry.captureException(e);
-        } catch (InvalidGuildException e) {
-            commandEvent.reply(commandEvent.getResource("message.import.error.noData"), 5);
-        }
+        commandEvent.reply(checkpoint != null ? commandEvent.getResource("message.import.resumed", checkpoint[1]) :
+                commandEvent.getResource("message.import.started"), 5);
+
+        future.whenComplete((imported, throwable) -> {
+            String message;
+
+            if (throwable == null) {
+                message = commandEvent.getResource("message.import.success", imported);
+            } else if (throwable instanceof LeaderboardImportException exception) {
+                message = switch (exception.getReason()) {
+                    case NO_DATA -> commandEvent.getResource("message.import.error.noData");
+                    case VISIBILITY -> commandEvent.getResource("message.import.error.visibility");
+                    case RATE_LIMITED -> commandEvent.getResource("message.import.error.rateLimited");
+                    default -> commandEvent.getResource("message.import.error.unknown", exception.getMessage());
+                };
+            } else {
+                message = commandEvent.getResource("message.import.error.unknown", throwable.getMessage());
+                SentryReporter.captureException(throwable);
+            }
+
+            // The import can take longer than an interaction is valid, so the result is sent as new message.
+            Main.getInstance().getCommandManager().sendMessage(message, 10, commandEvent.getChannel());
+        });
     }
 
     /**
@@ -1,6 +1,6 @@
 package de.presti.ree6.commands.impl.music;
 
-import com.jagrosh.jlyrics.LyricsClient;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
 import de.presti.ree6.audio.AudioPlayerSendHandler;
 import de.presti.ree6.audio.music.GuildMusicManager;
 import de.presti.ree6.commands.Category;
@@ -9,6 +9,7 @@ import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.main.Main;
 import de.presti.ree6.utils.data.Data;
+import de.presti.ree6.utils.external.LyricsCache;
 import de.presti.ree6.utils.others.FormatUtil;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
@@ -21,12 +22,6 @@ import java.awt.*;
 @Command(name = "lyrics", description = "command.description.lyrics", category = Category.MUSIC)
 public class Lyrics implements ICommand {
 
-    /**
-     * Lyrics Client.
-     * Used to get the Lyrics of the current Song.
-     */
-    private final LyricsClient client = new LyricsClient();
-
     /**
      * @inheritDoc
      */
@@ -42,11 +37,10 @@ public class Lyrics implements ICommand {
         if (sendingHandler != null && sendingHandler.isMusicPlaying(commandEvent.getGuild())) {
 
             GuildMusicManager guildMusicManager = Main.getInstance().getMusicWorker().getGuildAudioPlayer(commandEvent.getGuild());
-            String title = guildMusicManager.getPlayer().getPlayingTrack().getInfo().title.contains("(") && guildMusicManager.getPlayer().getPlayingTrack().getInfo().title.contains(")") ?
-                    guildMusicManager.getPlayer().getPlayingTrack().getInfo().title.split("\\(")[0] :
-                    guildMusicManager.getPlayer().getPlayingTrack().getInfo().title;
+            AudioTrackInfo trackInfo = guildMusicManager.getPlayer().getPlayingTrack().getInfo();
+            String title = trackInfo.title.contains("(") && trackInfo.title.contains(")") ? trackInfo.title.split("\\(")[0] : trackInfo.title;
 
-            client.getLyrics(title).thenAccept(lyrics -> {
+            LyricsCache.get(trackInfo.author, trackInfo.title).thenAccept(lyrics -> {
 
                 if (lyrics == null) {
                     commandEvent.reply(new EmbedBuilder().setAuthor(commandEvent.getGuild().getJDA().getSelfUser().getName(), Data.getWebsite(),
@@ -57,30 +51,22 @@ public class Lyrics implements ICommand {
                     return;
                 }
 
+                if (lyrics.unlikely()) {
+                    commandEvent.reply(commandEvent.getResource("message.music.lyrics.foundUnlikely", "`" + FormatUtil.filter(title) + "`", lyrics.url()));
+                    return;
+                }
+
                 EmbedBuilder eb = new EmbedBuilder()
-                        .setAuthor(lyrics.getAuthor())
-                        .setTitle(lyrics.getTitle(), lyrics.getURL());
-                if (lyrics.getContent().length() > 15000) {
-                    commandEvent.reply(commandEvent.getResource("message.music.lyrics.foundUnlikely", "`" + FormatUtil.filter(title) + "`", lyrics.getURL()));
-                } else if (lyrics.getContent().length() > 2000) {
-                    String content = lyrics.getContent().trim();
-                    while (content.length() > 2000) {
-                        int index = content.lastIndexOf("\n\n", 2000);
-                        if (index == -1)
-                            index = content.lastIndexOf("\n", 2000);
-                        if (index == -1)
-                            index = content.lastIndexOf(" ", 2000);
-                        if (index == -1)
-                            index = 2000;
-                        commandEvent.reply(eb.setDescription(content.substring(0, index).trim()).build());
-                        content = content.substring(index).trim();
+                        .setAuthor(lyrics.author())
+                        .setTitle(lyrics.title(), lyrics.url());
+
+                for (int i = 0; i < lyrics.pages().size(); i++) {
+                    if (i > 0) {
                         eb.setAuthor(null).setTitle(null, null);
                         eb.setFooter(commandEvent.getGuild().getName() + " - " + Data.getAdvertisement(), commandEvent.getGuild().getIconUrl());
                     }
 
-                    commandEvent.reply(eb.setDescription(content).build());
-                } else {
-                    commandEvent.reply(eb.setDescription(lyrics.getContent()).build());
+                    commandEvent.reply(eb.setDescription(lyrics.pages().get(i)).build());
                 }
             });
         }
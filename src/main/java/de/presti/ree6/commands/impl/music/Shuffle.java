@@ -4,10 +4,15 @@ import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
+import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.main.Main;
 import de.presti.ree6.utils.data.Data;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.internal.interactions.CommandDataImpl;
 
 import java.awt.*;
 
@@ -33,15 +38,29 @@ public class Shuffle implements ICommand {
 
         EmbedBuilder em = new EmbedBuilder();
 
-        Main.getInstance().getMusicWorker().getGuildAudioPlayer(
-                commandEvent.getGuild()).getScheduler().shuffle();
+        boolean undo;
+
+        if (commandEvent.isSlashCommand()) {
+            OptionMapping undoOption = commandEvent.getOption("undo");
+            undo = undoOption != null && undoOption.getAsBoolean();
+        } else {
+            undo = commandEvent.getArguments().length >= 1 && commandEvent.getArguments()[0].equalsIgnoreCase("undo");
+        }
+
+        if (undo) {
+            Main.getInstance().getMusicWorker().getGuildAudioPlayer(
+                    commandEvent.getGuild()).getScheduler().unshuffle();
+        } else {
+            Main.getInstance().getMusicWorker().getGuildAudioPlayer(
+                    commandEvent.getGuild()).getScheduler().shuffle();
+        }
 
         em.setAuthor(commandEvent.getGuild().getJDA().getSelfUser().getName(), Data.getWebsite(),
                 commandEvent.getGuild().getJDA().getSelfUser().getAvatarUrl());
         em.setTitle(commandEvent.getResource("label.musicPlayer"));
         em.setThumbnail(commandEvent.getGuild().getJDA().getSelfUser().getAvatarUrl());
         em.setColor(Color.GREEN);
-        em.setDescription(commandEvent.getResource("message.music.shuffle"));
+        em.setDescription(commandEvent.getResource(undo ? "message.music.unshuffle" : "message.music.shuffle"));
         em.setFooter(commandEvent.getGuild().getName() + " - " + Data.getAdvertisement(), commandEvent.getGuild().getIconUrl());
 
         commandEvent.reply(em.build(), 5);
@@ -52,7 +71,8 @@ public class Shuffle implements ICommand {
      */
     @Override
     public CommandData getCommandData() {
-        return null;
+        return new CommandDataImpl("shuffle", LanguageService.getDefault("command.description.shuffle"))
+                .addOptions(new OptionData(OptionType.BOOLEAN, "undo", "Restore the order from before the last shuffle."));
     }
 
     /**
@@ -1,15 +1,21 @@
 package de.presti.ree6.commands.impl.music;
 
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import de.presti.ree6.audio.music.IndexedQueue;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
+import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.main.Main;
 import de.presti.ree6.utils.data.Data;
 import de.presti.ree6.utils.others.FormatUtil;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.internal.interactions.CommandDataImpl;
 
 import java.awt.*;
 
@@ -19,6 +25,11 @@ import java.awt.*;
 @Command(name = "songlist", description = "command.description.songlist", category = Category.MUSIC)
 public class SongList implements ICommand {
 
+    /**
+     * The amount of songs shown per page.
+     */
+    private static final int PAGE_SIZE = 20;
+
     /**
      * @inheritDoc
      */
@@ -26,10 +37,33 @@ public class SongList implements ICommand {
     public void onPerform(CommandEvent commandEvent) {
         EmbedBuilder em = new EmbedBuilder();
 
+        IndexedQueue<AudioTrack> queue = Main.getInstance().getMusicWorker().getGuildAudioPlayer(commandEvent.getGuild()).getScheduler().getQueue();
+
+        int pages = Math.max(1, (queue.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        int page = 1;
+
+        if (commandEvent.isSlashCommand()) {
+            OptionMapping pageOption = commandEvent.getOption("page");
+
+            if (pageOption != null) {
+                page = Math.min(pages, pageOption.getAsInt());
+            }
+        } else if (commandEvent.getArguments().length >= 1) {
+            try {
+                page = Math.min(pages, Math.max(1, Integer.parseInt(commandEvent.getArguments()[0])));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
         StringBuilder end = new StringBuilder("```");
 
-        for (AudioTrack track : Main.getInstance().getMusicWorker().getGuildAudioPlayer(commandEvent.getGuild()).getScheduler().getQueue()) {
-            end.append("\n").append(FormatUtil.filter(track.getInfo().title));
+        int position = (page - 1) * PAGE_SIZE;
+        for (AudioTrack track : queue.subList(position, PAGE_SIZE)) {
+            end.append("\n").append(++position).append(". ").append(FormatUtil.filter(track.getInfo().title));
+        }
+
+        if (pages > 1) {
+            end.append("\n\n").append(page).append("/").append(pages);
         }
 
         end.append("```");
@@ -38,7 +72,7 @@ public class SongList implements ICommand {
         em.setTitle(commandEvent.getResource("label.musicPlayer"));
         em.setThumbnail(commandEvent.getGuild().getJDA().getSelfUser().getAvatarUrl());
         em.setColor(Color.GREEN);
-        em.setDescription(Main.getInstance().getMusicWorker().getGuildAudioPlayer(commandEvent.getGuild()).getScheduler().getQueue().isEmpty() ?
+        em.setDescription(queue.isEmpty() ?
                 commandEvent.getResource("message.music.songQueueEmpty") :
                 (end.length() > 4096 ? commandEvent.getResource("command.perform.errorWithException","Error (M-SL-01)") :
                         commandEvent.getResource("message.music.songQueue", end)));
@@ -52,7 +86,8 @@ public class SongList implements ICommand {
      */
     @Override
     public CommandData getCommandData() {
-        return null;
+        return new CommandDataImpl("songlist", LanguageService.getDefault("command.description.songlist"))
+                .addOptions(new OptionData(OptionType.INTEGER, "page", "The page of the queue that should be shown.").setMinValue(1));
     }
 
     /**
@@ -1,26 +1,18 @@
 package de.presti.ree6.commands.impl.nsfw;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.apis.SearchAPI;
 import de.presti.ree6.utils.data.Data;
-import de.presti.ree6.utils.external.RequestUtility;
-import de.presti.ree6.utils.others.RandomUtils;
+import de.presti.ree6.utils.external.SearchResultCache;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 
-import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-
 /**
  * A command to show NSFW-Image from r/hentai.
  */
@@ -41,67 +33,29 @@ public class NSFW implements ICommand {
 
     /**
      * Method called to send the Image.
+     * The posts are picked from the cached result set, which loads the next page in the background once most of it has been shown.
      *
      * @param commandEvent the CommandEvent.
      */
     public void sendImage(CommandEvent commandEvent) {
-        Message message = commandEvent.isSlashCommand() ?
-                commandEvent.getInteractionHook().sendMessage(commandEvent.getResource("message.nsfw.searching")).complete() :
-                commandEvent.getChannel().sendMessage(commandEvent.getResource("message.nsfw.searching")).complete();
-
-        JsonElement jsonElement = RequestUtility.requestJson(RequestUtility.Request.builder().url("https://www.reddit.com/r/hentai/new.json?sort=hot&limit=50").build());
-
-        if (jsonElement.isJsonObject() &&
-                jsonElement.getAsJsonObject().has("data") &&
-                jsonElement.getAsJsonObject().get("data").isJsonObject() &&
-                jsonElement.getAsJsonObject().getAsJsonObject("data").has("children") &&
-                jsonElement.getAsJsonObject().getAsJsonObject("data").get("children").isJsonArray()) {
-
-            JsonArray children = jsonElement.getAsJsonObject().getAsJsonObject("data").getAsJsonArray("children");
+        if (!commandEvent.isSlashCommand()) commandEvent.getChannel().sendTyping().queue();
 
-            List<String> images = new ArrayList<>();
-
-            for (JsonElement child : children) {
-                if (child.isJsonObject() &&
-                        child.getAsJsonObject().has("data") &&
-                        child.getAsJsonObject().get("data").isJsonObject()) {
-
-                    JsonObject data = child.getAsJsonObject().getAsJsonObject("data");
-
-                    if (data.get("url") != null && data.get("url").isJsonPrimitive() &&
-                            data.get("post_hint") != null && data.get("post_hint").isJsonPrimitive()) {
-                        String postHint = data.getAsJsonPrimitive("post_hint").getAsString(),
-                                fileUrl = data.getAsJsonPrimitive("url").getAsString();
-                        if ((postHint.equalsIgnoreCase("image") ||
-                                postHint.equalsIgnoreCase("link") ||
-                                postHint.equalsIgnoreCase("rich:video")) &&
-                                !fileUrl.toLowerCase(Locale.ROOT).startsWith("https://www.reddit.com/gallery/") &&
-                                !fileUrl.toLowerCase(Locale.ROOT).startsWith("https://redgifs.com/")) {
-                            images.add(fileUrl);
-                        }
-                    }
-                }
-            }
+        JsonObject post = SearchResultCache.random(SearchAPI.REDDIT_HENTAI, "").join();
 
-            if (!images.isEmpty()) {
-                String randomUrl = images.get(RandomUtils.secureRandom.nextInt(images.size() - 1));
-                EmbedBuilder em = new EmbedBuilder();
+        if (post != null) {
+            EmbedBuilder em = new EmbedBuilder();
 
-                em.setImage(randomUrl);
-                em.setFooter(commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
+            em.setImage(post.getAsJsonPrimitive("url").getAsString());
+            em.setFooter(commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
 
-                if (commandEvent.isSlashCommand()) {
-                    message.editMessage(commandEvent.getResource("message.default.checkBelow")).queue();
-                    Main.getInstance().getCommandManager().sendMessage(em, commandEvent.getChannel());
-                    commandEvent.reply(em.build());
-                } else {
-                    message.editMessageEmbeds(em.build()).queue(message1 -> message1.editMessage(commandEvent.getResource("message.default.checkBelow")).queue());
-                }
+            if (commandEvent.isSlashCommand()) {
+                commandEvent.reply(commandEvent.getResource("message.default.checkBelow"));
+                Main.getInstance().getCommandManager().sendMessage(em, commandEvent.getChannel());
             } else {
-                message.editMessage(commandEvent.getResource("message.default.retrievalError")).delay(Duration.ofSeconds(5)).flatMap(Message::delete).queue();
+                commandEvent.reply(em.build());
             }
         } else {
-            message.editMessage(commandEvent.getResource("message.default.retrievalError")).delay(Duration.ofSeconds(5)).flatMap(Message::delete).queue();
+            commandEvent.reply(commandEvent.getResource("message.default.retrievalError"), 5);
         }
     }
 
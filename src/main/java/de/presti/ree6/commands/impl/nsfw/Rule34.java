@@ -1,18 +1,16 @@
 package de.presti.ree6.commands.impl.nsfw;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import de.presti.ree6.commands.Category;
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.commands.interfaces.Command;
 import de.presti.ree6.commands.interfaces.ICommand;
 import de.presti.ree6.language.LanguageService;
+import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.apis.SearchAPI;
 import de.presti.ree6.utils.data.Data;
-import de.presti.ree6.utils.external.RequestUtility;
-import de.presti.ree6.utils.others.RandomUtils;
+import de.presti.ree6.utils.external.SearchResultCache;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
@@ -20,9 +18,6 @@ import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.internal.interactions.CommandDataImpl;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-
 /**
  * A command to show NSFW-Image from rule34.xxx.
  */
@@ -49,12 +44,7 @@ public class Rule34 implements ICommand {
      * @param commandEvent the CommandEvent.
      */
     public void sendMessage(CommandEvent commandEvent) {
-        Message message = commandEvent.isSlashCommand() ?
-                commandEvent.getInteractionHook().sendMessage(commandEvent.getResource("message.nsfw.searching")).complete() :
-                commandEvent.getChannel().sendMessage(commandEvent.getResource("message.nsfw.searching")).complete();
-
         StringBuilder builder = new StringBuilder();
-        String tags = "";
 
         String[] args = commandEvent.getArguments();
 
@@ -70,59 +60,41 @@ public class Rule34 implements ICommand {
         if (builder.toString().endsWith(" "))
             builder = new StringBuilder(builder.substring(0, builder.length() - 1));
 
-        if (args.length > 0)
-            tags = "&tags=" + URLEncoder.encode(builder.toString(), StandardCharsets.UTF_8).toLowerCase();
+        String tags = SearchResultCache.normalize(builder.toString());
 
         if (tags.contains("loli") || tags.contains("l0li") || tags.contains("lol1") || tags.contains("l0l1")) {
-            message.editMessage(commandEvent.getResource("message.nsfw.notAllowed")).queue();
+            commandEvent.reply(commandEvent.getResource("message.nsfw.notAllowed"));
             return;
         }
 
-        sendImage(commandEvent, message, tags);
+        if (!commandEvent.isSlashCommand()) commandEvent.getChannel().sendTyping().queue();
+
+        sendImage(commandEvent, tags);
     }
 
     /**
      * Method called to send the Image.
+     * The posts are picked from the cached result set of the tags, which loads the next page in the background once most of it has been shown.
      *
      * @param commandEvent the CommandEvent.
-     * @param message      the Message.
      * @param tags         the Tags.
      */
-    public void sendImage(CommandEvent commandEvent, Message message, String tags) {
-        final JsonElement jsonElement =
-                RequestUtility.requestJson(RequestUtility.Request.builder().url("https://api.rule34.xxx/index.php?page=dapi&s=post&q=index&json=1&limit=50" + tags).build());
-
-        if (jsonElement != null && jsonElement.isJsonArray()) {
-            final JsonArray array = jsonElement.getAsJsonArray();
-
-            if (array.size() > 0) {
-                final JsonElement element = array.get(RandomUtils.secureRandom.nextInt(array.size()));
-
-                if (element.isJsonObject()) {
-                    final JsonObject object = element.getAsJsonObject();
-
-                    if (object.has("sample_url")) {
-                        EmbedBuilder em = new EmbedBuilder();
-                        em.setImage(object.get("sample_url").getAsString());
-                        em.setFooter(commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
-
-                        if (commandEvent.isSlashCommand()) {
-                            message.editMessage(commandEvent.getResource("message.default.checkBelow")).queue();
-                            commandEvent.reply(em.build());
-                        } else {
-                            message.editMessageEmbeds(em.build()).queue(message1 -> message1.editMessage(commandEvent.getResource("message.default.checkBelow")).queue());
-                        }
-                    } else {
-                        message.editMessage(commandEvent.getResource("message.default.retrievalError")).queue();
-                    }
-                } else {
-                    message.editMessage(commandEvent.getResource("message.default.retrievalError")).queue();
-                }
+    public void sendImage(CommandEvent commandEvent, String tags) {
+        final JsonObject object = SearchResultCache.random(SearchAPI.RULE34, tags).join();
+
+        if (object != null) {
+            EmbedBuilder em = new EmbedBuilder();
+            em.setImage(object.get("sample_url").getAsString());
+            em.setFooter(commandEvent.getMember().getEffectiveName() + " - " + Data.getAdvertisement(), commandEvent.getMember().getEffectiveAvatarUrl());
+
+            if (commandEvent.isSlashCommand()) {
+                commandEvent.reply(commandEvent.getResource("message.default.checkBelow"));
+                Main.getInstance().getCommandManager().sendMessage(em, commandEvent.getChannel());
             } else {
-                message.editMessage(commandEvent.getResource("message.default.retrievalError")).queue();
+                commandEvent.reply(em.build());
             }
         } else {
-            message.editMessage(commandEvent.getResource("message.default.retrievalError")).queue();
+            commandEvent.reply(commandEvent.getResource("message.default.retrievalError"));
         }
     }
 
@@ -7,8 +7,9 @@ import de.presti.ree6.main.Main;
 import de.presti.ree6.news.AnnouncementManager;
 import de.presti.ree6.sql.SQLSession;
 import de.presti.ree6.utils.data.Data;
+import de.presti.ree6.utils.metrics.Metrics;
+import de.presti.ree6.utils.others.SentryReporter;
 import de.presti.ree6.utils.others.ThreadUtil;
-import io.sentry.Sentry;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import org.slf4j.Logger;
@@ -32,17 +33,27 @@ public interface ICommand {
      * @param commandEvent the Event, with every needed data.
      */
     default void onASyncPerform(CommandEvent commandEvent) {
-        CompletableFuture.runAsync(() -> onPerform(commandEvent)).exceptionally(throwable -> {
+        CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+
+            try {
+                onPerform(commandEvent);
+            } finally {
+                Metrics.COMMAND_DURATION.observeSince(start, commandEvent.getCommand());
+            }
+        }).exceptionally(throwable -> {
+            Metrics.COMMAND_ERRORS.inc(commandEvent.getCommand());
+
             if (!throwable.getMessage().contains("Unknown Message")) {
                 commandEvent.reply(commandEvent.getResource("command.perform.internalError"), 5);
                 log.error("An error occurred while executing the command!", throwable);
-                Sentry.captureException(throwable);
+                SentryReporter.captureException(throwable);
             }
             return null;
         });
         // Update Stats.
-        SQLSession.getSqlConnector().getSqlWorker().addStats(commandEvent.getGuild().getId(), commandEvent.getCommand());
-        if (SQLSession.getSqlConnector().getSqlWorker().getSetting(commandEvent.getGuild().getId(), "configuration_news").getBooleanValue()) {
+        Metrics.timeSql("addStats", () -> SQLSession.getSqlConnector().getSqlWorker().addStats(commandEvent.getGuild().getId(), commandEvent.getCommand()));
+        if (Metrics.timeSql("getSetting", () -> SQLSession.getSqlConnector().getSqlWorker().getSetting(commandEvent.getGuild().getId(), "configuration_news")).getBooleanValue()) {
             ThreadUtil.createThread(x -> AnnouncementManager.getAnnouncementList().forEach(a -> {
                 if (!AnnouncementManager.hasReceivedAnnouncement(commandEvent.getGuild().getIdLong(), a.id())) {
                     Main.getInstance().getCommandManager().sendMessage(new EmbedBuilder().setTitle(a.title())
@@ -23,6 +23,7 @@ public class GameEvents extends ListenerAdapter {
         for (GameSession gameSession : GameManager.getGameSessions(event.getChannel())) {
             if (gameSession.getChannel().getId().equals(event.getChannel().getId())) {
                 if (gameSession.getParticipants().stream().anyMatch(user -> user.getId().equals(event.getAuthor().getId()))) {
+                    gameSession.touch();
                     gameSession.getGame().onMessageReceive(event);
                 }
             }
@@ -37,6 +38,7 @@ public class GameEvents extends ListenerAdapter {
         for (GameSession gameSession : GameManager.getGameSessions(event.getChannel())) {
             if (gameSession.getChannel().getId().equals(event.getChannel().getId())) {
                 if (gameSession.getParticipants().stream().anyMatch(user -> user.getId().equals(event.getUserId()))) {
+                    gameSession.touch();
                     gameSession.getGame().onReactionReceive(event);
                 }
             }
@@ -55,6 +57,7 @@ public class GameEvents extends ListenerAdapter {
             if (gameSession != null && gameSession.getGameState() == GameState.WAITING &&
                     gameSession.getChannel().getId().equals(event.getChannel().getId()) &&
                     gameSession.getParticipants().stream().anyMatch(user -> user.getId().equals(event.getUser().getId()))) {
+                gameSession.touch();
                 gameSession.getGame().startGame();
             }
         }
@@ -70,6 +73,7 @@ public class GameEvents extends ListenerAdapter {
                     GamePlayer gamePlayer = new GamePlayer(event.getUser());
                     gamePlayer.setInteractionHook(interactionHook);
                     gameSession.getParticipants().add(event.getUser());
+                    gameSession.touch();
                     gameSession.getGame().joinGame(gamePlayer);
                 });
             }
@@ -85,6 +89,7 @@ public class GameEvents extends ListenerAdapter {
                 event.deferReply(true).queue(interactionHook -> {
                     GamePlayer gamePlayer = new GamePlayer(event.getUser());
                     gamePlayer.setInteractionHook(interactionHook);
+                    gameSession.touch();
                     gameSession.getGame().leaveGame(gamePlayer);
                 });
             }
@@ -93,6 +98,7 @@ public class GameEvents extends ListenerAdapter {
         for (GameSession gameSession : GameManager.getGameSessions(event.getChannel())) {
             if (gameSession.getChannel().getId().equals(event.getChannel().getId()) &&
                     gameSession.getParticipants().stream().anyMatch(user -> user.getId().equals(event.getUser().getId()))) {
+                gameSession.touch();
                 gameSession.getGame().onButtonInteractionReceive(event);
             }
         }
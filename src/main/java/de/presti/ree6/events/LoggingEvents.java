@@ -4,6 +4,7 @@ import club.minnced.discord.webhook.send.WebhookEmbed;
 import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
 import club.minnced.discord.webhook.send.WebhookMessageBuilder;
 import de.presti.ree6.language.LanguageService;
+import de.presti.ree6.logger.LoggingProfile;
 import de.presti.ree6.logger.events.LogMessage;
 import de.presti.ree6.logger.events.LogTyp;
 import de.presti.ree6.logger.events.implentation.LogMessageMember;
@@ -93,8 +94,9 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onGuildBan(@Nonnull GuildBanEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_memberban").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.MEMBER_BAN))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -117,7 +119,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageUser(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.USER_BAN, event.getUser()));
     }
 
@@ -127,8 +129,9 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onGuildUnban(@Nonnull GuildUnbanEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_memberunban").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.MEMBER_UNBAN))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -151,7 +154,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageUser(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.USER_UNBAN, event.getUser()));
     }
 
@@ -165,12 +168,14 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onGuildMemberJoin(GuildMemberJoinEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()))
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (profile.getWebhook() == null)
             return;
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
 
-        if (SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_memberjoin").getBooleanValue()) {
+        if (profile.isEnabled(LoggingProfile.Setting.MEMBER_JOIN)) {
             WebhookMessageBuilder wm = new WebhookMessageBuilder();
 
             wm.setAvatarUrl(event.getJDA().getSelfUser().getAvatarUrl());
@@ -188,7 +193,7 @@ public class LoggingEvents extends ListenerAdapter {
             Main.getInstance().getLoggerQueue().add(new LogMessageUser(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.SERVER_JOIN, event.getUser()));
         }
 
-        if (event.getGuild().getSelfMember().hasPermission(Permission.MANAGE_SERVER) && SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_invite").getBooleanValue()) {
+        if (event.getGuild().getSelfMember().hasPermission(Permission.MANAGE_SERVER) && profile.isEnabled(LoggingProfile.Setting.INVITE)) {
 
             WebhookMessageBuilder wm2 = new WebhookMessageBuilder();
 
@@ -215,18 +220,21 @@ public class LoggingEvents extends ListenerAdapter {
                     }
                 });
             } else {
-                InviteContainer inviteContainer = InviteContainerManager.getRightInvite(event.getGuild());
-                if (inviteContainer != null) {
-                    inviteContainer.setUses(inviteContainer.getUses() + 1);
-                    if (inviteContainer.isVanity()) {
-                        wm2.append(LanguageService.getByEvent(event, "logging.joined.invite.vanity", event.getUser().getAsMention()));
+                // The snapshot already contains the new use count and saves it with the next batch.
+                InviteContainerManager.getRightInvite(event.getGuild()).thenAccept(inviteContainer -> {
+                    if (inviteContainer != null) {
+                        if (inviteContainer.isVanity()) {
+                            wm2.append(LanguageService.getByEvent(event, "logging.joined.invite.vanity", event.getUser().getAsMention()));
+                        } else {
+                            wm2.append(LanguageService.getByEvent(event, "logging.joined.invite.default", event.getUser().getAsMention(), "<@" + inviteContainer.getCreatorId() + ">", inviteContainer.getCode(), inviteContainer.getUses()));
+                        }
                     } else {
-                        wm2.append(LanguageService.getByEvent(event, "logging.joined.invite.default", event.getUser().getAsMention(), "<@" + inviteContainer.getCreatorId() + ">", inviteContainer.getCode(), inviteContainer.getUses()));
+                        wm2.append(LanguageService.getByEvent(event, "logging.joined.invite.notFound", event.getMember().getAsMention()));
                     }
-                    InviteContainerManager.addInvite(inviteContainer);
-                } else {
-                    wm2.append(LanguageService.getByEvent(event, "logging.joined.invite.notFound", event.getMember().getAsMention()));
-                }
+
+                    Main.getInstance().getLoggerQueue().add(new LogMessageUser(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm2.build(), event.getGuild(), LogTyp.SERVER_INVITE, event.getUser()));
+                });
+                return;
             }
 
             Main.getInstance().getLoggerQueue().add(new LogMessageUser(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm2.build(), event.getGuild(), LogTyp.SERVER_INVITE, event.getUser()));
@@ -239,8 +247,9 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onGuildMemberRemove(@Nonnull GuildMemberRemoveEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_memberleave").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.MEMBER_LEAVE))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -268,7 +277,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageUser(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.SERVER_LEAVE, event.getUser()));
     }
 
@@ -280,8 +289,9 @@ public class LoggingEvents extends ListenerAdapter {
         super.onGuildMemberUpdateTimeOut(event);
 
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_timeout").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.TIMEOUT))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -317,7 +327,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageMember(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.ELSE, event.getMember()));
     }
 
@@ -327,8 +337,9 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onGuildMemberUpdateNickname(@Nonnull GuildMemberUpdateNicknameEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_nickname").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.NICKNAME))
             return;
 
 
@@ -357,7 +368,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageMember(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.NICKNAME_CHANGE, event.getEntity(), event.getOldNickname(), event.getNewNickname()));
     }
 
@@ -373,8 +384,9 @@ public class LoggingEvents extends ListenerAdapter {
     public void onGuildVoiceUpdate(@NotNull GuildVoiceUpdateEvent event) {
         super.onGuildVoiceUpdate(event);
         if (event.getChannelLeft() == null) {
-            if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                    !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_voicejoin").getBooleanValue())
+            LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+            if (!profile.isEnabled(LoggingProfile.Setting.VOICE_JOIN))
                 return;
 
 
@@ -392,11 +404,12 @@ public class LoggingEvents extends ListenerAdapter {
 
             wm.addEmbeds(we.build());
 
-            Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+            Webhook webhook = profile.getWebhook();
             Main.getInstance().getLoggerQueue().add(new LogMessageVoice(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.VC_JOIN, event.getEntity(), event.getChannelJoined()));
         } else if (event.getChannelJoined() == null) {
-            if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                    !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_voiceleave").getBooleanValue())
+            LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+            if (!profile.isEnabled(LoggingProfile.Setting.VOICE_LEAVE))
                 return;
 
             WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -418,11 +431,12 @@ public class LoggingEvents extends ListenerAdapter {
 
             wm.addEmbeds(we.build());
 
-            Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+            Webhook webhook = profile.getWebhook();
             Main.getInstance().getLoggerQueue().add(new LogMessageVoice(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.VC_LEAVE, event.getEntity(), event.getChannelLeft()));
         } else {
-            if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                    !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_voicemove").getBooleanValue())
+            LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+            if (!profile.isEnabled(LoggingProfile.Setting.VOICE_MOVE))
                 return;
 
             WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -444,7 +458,7 @@ public class LoggingEvents extends ListenerAdapter {
 
             wm.addEmbeds(we.build());
 
-            Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+            Webhook webhook = profile.getWebhook();
             Main.getInstance().getLoggerQueue().add(new LogMessageVoice(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.VC_MOVE, event.getEntity(), event.getChannelLeft(), event.getChannelJoined()));
         }
     }
@@ -460,8 +474,9 @@ public class LoggingEvents extends ListenerAdapter {
     public void onGenericChannel(@Nonnull GenericChannelEvent event) {
 
         if (event.getChannelType().isAudio()) {
-            if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                    !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_voicechannel").getBooleanValue())
+            LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+            if (!profile.isEnabled(LoggingProfile.Setting.VOICE_CHANNEL))
                 return;
 
             WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -501,11 +516,12 @@ public class LoggingEvents extends ListenerAdapter {
 
             wm.addEmbeds(we.build());
 
-            Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+            Webhook webhook = profile.getWebhook();
             Main.getInstance().getLoggerQueue().add(new LogMessage(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.CHANNELDATA_CHANGE));
         } else if (event.getChannelType().isMessage()) {
-            if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                    !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_textchannel").getBooleanValue())
+            LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+            if (!profile.isEnabled(LoggingProfile.Setting.TEXT_CHANNEL))
                 return;
 
             WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -551,7 +567,7 @@ public class LoggingEvents extends ListenerAdapter {
 
             wm.addEmbeds(we.build());
 
-            Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+            Webhook webhook = profile.getWebhook();
             Main.getInstance().getLoggerQueue().add(new LogMessage(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.CHANNELDATA_CHANGE));
 
         }
@@ -567,8 +583,9 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onGuildMemberRoleAdd(@Nonnull GuildMemberRoleAddEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_roleadd").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_ADD))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -599,7 +616,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageMember(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.MEMBERROLE_CHANGE, event.getMember(), null, new ArrayList<>(event.getRoles())));
     }
 
@@ -609,7 +626,9 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onGuildMemberRoleRemove(@Nonnull GuildMemberRoleRemoveEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) || !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_roleremove").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_REMOVE))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -639,7 +658,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageMember(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.MEMBERROLE_CHANGE, event.getMember(), new ArrayList<>(event.getRoles()), null));
     }
 
@@ -648,8 +667,9 @@ public class LoggingEvents extends ListenerAdapter {
      */
     @Override
     public void onRoleCreate(@Nonnull RoleCreateEvent event) {
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_rolecreate").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_CREATE))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -671,7 +691,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageRole(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.ROLEDATA_CHANGE, event.getRole().getIdLong(), event.getRole().getName(), true, false, false, false));
     }
 
@@ -680,8 +700,9 @@ public class LoggingEvents extends ListenerAdapter {
      */
     @Override
     public void onRoleDelete(@Nonnull RoleDeleteEvent event) {
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_roledelete").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_DELETE))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -703,7 +724,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageRole(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.ROLEDATA_CHANGE, event.getRole().getIdLong(), event.getRole().getName(), false, true, false, false));
     }
 
@@ -712,8 +733,9 @@ public class LoggingEvents extends ListenerAdapter {
      */
     @Override
     public void onRoleUpdateName(@Nonnull RoleUpdateNameEvent event) {
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_rolename").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_NAME))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -737,7 +759,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageRole(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.ROLEDATA_CHANGE, event.getRole().getIdLong(), event.getOldName(), event.getNewName()));
     }
 
@@ -746,8 +768,9 @@ public class LoggingEvents extends ListenerAdapter {
      */
     @Override
     public void onRoleUpdateMentionable(@Nonnull RoleUpdateMentionableEvent event) {
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_rolemention").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_MENTION))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -771,7 +794,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageRole(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.ROLEDATA_CHANGE, event.getRole().getIdLong(), event.getRole().getName(), false, false, false, true));
     }
 
@@ -780,8 +803,9 @@ public class LoggingEvents extends ListenerAdapter {
      */
     @Override
     public void onRoleUpdateHoisted(@Nonnull RoleUpdateHoistedEvent event) {
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_rolehoisted").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_HOISTED))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -805,7 +829,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageRole(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.ROLEDATA_CHANGE, event.getRole().getIdLong(), event.getRole().getName(), false, false, true, false));
     }
 
@@ -814,8 +838,9 @@ public class LoggingEvents extends ListenerAdapter {
      */
     @Override
     public void onRoleUpdatePermissions(@Nonnull RoleUpdatePermissionsEvent event) {
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_rolepermission").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_PERMISSION))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -864,7 +889,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageRole(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.ROLEDATA_CHANGE, event.getRole().getIdLong(), event.getOldPermissions(), event.getNewPermissions()));
     }
 
@@ -874,8 +899,9 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onRoleUpdateColor(@Nonnull RoleUpdateColorEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_rolecolor").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.ROLE_COLOR))
             return;
 
         WebhookMessageBuilder wm = new WebhookMessageBuilder();
@@ -899,7 +925,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         wm.addEmbeds(we.build());
 
-        Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+        Webhook webhook = profile.getWebhook();
         Main.getInstance().getLoggerQueue().add(new LogMessageRole(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.ROLEDATA_CHANGE, event.getRole().getIdLong(), (event.getOldColor() != null ? event.getOldColor() : Color.gray), (event.getNewColor() != null ? event.getNewColor() : Color.gray)));
     }
 
@@ -913,8 +939,9 @@ public class LoggingEvents extends ListenerAdapter {
     @Override
     public void onMessageDelete(@Nonnull MessageDeleteEvent event) {
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(event.getGuild().getId()) ||
-                !SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "logging_messagedelete").getBooleanValue())
+        LoggingProfile profile = LoggingProfile.get(event.getGuild().getId());
+
+        if (!profile.isEnabled(LoggingProfile.Setting.MESSAGE_DELETE))
             return;
 
         User user = ArrayUtil.getUserFromMessageList(event.getMessageId());
@@ -963,7 +990,7 @@ public class LoggingEvents extends ListenerAdapter {
 
             wm.addEmbeds(we.build());
 
-            Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(event.getGuild().getId());
+            Webhook webhook = profile.getWebhook();
             Main.getInstance().getLoggerQueue().add(new LogMessageUser(Long.parseLong(webhook.getWebhookId()), webhook.getToken(), wm.build(), event.getGuild(), LogTyp.MESSAGE_DELETE, user));
         }
     }
@@ -984,7 +1011,7 @@ public class LoggingEvents extends ListenerAdapter {
 
         if (event.getInvite().getInviter() != null) {
             InviteContainer inv = new InviteContainer(event.getInvite().getInviter().getId(), event.getGuild().getId(), event.getInvite().getCode(), event.getInvite().getUses(), false);
-            InviteContainerManager.addInvite(inv);
+            InviteContainerManager.trackInvite(inv);
         }
     }
 
@@ -998,7 +1025,7 @@ public class LoggingEvents extends ListenerAdapter {
             return;
         }
 
-        InviteContainerManager.removeInvite(event.getGuild().getId(), event.getCode());
+        InviteContainerManager.untrackInvite(event.getGuild().getId(), event.getCode());
     }
 
     //endregion
@@ -1,13 +1,12 @@
 package de.presti.ree6.events;
 
-import club.minnced.discord.webhook.send.WebhookEmbed;
-import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
-import club.minnced.discord.webhook.send.WebhookMessageBuilder;
 import de.presti.ree6.audio.music.GuildMusicManager;
 import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.bot.util.MemberLoader;
 import de.presti.ree6.bot.util.WebhookUtil;
 import de.presti.ree6.language.Language;
 import de.presti.ree6.language.LanguageService;
+import de.presti.ree6.logger.LoggingProfile;
 import de.presti.ree6.main.Main;
 import de.presti.ree6.sql.SQLSession;
 import de.presti.ree6.sql.entities.Suggestions;
@@ -23,7 +22,6 @@ import masecla.reddit4j.objects.subreddit.RedditSubreddit;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.concrete.Category;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
@@ -45,11 +43,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -98,6 +92,8 @@ public class MenuEvents extends ListenerAdapter {
                                 .syncPermissionOverrides()
                                 .addPermissionOverride(event.getMember(), List.of(Permission.VIEW_CHANNEL, Permission.MESSAGE_SEND, Permission.MESSAGE_HISTORY, Permission.MESSAGE_ATTACH_FILES, Permission.MESSAGE_EMBED_LINKS), List.of())
                                 .queue(channel -> {
+                                    Main.getInstance().getTicketArchiver().open(channel);
+
                                     MessageCreateBuilder messageCreateBuilder = new MessageCreateBuilder();
                                     messageCreateBuilder.setEmbeds(new EmbedBuilder().setTitle(LanguageService.getByGuild(event.getGuild(), "label.ticket"))
                                             .setDescription(SQLSession.getSqlConnector().getSqlWorker().getSetting(event.getGuild().getId(), "message_ticket_open").getStringValue())
@@ -120,56 +116,14 @@ public class MenuEvents extends ListenerAdapter {
                 Tickets tickets = SQLSession.getSqlConnector().getSqlWorker().getEntity(new Tickets(), "SELECT * FROM Tickets WHERE GUILDID=:gid", Map.of("gid", event.getGuild().getId()));
 
                 if (tickets != null) {
-                    StringBuilder stringBuilder = new StringBuilder();
-                    stringBuilder.append(Data.getBotName() + " Ticket transcript")
-                            .append(" ")
-                            .append(ZonedDateTime.now().format(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.LONG)))
-                            .append("\n")
-                            .append("\n");
-
-
-                    for (Message message : event.getChannel().asTextChannel().getIterableHistory().reverse()) {
-                        stringBuilder
-                                .append("[")
-                                .append(message.getTimeCreated().toZonedDateTime().format(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT)))
-                                .append("]")
-                                .append(" ")
-                                .append(message.getAuthor().getName())
-                                .append(" ")
-                                .append("->")
-                                .append(" ")
-                                .append(message.getContentRaw());
-
-                        if (!message.getAttachments().isEmpty()) {
-                            for (Message.Attachment attachment : message.getAttachments()) {
-                                stringBuilder.append("\n").append(attachment.getUrl());
-                            }
-                        }
-
-                        stringBuilder.append("\n");
-                    }
-
-                    // TODO:: translate and fix the date being shown as UTC+1 and instead use the current server region.
-
-                    stringBuilder.append("\n").append("Closed by").append(" ").append(event.getUser().getName());
-
-                    WebhookMessageBuilder webhookMessageBuilder = new WebhookMessageBuilder();
-                    webhookMessageBuilder.setAvatarUrl(event.getJDA().getSelfUser().getEffectiveAvatarUrl());
-                    webhookMessageBuilder.setUsername(Data.getBotName() + "-Tickets");
-
-                    WebhookEmbedBuilder webhookEmbedBuilder = new WebhookEmbedBuilder();
-
-                    webhookEmbedBuilder.setDescription("Here is the transcript of the ticket " + tickets.getTicketCount() + "!");
-                    webhookEmbedBuilder.setFooter(new WebhookEmbed.EmbedFooter(event.getGuild().getName() + " " + Data.getAdvertisement(), event.getGuild().getIconUrl()));
-                    webhookEmbedBuilder.setColor(BotWorker.randomEmbedColor().getRGB());
-
-                    webhookMessageBuilder.addEmbeds(webhookEmbedBuilder.build());
-                    webhookMessageBuilder.addFile(tickets.getTicketCount() + "_transcript.txt", stringBuilder.toString().getBytes(StandardCharsets.UTF_8));
-
-                    WebhookUtil.sendWebhook(null, webhookMessageBuilder.build(), tickets.getLogChannelId(), tickets.getLogChannelWebhookToken(), false);
-
-                    event.getHook().sendMessage(LanguageService.getByGuild(event.getGuild(), "message.ticket.close")).queue();
-                    event.getChannel().delete().delay(2, TimeUnit.SECONDS).queue();
+                    TextChannel channel = event.getChannel().asTextChannel();
+
+                    // The history is only loaded once the reply has been sent, so that it is part of the transcript.
+                    // The channel is only deleted once the transcript has been sent, since deleting it discards the transcript.
+                    event.getHook().sendMessage(LanguageService.getByGuild(event.getGuild(), "message.ticket.close")).submit()
+                            .handle((message, throwable) -> null)
+                            .thenCompose(ignore -> Main.getInstance().getTicketArchiver().archive(channel, tickets, event.getUser().getName()))
+                            .whenComplete((ignore, throwable) -> channel.delete().delay(2, TimeUnit.SECONDS).queue());
                 }
             }
 
@@ -969,7 +923,7 @@ public class MenuEvents extends ListenerAdapter {
                             category = categories.get(0);
                         }
 
-                        event.getGuild().loadMembers().onSuccess(members -> event.getGuild().createVoiceChannel(LanguageService.getByGuild(event.getGuild(), "label.overallMembersName", event.getGuild().getMemberCount()), category).queue(voiceChannel -> {
+                        MemberLoader.load(event.getGuild()).thenAccept(members -> event.getGuild().createVoiceChannel(LanguageService.getByGuild(event.getGuild(), "label.overallMembersName", event.getGuild().getMemberCount()), category).queue(voiceChannel -> {
                             voiceChannel.getManager().setUserLimit(0).queue();
                             event.getGuild().createVoiceChannel(LanguageService.getByGuild(event.getGuild(), "label.realMembersName", members.stream().filter(member -> !member.getUser().isBot()).count()), category).queue(voiceChannel1 -> {
                                 voiceChannel1.getManager().setUserLimit(0).queue();
@@ -1254,6 +1208,7 @@ public class MenuEvents extends ListenerAdapter {
                                 embedBuilder.setColor(Color.GREEN);
                                 event.editMessageEmbeds(embedBuilder.build()).setComponents(new ArrayList<>()).queue();
                                 SQLSession.getSqlConnector().getSqlWorker().deleteEntity(webhook);
+                                LoggingProfile.invalidate(event.getGuild().getId());
                             });
                         }
                     }
@@ -1306,6 +1261,7 @@ public class MenuEvents extends ListenerAdapter {
                         }
 
                         SQLSession.getSqlConnector().getSqlWorker().setLogWebhook(event.getGuild().getId(), textChannel.getIdLong(), webhook.getId(), webhook.getToken());
+                        LoggingProfile.invalidate(event.getGuild().getId());
                         embedBuilder.setDescription(LanguageService.getByGuild(event.getGuild(), "message.auditLog.setupSuccess"));
                         embedBuilder.setColor(Color.GREEN);
                         event.editMessageEmbeds(embedBuilder.build()).setComponents(new ArrayList<>()).queue();
@@ -1,10 +1,9 @@
 package de.presti.ree6.events;
 
-import club.minnced.discord.webhook.send.WebhookEmbed;
-import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
 import club.minnced.discord.webhook.send.WebhookMessageBuilder;
 import de.presti.ree6.audio.AudioPlayerReceiveHandler;
 import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.bot.util.MemberLoader;
 import de.presti.ree6.bot.util.WebhookUtil;
 import de.presti.ree6.bot.version.BotState;
 import de.presti.ree6.language.LanguageService;
@@ -14,14 +13,13 @@ import de.presti.ree6.sql.entities.ReactionRole;
 import de.presti.ree6.sql.entities.TemporalVoicechannel;
 import de.presti.ree6.sql.entities.Tickets;
 import de.presti.ree6.sql.entities.level.ChatUserLevel;
-import de.presti.ree6.sql.entities.level.VoiceUserLevel;
 import de.presti.ree6.sql.entities.stats.ChannelStats;
 import de.presti.ree6.utils.apis.ChatGPTAPI;
 import de.presti.ree6.utils.data.ArrayUtil;
 import de.presti.ree6.utils.data.Data;
 import de.presti.ree6.utils.data.ImageCreationUtility;
 import de.presti.ree6.utils.others.*;
-import io.sentry.Sentry;
+import de.presti.ree6.utils.others.SentryReporter;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Activity;
@@ -51,11 +49,7 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -85,7 +79,7 @@ public class OtherEvents extends ListenerAdapter {
      */
     @Override
     public void onGuildJoin(@NotNull GuildJoinEvent event) {
-        SQLSession.getSqlConnector().getSqlWorker().createSettings(event.getGuild().getId());
+        GuildLifecycleJobs.provision(event.getGuild().getId());
     }
 
     /**
@@ -93,7 +87,8 @@ public class OtherEvents extends ListenerAdapter {
      */
     @Override
     public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
-        SQLSession.getSqlConnector().getSqlWorker().deleteAllData(event.getGuild().getId());
+        GuildLifecycleJobs.purge(event.getGuild().getId());
+        MemberLoader.invalidate(event.getGuild().getIdLong());
     }
 
     /**
@@ -101,6 +96,7 @@ public class OtherEvents extends ListenerAdapter {
      */
     @Override
     public void onGuildMemberJoin(@Nonnull GuildMemberJoinEvent event) {
+        MemberLoader.memberJoined(event.getMember());
 
         ChannelStats channelStats = SQLSession.getSqlConnector().getSqlWorker().getEntity(new ChannelStats(), "SELECT * FROM ChannelStats WHERE GID=:gid", Map.of("gid", event.getGuild().getId()));
         if (channelStats != null) {
@@ -111,7 +107,7 @@ public class OtherEvents extends ListenerAdapter {
                 }
             }
 
-            event.getGuild().loadMembers().onSuccess(members -> {
+            MemberLoader.load(event.getGuild()).thenAccept(members -> {
                 if (channelStats.getRealMemberStatsChannelId() != null) {
                     GuildChannel guildChannel = event.getGuild().getGuildChannelById(channelStats.getRealMemberStatsChannelId());
                     if (guildChannel != null) {
@@ -165,6 +161,7 @@ public class OtherEvents extends ListenerAdapter {
     @Override
     public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event) {
         super.onGuildMemberRemove(event);
+        MemberLoader.memberLeft(event.getGuild().getIdLong(), event.getUser().getIdLong());
 
         ChannelStats channelStats = SQLSession.getSqlConnector().getSqlWorker().getEntity(new ChannelStats(), "SELECT * FROM ChannelStats WHERE GID=:gid", Map.of("gid", event.getGuild().getId()));
         if (channelStats != null) {
@@ -175,7 +172,7 @@ public class OtherEvents extends ListenerAdapter {
                 }
             }
 
-            event.getGuild().loadMembers().onSuccess(members -> {
+            MemberLoader.load(event.getGuild()).thenAccept(members -> {
                 if (channelStats.getRealMemberStatsChannelId() != null) {
                     GuildChannel guildChannel = event.getGuild().getGuildChannelById(channelStats.getRealMemberStatsChannelId());
                     if (guildChannel != null) {
@@ -201,53 +198,9 @@ public class OtherEvents extends ListenerAdapter {
                     List<TextChannel> channels = category.getTextChannels().stream().filter(c -> c.getTopic() != null && c.getTopic().equalsIgnoreCase(event.getUser().getId())).toList();
                     if (!channels.isEmpty()) {
                         TextChannel channel = channels.get(0);
-                        StringBuilder stringBuilder = new StringBuilder();
-                        stringBuilder.append(Data.getBotName())
-                                .append(" Ticket transcript")
-                                .append(" ")
-                                .append(ZonedDateTime.now().format(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.LONG)))
-                                .append("\n")
-                                .append("\n");
-
-
-                        for (Message message : channel.getIterableHistory().reverse()) {
-                            stringBuilder
-                                    .append("[")
-                                    .append(message.getTimeCreated().toZonedDateTime().format(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT)))
-                                    .append("]")
-                                    .append(" ")
-                                    .append(message.getAuthor().getAsTag())
-                                    .append(" ")
-                                    .append("->")
-                                    .append(" ")
-                                    .append(message.getContentRaw());
-
-                            if (!message.getAttachments().isEmpty()) {
-                                for (Message.Attachment attachment : message.getAttachments()) {
-                                    stringBuilder.append("\n").append(attachment.getUrl());
-                                }
-                            }
-
-                            stringBuilder.append("\n");
-                        }
-
-                        stringBuilder.append("\n").append("Closed by").append(" ").append(event.getUser().getEffectiveName());
-
-                        WebhookMessageBuilder webhookMessageBuilder = new WebhookMessageBuilder();
-                        webhookMessageBuilder.setAvatarUrl(event.getJDA().getSelfUser().getEffectiveAvatarUrl());
-                        webhookMessageBuilder.setUsername(Data.getBotName() + "-Tickets");
-
-                        WebhookEmbedBuilder webhookEmbedBuilder = new WebhookEmbedBuilder();
-
-                        webhookEmbedBuilder.setDescription("Here is the transcript of the ticket " + tickets.getTicketCount() + "!");
-                        webhookEmbedBuilder.setFooter(new WebhookEmbed.EmbedFooter(event.getGuild().getName() + " " + Data.getAdvertisement(), event.getGuild().getIconUrl()));
-                        webhookEmbedBuilder.setColor(BotWorker.randomEmbedColor().getRGB());
 
-                        webhookMessageBuilder.addEmbeds(webhookEmbedBuilder.build());
-                        webhookMessageBuilder.addFile(tickets.getTicketCount() + "_transcript.txt", stringBuilder.toString().getBytes(StandardCharsets.UTF_8));
-
-                        WebhookUtil.sendWebhook(null, webhookMessageBuilder.build(), tickets.getLogChannelId(), tickets.getLogChannelWebhookToken(), false);
-                        channel.delete().queue();
+                        Main.getInstance().getTicketArchiver().archive(channel, tickets, event.getUser().getEffectiveName())
+                                .whenComplete((ignore, throwable) -> channel.delete().queue());
                     }
                 }
             }
@@ -260,10 +213,6 @@ public class OtherEvents extends ListenerAdapter {
     @Override
     public void onGuildVoiceUpdate(@Nonnull GuildVoiceUpdateEvent event) {
         if (event.getChannelLeft() == null) {
-            if (!ArrayUtil.voiceJoined.containsKey(event.getMember().getUser())) {
-                ArrayUtil.voiceJoined.put(event.getMember().getUser(), System.currentTimeMillis());
-            }
-
             if (Data.isModuleActive("temporalvoice")) {
                 TemporalVoicechannel temporalVoicechannel = SQLSession.getSqlConnector().getSqlWorker().getEntity(new TemporalVoicechannel(), "SELECT * FROM TemporalVoicechannel WHERE GID=:gid", Map.of("gid", event.getGuild().getId()));
 
@@ -291,23 +240,6 @@ public class OtherEvents extends ListenerAdapter {
                 }
             }
         } else if (event.getChannelJoined() == null) {
-            if (ArrayUtil.voiceJoined.containsKey(event.getMember().getUser())) {
-                int min = TimeUtil.getTimeinMin(TimeUtil.getTimeinSec(ArrayUtil.voiceJoined.get(event.getMember().getUser())));
-
-                int addXP = 0;
-
-                for (int i = 1; i <= min; i++) {
-                    addXP += RandomUtils.random.nextInt(5, 11);
-                }
-
-                VoiceUserLevel newUserLevel = SQLSession.getSqlConnector().getSqlWorker().getVoiceLevelData(event.getGuild().getId(), event.getMember().getId());
-                newUserLevel.addExperience(addXP);
-
-                SQLSession.getSqlConnector().getSqlWorker().addVoiceLevelData(event.getGuild().getId(), newUserLevel);
-
-                AutoRoleHandler.handleVoiceLevelReward(event.getGuild(), event.getMember());
-            }
-
             if (event.getChannelLeft().getMembers().size() == 1 &&
                     event.getChannelLeft().getMembers().get(0).getIdLong() == event.getJDA().getSelfUser().getIdLong()) {
                 AudioManager audioManager = event.getGuild().getAudioManager();
@@ -421,13 +353,15 @@ public class OtherEvents extends ListenerAdapter {
             if (!Main.getInstance().getCommandManager().perform(event.getMember(), event.getGuild(), event.getMessage().getContentRaw(), event.getMessage(), event.getChannel(), null)) {
 
                 if (!event.getMessage().getMentions().getUsers().isEmpty() && event.getMessage().getMentions().getUsers().contains(event.getJDA().getSelfUser())) {
-                    try {
-                        Main.getInstance().getCommandManager().sendMessage(ChatGPTAPI.getResponse(event.getMember(),
-                                event.getMessage().getContentDisplay()), event.getChannel());
-                    } catch (Exception e) {
-                        Sentry.captureException(e);
-                        Main.getInstance().getCommandManager().sendMessage(LanguageService.getByGuild(event.getGuild(), "message.default.retrievalError"), event.getChannel());
-                    }
+                    ChatGPTAPI.getResponse(event.getMember(), event.getChannel(), event.getMessage().getContentDisplay()).whenComplete((response, throwable) -> {
+                        if (throwable != null) {
+                            SentryReporter.captureException(throwable);
+                            Main.getInstance().getCommandManager().sendMessage(LanguageService.getByGuild(event.getGuild(), "message.default.retrievalError"), event.getChannel());
+                            return;
+                        }
+
+                        Main.getInstance().getCommandManager().sendMessage(response, event.getChannel());
+                    });
                 }
 
                 if (Data.isModuleActive("level")) {
@@ -443,12 +377,13 @@ public class OtherEvents extends ListenerAdapter {
 
                         SQLSession.getSqlConnector().getSqlWorker().addChatLevelData(event.getGuild().getId(), userLevel);
 
+                        // Only check the rewards when the level could have changed.
+                        AutoRoleHandler.handleChatLevelReward(event.getGuild(), event.getMember(), userLevel.getLevel());
+
                         ArrayUtil.timeout.add(event.getMember());
 
                         ThreadUtil.createThread(x -> ArrayUtil.timeout.remove(event.getMember()), null, Duration.ofSeconds(30), false, false);
                     }
-
-                    AutoRoleHandler.handleChatLevelReward(event.getGuild(), event.getMember());
                 }
             }
         }
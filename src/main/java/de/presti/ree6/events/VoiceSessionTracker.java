@@ -0,0 +1,362 @@
+package de.presti.ree6.events;
+
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.level.VoiceUserLevel;
+import de.presti.ree6.utils.metrics.Metrics;
+import de.presti.ree6.utils.others.AutoRoleHandler;
+import de.presti.ree6.utils.others.RandomUtils;
+import de.presti.ree6.utils.others.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.GuildVoiceState;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import net.dv8tion.jda.api.events.guild.voice.GenericGuildVoiceEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the time every Member spends in a voice channel of a Guild, to give them voice XP.
+ * Only time in which a Member can take part in the conversation counts, which excludes deafened, server muted and AFK Members as well as Bots.
+ * The accrued time is credited every minute in whole minutes, the rest is kept for the next time.
+ * On start and reconnect the sessions are compared with the current voice states, so no session is lost or kept running.
+ * The drained time is also collected as statistics, which are taken once a day for the daily Statistics.
+ */
+@Slf4j
+public class VoiceSessionTracker extends ListenerAdapter {
+
+    /**
+     * The interval in which the accrued time is credited.
+     */
+    private static final Duration CREDIT_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * The time that is worth one credit.
+     */
+    private static final long CREDIT_UNIT = Duration.ofMinutes(1).toMillis();
+
+    /**
+     * The clock used to measure the sessions.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The session of every Member that is in a voice channel or has time that hasn't been credited yet.
+     */
+    private final Map<Key, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * The drained time in millis since the statistics have been taken.
+     */
+    private final LongAdder voiceTime = new LongAdder();
+
+    /**
+     * The Members with drained time since the statistics have been taken.
+     */
+    private final Set<Key> voiceMembers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The highest amount of counting sessions since the statistics have been taken.
+     */
+    private final AtomicInteger peakSessions = new AtomicInteger();
+
+    /**
+     * Constructor used to create a tracker that uses the system clock.
+     */
+    public VoiceSessionTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor used to create a tracker with a custom clock, e.g. to replay voice events.
+     *
+     * @param clock the clock, returns the current time in millis.
+     */
+    public VoiceSessionTracker(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Start every session of the Guilds that are already loaded and start crediting the accrued time.
+     */
+    public void start() {
+        BotWorker.getShardManager().getShardCache().forEach(this::reconcile);
+
+        ThreadUtil.createThread(x -> {
+            try {
+                credit();
+            } catch (Exception exception) {
+                log.error("[VoiceXP] Couldn't credit the voice time!", exception);
+            }
+        }, null, CREDIT_INTERVAL, true, false);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onReady(@NotNull ReadyEvent event) {
+        reconcile(event.getJDA());
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onGenericGuildVoice(@NotNull GenericGuildVoiceEvent event) {
+        // Joins, leaves, moves, mutes and deafens all change the voice state, which decides if the time counts.
+        update(event.getGuild().getIdLong(), event.getMember().getIdLong(), isCounting(event.getVoiceState()));
+    }
+
+    /**
+     * Update the session of a Member.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param userId   the ID of the Member.
+     * @param counting if the time from now on counts.
+     */
+    public void update(long guildId, long userId, boolean counting) {
+        long now = clock.getAsLong();
+
+        sessions.compute(new Key(guildId, userId), (key, session) -> {
+            if (session == null) {
+                if (!counting) return null;
+                session = new Session();
+            }
+
+            session.update(counting, now);
+            return session;
+        });
+    }
+
+    /**
+     * Compare the sessions of every Guild of a shard with the current voice states.
+     * Sessions of Members that left while the shard was disconnected are stopped, Members that joined get a session.
+     *
+     * @param jda the shard.
+     */
+    public void reconcile(JDA jda) {
+        for (Guild guild : jda.getGuildCache()) {
+            Map<Long, Boolean> voiceStates = new HashMap<>();
+
+            for (GuildVoiceState voiceState : guild.getVoiceStates()) {
+                if (voiceState.getChannel() != null) {
+                    voiceStates.put(voiceState.getMember().getIdLong(), isCounting(voiceState));
+                }
+            }
+
+            reconcile(guild.getIdLong(), voiceStates);
+        }
+    }
+
+    /**
+     * Compare the sessions of a Guild with the current voice states.
+     *
+     * @param guildId     the ID of the Guild.
+     * @param voiceStates the Members that are in a voice channel, mapped to if their time counts.
+     */
+    public void reconcile(long guildId, Map<Long, Boolean> voiceStates) {
+        Set<Long> tracked = new HashSet<>();
+
+        for (Key key : sessions.keySet()) {
+            if (key.guildId() == guildId) tracked.add(key.userId());
+        }
+
+        tracked.removeAll(voiceStates.keySet());
+        tracked.forEach(userId -> update(guildId, userId, false));
+        voiceStates.forEach((userId, counting) -> update(guildId, userId, counting));
+    }
+
+    /**
+     * Take the accrued time of every session in whole units, the rest stays in the session.
+     * Sessions that don't count anymore lose their rest and are removed.
+     *
+     * @param unit the length of a unit in millis.
+     * @return the amount of accrued units, mapped by the session, only contains sessions with at least one unit.
+     */
+    public Map<Key, Long> drain(long unit) {
+        long now = clock.getAsLong();
+        Map<Key, Long> deltas = new HashMap<>();
+
+        int counting = 0;
+
+        for (Key key : sessions.keySet()) {
+            Session session = sessions.computeIfPresent(key, (ignore, current) -> {
+                long units = current.drain(now, unit);
+                if (units > 0) deltas.put(key, units);
+                return current.isCounting() ? current : null;
+            });
+
+            if (session != null) counting++;
+        }
+
+        long drained = 0;
+        for (Map.Entry<Key, Long> entry : deltas.entrySet()) {
+            drained += entry.getValue() * unit;
+            voiceMembers.add(entry.getKey());
+        }
+
+        voiceTime.add(drained);
+        Metrics.VOICE_TIME.add(drained / 1000);
+        peakSessions.accumulateAndGet(counting, Math::max);
+
+        return deltas;
+    }
+
+    /**
+     * Get the amount of sessions whose time currently counts.
+     *
+     * @return the amount of counting sessions.
+     */
+    public int getCountingSessions() {
+        int counting = 0;
+
+        for (Session session : sessions.values()) {
+            if (session.isCounting()) counting++;
+        }
+
+        return counting;
+    }
+
+    /**
+     * Take the statistics collected since they have been taken the last time.
+     * The time and Members start again from zero, the peak starts again from the current counting sessions.
+     *
+     * @return the {@link Statistics}.
+     */
+    public Statistics takeStatistics() {
+        long minutes = voiceTime.sumThenReset() / CREDIT_UNIT;
+
+        int members = voiceMembers.size();
+        voiceMembers.clear();
+
+        return new Statistics(minutes, members, peakSessions.getAndSet(getCountingSessions()));
+    }
+
+    /**
+     * Credit the accrued minutes as voice XP.
+     */
+    public void credit() {
+        for (Map.Entry<Key, Long> entry : drain(CREDIT_UNIT).entrySet()) {
+            Key key = entry.getKey();
+
+            int addXP = 0;
+            for (int i = 1; i <= entry.getValue(); i++) {
+                addXP += RandomUtils.random.nextInt(5, 11);
+            }
+
+            try {
+                VoiceUserLevel voiceUserLevel = SQLSession.getSqlConnector().getSqlWorker().getVoiceLevelData(String.valueOf(key.guildId()), String.valueOf(key.userId()));
+                voiceUserLevel.addExperience(addXP);
+                SQLSession.getSqlConnector().getSqlWorker().addVoiceLevelData(String.valueOf(key.guildId()), voiceUserLevel);
+
+                Guild guild = BotWorker.getShardManager().getGuildById(key.guildId());
+                Member member = guild != null ? guild.getMemberById(key.userId()) : null;
+
+                if (member != null) {
+                    AutoRoleHandler.handleVoiceLevelReward(guild, member, voiceUserLevel.getLevel());
+                }
+            } catch (Exception exception) {
+                log.error("[VoiceXP] Couldn't credit {} minutes to {} on {}!", entry.getValue(), key.userId(), key.guildId(), exception);
+            }
+        }
+    }
+
+    /**
+     * Check if the time of a Member in a voice channel counts.
+     *
+     * @param voiceState the voice state of the Member.
+     * @return true, if the Member is in a voice channel and can take part in the conversation.
+     */
+    private boolean isCounting(GuildVoiceState voiceState) {
+        AudioChannel channel = voiceState.getChannel();
+
+        return channel != null && !voiceState.getMember().getUser().isBot()
+                && !voiceState.isDeafened() && !voiceState.isGuildMuted()
+                && !channel.equals(voiceState.getGuild().getAfkChannel());
+    }
+
+    /**
+     * The key of a session.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the Member.
+     */
+    public record Key(long guildId, long userId) {
+    }
+
+    /**
+     * The voice statistics of a period.
+     *
+     * @param minutes      the drained voice time in minutes.
+     * @param members      the amount of Members with drained voice time, a Member on two Guilds counts twice.
+     * @param peakSessions the highest amount of counting sessions, measured whenever the time is drained.
+     */
+    public record Statistics(long minutes, int members, int peakSessions) {
+    }
+
+    /**
+     * The session of a Member, only accessed while holding the lock of its entry.
+     */
+    private static class Session {
+
+        /**
+         * The time in millis since the time counts, -1 if it doesn't count.
+         */
+        private long countingSince = -1;
+
+        /**
+         * The counted time in millis that hasn't been credited yet.
+         */
+        private long accrued;
+
+        /**
+         * Update if the time counts.
+         *
+         * @param counting if the time from now on counts.
+         * @param now      the current time in millis.
+         */
+        void update(boolean counting, long now) {
+            if (countingSince != -1) accrued += Math.max(0, now - countingSince);
+            countingSince = counting ? now : -1;
+        }
+
+        /**
+         * Take the accrued time in whole units.
+         *
+         * @param now  the current time in millis.
+         * @param unit the length of a unit in millis.
+         * @return the amount of units.
+         */
+        long drain(long now, long unit) {
+            update(isCounting(), now);
+
+            long units = accrued / unit;
+            // The rest is only kept for Members that are still counting.
+            accrued = isCounting() ? accrued % unit : 0;
+            return units;
+        }
+
+        /**
+         * Check if the time currently counts.
+         *
+         * @return true, if the time counts.
+         */
+        boolean isCounting() {
+            return countingSince != -1;
+        }
+    }
+}
@@ -2,8 +2,12 @@ package de.presti.ree6.game.core;
 
 import de.presti.ree6.game.core.base.GameInfo;
 import de.presti.ree6.game.core.base.IGame;
+import de.presti.ree6.language.LanguageService;
+import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.data.Config;
+import de.presti.ree6.utils.metrics.Metrics;
 import de.presti.ree6.utils.others.RandomUtils;
-import lombok.Getter;
+import de.presti.ree6.utils.others.ThreadUtil;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
@@ -11,26 +15,45 @@ import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
 import org.reflections.Reflections;
 
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class to manage Games.
+ * Sessions are kept in a concurrent registry, limited per Guild and per host, and removed once they have been inactive for too long.
  */
 @Slf4j
 public class GameManager {
 
     /**
-     * A HashMap used to cache the Games.
+     * The interval in which inactive GameSessions are removed.
+     */
+    private static final Duration EXPIRY_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * A Map used to cache the Games, built once by {@link #loadAllGames()}.
      * The Key is the Name of the Game.
      */
-    @Getter
-    private final static HashMap<String, Class<? extends IGame>> gameCache = new HashMap<>();
+    private static volatile Map<String, Class<? extends IGame>> gameCache = Map.of();
 
     /**
-     * A HashMap used to cache the GameSessions.
-     * The Key is the ID of the Channel.
+     * A Map used to cache the GameSessions.
+     * The Key is the Identifier of the GameSession.
      */
-    private final static HashMap<String, GameSession> gameSessions = new HashMap<>();
+    private static final Map<String, GameSession> gameSessions = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of GameSessions per Guild.
+     * The Key is the ID of the Guild.
+     */
+    private static final Map<String, Integer> guildSessions = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of GameSessions per host.
+     * The Key is the ID of the User.
+     */
+    private static final Map<String, Integer> hostSessions = new ConcurrentHashMap<>();
 
     /**
      * Should be called to load all Games into the cache.
@@ -39,93 +62,98 @@ public class GameManager {
         Reflections reflections = new Reflections("de.presti.ree6.game.impl");
         Set<Class<? extends IGame>> classes = reflections.getSubTypesOf(IGame.class);
 
+        Map<String, Class<? extends IGame>> games = new TreeMap<>();
+
         for (Class<? extends IGame> aClass : classes) {
             if (aClass.isAnnotationPresent(GameInfo.class)) {
                 GameInfo gameInfo = aClass.getAnnotation(GameInfo.class);
-                if (!gameCache.containsKey(gameInfo.name().trim().toLowerCase())) {
-                    gameCache.put(gameInfo.name().trim().toLowerCase(), aClass);
-                }
+                games.putIfAbsent(gameInfo.name().trim().toLowerCase(), aClass);
             }
         }
+
+        gameCache = Collections.unmodifiableMap(games);
+        log.info("[Games] Loaded {} Games.", games.size());
     }
 
     /**
-     * Method used to create a new GameSession.
-     *
-     * @param gameIdentifier The Identifier of the Session.
-     * @param gameName       The Name of the Game.
-     * @param host           The Creator of the Game.
-     * @param channel        The Channel where the Game is played.
-     * @param participants   The Participants of the Game.
-     * @return The created GameSession.
+     * Start removing the GameSessions that have been inactive for longer than the configured timeout.
      */
-    public static GameSession createGameSession(String gameIdentifier, String gameName, Member host, MessageChannelUnion channel, ArrayList<User> participants) {
-        GameSession gameSession = new GameSession(gameIdentifier, channel.asGuildMessageChannel().getGuild(), host, channel, participants);
-        gameSession.setGame(getGame(gameName, gameSession));
-        gameSessions.put(gameIdentifier, gameSession);
-        return gameSession;
+    public static void startExpiry() {
+        ThreadUtil.createThread(x -> {
+            try {
+                expireSessions();
+            } catch (Exception exception) {
+                log.error("[Games] Failed to remove the inactive GameSessions!", exception);
+            }
+        }, null, EXPIRY_INTERVAL, true, false);
     }
 
     /**
-     * Generate a valid Invite
+     * Method used to create a new GameSession.
      *
-     * @return the newly create Invite.
+     * @param gameName     The Name of the Game.
+     * @param host         The Creator of the Game.
+     * @param channel      The Channel where the Game is played.
+     * @param participants The Participants of the Game.
+     * @return The created GameSession.
+     * @throws GameSessionException if the Game is unknown, the Guild or host reached their limit or the Game couldn't be created.
      */
-    public static String generateInvite() {
-        String key = RandomUtils.getRandomBase64String(4);
-        if (gameSessions.containsKey(key)) {
-            return generateInvite();
-        }
+    public static GameSession createGameSession(String gameName, Member host, MessageChannelUnion channel, ArrayList<User> participants) throws GameSessionException {
+        Class<? extends IGame> gameClass = gameCache.get(gameName.toLowerCase().trim());
+        if (gameClass == null) throw new GameSessionException(GameSessionException.Reason.UNKNOWN_GAME, gameName);
 
-        return key;
-    }
+        String guildId = host.getGuild().getId();
+        String hostId = host.getId();
 
-    /**
-     * Method used to get a Game by its name.
-     *
-     * @param gameName    The Name of the Game.
-     * @param gameSession The GameSession of the Game.
-     * @return The Game.
-     */
-    public static IGame getGame(String gameName, GameSession gameSession) {
+        if (!acquire(guildSessions, guildId, (int) getSetting("games.maxPerGuild", 10))) {
+            Metrics.GAME_SESSIONS.inc("rejected");
+            throw new GameSessionException(GameSessionException.Reason.LIMIT_REACHED, "Guild " + guildId);
+        }
 
-        if (gameCache.containsKey(gameName.toLowerCase().trim())) {
-            try {
-                return gameCache.get(gameName.toLowerCase().trim()).getDeclaredConstructor(GameSession.class).newInstance(gameSession);
-            } catch (InstantiationException | IllegalAccessException | InvocationTargetException |
-                     NoSuchMethodException e) {
-                log.error("Failed to create instance of " + gameName + "!", e);
-            }
+        if (!acquire(hostSessions, hostId, (int) getSetting("games.maxPerUser", 2))) {
+            release(guildSessions, guildId);
+            Metrics.GAME_SESSIONS.inc("rejected");
+            throw new GameSessionException(GameSessionException.Reason.LIMIT_REACHED, "User " + hostId);
         }
 
-        Reflections reflections = new Reflections("de.presti.ree6.game.impl");
-        Set<Class<? extends IGame>> classes = reflections.getSubTypesOf(IGame.class);
+        GameSession gameSession;
+        do {
+            gameSession = new GameSession(generateInvite(), channel.asGuildMessageChannel().getGuild(), host, channel, participants);
+        } while (gameSessions.putIfAbsent(gameSession.getGameIdentifier(), gameSession) != null);
 
-        for (Class<? extends IGame> aClass : classes) {
-            if (aClass.isAnnotationPresent(GameInfo.class) && aClass.getAnnotation(GameInfo.class).name().trim().equalsIgnoreCase(gameName)) {
-                try {
-                    if (!gameCache.containsKey(gameName.toLowerCase().trim())) {
-                        gameCache.put(gameName.toLowerCase().trim(), aClass);
-                    }
-                    return aClass.getDeclaredConstructor(GameSession.class).newInstance(gameSession);
-                } catch (InstantiationException | IllegalAccessException | InvocationTargetException |
-                         NoSuchMethodException e) {
-                    log.error("Failed to create instance of " + aClass.getSimpleName() + "!", e);
-                }
-            }
+        Metrics.GAME_SESSIONS.inc("created");
+
+        // The Session is only visible to lookups once the Game is set, since the constructor of the Game already sends its messages.
+        try {
+            gameSession.setGame(gameClass.getDeclaredConstructor(GameSession.class).newInstance(gameSession));
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException |
+                 NoSuchMethodException e) {
+            log.error("Failed to create instance of " + gameName + "!", e);
+            removeGameSession(gameSession);
+            throw new GameSessionException(GameSessionException.Reason.FAILED, gameName);
         }
 
-        return null;
+        return gameSession;
+    }
+
+    /**
+     * Generate a random Invite, the uniqueness is ensured when registering the GameSession.
+     *
+     * @return the newly create Invite.
+     */
+    private static String generateInvite() {
+        return RandomUtils.getRandomBase64String(4);
     }
 
     /**
      * Method used to get a GameSession by its Identifier.
      *
      * @param gameIdentifier The Identifier of the GameSession.
-     * @return The GameSession.
+     * @return The GameSession, or null if there is no running GameSession with this Identifier.
      */
     public static GameSession getGameSession(String gameIdentifier) {
-        return gameSessions.get(gameIdentifier);
+        GameSession gameSession = gameSessions.get(gameIdentifier);
+        return gameSession != null && gameSession.getGame() != null ? gameSession : null;
     }
 
     /**
@@ -135,7 +163,8 @@ public class GameManager {
      * @return A List of GameSessions.
      */
     public static List<GameSession> getGameSessions(MessageChannelUnion channel) {
-        return gameSessions.values().stream().filter(gameSession -> gameSession.getChannel().getId().equals(channel.getId())).toList();
+        return gameSessions.values().stream().filter(gameSession -> gameSession.getGame() != null &&
+                gameSession.getChannel().getId().equals(channel.getId())).toList();
     }
 
     /**
@@ -144,16 +173,139 @@ public class GameManager {
      * @return A List of GameSessions.
      */
     public static List<GameSession> getGameSessions() {
-        return (List<GameSession>) gameSessions.values();
+        return gameSessions.values().stream().filter(gameSession -> gameSession.getGame() != null).toList();
+    }
+
+    /**
+     * Method used to get the amount of GameSessions.
+     *
+     * @return the amount of GameSessions.
+     */
+    public static int getGameSessionCount() {
+        return gameSessions.size();
     }
 
     /**
-     * Method used to remove a GameSession.
+     * Method used to remove a GameSession, calling it again for the same GameSession does nothing.
      *
      * @param session The GameSession.
      */
     public static void removeGameSession(GameSession session) {
-        gameSessions.remove(session.getGameIdentifier());
+        removeGameSession(session, false);
+    }
+
+    /**
+     * Method used to remove a GameSession and to notify its Game.
+     *
+     * @param session The GameSession.
+     * @param expired If the GameSession has been removed because it has been inactive for too long.
+     */
+    private static void removeGameSession(GameSession session, boolean expired) {
+        if (!gameSessions.remove(session.getGameIdentifier(), session)) return;
+
+        release(guildSessions, session.getGuild().getId());
+        release(hostSessions, session.getHost().getId());
+        Metrics.GAME_SESSIONS.inc(expired ? "expired" : "ended");
+
+        if (session.getGame() == null) return;
+
+        try {
+            session.getGame().onSessionRemoved(expired);
+        } catch (Exception exception) {
+            log.error("[Games] Failed to clean up the GameSession " + session.getGameIdentifier() + "!", exception);
+        }
+    }
+
+    /**
+     * Remove every GameSession that has been inactive for longer than the configured timeout.
+     */
+    private static void expireSessions() {
+        expireSessions(System.currentTimeMillis());
+    }
+
+    /**
+     * Remove every GameSession that has been inactive for longer than the configured timeout.
+     *
+     * @param now the current time in millis.
+     */
+    static void expireSessions(long now) {
+        long timeout = Duration.ofSeconds(getSetting("games.timeout", 600)).toMillis();
+
+        for (GameSession gameSession : gameSessions.values()) {
+            if (gameSession.getGame() == null || now - gameSession.getLastActivity() < timeout) continue;
+
+            removeGameSession(gameSession, true);
+
+            // A failed notification must not keep the other GameSessions from expiring.
+            try {
+                gameSession.getChannel().sendMessage(LanguageService.getByGuild(gameSession.getGuild(), "message.gameCore.expired",
+                        gameSession.getGameIdentifier())).queue(message -> {}, throwable -> {});
+            } catch (Exception exception) {
+                log.debug("[Games] Couldn't notify the expired GameSession {}: {}", gameSession.getGameIdentifier(), exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get a setting of the games from the config.
+     *
+     * @param path         the path of the setting.
+     * @param defaultValue the value used if the setting or the config is missing.
+     * @return the value of the setting.
+     */
+    private static long getSetting(String path, long defaultValue) {
+        Config config = Main.getInstance().getConfig();
+        return config == null ? defaultValue : config.getConfiguration().getLong(path, defaultValue);
+    }
+
+    /**
+     * Take a slot of a limited amount.
+     *
+     * @param counts the amounts per key.
+     * @param key    the key.
+     * @param limit  the limit per key.
+     * @return true, if a slot has been taken.
+     */
+    private static boolean acquire(Map<String, Integer> counts, String key, int limit) {
+        boolean[] acquired = new boolean[1];
+
+        counts.compute(key, (k, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= limit) return count;
+
+            acquired[0] = true;
+            return current + 1;
+        });
+
+        return acquired[0];
+    }
+
+    /**
+     * Free a slot taken by {@link #acquire(Map, String, int)}.
+     *
+     * @param counts the amounts per key.
+     * @param key    the key.
+     */
+    private static void release(Map<String, Integer> counts, String key) {
+        counts.computeIfPresent(key, (k, count) -> count <= 1 ? null : count - 1);
+    }
+
+    /**
+     * Replace the cached Games, used instead of {@link #loadAllGames()} in tests.
+     *
+     * @param games the Games, with the Name of the Game as key.
+     */
+    static void setGameCache(Map<String, Class<? extends IGame>> games) {
+        gameCache = Collections.unmodifiableMap(new TreeMap<>(games));
+    }
+
+    /**
+     * Method that returns the cached Games.
+     *
+     * @return A Map with the Name of the Game as key.
+     */
+    public static Map<String, Class<? extends IGame>> getGameCache() {
+        return gameCache;
     }
 
     /**
@@ -23,7 +23,7 @@ public class GameSession {
     /**
      * The Game class.
      */
-    IGame game;
+    volatile IGame game;
 
     /**
      * The current Game-State.
@@ -52,6 +52,11 @@ public class GameSession {
      */
     ArrayList<User> participants;
 
+    /**
+     * The time of the last interaction with the Game, in milliseconds.
+     */
+    private volatile long lastActivity = System.currentTimeMillis();
+
     /**
      * Constructor for the GameSession.
      *
@@ -155,4 +160,20 @@ public class GameSession {
     public User getHostAsUser() {
         return host.getUser();
     }
+
+    /**
+     * Mark the GameSession as active, to reset its inactivity timeout.
+     */
+    public void touch() {
+        lastActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * Retrieve the time of the last interaction with the Game.
+     *
+     * @return The time in milliseconds.
+     */
+    public long getLastActivity() {
+        return lastActivity;
+    }
 }
@@ -0,0 +1,50 @@
+package de.presti.ree6.game.core;
+
+import lombok.Getter;
+
+/**
+ * Exception class, used when a GameSession couldn't be created.
+ */
+@Getter
+public class GameSessionException extends Exception {
+
+    /**
+     * Serial version ID.
+     */
+    @java.io.Serial
+    private static final long serialVersionUID = -4817204459121675383L;
+
+    /**
+     * The reason of the failure.
+     */
+    private final Reason reason;
+
+    /**
+     * Constructs a GameSessionException object.
+     *
+     * @param reason  the reason of the failure.
+     * @param message a String describing the failure.
+     */
+    public GameSessionException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * The reasons of a GameSession that couldn't be created.
+     */
+    public enum Reason {
+        /**
+         * There is no Game with the given name.
+         */
+        UNKNOWN_GAME,
+        /**
+         * The Guild or the host already have the maximum amount of running GameSessions.
+         */
+        LIMIT_REACHED,
+        /**
+         * The Game couldn't be created.
+         */
+        FAILED
+    }
+}
@@ -86,4 +86,13 @@ public interface IGame {
      * Called when the Game is stopped.
      */
     void stopGame();
+
+    /**
+     * Called once the GameSession has been removed, either because the Game ended or because it has been inactive for too long.
+     * Used to release everything the Game still holds, like listeners or timers.
+     *
+     * @param expired If the GameSession has been removed because it has been inactive for too long.
+     */
+    default void onSessionRemoved(boolean expired) {
+    }
 }
@@ -3,6 +3,7 @@ package de.presti.ree6.game.impl.musicquiz;
 import com.sedmelluq.discord.lavaplayer.player.event.AudioEventListener;
 import com.sedmelluq.discord.lavaplayer.player.event.TrackEndEvent;
 import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.game.core.GameManager;
 import de.presti.ree6.game.core.GameSession;
 import de.presti.ree6.game.core.base.GameInfo;
 import de.presti.ree6.game.core.base.GamePlayer;
@@ -262,7 +263,7 @@ public class MusicQuiz implements IGame {
      */
     @Override
     public void stopGame() {
-        Main.getInstance().getMusicWorker().getGuildAudioPlayer(session.getGuild()).getPlayer().removeListener(audioEventListener);
+        GameManager.removeGameSession(session);
         MessageCreateBuilder messageCreateBuilder = new MessageCreateBuilder();
         EmbedBuilder embedBuilder = new EmbedBuilder(menuMessage.getEmbeds().get(0));
 
@@ -286,6 +287,22 @@ public class MusicQuiz implements IGame {
         Main.getInstance().getMusicWorker().disconnect(session.getGuild());
     }
 
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onSessionRemoved(boolean expired) {
+        Main.getInstance().getMusicWorker().getGuildAudioPlayer(session.getGuild()).getPlayer().removeListener(audioEventListener);
+
+        if (internalTimer != null && !internalTimer.isDone()) {
+            internalTimer.cancel(true);
+        }
+
+        if (expired && session.getGameState() == GameState.STARTED) {
+            Main.getInstance().getMusicWorker().disconnect(session.getGuild());
+        }
+    }
+
     /**
      * Select a new song and play the timer!
      */
@@ -298,6 +315,8 @@ public class MusicQuiz implements IGame {
             internalTimer.cancel(true);
         }
 
+        session.touch();
+
         if (currentRound > 0) {
             Main.getInstance().getCommandManager()
                     .sendMessage(LanguageService.getByGuild(session.getGuild(),
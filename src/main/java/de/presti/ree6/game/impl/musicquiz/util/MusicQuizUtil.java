@@ -4,8 +4,8 @@ import de.presti.ree6.game.impl.musicquiz.entities.MusicQuizEntry;
 import de.presti.ree6.utils.apis.SpotifyAPIHandler;
 import de.presti.ree6.utils.apis.YouTubeAPIHandler;
 import de.presti.ree6.utils.others.RandomUtils;
+import de.presti.ree6.utils.others.SentryReporter;
 import de.presti.ree6.utils.others.ThreadUtil;
-import io.sentry.Sentry;
 import lombok.extern.slf4j.Slf4j;
 import se.michaelthelin.spotify.model_objects.specification.ArtistSimplified;
 
@@ -104,7 +104,7 @@ public class MusicQuizUtil {
             });
 
             log.info("Loaded {} entries from Spotify.", entries.size());
-        }, Sentry::captureException);
+        }, SentryReporter::captureException);
     }
 
 
@@ -1,9 +1,7 @@
 package de.presti.ree6.language;
 
-import io.sentry.Sentry;
-import io.sentry.SentryEvent;
+import de.presti.ree6.utils.others.SentryReporter;
 import io.sentry.SentryLevel;
-import io.sentry.protocol.Message;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.interactions.DiscordLocale;
 import org.jetbrains.annotations.NotNull;
@@ -134,12 +132,7 @@ public class Language {
         if (!resources.containsKey(key)) {
             log.info("Missing Language-Entry: {}", key);
 
-            SentryEvent sentryEvent = new SentryEvent();
-            Message message = new Message();
-            message.setMessage("Missing Language-Entry: " + key);
-            sentryEvent.setMessage(message);
-            sentryEvent.setLevel(SentryLevel.ERROR);
-            Sentry.captureEvent(sentryEvent);
+            SentryReporter.captureMessage("Missing Language-Entry: " + key, SentryLevel.ERROR, null);
 
             return "Missing language resource!";
         }
@@ -148,13 +141,7 @@ public class Language {
         } catch (Exception e) {
             log.error("Error while formatting language resource! (" + key + ")", e);
 
-            SentryEvent sentryEvent = new SentryEvent();
-            Message message = new Message();
-            message.setMessage("Error while formatting language resource! (" + key + ")");
-            sentryEvent.setMessage(message);
-            sentryEvent.setThrowable(e.getCause());
-            sentryEvent.setLevel(SentryLevel.FATAL);
-            Sentry.captureEvent(sentryEvent);
+            SentryReporter.captureMessage("Error while formatting language resource! (" + key + ")", SentryLevel.FATAL, e.getCause());
 
             return "Error while formatting language resource!";
         }
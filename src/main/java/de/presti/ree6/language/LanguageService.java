@@ -2,24 +2,20 @@ package de.presti.ree6.language;
 
 import de.presti.ree6.commands.CommandEvent;
 import de.presti.ree6.sql.SQLSession;
-import de.presti.ree6.utils.external.RequestUtility;
+import de.presti.ree6.utils.external.AssetBootstrap;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
 import net.dv8tion.jda.api.interactions.DiscordLocale;
 import net.dv8tion.jda.api.interactions.Interaction;
-import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.simpleyaml.configuration.file.YamlConfiguration;
 
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Objects;
 import java.util.Set;
@@ -74,60 +70,44 @@ public class LanguageService {
         }
 
         try {
-            RequestUtility.requestJson(RequestUtility.Request.builder().url("https://api.github.com/repos/Ree6-Applications/Ree6/contents/languages").build()).getAsJsonArray().forEach(jsonElement -> {
-                String language = jsonElement.getAsJsonObject().get("name").getAsString().replace(".yml", "");
-                String download = jsonElement.getAsJsonObject().get("download_url").getAsString();
-
-                Path languageFile = Path.of("languages/", language + ".yml");
-
-                if (!languageFile.toAbsolutePath().startsWith(languagePath.toPath().toAbsolutePath())) {
-                    log.info("Ignoring Language download, since Path Traversal has been detected!");
-                    return;
-                }
-
-                log.info("Downloading Language: {}", language);
-
-                try (InputStream inputStream = RequestUtility.request(RequestUtility.Request.builder().url(download).build())) {
-                    if (inputStream == null) return;
-
-                    String content = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+            AssetBootstrap.sync("languages", LanguageService::isOutdated).join();
+        } catch (Exception exception) {
+            log.error("An error occurred while downloading the language files!", exception);
+        }
 
-                    if (Files.exists(languageFile)) {
+        initializeLanguages();
+    }
 
-                        log.info("Language file {} already exists! Will compare version!", language);
-                        YamlConfiguration newLanguageYaml = YamlConfiguration.loadConfigurationFromString(content);
-                        Language newLanguage = new Language(newLanguageYaml);
-                        Language oldLanguage = new Language(YamlConfiguration.loadConfiguration(languageFile.toFile()));
-                        if (oldLanguage.compareVersion(newLanguage)) {
-                            log.info("Language file {} is outdated! Will update!", language);
-                            if (!languageFile.toFile().delete()) {
-                                log.info("Failed to delete old Language file {}!", language);
-                            }
+    /**
+     * Check if a changed local Language file should be replaced by the downloaded one.
+     *
+     * @param languageFile the path of the local Language file.
+     * @param content      the content of the downloaded Language file.
+     * @return true, if the downloaded Language has a newer version.
+     */
+    private static boolean isOutdated(Path languageFile, byte[] content) {
+        try {
+            Language newLanguage = new Language(YamlConfiguration.loadConfigurationFromString(new String(content, StandardCharsets.UTF_8)));
+            Language oldLanguage = new Language(YamlConfiguration.loadConfiguration(languageFile.toFile()));
 
-                            // Not using YamlConfiguration#save, since that methods breaks the whole file somehow? Unsure why?
-                            Files.writeString(languageFile, content, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+            if (!oldLanguage.compareVersion(newLanguage)) {
+                log.info("Language file {} is up to date!", languageFile.getFileName());
+                return false;
+            }
 
-                            log.info("Updated Language file {}!", language);
+            log.info("Language file {} is outdated! Will update!", languageFile.getFileName());
 
-                            if (languageResources.remove(oldLanguage.getDiscordLocale()) != null) {
-                                log.info("Removed old Language of {} from memory!", oldLanguage.getDiscordLocale().getLocale());
-                            }
-                        } else {
-                            log.info("Language file {} is up to date!", language);
-                        }
-                    } else {
-                        Files.writeString(languageFile, content, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
-                        log.info("Downloaded Language: {}", language);
-                    }
-                } catch (IOException exception) {
-                    log.error("An error occurred while downloading the language file!", exception);
+            synchronized (languageResources) {
+                if (languageResources.remove(oldLanguage.getDiscordLocale()) != null) {
+                    log.info("Removed old Language of {} from memory!", oldLanguage.getDiscordLocale().getLocale());
                 }
-            });
+            }
+
+            return true;
         } catch (Exception exception) {
-            log.error("An error occurred while downloading the language files!", exception);
+            log.error("Couldn't compare the version of the language file {}!", languageFile.getFileName(), exception);
+            return false;
         }
-
-        initializeLanguages();
     }
 
     /**
@@ -0,0 +1,258 @@
+package de.presti.ree6.logger;
+
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.webhook.Webhook;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The compiled logging configuration of a Guild, which contains the enabled log settings as a bitmask and the Log-Webhook.
+ * Profiles are built once and cached, so the logging handlers can decide if an event is logged without querying the database.
+ * Changes made by the Bot itself invalidate the profile after they have been stored, changes made through the Webinterface are picked up once it expires.
+ */
+@Slf4j
+public class LoggingProfile {
+
+    /**
+     * The time after which a profile is built again.
+     */
+    private static final long TTL = Duration.ofMinutes(1).toMillis();
+
+    /**
+     * The time after which a profile that couldn't be built is built again.
+     */
+    private static final long RETRY = Duration.ofSeconds(5).toMillis();
+
+    /**
+     * The cached profiles, mapped by the ID of the Guild.
+     */
+    private static final Map<String, LoggingProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of invalidations, used to not cache a profile that has been invalidated while it was built.
+     */
+    private static final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * The enabled settings, one bit per {@link Setting#ordinal()}.
+     */
+    private final int mask;
+
+    /**
+     * The Log-Webhook of the Guild, null if logging hasn't been set up.
+     */
+    @Getter
+    private final Webhook webhook;
+
+    /**
+     * The time in millis after which the profile is built again.
+     */
+    private final long expiresAt;
+
+    /**
+     * Constructor used to create a profile.
+     *
+     * @param mask      the enabled settings.
+     * @param webhook   the Log-Webhook.
+     * @param expiresAt the time in millis after which the profile is built again.
+     */
+    private LoggingProfile(int mask, Webhook webhook, long expiresAt) {
+        this.mask = mask;
+        this.webhook = webhook;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Get the profile of a Guild, it is built if it isn't cached or expired.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the {@link LoggingProfile}.
+     */
+    public static LoggingProfile get(String guildId) {
+        LoggingProfile profile = profiles.get(guildId);
+
+        if (profile == null || profile.expiresAt < System.currentTimeMillis()) {
+            long invalidation = invalidations.get();
+            LoggingProfile built = build(guildId);
+
+            // A profile built from data that changed in the meantime is used once, but not cached.
+            profiles.compute(guildId, (key, current) -> invalidations.get() == invalidation ? built : current);
+            profile = built;
+        }
+
+        return profile;
+    }
+
+    /**
+     * Remove the cached profile of a Guild, it is built again the next time it is used.
+     * Has to be called whenever the Log-Webhook or a log setting of the Guild changes.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void invalidate(String guildId) {
+        invalidations.incrementAndGet();
+        profiles.remove(guildId);
+    }
+
+    /**
+     * Build the profile of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the {@link LoggingProfile}, which has nothing enabled if logging hasn't been set up.
+     */
+    private static LoggingProfile build(String guildId) {
+        long expiresAt = System.currentTimeMillis() + TTL;
+
+        try {
+            if (!SQLSession.getSqlConnector().getSqlWorker().isLogSetup(guildId)) {
+                return new LoggingProfile(0, null, expiresAt);
+            }
+
+            Webhook webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(guildId);
+
+            if (webhook == null) {
+                return new LoggingProfile(0, null, expiresAt);
+            }
+
+            int mask = 0;
+
+            for (Setting setting : Setting.values()) {
+                de.presti.ree6.sql.entities.Setting value = SQLSession.getSqlConnector().getSqlWorker().getSetting(guildId, setting.getKey());
+
+                if (value != null && value.getBooleanValue()) {
+                    mask |= 1 << setting.ordinal();
+                }
+            }
+
+            return new LoggingProfile(mask, webhook, expiresAt);
+        } catch (Exception exception) {
+            log.error("[Logging] Couldn't build the logging profile of {}!", guildId, exception);
+            // Not cached for the whole TTL, since the error is most likely temporary.
+            return new LoggingProfile(0, null, System.currentTimeMillis() + RETRY);
+        }
+    }
+
+    /**
+     * Check if a log setting is enabled.
+     *
+     * @param setting the {@link Setting}.
+     * @return true, if logging has been set up and the setting is enabled.
+     */
+    public boolean isEnabled(Setting setting) {
+        return (mask & (1 << setting.ordinal())) != 0;
+    }
+
+    /**
+     * The log settings of a Guild.
+     */
+    @Getter
+    public enum Setting {
+        /**
+         * Log the Invite used by a joining Member.
+         */
+        INVITE("logging_invite"),
+        /**
+         * Log banned Members.
+         */
+        MEMBER_BAN("logging_memberban"),
+        /**
+         * Log joining Members.
+         */
+        MEMBER_JOIN("logging_memberjoin"),
+        /**
+         * Log leaving Members.
+         */
+        MEMBER_LEAVE("logging_memberleave"),
+        /**
+         * Log unbanned Users.
+         */
+        MEMBER_UNBAN("logging_memberunban"),
+        /**
+         * Log deleted Messages.
+         */
+        MESSAGE_DELETE("logging_messagedelete"),
+        /**
+         * Log changed Nicknames.
+         */
+        NICKNAME("logging_nickname"),
+        /**
+         * Log Roles added to a Member.
+         */
+        ROLE_ADD("logging_roleadd"),
+        /**
+         * Log changed Role colors.
+         */
+        ROLE_COLOR("logging_rolecolor"),
+        /**
+         * Log created Roles.
+         */
+        ROLE_CREATE("logging_rolecreate"),
+        /**
+         * Log deleted Roles.
+         */
+        ROLE_DELETE("logging_roledelete"),
+        /**
+         * Log Roles that are shown separately or not anymore.
+         */
+        ROLE_HOISTED("logging_rolehoisted"),
+        /**
+         * Log Roles that are mentionable or not anymore.
+         */
+        ROLE_MENTION("logging_rolemention"),
+        /**
+         * Log changed Role names.
+         */
+        ROLE_NAME("logging_rolename"),
+        /**
+         * Log changed Role permissions.
+         */
+        ROLE_PERMISSION("logging_rolepermission"),
+        /**
+         * Log Roles removed from a Member.
+         */
+        ROLE_REMOVE("logging_roleremove"),
+        /**
+         * Log created, changed and deleted Text-Channels.
+         */
+        TEXT_CHANNEL("logging_textchannel"),
+        /**
+         * Log timed out Members.
+         */
+        TIMEOUT("logging_timeout"),
+        /**
+         * Log created, changed and deleted Voice-Channels.
+         */
+        VOICE_CHANNEL("logging_voicechannel"),
+        /**
+         * Log Members joining a Voice-Channel.
+         */
+        VOICE_JOIN("logging_voicejoin"),
+        /**
+         * Log Members leaving a Voice-Channel.
+         */
+        VOICE_LEAVE("logging_voiceleave"),
+        /**
+         * Log Members moving between Voice-Channels.
+         */
+        VOICE_MOVE("logging_voicemove");
+
+        /**
+         * The name of the setting in the database.
+         */
+        private final String key;
+
+        /**
+         * Constructor used to create a setting.
+         *
+         * @param key the name of the setting in the database.
+         */
+        Setting(String key) {
+            this.key = key;
+        }
+    }
+}
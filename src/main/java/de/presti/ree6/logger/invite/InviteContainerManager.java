@@ -8,10 +8,13 @@ import net.dv8tion.jda.api.entities.Invite;
 import net.dv8tion.jda.api.entities.VanityInvite;
 import net.dv8tion.jda.internal.entities.InviteImpl;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Utility class to contain every Invite and manage the Invites in our Database.
@@ -33,6 +36,36 @@ public class InviteContainerManager {
      */
     private static final ArrayList<InviteContainer> deletedInvites = new ArrayList<>();
 
+    /**
+     * The time joins wait for a fetch of the Guild Invites, so that a burst of joins only causes a single fetch.
+     */
+    private static final Duration JOIN_WINDOW = Duration.ofSeconds(2);
+
+    /**
+     * The time changed Invites are collected, before they are saved into our Database.
+     */
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * The Invites of every Guild, mapped by the ID of the Guild and the Invite Code.
+     */
+    private static final Map<String, Map<String, InviteContainer>> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * The joins waiting for the next fetch, mapped by the ID of the Guild.
+     */
+    private static final Map<String, List<CompletableFuture<InviteContainer>>> pendingJoins = new HashMap<>();
+
+    /**
+     * Every Invite which changed since the last batch has been saved.
+     */
+    private static final Set<InviteContainer> dirtyInvites = ConcurrentHashMap.newKeySet();
+
+    /**
+     * If a batch has already been scheduled.
+     */
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean();
+
     /**
      * Methode to add or update an Invitation on the Database.
      *
@@ -89,52 +122,282 @@ public class InviteContainerManager {
 
     /**
      * Get the right {@link InviteContainer}.
+     * Joins that arrive within {@link #JOIN_WINDOW} share a single fetch of the Guild Invites, which is compared
+     * against the in-memory snapshot of the Guild.
+     *
+     * @param guild the {@link Guild} Entity.
+     * @return a {@link CompletableFuture} with the {@link InviteContainer} of the Invite or null, if it could not be determined.
+     */
+    public static CompletableFuture<InviteContainer> getRightInvite(Guild guild) {
+        CompletableFuture<InviteContainer> future = new CompletableFuture<>();
+
+        synchronized (pendingJoins) {
+            List<CompletableFuture<InviteContainer>> joins = pendingJoins.get(guild.getId());
+
+            if (joins == null) {
+                joins = new ArrayList<>();
+                pendingJoins.put(guild.getId(), joins);
+
+                CompletableFuture.runAsync(() -> resolveJoins(guild),
+                        CompletableFuture.delayedExecutor(JOIN_WINDOW.toMillis(), TimeUnit.MILLISECONDS));
+            }
+
+            joins.add(future);
+        }
+
+        return future;
+    }
+
+    /**
+     * Fetch the Invites of a Guild once and resolve every join that has been waiting for it.
      *
      * @param guild the {@link Guild} Entity.
-     * @return the {@link InviteContainer} of the Invite.
      */
-    public static InviteContainer getRightInvite(Guild guild) {
-        // Every Invite from our Database.
-        ArrayList<InviteContainer> cachedInvites = getInvites(guild.getId());
+    private static void resolveJoins(Guild guild) {
+        List<CompletableFuture<InviteContainer>> joins;
 
-        // Every Invite from the Guild.
-        ArrayList<Invite> guildInvites = new ArrayList<>(guild.retrieveInvites().complete());
+        synchronized (pendingJoins) {
+            joins = pendingJoins.remove(guild.getId());
+        }
 
-        Invite vanityInvite = convertVanityInvite(guild);
-        if (vanityInvite != null) guildInvites.add(vanityInvite);
+        if (joins == null || joins.isEmpty()) return;
 
-        // Go through every Invite of the Guild.
-        for (Invite inv : guildInvites) {
+        CompletableFuture<List<InviteContainer>> invitesFuture;
 
-            boolean foundOne = false;
-            // Go through every Invite of the Guild from our Database.
-            for (InviteContainer inv2 : cachedInvites) {
-                if (!foundOne && inv.getCode().equalsIgnoreCase(inv2.getCode())) {
-                    foundOne = true;
+        try {
+            invitesFuture = retrieveInvites(guild);
+        } catch (Exception exception) {
+            // For example a missing permission, which JDA reports before the request is queued.
+            invitesFuture = CompletableFuture.failedFuture(exception);
+        }
+
+        invitesFuture.handle((invites, throwable) -> {
+            List<InviteContainer> attributed = Collections.emptyList();
+
+            if (throwable != null) {
+                log.error("[InviteManager] Error while retrieving Invites: " + throwable.getMessage());
+            } else {
+                try {
+                    attributed = updateSnapshot(guild, invites, joins.size());
+                } catch (Exception exception) {
+                    log.error("[InviteManager] Error while comparing Invites: " + exception.getMessage());
                 }
+            }
+
+            for (int i = 0; i < joins.size(); i++) {
+                joins.get(i).complete(i < attributed.size() ? attributed.get(i) : null);
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Retrieve every Invite of the Guild, including the vanity Invite.
+     *
+     * @param guild the {@link Guild} Entity.
+     * @return a {@link CompletableFuture} with an {@link InviteContainer} of every Invite.
+     */
+    private static CompletableFuture<List<InviteContainer>> retrieveInvites(Guild guild) {
+        CompletableFuture<InviteContainer> vanityFuture = CompletableFuture.completedFuture(null);
+
+        if (guild.getVanityCode() != null) {
+            vanityFuture = guild.retrieveVanityInvite().submit()
+                    .thenApply(vanityInvite -> new InviteContainer(guild.getOwnerId(), guild.getId(), vanityInvite.getCode(), vanityInvite.getUses(), true))
+                    .exceptionally(throwable -> {
+                        log.error("[InviteManager] Error while retrieving Vanity Invite: " + throwable.getMessage());
+                        return null;
+                    });
+        }
+
+        return guild.retrieveInvites().submit().thenCombine(vanityFuture, (invites, vanityInvite) -> {
+            List<InviteContainer> containers = new ArrayList<>();
 
-                if (inv.getInviter() == null ||
-                        !inv.getCode().equalsIgnoreCase(inv2.getCode()) ||
-                        !inv.getInviter().getId().equalsIgnoreCase(inv2.getCreatorId())) continue;
-
-                if (inv.getUses() + 1 == inv2.getUses()) {
-                    inv2.setVanity(inv.getMaxAge() == -1242525);
-                    if (inv2.isVanity()) {
-                        inv2.setGuildId(guild.getId());
-                        if (inv2.getCreatorId() == null) {
-                            inv2.setCreatorId(guild.getOwnerId());
-                        }
-                    }
-                    return inv2;
+            for (Invite invite : invites) {
+                if (invite.getInviter() == null) continue;
+                containers.add(new InviteContainer(invite.getInviter().getId(), guild.getId(), invite.getCode(), invite.getUses(), false));
+            }
+
+            if (vanityInvite != null) containers.add(vanityInvite);
+
+            return containers;
+        });
+    }
+
+    /**
+     * Compare the fresh Invites with the snapshot of the Guild, update the snapshot and queue every changed Invite
+     * to be saved.
+     *
+     * @param guild   the {@link Guild} Entity.
+     * @param invites the freshly retrieved Invites.
+     * @param joins   the amount of joins that are waiting for the result.
+     * @return the {@link InviteContainer} of every join in the order of arrival, see {@link #attributeJoins(Map, List, int)}.
+     */
+    private static List<InviteContainer> updateSnapshot(Guild guild, List<InviteContainer> invites, int joins) {
+        Map<String, InviteContainer> snapshot = getSnapshot(guild.getId());
+
+        Map<InviteContainer, Long> usedInvites = new LinkedHashMap<>();
+        List<InviteContainer> vanished;
+
+        synchronized (snapshot) {
+            Set<String> freshCodes = new HashSet<>();
+
+            for (InviteContainer invite : invites) {
+                freshCodes.add(invite.getCode());
+
+                InviteContainer known = snapshot.get(invite.getCode());
+
+                if (known == null) {
+                    // Created while we did not receive any events, remember it without counting it as used.
+                    snapshot.put(invite.getCode(), invite);
+                    markDirty(invite);
+                } else if (invite.getUses() != known.getUses()) {
+                    if (invite.getUses() > known.getUses()) usedInvites.put(known, invite.getUses() - known.getUses());
+
+                    known.setUses(invite.getUses());
+                    known.setVanity(invite.isVanity());
+                    if (known.getCreatorId() == null) known.setCreatorId(invite.getCreatorId());
+                    markDirty(known);
                 }
             }
 
-            if (!foundOne && inv != null && inv.getInviter() != null) {
-                InviteContainerManager.addInvite(new InviteContainer(inv.getInviter().getId(), guild.getId(), inv.getCode(), inv.getUses(), inv.getMaxUses() == -1242525));
+            vanished = snapshot.values().stream().filter(invite -> !freshCodes.contains(invite.getCode())).toList();
+            vanished.forEach(invite -> snapshot.remove(invite.getCode()));
+        }
+
+        for (InviteContainer invite : vanished) {
+            dirtyInvites.remove(invite);
+            removeInvite(guild.getId(), invite.getCode());
+        }
+
+        return attributeJoins(usedInvites, vanished, joins);
+    }
+
+    /**
+     * Attribute the joins of a fetch to the Invites by the amount of uses each Invite gained.
+     * A join is only attributed if every gained use belongs to the same Invite, since the order in which the members
+     * used different Invites is unknown. If the Invite gained fewer uses than there were joins, the remaining joins
+     * stay unattributed.
+     *
+     * @param usedInvites the Invites that gained uses, mapped to the amount of gained uses.
+     * @param vanished    the Invites that disappeared since the last fetch.
+     * @param joins       the amount of joins that are waiting for the result.
+     * @return the {@link InviteContainer} of every join in the order of arrival, shorter than the amount of joins if
+     * some of them could not be attributed.
+     */
+    static List<InviteContainer> attributeJoins(Map<InviteContainer, Long> usedInvites, List<InviteContainer> vanished, int joins) {
+        long uses = usedInvites.values().stream().mapToLong(Long::longValue).sum();
+
+        // An Invite that reached its maximum uses is deleted by Discord, so its last use can only be found by its absence.
+        if (usedInvites.isEmpty() && vanished.size() == 1 && joins == 1) {
+            InviteContainer invite = vanished.get(0);
+            invite.setUses(invite.getUses() + 1);
+            return List.of(invite);
+        }
+
+        if (usedInvites.size() != 1) return Collections.emptyList();
+
+        return Collections.nCopies((int) Math.min(uses, joins), usedInvites.keySet().iterator().next());
+    }
+
+    /**
+     * Get the snapshot of the Invites of a Guild, seeded from our Database on the first access.
+     * The Database is queried outside the map, so that a slow query doesn't block other Guilds.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the snapshot, mapped by the Invite Code.
+     */
+    private static Map<String, InviteContainer> getSnapshot(String guildId) {
+        Map<String, InviteContainer> snapshot = snapshots.get(guildId);
+        if (snapshot != null) return snapshot;
+
+        Map<String, InviteContainer> seeded = new HashMap<>();
+
+        for (InviteContainer inviteContainer : getInvites(guildId)) {
+            seeded.put(inviteContainer.getCode(), inviteContainer);
+        }
+
+        snapshot = snapshots.putIfAbsent(guildId, seeded);
+        return snapshot != null ? snapshot : seeded;
+    }
+
+    /**
+     * Update the snapshot of a Guild with a newly created Invite.
+     *
+     * @param inviteContainer the {@link InviteContainer} with the data of the Invite.
+     */
+    public static void trackInvite(InviteContainer inviteContainer) {
+        Map<String, InviteContainer> snapshot = getSnapshot(inviteContainer.getGuildId());
+
+        synchronized (snapshot) {
+            snapshot.put(inviteContainer.getCode(), inviteContainer);
+        }
+
+        markDirty(inviteContainer);
+    }
+
+    /**
+     * Remove a deleted Invite from the snapshot of a Guild and our Database.
+     *
+     * @param guildId the ID of the Guild.
+     * @param code    the Code of the Invite.
+     */
+    public static void untrackInvite(String guildId, String code) {
+        Map<String, InviteContainer> snapshot = snapshots.get(guildId);
+
+        if (snapshot != null) {
+            InviteContainer removed;
+
+            synchronized (snapshot) {
+                removed = snapshot.remove(code);
+            }
+
+            if (removed != null) dirtyInvites.remove(removed);
+        }
+
+        removeInvite(guildId, code);
+    }
+
+    /**
+     * Forget the snapshot of a Guild, so that it will be seeded from our Database again.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void clearSnapshot(String guildId) {
+        Map<String, InviteContainer> snapshot = snapshots.remove(guildId);
+
+        if (snapshot != null) {
+            synchronized (snapshot) {
+                snapshot.values().forEach(dirtyInvites::remove);
             }
         }
+    }
 
-        return null;
+    /**
+     * Queue an Invite to be saved with the next batch.
+     *
+     * @param inviteContainer the {@link InviteContainer} with the data of the Invite.
+     */
+    private static void markDirty(InviteContainer inviteContainer) {
+        dirtyInvites.add(inviteContainer);
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(InviteContainerManager::flush,
+                    CompletableFuture.delayedExecutor(FLUSH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Save every Invite which changed since the last batch into our Database.
+     */
+    public static void flush() {
+        flushScheduled.set(false);
+
+        for (InviteContainer inviteContainer : dirtyInvites) {
+            if (dirtyInvites.remove(inviteContainer)) {
+                addInvite(inviteContainer);
+            }
+        }
     }
 
     /**
@@ -1,14 +1,11 @@
 package de.presti.ree6.main;
 
-import club.minnced.discord.webhook.send.WebhookMessageBuilder;
-import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
-import com.github.twitch4j.pubsub.PubSubSubscription;
 import com.google.gson.JsonObject;
 import de.presti.ree6.addons.AddonLoader;
 import de.presti.ree6.addons.AddonManager;
 import de.presti.ree6.audio.music.MusicWorker;
 import de.presti.ree6.bot.BotWorker;
-import de.presti.ree6.bot.util.WebhookUtil;
+import de.presti.ree6.bot.cluster.ClusterManager;
 import de.presti.ree6.bot.version.BotState;
 import de.presti.ree6.bot.version.BotVersion;
 import de.presti.ree6.commands.Category;
@@ -20,29 +17,34 @@ import de.presti.ree6.game.core.GameManager;
 import de.presti.ree6.game.impl.musicquiz.util.MusicQuizUtil;
 import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.logger.events.LoggerQueue;
+import de.presti.ree6.logger.invite.InviteContainerManager;
 import de.presti.ree6.sql.DatabaseTyp;
 import de.presti.ree6.sql.SQLSession;
-import de.presti.ree6.sql.entities.ScheduledMessage;
 import de.presti.ree6.sql.entities.Setting;
-import de.presti.ree6.sql.entities.TwitchIntegration;
 import de.presti.ree6.sql.entities.stats.ChannelStats;
 import de.presti.ree6.sql.entities.stats.Statistics;
 import de.presti.ree6.sql.util.SettingsManager;
 import de.presti.ree6.actions.streamtools.container.StreamActionContainerCreator;
+import de.presti.ree6.ticket.TicketArchiver;
 import de.presti.ree6.utils.apis.ChatGPTAPI;
 import de.presti.ree6.utils.apis.Notifier;
 import de.presti.ree6.utils.apis.SpotifyAPIHandler;
 import de.presti.ree6.utils.data.*;
+import de.presti.ree6.utils.external.AssetBootstrap;
 import de.presti.ree6.utils.external.RequestUtility;
+import de.presti.ree6.utils.metrics.GatewayMetricsListener;
+import de.presti.ree6.utils.metrics.MetricsServer;
+import de.presti.ree6.utils.others.BirthdayHandler;
+import de.presti.ree6.utils.others.GuildLifecycleJobs;
+import de.presti.ree6.utils.others.ScheduledMessageHandler;
+import de.presti.ree6.utils.others.SentryReporter;
 import de.presti.ree6.utils.others.ThreadUtil;
-import io.sentry.Sentry;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 
 import java.io.File;
@@ -50,12 +52,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * Main Application class, used to store Instances of System Relevant classes.
@@ -95,6 +97,16 @@ public class Main {
      */
     MusicWorker musicWorker;
 
+    /**
+     * Instance of the TicketArchiver, used to capture the transcripts of the Tickets.
+     */
+    TicketArchiver ticketArchiver;
+
+    /**
+     * Instance of the VoiceSessionTracker, used to give voice XP.
+     */
+    VoiceSessionTracker voiceSessionTracker;
+
     /**
      * Instance of the ChatGPT API used for making the setup process easier and give people a better experience.
      */
@@ -105,6 +117,11 @@ public class Main {
      */
     Config config;
 
+    /**
+     * Instance of the Metrics Server, null if the metrics are disabled.
+     */
+    MetricsServer metricsServer;
+
     /**
      * String used to identify the last day.
      */
@@ -132,27 +149,41 @@ public class Main {
         // Initialize the Config.
         getInstance().getConfig().init();
 
+        // Reload the Config, once the file has been changed.
+        getInstance().getConfig().watch();
+
+        // Export the metrics, if enabled.
+        if (getInstance().getConfig().getConfiguration().getBoolean("metrics.enabled", false)) {
+            try {
+                getInstance().setMetricsServer(new MetricsServer(getInstance().getConfig().getConfiguration().getString("metrics.host", "127.0.0.1"),
+                        getInstance().getConfig().getConfiguration().getInt("metrics.port", 9464)));
+            } catch (Exception exception) {
+                log.error("[Main] Couldn't start the Metrics Server!", exception);
+            }
+        }
+
         log.info("Creating Sentry Instance.");
 
         // Create a Sentry Instance to send Exception to an external Service for bug fixing.
-        Sentry.init(options -> {
-            String dsn = getInstance().getConfig().getConfiguration().getString("sentry.dsn");
-            options.setDsn((dsn == null || dsn.equalsIgnoreCase("yourSentryDSNHere")) ? "" : dsn);
-            // Set tracesSampleRate to 1.0 to capture 100% of transactions for performance monitoring.
-            // We recommend adjusting this value in production.
-            options.setTracesSampleRate(1.0);
-            // When first trying Sentry it's good to see what the SDK is doing:
-            options.setRelease(BotWorker.getBuild());
-        });
+        SentryReporter.init(getInstance().getConfig().getConfiguration());
 
-        Thread.setDefaultUncaughtExceptionHandler((t, e) -> Sentry.captureException(e));
+        Thread.setDefaultUncaughtExceptionHandler((t, e) -> SentryReporter.captureException(e));
 
         log.info("Starting preparations of the Bot...");
 
+        long preparationStart = System.currentTimeMillis();
+
+        // The storage is only needed once the Bot handles events, so it may be downloaded while the Bot logs in.
+        CompletableFuture<List<Path>> storageDownload = AssetBootstrap.sync("storage", null);
+        boolean downloadStorageInBackground = getInstance().getConfig().getConfiguration().getBoolean("bot.misc.downloadStorageInBackground", false);
+
         LanguageService.downloadLanguages();
-        downloadMisc("storage");
 
-        log.info("Finished preparations of the Bot!");
+        if (!downloadStorageInBackground) {
+            storageDownload.join();
+        }
+
+        log.info("Finished preparations of the Bot in {}ms!", System.currentTimeMillis() - preparationStart);
 
         log.info("Starting Ree6!");
 
@@ -235,6 +266,9 @@ public class Main {
 
             int shards = getInstance().getConfig().getConfiguration().getInt("bot.misc.shards", 1);
 
+            // Split the shards over the nodes of the cluster, if the cluster mode is enabled.
+            ClusterManager.init(getInstance().getConfig().getConfiguration(), shards);
+
             BotVersion version = BotVersion.RELEASE;
 
             if (argList.contains("--dev")) {
@@ -245,6 +279,11 @@ public class Main {
 
             BotWorker.createBot(version, shards);
 
+            if (downloadStorageInBackground) {
+                storageDownload.join();
+                log.info("[Main] Finished downloading the storage {}ms after the start of the preparations.", System.currentTimeMillis() - preparationStart);
+            }
+
             getInstance().setMusicWorker(new MusicWorker());
             getInstance().addEvents();
         } catch (Exception ex) {
@@ -267,6 +306,7 @@ public class Main {
 
             log.info("Loading GameManager");
             GameManager.loadAllGames();
+            GameManager.startExpiry();
         }
 
         if (Data.isModuleActive("streamtools")) {
@@ -281,32 +321,23 @@ public class Main {
 
         if (Data.isModuleActive("notifier")) {
             ThreadUtil.createThread(x -> {
-                log.info("Loading Notifier data.");
-                List<ChannelStats> channelStats = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ChannelStats(), "SELECT * FROM ChannelStats", null);
-
-                // Register all Twitch Channels.
-                getInstance().getNotifier().registerTwitchChannel(SQLSession.getSqlConnector().getSqlWorker().getAllTwitchNames());
-                getInstance().getNotifier().registerTwitchChannel(channelStats.stream().map(ChannelStats::getTwitchFollowerChannelUsername).filter(Objects::nonNull).toList());
+                getInstance().loadNotifierData();
 
                 // Register the Event-handler.
                 getInstance().getNotifier().registerTwitchEventHandler();
+            }, t -> SentryReporter.captureException(t.getCause()));
 
-                // Register all Twitter Users.
-                getInstance().getNotifier().registerTwitterUser(SQLSession.getSqlConnector().getSqlWorker().getAllTwitterNames());
-                getInstance().getNotifier().registerTwitterUser(channelStats.stream().map(ChannelStats::getTwitterFollowerChannelUsername).filter(Objects::nonNull).toList());
-
-                // Register all YouTube channels.
-                getInstance().getNotifier().registerYouTubeChannel(SQLSession.getSqlConnector().getSqlWorker().getAllYouTubeChannels());
-                getInstance().getNotifier().registerYouTubeChannel(channelStats.stream().map(ChannelStats::getYoutubeSubscribersChannelUsername).filter(Objects::nonNull).toList());
+            if (ClusterManager.isEnabled()) {
+                // Channels registered through commands on other nodes have to reach the leader, that runs the notifiers.
+                ThreadUtil.createThread(x -> {
+                    if (ClusterManager.isLeader()) getInstance().loadNotifierData();
+                }, t -> SentryReporter.captureException(t.getCause()), Duration.ofMinutes(5), true, false);
 
-                // Register all Reddit Subreddits.
-                getInstance().getNotifier().registerSubreddit(SQLSession.getSqlConnector().getSqlWorker().getAllSubreddits());
-                getInstance().getNotifier().registerSubreddit(channelStats.stream().map(ChannelStats::getSubredditMemberChannelSubredditName).filter(Objects::nonNull).toList());
-
-                // Register all Instagram Users.
-                getInstance().getNotifier().registerInstagramUser(SQLSession.getSqlConnector().getSqlWorker().getAllInstagramUsers());
-                getInstance().getNotifier().registerInstagramUser(channelStats.stream().map(ChannelStats::getInstagramFollowerChannelUsername).filter(Objects::nonNull).toList());
-            }, t -> Sentry.captureException(t.getCause()));
+                // A new leader has to catch up right away, since it hasn't been polling or following removals.
+                ClusterManager.addLeaderListener(leader -> {
+                    if (leader) ThreadUtil.createThread(x -> getInstance().loadNotifierData(), t -> SentryReporter.captureException(t.getCause()));
+                });
+            }
         }
 
         // Add the Runtime-hooks.
@@ -326,6 +357,15 @@ public class Main {
             getInstance().getAddonManager().startAddons();
         }
 
+        // Start sending Scheduled Messages.
+        ScheduledMessageHandler.start();
+
+        // Start creating and purging the data of joined and left Guilds.
+        GuildLifecycleJobs.start();
+
+        // Start receiving Birthdays of other nodes.
+        BirthdayHandler.start();
+
         // Create checker Thread.
         getInstance().createCheckerThread();
 
@@ -333,20 +373,83 @@ public class Main {
         getInstance().createHeartbeatThread();
     }
 
+    /**
+     * Register every channel and user of the notifiers.
+     */
+    private void loadNotifierData() {
+        log.info("Loading Notifier data.");
+        List<ChannelStats> channelStats = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ChannelStats(), "SELECT * FROM ChannelStats", null);
+
+        // Register all Twitch Channels.
+        List<String> twitchChannels = join(SQLSession.getSqlConnector().getSqlWorker().getAllTwitchNames(), channelStats, ChannelStats::getTwitchFollowerChannelUsername);
+        getNotifier().registerTwitchChannel(twitchChannels);
+
+        // Register all Twitter Users.
+        List<String> twitterUsers = join(SQLSession.getSqlConnector().getSqlWorker().getAllTwitterNames(), channelStats, ChannelStats::getTwitterFollowerChannelUsername);
+        getNotifier().registerTwitterUser(twitterUsers);
+
+        // Register all YouTube channels.
+        List<String> youtubeChannels = join(SQLSession.getSqlConnector().getSqlWorker().getAllYouTubeChannels(), channelStats, ChannelStats::getYoutubeSubscribersChannelUsername);
+        getNotifier().registerYouTubeChannel(youtubeChannels);
+
+        // Register all Reddit Subreddits.
+        List<String> subreddits = join(SQLSession.getSqlConnector().getSqlWorker().getAllSubreddits(), channelStats, ChannelStats::getSubredditMemberChannelSubredditName);
+        getNotifier().registerSubreddit(subreddits);
+
+        // Register all Instagram Users.
+        List<String> instagramUsers = join(SQLSession.getSqlConnector().getSqlWorker().getAllInstagramUsers(), channelStats, ChannelStats::getInstagramFollowerChannelUsername);
+        getNotifier().registerInstagramUser(instagramUsers);
+
+        // Channels removed through commands on other nodes are only gone from the Database.
+        getNotifier().unregisterRemoved(twitchChannels, twitterUsers, youtubeChannels, subreddits, instagramUsers);
+    }
+
+    /**
+     * Join the names of the webhooks of a notifier with the names of its statistic channels.
+     *
+     * @param webhookNames the names of the webhooks.
+     * @param channelStats every {@link ChannelStats}.
+     * @param name         the getter of the name of the statistic channel.
+     * @return every name.
+     */
+    private static List<String> join(List<String> webhookNames, List<ChannelStats> channelStats, Function<ChannelStats, String> name) {
+        List<String> names = new ArrayList<>(webhookNames);
+        channelStats.stream().map(name).filter(Objects::nonNull).forEach(names::add);
+        return names;
+    }
+
     /**
      * Called to add all Events.
      */
     private void addEvents() {
-        BotWorker.addEvent(new MenuEvents(), new OtherEvents());
+        setTicketArchiver(new TicketArchiver());
+        BotWorker.addEvent(new MenuEvents(), new OtherEvents(), getTicketArchiver());
+
+        if (BotWorker.getRecentMemberCachePolicy() != null)
+            BotWorker.addEvent(BotWorker.getRecentMemberCachePolicy());
 
         if (Data.isModuleActive("logging"))
             BotWorker.addEvent(new LoggingEvents());
 
+        if (Data.isModuleActive("level")) {
+            setVoiceSessionTracker(new VoiceSessionTracker());
+            BotWorker.addEvent(getVoiceSessionTracker());
+            getVoiceSessionTracker().start();
+        }
+
         if (Data.isModuleActive("games"))
             BotWorker.addEvent(new GameEvents());
 
         if (Data.isModuleActive("customevents"))
             BotWorker.getShardManager().addEventListener(new CustomEvents());
+
+        if (getMetricsServer() != null)
+            BotWorker.getShardManager().addEventListener(new GatewayMetricsListener());
+
+        if (getMusicWorker().getQueueStore() != null) {
+            BotWorker.addEvent(getMusicWorker().getQueueStore());
+            getMusicWorker().getQueueStore().restoreAll();
+        }
     }
 
     /**
@@ -378,6 +481,25 @@ public class Main {
 
         // Check if there is an SQL-connection if so, shutdown.
         if (SQLSession.getSqlConnector() != null && (SQLSession.getSqlConnector().isConnected())) {
+            // Save the invite uses, balances, scheduled messages and Twitch credentials which have not been saved yet.
+            InviteContainerManager.flush();
+            EconomyUtil.flush();
+            ScheduledMessageHandler.flush();
+
+            // Store the purges of Guilds that have been left, so they run after the restart.
+            GuildLifecycleJobs.flush();
+
+            if (getVoiceSessionTracker() != null) {
+                getVoiceSessionTracker().credit();
+            }
+
+            if (getNotifier() != null && getNotifier().getTwitchSubscriptionManager() != null) {
+                getNotifier().getTwitchSubscriptionManager().flush();
+            }
+
+            // Give up the lease, so that another node takes over the jobs right away.
+            ClusterManager.shutdown();
+
             log.info("[Main] Closing Database Connection!");
             SQLSession.getSqlConnector().close();
             log.info("[Main] Closed Database Connection!");
@@ -397,68 +519,41 @@ public class Main {
             log.info("[Main] Twitch API Instance closed!");
         }
 
+        if (getMusicWorker() != null && getMusicWorker().getQueueStore() != null) {
+            // Store every queue with the current position of its track.
+            getMusicWorker().getQueueStore().flush(true);
+        }
+
         // Shutdown the Bot instance.
         log.info("[Main] JDA Instance shutdown init. !");
         BotWorker.shutdown();
         log.info("[Main] JDA Instance has been shut down!");
 
+        // Stop exporting the metrics.
+        if (getMetricsServer() != null) {
+            getMetricsServer().stop();
+        }
+
+        // Send the errors which have not been reported yet.
+        SentryReporter.flush(Duration.ofSeconds(5));
+
         // Inform of how long it took.
         log.info("[Main] Everything has been shut down in {}ms!", System.currentTimeMillis() - start);
         log.info("[Main] Good bye!");
     }
 
-    /**
-     * Method used to create all the misc.
-     *
-     * @param parentPath the path that should be used.
-     */
-    private static void downloadMisc(String parentPath) {
-        try {
-            RequestUtility.requestJson(RequestUtility.Request.builder().url("https://api.github.com/repos/Ree6-Applications/Ree6/contents/" + parentPath).build()).getAsJsonArray().forEach(jsonElement -> {
-                String name = jsonElement.getAsJsonObject().getAsJsonPrimitive("name").getAsString();
-                String path = jsonElement.getAsJsonObject().getAsJsonPrimitive("path").getAsString();
-                String download = jsonElement.getAsJsonObject().get("download_url").isJsonNull() ? null : jsonElement.getAsJsonObject().getAsJsonPrimitive("download_url").getAsString();
-
-                boolean isDirectory = download == null;
-
-                if (isDirectory) {
-                    downloadMisc(path);
-                    return;
-                }
-
-                Path parentFilePath = Path.of(parentPath);
-                if (!Files.exists(parentFilePath)) {
-                    try {
-                        Files.createDirectories(parentFilePath);
-                    } catch (IOException e) {
-                        log.error("Failed to create directory: {}", parentFilePath);
-                    }
-                }
-
-                Path filePath = Path.of(path);
-                if (Files.exists(filePath)) {
-                    return;
-                }
-
-                log.info("Downloading file {}!", name);
-
-                try (InputStream inputStream = RequestUtility.request(RequestUtility.Request.builder().url(download).build())) {
-                    if (inputStream == null) return;
-
-                    Files.copy(inputStream, filePath);
-                } catch (IOException exception) {
-                    log.error("An error occurred while downloading the file!", exception);
-                }
-            });
-        } catch (Exception exception) {
-            log.error("An error occurred while downloading the files!", exception);
-        }
-    }
-
     /**
      * Method creates a Thread used to create a Checker Thread.
      */
     public void createCheckerThread() {
+        ClusterManager.registerHandler("stats", payload -> {
+            JsonObject nodeStats = new JsonObject();
+            nodeStats.addProperty("guilds", BotWorker.getShardManager().getGuilds().size());
+            nodeStats.addProperty("users", BotWorker.getShardManager().getGuilds().stream().mapToInt(Guild::getMemberCount).sum());
+            nodeStats.add("voice", getVoiceStatistics());
+            return nodeStats;
+        });
+
         ThreadUtil.createThread(x -> {
 
             if (!lastDay.equalsIgnoreCase(new SimpleDateFormat("dd").format(new Date()))) {
@@ -469,39 +564,46 @@ public class Main {
                 BotWorker.getShardManager().getShards().forEach(jda ->
                         BotWorker.setActivity(jda, Data.getStatus(), Activity.ActivityType.PLAYING));
 
-                log.info("[Stats] ");
-                log.info("[Stats] Today's Stats:");
-                int guildSize = BotWorker.getShardManager().getGuilds().size(), userSize = BotWorker.getShardManager().getGuilds().stream().mapToInt(Guild::getMemberCount).sum();
-                log.info("[Stats] Guilds: {}", guildSize);
-                log.info("[Stats] Overall Users: {}", userSize);
-                log.info("[Stats] ");
-
-                LocalDate yesterday = LocalDate.now().minusDays(1);
-                Statistics statistics = SQLSession.getSqlConnector().getSqlWorker().getStatistics(yesterday.getDayOfMonth(), yesterday.getMonthValue(), yesterday.getYear());
-                JsonObject jsonObject = statistics != null ? statistics.getStatsObject() : new JsonObject();
-                JsonObject guildStats = statistics != null && jsonObject.has("guild") ? jsonObject.getAsJsonObject("guild") : new JsonObject();
+                // Only the leader of the cluster saves the statistics and wishes happy Birthday.
+                if (ClusterManager.isLeader()) {
+                    int guildSize = BotWorker.getShardManager().getGuilds().size(), userSize = BotWorker.getShardManager().getGuilds().stream().mapToInt(Guild::getMemberCount).sum();
+                    JsonObject voiceStats = getVoiceStatistics();
+
+                    for (JsonObject nodeStats : ClusterManager.broadcast("stats", new JsonObject()).join()) {
+                        guildSize += nodeStats.get("guilds").getAsInt();
+                        userSize += nodeStats.get("users").getAsInt();
+
+                        // The nodes have different Guilds, so their voice statistics add up.
+                        if (nodeStats.has("voice")) {
+                            JsonObject nodeVoiceStats = nodeStats.getAsJsonObject("voice");
+                            for (String key : nodeVoiceStats.keySet()) {
+                                voiceStats.addProperty(key, voiceStats.get(key).getAsLong() + nodeVoiceStats.get(key).getAsLong());
+                            }
+                        }
+                    }
 
-                guildStats.addProperty("amount", guildSize);
-                guildStats.addProperty("users", userSize);
+                    log.info("[Stats] ");
+                    log.info("[Stats] Today's Stats:");
+                    log.info("[Stats] Guilds: {}", guildSize);
+                    log.info("[Stats] Overall Users: {}", userSize);
+                    log.info("[Stats] Voice Minutes: {}", voiceStats.get("minutes").getAsLong());
+                    log.info("[Stats] ");
 
-                jsonObject.add("guild", guildStats);
+                    LocalDate yesterday = LocalDate.now().minusDays(1);
+                    Statistics statistics = SQLSession.getSqlConnector().getSqlWorker().getStatistics(yesterday.getDayOfMonth(), yesterday.getMonthValue(), yesterday.getYear());
+                    JsonObject jsonObject = statistics != null ? statistics.getStatsObject() : new JsonObject();
+                    JsonObject guildStats = statistics != null && jsonObject.has("guild") ? jsonObject.getAsJsonObject("guild") : new JsonObject();
 
-                SQLSession.getSqlConnector().getSqlWorker().updateStatistic(jsonObject);
+                    guildStats.addProperty("amount", guildSize);
+                    guildStats.addProperty("users", userSize);
 
-                Calendar currentCalendar = Calendar.getInstance();
+                    jsonObject.add("guild", guildStats);
+                    jsonObject.add("voice", voiceStats);
 
-                SQLSession.getSqlConnector().getSqlWorker()
-                        .getBirthdays().stream().filter(birthday -> {
-                            Calendar calendar = Calendar.getInstance();
-                            calendar.setTime(birthday.getBirthdate());
-                            return calendar.get(Calendar.MONTH) == currentCalendar.get(Calendar.MONTH) &&
-                                    calendar.get(Calendar.DAY_OF_MONTH) == currentCalendar.get(Calendar.DAY_OF_MONTH);
-                        }).forEach(birthday -> {
-                            TextChannel textChannel = BotWorker.getShardManager().getTextChannelById(birthday.getChannelId());
+                    SQLSession.getSqlConnector().getSqlWorker().updateStatistic(jsonObject);
 
-                            if (textChannel != null && textChannel.canTalk())
-                                textChannel.sendMessage(LanguageService.getByGuild(textChannel.getGuild(), "message.birthday.wish",birthday.getUserId())).queue();
-                        });
+                    BirthdayHandler.dispatch(LocalDate.now());
+                }
 
                 lastDay = new SimpleDateFormat("dd").format(new Date());
             }
@@ -517,71 +619,25 @@ public class Main {
                     }
                 });
             }
-
-            for (ScheduledMessage scheduledMessage : SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ScheduledMessage(), "SELECT * FROM ScheduledMessage", null)) {
-                if (!scheduledMessage.isRepeated()) {
-                    if (scheduledMessage.getLastExecute() == null) {
-                        if (Timestamp.from(Instant.now()).after(Timestamp.from(scheduledMessage.getCreated().toInstant().plusMillis(scheduledMessage.getDelayAmount())))) {
-
-                            WebhookUtil.sendWebhook(null, new WebhookMessageBuilder()
-                                    .setUsername(Data.getBotName() + "-Scheduler")
-                                    .setAvatarUrl(BotWorker.getShardManager().getShards().get(0).getSelfUser().getAvatarUrl())
-                                    .append(scheduledMessage.getMessage()).build(), scheduledMessage.getScheduledMessageWebhook(), false);
-
-                            SQLSession.getSqlConnector().getSqlWorker().deleteEntity(scheduledMessage);
-                        }
-                    } else {
-                        SQLSession.getSqlConnector().getSqlWorker().deleteEntity(scheduledMessage);
-                    }
-                } else {
-                    if (scheduledMessage.getLastUpdated() == null) {
-                        if (Timestamp.from(Instant.now()).after(Timestamp.from(scheduledMessage.getCreated().toInstant().plusMillis(scheduledMessage.getDelayAmount())))) {
-
-                            WebhookUtil.sendWebhook(null, new WebhookMessageBuilder()
-                                    .setUsername(Data.getBotName() + "-Scheduler")
-                                    .setAvatarUrl(BotWorker.getShardManager().getShards().get(0).getSelfUser().getAvatarUrl())
-                                    .append(scheduledMessage.getMessage()).build(), scheduledMessage.getScheduledMessageWebhook(), false);
-
-                            scheduledMessage.setLastExecute(Timestamp.from(Instant.now()));
-                            SQLSession.getSqlConnector().getSqlWorker().updateEntity(scheduledMessage);
-                        }
-                    } else {
-                        if (Timestamp.from(Instant.now()).after(Timestamp.from(scheduledMessage.getLastUpdated().toInstant().plusMillis(scheduledMessage.getDelayAmount())))) {
-
-                            WebhookUtil.sendWebhook(null, new WebhookMessageBuilder()
-                                    .setUsername(Data.getBotName() + "-Scheduler")
-                                    .setAvatarUrl(BotWorker.getShardManager().getShards().get(0).getSelfUser().getAvatarUrl())
-                                    .append(scheduledMessage.getMessage()).build(), scheduledMessage.getScheduledMessageWebhook(), false);
-
-                            scheduledMessage.setLastExecute(Timestamp.from(Instant.now()));
-                            SQLSession.getSqlConnector().getSqlWorker().updateEntity(scheduledMessage);
-                        }
-                    }
-                }
-            }
-
-            // Need to load them all.
-            Main.getInstance().getNotifier().getCredentialManager().load();
-
-            for (TwitchIntegration twitchIntegrations :
-                    SQLSession.getSqlConnector().getSqlWorker().getEntityList(new TwitchIntegration(), "SELECT * FROM TwitchIntegration", null)) {
-
-                CustomOAuth2Credential credential = CustomOAuth2Util.convert(twitchIntegrations);
-
-                OAuth2Credential originalCredential = new OAuth2Credential("twitch", credential.getAccessToken(), credential.getRefreshToken(), credential.getUserId(), credential.getUserName(), credential.getExpiresIn(), credential.getScopes());
-
-                if (!Main.getInstance().getNotifier().getTwitchSubscription().containsKey(credential.getUserId())) {
-                    PubSubSubscription[] subscriptions = new PubSubSubscription[3];
-                    subscriptions[0] = Main.getInstance().getNotifier().getTwitchClient().getPubSub().listenForChannelPointsRedemptionEvents(originalCredential, twitchIntegrations.getChannelId());
-                    subscriptions[1] = Main.getInstance().getNotifier().getTwitchClient().getPubSub().listenForSubscriptionEvents(originalCredential, twitchIntegrations.getChannelId());
-                    subscriptions[2] = Main.getInstance().getNotifier().getTwitchClient().getPubSub().listenForFollowingEvents(originalCredential, twitchIntegrations.getChannelId());
-
-                    Main.getInstance().getNotifier().getTwitchSubscription().put(credential.getUserId(), subscriptions);
-                }
-            }
         }, null, Duration.ofMinutes(1), true, false);
     }
 
+    /**
+     * Take the voice statistics of this node since they have been taken the last time.
+     *
+     * @return the voice statistics, zero if the level module is disabled.
+     */
+    private JsonObject getVoiceStatistics() {
+        VoiceSessionTracker.Statistics statistics = getVoiceSessionTracker() != null
+                ? getVoiceSessionTracker().takeStatistics() : new VoiceSessionTracker.Statistics(0, 0, 0);
+
+        JsonObject voiceStats = new JsonObject();
+        voiceStats.addProperty("minutes", statistics.minutes());
+        voiceStats.addProperty("members", statistics.members());
+        voiceStats.addProperty("peak", statistics.peakSessions());
+        return voiceStats;
+    }
+
     /**
      * Method creates a Thread which sends a heartbeat to a URL in an x seconds interval.
      */
@@ -594,13 +650,13 @@ public class Main {
 
         ThreadUtil.createThread(x -> {
                     String formattedUrl = heartbeatUrl.replace("%ping%", String.valueOf(BotWorker.getShardManager().getAverageGatewayPing()));
-                    try (InputStream inputStream = RequestUtility.request(RequestUtility.Request.builder().url(formattedUrl).GET().build())) {
+                    try (InputStream inputStream = RequestUtility.request(RequestUtility.Request.builder().url(formattedUrl).GET().cache(false).build())) {
                         log.debug("Heartbeat sent!");
                     } catch (Exception exception) {
                         log.warn("Heartbeat failed! Reporting to Sentry...");
-                        Sentry.captureException(exception);
+                        SentryReporter.captureException(exception);
                     }
-                }, Sentry::captureException,
+                }, SentryReporter::captureException,
                 Duration.ofSeconds(getInstance().getConfig().getConfiguration().getInt("heartbeat.interval", 60)), true, true);
     }
 
@@ -0,0 +1,281 @@
+package de.presti.ree6.ticket;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
+import club.minnced.discord.webhook.send.WebhookMessageBuilder;
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.bot.util.WebhookUtil;
+import de.presti.ree6.sql.entities.Tickets;
+import de.presti.ree6.utils.data.Data;
+import de.presti.ree6.utils.others.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.requests.restaction.pagination.MessagePaginationAction;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Captures the messages of every open Ticket into a {@link TicketTranscript} while the Ticket is open,
+ * and sends the transcript to the log channel of the Tickets once the Ticket is closed.
+ * Messages that have been sent while the Bot was offline are loaded page by page when the Ticket is closed,
+ * edits and deletions after a message has been captured are not part of the transcript.
+ */
+@Slf4j
+public class TicketArchiver extends ListenerAdapter {
+
+    /**
+     * The directory of the transcripts, every transcript has its own directory named after the ID of the channel.
+     */
+    private static final Path DIRECTORY = Path.of("storage", "tickets");
+
+    /**
+     * The interval in which buffered messages are written, to limit the messages that have to be loaded again after a crash.
+     */
+    private static final Duration FLUSH_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * The maximum uncompressed size of a transcript that is sent as plain text, larger transcripts are sent compressed.
+     */
+    private static final long MAX_PLAIN_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * The transcripts of every open Ticket, mapped by the ID of the channel.
+     */
+    private final Map<Long, TicketTranscript> transcripts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor used to continue the transcripts of the Tickets that have been open before the last start.
+     */
+    public TicketArchiver() {
+        if (Files.isDirectory(DIRECTORY)) {
+            try (Stream<Path> directories = Files.list(DIRECTORY)) {
+                for (Path directory : directories.filter(Files::isDirectory).toList()) {
+                    try {
+                        transcripts.put(Long.parseLong(directory.getFileName().toString()), new TicketTranscript(directory, false));
+                    } catch (NumberFormatException | IOException exception) {
+                        log.error("[Tickets] Couldn't continue the transcript in {}!", directory, exception);
+                    }
+                }
+            } catch (IOException exception) {
+                log.error("[Tickets] Couldn't load the open transcripts!", exception);
+            }
+        }
+
+        ThreadUtil.createThread(x -> transcripts.forEach((channelId, transcript) -> {
+            try {
+                transcript.flush();
+            } catch (IOException exception) {
+                log.error("[Tickets] Couldn't write the transcript of {}!", channelId, exception);
+            }
+        }), null, FLUSH_INTERVAL, true, false);
+    }
+
+    /**
+     * Start capturing the messages of a Ticket.
+     *
+     * @param channel the channel of the Ticket.
+     */
+    public void open(TextChannel channel) {
+        getTranscript(channel.getIdLong(), true);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onMessageReceived(@NotNull MessageReceivedEvent event) {
+        if (!event.isFromGuild()) return;
+
+        TicketTranscript transcript = transcripts.get(event.getChannel().getIdLong());
+        if (transcript == null) return;
+
+        try {
+            append(transcript, event.getMessage());
+        } catch (IOException exception) {
+            log.error("[Tickets] Couldn't write the transcript of {}!", event.getChannel().getId(), exception);
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onChannelDelete(@NotNull ChannelDeleteEvent event) {
+        // Tickets whose channel has been deleted without closing them won't be archived anymore.
+        TicketTranscript transcript = transcripts.remove(event.getChannel().getIdLong());
+        if (transcript == null) return;
+
+        try {
+            transcript.delete();
+        } catch (IOException exception) {
+            log.error("[Tickets] Couldn't delete the transcript of {}!", event.getChannel().getId(), exception);
+        }
+    }
+
+    /**
+     * Load the missing messages of a Ticket and send its transcript to the log channel of the Tickets.
+     * The history is loaded after the backfill cursor of the transcript, so messages that have been sent while the Bot
+     * was offline are included. Tickets that have been opened before their messages were captured get their whole history loaded.
+     *
+     * @param channel  the channel of the Ticket.
+     * @param tickets  the Tickets configuration of the Guild.
+     * @param closedBy the name of the User that closed the Ticket.
+     * @return a {@link CompletableFuture} that completes once the transcript has been sent.
+     */
+    public CompletableFuture<Void> archive(TextChannel channel, Tickets tickets, String closedBy) {
+        TicketTranscript transcript = getTranscript(channel.getIdLong(), false);
+        if (transcript == null) return CompletableFuture.failedFuture(new IOException("Couldn't create the transcript of " + channel.getId()));
+
+        long backfillCursor;
+
+        try {
+            backfillCursor = transcript.startBackfill();
+        } catch (IOException exception) {
+            log.error("[Tickets] Couldn't write the transcript of {}!", channel.getId(), exception);
+            return CompletableFuture.failedFuture(exception);
+        }
+
+        MessagePaginationAction history = channel.getIterableHistory().reverse();
+        if (backfillCursor != 0) history.skipTo(backfillCursor);
+
+        return history.forEachAsync(message -> {
+            try {
+                transcript.backfill(message.getIdLong(), message.getTimeCreated(), message.getAuthor().getName(), message.getContentRaw(),
+                        message.getAttachments().stream().map(Message.Attachment::getUrl).toList());
+                return true;
+            } catch (IOException exception) {
+                log.error("[Tickets] Couldn't write the transcript of {}!", channel.getId(), exception);
+                return false;
+            }
+        }).thenCompose(ignore -> {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+
+            ThreadUtil.createThread(x -> {
+                try {
+                    send(channel, tickets, closedBy, transcript);
+                    transcripts.remove(channel.getIdLong(), transcript);
+                    transcript.delete();
+                    future.complete(null);
+                } catch (Exception exception) {
+                    future.completeExceptionally(exception);
+                }
+            });
+
+            return future;
+        }).whenComplete((ignore, throwable) -> {
+            if (throwable != null) log.error("[Tickets] Couldn't archive the Ticket {}!", channel.getId(), throwable);
+        });
+    }
+
+    /**
+     * Send a transcript to the log channel of the Tickets.
+     *
+     * @param channel    the channel of the Ticket.
+     * @param tickets    the Tickets configuration of the Guild.
+     * @param closedBy   the name of the User that closed the Ticket.
+     * @param transcript the transcript.
+     * @throws IOException if the transcript couldn't be read.
+     */
+    private void send(TextChannel channel, Tickets tickets, String closedBy, TicketTranscript transcript) throws IOException {
+        transcript.flush();
+
+        String header = Data.getBotName() + " Ticket transcript " + ZonedDateTime.now().format(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.LONG)) + "\n\n";
+
+        // TODO:: translate and fix the date being shown as UTC+1 and instead use the current server region.
+
+        String footer = "\nClosed by " + closedBy;
+        boolean compressed = transcript.getSize() > MAX_PLAIN_SIZE;
+
+        // The chunks are streamed into a file, instead of assembling the whole transcript in memory.
+        Path file = transcript.getDirectory().resolve("transcript.tmp");
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(outputStream, header, compressed);
+            transcript.writeTo(outputStream, compressed);
+            write(outputStream, footer, compressed);
+        }
+
+        WebhookMessageBuilder webhookMessageBuilder = new WebhookMessageBuilder();
+        webhookMessageBuilder.setAvatarUrl(channel.getJDA().getSelfUser().getEffectiveAvatarUrl());
+        webhookMessageBuilder.setUsername(Data.getBotName() + "-Tickets");
+
+        WebhookEmbedBuilder webhookEmbedBuilder = new WebhookEmbedBuilder();
+
+        webhookEmbedBuilder.setDescription("Here is the transcript of the ticket " + tickets.getTicketCount() + "!");
+        webhookEmbedBuilder.setFooter(new WebhookEmbed.EmbedFooter(channel.getGuild().getName() + " " + Data.getAdvertisement(), channel.getGuild().getIconUrl()));
+        webhookEmbedBuilder.setColor(BotWorker.randomEmbedColor().getRGB());
+
+        webhookMessageBuilder.addEmbeds(webhookEmbedBuilder.build());
+        webhookMessageBuilder.addFile(tickets.getTicketCount() + "_transcript.txt" + (compressed ? ".gz" : ""), file.toFile());
+
+        WebhookUtil.sendWebhook(null, webhookMessageBuilder.build(), tickets.getLogChannelId(), tickets.getLogChannelWebhookToken(), false);
+    }
+
+    /**
+     * Write a text to a transcript that is being sent.
+     *
+     * @param outputStream the {@link OutputStream} to write to.
+     * @param text         the text.
+     * @param compressed   if the text should be written as its own GZIP member.
+     * @throws IOException if the text couldn't be written.
+     */
+    private void write(OutputStream outputStream, String text, boolean compressed) throws IOException {
+        if (!compressed) {
+            outputStream.write(text.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+        gzipOutputStream.write(text.getBytes(StandardCharsets.UTF_8));
+        // Finish instead of close, since the transcript continues after the text.
+        gzipOutputStream.finish();
+    }
+
+    /**
+     * Append a message to a transcript.
+     *
+     * @param transcript the transcript.
+     * @param message    the {@link Message}.
+     * @throws IOException if a chunk couldn't be written.
+     */
+    private void append(TicketTranscript transcript, Message message) throws IOException {
+        transcript.append(message.getIdLong(), message.getTimeCreated(), message.getAuthor().getName(), message.getContentRaw(),
+                message.getAttachments().stream().map(Message.Attachment::getUrl).toList());
+    }
+
+    /**
+     * Get the transcript of a Ticket, creates it if there is none.
+     *
+     * @param channelId the ID of the channel of the Ticket.
+     * @param complete  if the channel has no messages yet, used when a new transcript is created.
+     * @return the {@link TicketTranscript}, or null if it couldn't be created.
+     */
+    private TicketTranscript getTranscript(long channelId, boolean complete) {
+        return transcripts.computeIfAbsent(channelId, id -> {
+            try {
+                return new TicketTranscript(DIRECTORY.resolve(String.valueOf(id)), complete);
+            } catch (IOException exception) {
+                log.error("[Tickets] Couldn't create the transcript of {}!", id, exception);
+                return null;
+            }
+        });
+    }
+}
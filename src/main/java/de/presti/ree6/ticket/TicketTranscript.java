@@ -0,0 +1,332 @@
+package de.presti.ree6.ticket;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The transcript of a Ticket, stored as compressed chunks in its own directory.
+ * Messages are buffered and written as a new chunk once the buffer is full or flushed. A chunk is named after the IDs of
+ * its first and last message and its uncompressed size, every message between those IDs is part of the chunk.
+ * <p>
+ * The backfill cursor is the ID up to which every message of the channel has been written. Messages that have been
+ * sent while the Bot was offline are missing after it, so they are loaded from the history starting at the cursor
+ * once the Ticket is closed, skipping every message that is already part of a chunk.
+ */
+public class TicketTranscript {
+
+    /**
+     * The format of the time of a message.
+     */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT);
+
+    /**
+     * The amount of buffered characters after which a chunk is written.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The name of the file that stores the backfill cursor.
+     */
+    private static final String CURSOR_FILE = "cursor";
+
+    /**
+     * The directory of the chunks.
+     */
+    @Getter
+    private final Path directory;
+
+    /**
+     * The messages that have not been written to a chunk yet.
+     */
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * The ID of the first buffered message, 0 if the buffer is empty.
+     */
+    private long bufferFirstId;
+
+    /**
+     * The ID of the last appended message, 0 if no message has been appended since the transcript has been loaded.
+     */
+    private long lastMessageId;
+
+    /**
+     * The ID up to which every message of the channel has been written to a chunk.
+     */
+    @Getter
+    private volatile long backfillCursor;
+
+    /**
+     * If the appended messages continue right after the backfill cursor, without any message missing in between.
+     */
+    private boolean contiguous;
+
+    /**
+     * If the missing messages are being loaded, messages that are sent meanwhile are ignored, since the history contains them.
+     */
+    private boolean backfilling;
+
+    /**
+     * The uncompressed size of every written chunk in bytes.
+     */
+    private long size;
+
+    /**
+     * The first and last message ID of every written chunk, used to skip the messages that are part of a chunk while backfilling.
+     */
+    private final List<long[]> ranges = new ArrayList<>();
+
+    /**
+     * Constructor used to create a new transcript, or to continue the transcript in the given directory.
+     *
+     * @param directory the directory of the chunks.
+     * @param complete  if no message of the channel has been sent yet, e.g. because the Ticket has just been opened.
+     *                  Otherwise, the messages after the backfill cursor are loaded from the history when the Ticket is closed.
+     * @throws IOException if the directory couldn't be created or read.
+     */
+    public TicketTranscript(Path directory, boolean complete) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        for (Chunk chunk : getChunks()) {
+            ranges.add(new long[]{chunk.firstMessageId(), chunk.lastMessageId()});
+            size += chunk.size();
+        }
+
+        Path cursorFile = directory.resolve(CURSOR_FILE);
+        if (Files.exists(cursorFile)) {
+            backfillCursor = Long.parseLong(Files.readString(cursorFile).trim());
+        }
+
+        contiguous = complete && ranges.isEmpty();
+    }
+
+    /**
+     * Append a message that has just been sent. Messages that are not newer than the last appended message are ignored.
+     *
+     * @param messageId      the ID of the message.
+     * @param timeCreated    the time the message has been sent.
+     * @param author         the name of the author.
+     * @param content        the content of the message.
+     * @param attachmentUrls the URLs of the attachments of the message.
+     * @throws IOException if a chunk couldn't be written.
+     */
+    public synchronized void append(long messageId, OffsetDateTime timeCreated, String author, String content, List<String> attachmentUrls) throws IOException {
+        if (backfilling || messageId <= lastMessageId) return;
+
+        add(messageId, timeCreated, author, content, attachmentUrls);
+    }
+
+    /**
+     * Write the buffered messages and start loading the missing messages.
+     * Messages that are sent from now on are only captured through {@link #backfill}.
+     *
+     * @return the backfill cursor, the history has to be loaded after it.
+     * @throws IOException if the buffered messages couldn't be written.
+     */
+    public synchronized long startBackfill() throws IOException {
+        flush();
+        backfilling = true;
+        // The history is loaded right after the cursor, so every message that is written from now on continues it.
+        contiguous = true;
+        lastMessageId = backfillCursor;
+        return backfillCursor;
+    }
+
+    /**
+     * Append a message of the history, in the order of the history after the backfill cursor.
+     * Messages that are already part of a chunk are skipped.
+     *
+     * @param messageId      the ID of the message.
+     * @param timeCreated    the time the message has been sent.
+     * @param author         the name of the author.
+     * @param content        the content of the message.
+     * @param attachmentUrls the URLs of the attachments of the message.
+     * @throws IOException if a chunk couldn't be written.
+     */
+    public synchronized void backfill(long messageId, OffsetDateTime timeCreated, String author, String content, List<String> attachmentUrls) throws IOException {
+        if (!backfilling || messageId <= lastMessageId) return;
+
+        if (isWritten(messageId)) {
+            // Chunks must not overlap, so the messages before the captured ones become a chunk of their own.
+            flush();
+            lastMessageId = messageId;
+            return;
+        }
+
+        add(messageId, timeCreated, author, content, attachmentUrls);
+    }
+
+    /**
+     * Buffer a message.
+     *
+     * @param messageId      the ID of the message.
+     * @param timeCreated    the time the message has been sent.
+     * @param author         the name of the author.
+     * @param content        the content of the message.
+     * @param attachmentUrls the URLs of the attachments of the message.
+     * @throws IOException if a chunk couldn't be written.
+     */
+    private void add(long messageId, OffsetDateTime timeCreated, String author, String content, List<String> attachmentUrls) throws IOException {
+        buffer.append('[').append(timeCreated.toZonedDateTime().format(TIME_FORMAT)).append(']')
+                .append(' ').append(author).append(' ').append("->").append(' ').append(content);
+
+        for (String attachmentUrl : attachmentUrls) {
+            buffer.append('\n').append(attachmentUrl);
+        }
+
+        buffer.append('\n');
+        if (bufferFirstId == 0) bufferFirstId = messageId;
+        lastMessageId = messageId;
+
+        if (buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Check if a message is part of a written chunk.
+     *
+     * @param messageId the ID of the message.
+     * @return true, if the message has been written.
+     */
+    private boolean isWritten(long messageId) {
+        for (long[] range : ranges) {
+            if (messageId >= range[0] && messageId <= range[1]) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Write the buffered messages as a new chunk.
+     *
+     * @throws IOException if the chunk couldn't be written.
+     */
+    public synchronized void flush() throws IOException {
+        if (!buffer.isEmpty()) {
+            byte[] content = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            Path temporary = directory.resolve("chunk.tmp");
+
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                outputStream.write(content);
+            }
+
+            // Only complete chunks are ever visible, an interrupted write is repeated after a restart.
+            Files.move(temporary, directory.resolve(bufferFirstId + "-" + lastMessageId + "-" + content.length + ".gz"), StandardCopyOption.ATOMIC_MOVE);
+
+            ranges.add(new long[]{bufferFirstId, lastMessageId});
+            size += content.length;
+            buffer.setLength(0);
+            bufferFirstId = 0;
+        }
+
+        if (contiguous && lastMessageId > backfillCursor) {
+            Path temporary = directory.resolve(CURSOR_FILE + ".tmp");
+            Files.writeString(temporary, String.valueOf(lastMessageId));
+            Files.move(temporary, directory.resolve(CURSOR_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            backfillCursor = lastMessageId;
+        }
+    }
+
+    /**
+     * Get the uncompressed size of the transcript.
+     *
+     * @return the uncompressed size in bytes, without the buffered messages.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Write every chunk in the order of their messages, the buffered messages should be flushed before.
+     *
+     * @param outputStream the {@link OutputStream} to write to.
+     * @param compressed   if the chunks should be written compressed, as concatenated GZIP members.
+     * @throws IOException if a chunk couldn't be read or written.
+     */
+    public void writeTo(OutputStream outputStream, boolean compressed) throws IOException {
+        for (Chunk chunk : getChunks()) {
+            try (InputStream inputStream = compressed ? Files.newInputStream(chunk.path()) : new GZIPInputStream(Files.newInputStream(chunk.path()))) {
+                inputStream.transferTo(outputStream);
+            }
+        }
+    }
+
+    /**
+     * Delete every chunk and the directory.
+     *
+     * @throws IOException if a file couldn't be deleted.
+     */
+    public synchronized void delete() throws IOException {
+        buffer.setLength(0);
+        bufferFirstId = 0;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Get every written chunk.
+     *
+     * @return the chunks, in the order of their messages.
+     * @throws IOException if the directory couldn't be read.
+     */
+    private List<Chunk> getChunks() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(Chunk::of).filter(Objects::nonNull).sorted(Comparator.comparingLong(Chunk::firstMessageId)).toList();
+        }
+    }
+
+    /**
+     * A written chunk.
+     *
+     * @param path           the path of the chunk.
+     * @param firstMessageId the ID of the first message in the chunk.
+     * @param lastMessageId  the ID of the last message in the chunk.
+     * @param size           the uncompressed size of the chunk in bytes.
+     */
+    private record Chunk(Path path, long firstMessageId, long lastMessageId, long size) {
+
+        /**
+         * Parse a chunk from its path.
+         *
+         * @param path the path of the chunk.
+         * @return the {@link Chunk}, or null if the path is not a chunk.
+         */
+        private static Chunk of(Path path) {
+            String name = path.getFileName().toString();
+            if (!name.endsWith(".gz")) return null;
+
+            String[] parts = name.substring(0, name.length() - ".gz".length()).split("-");
+
+            try {
+                return parts.length == 3 ? new Chunk(path, Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2])) : null;
+            } catch (NumberFormatException exception) {
+                return null;
+            }
+        }
+    }
+}
@@ -1,27 +1,58 @@
 package de.presti.ree6.utils.apis;
 
-import com.lilittlecat.chatgpt.offical.ChatGPT;
-import com.lilittlecat.chatgpt.offical.entity.Message;
-import com.lilittlecat.chatgpt.offical.exception.BizException;
-import de.presti.ree6.language.LanguageService;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import de.presti.ree6.main.Main;
-import de.presti.ree6.utils.data.ArrayUtil;
 import de.presti.ree6.utils.data.Data;
-import io.sentry.Sentry;
+import de.presti.ree6.utils.external.RequestUtility;
+import de.presti.ree6.utils.others.AsyncLimiter;
+import de.presti.ree6.utils.others.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import org.simpleyaml.configuration.file.YamlFile;
 
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * API Handler class for the ChatGPT API Wrapper.
+ * API Handler class for the Chat Completion API of OpenAI.
+ * Every Member has its own conversation per channel, which only sends the latest messages that fit into the token budget.
+ * Older messages are either dropped or, if enabled, summarized. Conversations that have been idle for a while are forgotten.
+ * Requests are sent asynchronously and the amount of concurrent requests is limited.
  */
+@Slf4j
 public class ChatGPTAPI {
 
     /**
-     * Instance of the ChatGPT API.
+     * The interval in which idle conversations are forgotten.
      */
-    public static ChatGPT chatGPT;
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * The instruction used to summarize the older messages of a conversation.
+     */
+    private static final String SUMMARY_INSTRUCTION = "Summarize the following conversation in a few sentences. Keep every fact about the user and every open question.";
+
+    /**
+     * The Gson instance used to create the requests.
+     */
+    private static final Gson GSON = new Gson();
+
+    /**
+     * The conversations, mapped by the Guild, channel and Member.
+     * These are only stored in memory to protect users privacy, since there is no actual
+     * reason for us to keep these longer than the current application uptime.
+     */
+    private static final Map<String, Conversation> conversations = new ConcurrentHashMap<>();
 
     /**
      * Pre-defined Text used to inform the AI with information related to Ree6s personality and limitations.
@@ -29,6 +60,41 @@ public class ChatGPTAPI {
      */
     static String preDefinedInformation = "";
 
+    /**
+     * The URL of the Chat Completion endpoint.
+     */
+    private static String apiUrl;
+
+    /**
+     * The API-Token.
+     */
+    private static String apiToken;
+
+    /**
+     * The Model used for the completions.
+     */
+    private static String model;
+
+    /**
+     * The maximum amount of tokens of the messages sent for a completion.
+     */
+    private static int maxPromptTokens = 3000;
+
+    /**
+     * If older messages should be summarized instead of dropped.
+     */
+    private static boolean summarize;
+
+    /**
+     * The time after which an idle conversation is forgotten, in millis.
+     */
+    private static long sessionTimeout = Duration.ofMinutes(30).toMillis();
+
+    /**
+     * The limiter for the requests.
+     */
+    private static AsyncLimiter limiter = new AsyncLimiter(4);
+
     /**
      * Constructor to initialise.
      */
@@ -46,56 +112,261 @@ public class ChatGPTAPI {
     }
 
     /**
-     * Method to initialise and create the API Wrapper Instance.
+     * Method to load the configuration and start forgetting idle conversations.
      */
     public void initGPT() {
         if (Data.isModuleActive("ai")) {
-            preDefinedInformation = Main.getInstance().getConfig().getConfiguration().getString("bot.misc.predefineInformation");
-            chatGPT = new ChatGPT(Main.getInstance().getConfig().getConfiguration().getString("openai.apiUrl", "https://api.openai.com/v1/chat/completions"),
-                    Main.getInstance().getConfig().getConfiguration().getString("openai.apiToken"));
+            YamlFile configuration = Main.getInstance().getConfig().getConfiguration();
+
+            preDefinedInformation = configuration.getString("bot.misc.predefineInformation");
+            apiUrl = configuration.getString("openai.apiUrl", "https://api.openai.com/v1/chat/completions");
+            apiToken = configuration.getString("openai.apiToken");
+            model = configuration.getString("openai.model", "gpt-3.5-turbo-0301");
+            maxPromptTokens = Math.max(256, configuration.getInt("openai.maxPromptTokens", 3000));
+            summarize = configuration.getBoolean("openai.summarize", false);
+            sessionTimeout = Duration.ofMinutes(Math.max(1, configuration.getLong("openai.sessionTimeout", 30))).toMillis();
+            limiter = new AsyncLimiter(configuration.getInt("openai.maxConcurrentRequests", 4));
+
+            ThreadUtil.createThread(x -> evictIdle(System.currentTimeMillis()), null, EVICTION_INTERVAL, true, false);
         }
     }
 
     /**
-     * Method used to get a response from the AI and storing the message in the in-memory List.
+     * Forget every conversation that has been idle for the configured time.
+     *
+     * @param now the current time in millis.
+     */
+    static void evictIdle(long now) {
+        conversations.values().removeIf(conversation -> conversation.isIdle(now));
+    }
+
+    /**
+     * Method used to get a response from the AI and storing the message in the conversation of the Member in the channel.
+     * Messages of the same conversation are answered one after another.
      *
      * @param member  the Member who send it.
+     * @param channel the channel it has been sent in.
      * @param message the Message of the Member.
-     * @return the response by the Model.
+     * @return a {@link CompletableFuture} with the response by the Model.
      */
-    public static String getResponse(Member member, String message) {
-        String ids = "%s-%s".formatted(member.getGuild().getIdLong(), member.getIdLong());
-
-        List<Message> messages = new ArrayList<>();
-
-        if (ArrayUtil.chatGPTMessages.containsKey(ids)) {
-            messages = ArrayUtil.chatGPTMessages.get(ids);
-        }
+    public static CompletableFuture<String> getResponse(Member member, MessageChannel channel, String message) {
+        if (!Data.isModuleActive("ai")) return CompletableFuture.completedFuture("AI Module has been disabled!");
 
-        messages.add(new Message("user", message));
+        return conversations.computeIfAbsent(getKey(member, channel), key -> new Conversation()).ask(message);
+    }
 
-        String response;
-        try {
-            response = getResponse(messages);
-        } catch (BizException e) {
-            Sentry.captureException(e);
-            return LanguageService.getByGuild(member.getGuild(), "message.default.retrievalError");
-        }
+    /**
+     * Check if a Member has a conversation in a channel.
+     *
+     * @param member  the Member.
+     * @param channel the channel.
+     * @return true, if there is a conversation that hasn't been forgotten yet.
+     */
+    static boolean hasConversation(Member member, MessageChannel channel) {
+        return conversations.containsKey(getKey(member, channel));
+    }
 
-        messages.add(new Message("assistant", response));
-        ArrayUtil.chatGPTMessages.put(ids, messages);
-        return response;
+    /**
+     * Get the key of the conversation of a Member in a channel.
+     *
+     * @param member  the Member.
+     * @param channel the channel.
+     * @return the key, made of the IDs of the Guild, channel and Member.
+     */
+    private static String getKey(Member member, MessageChannel channel) {
+        return "%s-%s-%s".formatted(member.getGuild().getIdLong(), channel.getIdLong(), member.getIdLong());
     }
 
     /**
      * Get a response based on a list of messages.
      *
      * @param messages the messages.
-     * @return the response by the Model.
+     * @return a {@link CompletableFuture} with the response by the Model.
+     */
+    public static CompletableFuture<String> getResponse(List<Message> messages) {
+        if (!Data.isModuleActive("ai")) return CompletableFuture.completedFuture("AI Module has been disabled!");
+
+        JsonObject body = new JsonObject();
+        body.addProperty("model", model);
+        body.add("messages", GSON.toJsonTree(messages));
+
+        RequestUtility.Request request = RequestUtility.Request.builder()
+                .url(apiUrl)
+                .POST()
+                .bodyPublisher(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .bearerAuth("Bearer " + apiToken)
+                .header(new String[]{"Content-Type", "application/json"})
+                .cache(false)
+                .build();
+
+        return limiter.submit(() -> RequestUtility.requestAsync(request)).thenApply(response -> {
+            if (!response.isSuccess()) {
+                throw new IllegalStateException("OpenAI answered with " + response.getStatusCode() + ": " + response.asString());
+            }
+
+            return JsonParser.parseString(response.asString()).getAsJsonObject()
+                    .getAsJsonArray("choices").get(0).getAsJsonObject()
+                    .getAsJsonObject("message").get("content").getAsString().trim();
+        });
+    }
+
+    /**
+     * Estimate the amount of tokens of a message, OpenAI counts roughly four characters as one token.
+     *
+     * @param message the message.
+     * @return the estimated amount of tokens.
+     */
+    private static int estimateTokens(Message message) {
+        return 4 + (message.content().length() + 3) / 4;
+    }
+
+    /**
+     * A message of a conversation.
+     *
+     * @param role    the role of the author, either system, user or assistant.
+     * @param content the content of the message.
+     */
+    public record Message(String role, String content) {
+    }
+
+    /**
+     * The conversation of a Member in a channel.
      */
-    public static String getResponse(List<Message> messages) {
-        if (!Data.isModuleActive("ai")) return "AI Module has been disabled!";
+    private static class Conversation {
+
+        /**
+         * The messages that fit into the token budget, oldest first.
+         */
+        private final Deque<Message> messages = new ArrayDeque<>();
+
+        /**
+         * The messages that have been removed from the budget, but haven't been summarized yet.
+         */
+        private final List<Message> removed = new ArrayList<>();
+
+        /**
+         * The summary of the removed messages, null if there is none.
+         */
+        private String summary;
+
+        /**
+         * The last response or summary, the next message is only sent once it completed.
+         */
+        private volatile CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
 
-        return chatGPT.ask(Main.getInstance().getConfig().getConfiguration().getString("openai.model", "gpt-3.5-turbo-0301"), messages);
+        /**
+         * The time in millis the conversation has been used the last time.
+         */
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        /**
+         * Send a message once the previous one has been answered.
+         *
+         * @param content the content of the message.
+         * @return a {@link CompletableFuture} with the response by the Model.
+         */
+        synchronized CompletableFuture<String> ask(String content) {
+            lastUsed = System.currentTimeMillis();
+
+            CompletableFuture<String> response = tail.handle((ignore, throwable) -> null).thenCompose(ignore -> send(new Message("user", content)));
+            // Summarize after responding, so the response isn't delayed by the summary.
+            tail = response.handle((ignore, throwable) -> null).thenCompose(ignore -> summarize());
+            return response;
+        }
+
+        /**
+         * Send a message with the latest messages that fit into the token budget.
+         *
+         * @param message the message.
+         * @return a {@link CompletableFuture} with the response by the Model.
+         */
+        private CompletableFuture<String> send(Message message) {
+            List<Message> prompt = new ArrayList<>();
+
+            synchronized (this) {
+                String system = preDefinedInformation == null ? "" : preDefinedInformation;
+                if (summary != null) system += "\nSummary of the earlier conversation: " + summary;
+
+                Message systemMessage = new Message("system", system);
+                int budget = maxPromptTokens - estimateTokens(systemMessage) - estimateTokens(message);
+
+                // Newest messages first, until the budget has been used up.
+                for (var iterator = messages.descendingIterator(); iterator.hasNext(); ) {
+                    Message previous = iterator.next();
+                    budget -= estimateTokens(previous);
+                    if (budget < 0) break;
+                    prompt.add(0, previous);
+                }
+
+                prompt.add(0, systemMessage);
+                prompt.add(message);
+            }
+
+            return getResponse(prompt).thenApply(response -> {
+                synchronized (this) {
+                    messages.add(message);
+                    messages.add(new Message("assistant", response));
+                    trim();
+                    lastUsed = System.currentTimeMillis();
+                }
+
+                return response;
+            });
+        }
+
+        /**
+         * Remove the oldest messages until the remaining ones fit into the token budget.
+         */
+        private void trim() {
+            int tokens = messages.stream().mapToInt(ChatGPTAPI::estimateTokens).sum();
+
+            // Always keep the latest question and answer.
+            while (tokens > maxPromptTokens && messages.size() > 2) {
+                Message oldest = messages.pollFirst();
+                tokens -= estimateTokens(oldest);
+                if (summarize) removed.add(oldest);
+            }
+        }
+
+        /**
+         * Summarize the removed messages together with the previous summary.
+         *
+         * @return a {@link CompletableFuture} that completes once the summary has been updated.
+         */
+        private CompletableFuture<Void> summarize() {
+            StringBuilder transcript = new StringBuilder();
+
+            synchronized (this) {
+                if (removed.isEmpty()) return CompletableFuture.completedFuture(null);
+
+                if (summary != null) transcript.append("Earlier summary: ").append(summary).append("\n\n");
+                removed.forEach(message -> transcript.append(message.role()).append(": ").append(message.content()).append("\n"));
+                removed.clear();
+            }
+
+            return getResponse(List.of(new Message("system", SUMMARY_INSTRUCTION), new Message("user", transcript.toString())))
+                    .handle((newSummary, throwable) -> {
+                        if (throwable != null) {
+                            log.warn("[ChatGPT] Couldn't summarize a conversation, the older messages are dropped!", throwable);
+                            return null;
+                        }
+
+                        synchronized (this) {
+                            summary = newSummary;
+                        }
+
+                        return null;
+                    });
+        }
+
+        /**
+         * Check if the conversation should be forgotten.
+         *
+         * @param now the current time in millis.
+         * @return true, if nothing is pending and it hasn't been used for the configured time.
+         */
+        boolean isIdle(long now) {
+            return tail.isDone() && lastUsed + sessionTimeout < now;
+        }
     }
 }
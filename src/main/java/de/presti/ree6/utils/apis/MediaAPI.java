@@ -0,0 +1,207 @@
+package de.presti.ree6.utils.apis;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.external.RequestUtility;
+import de.presti.ree6.utils.others.PrefetchBuffer;
+import pw.aru.api.nekos4j.image.Image;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Prefetching buffers for the random media sources used by the fun commands.
+ * The commands only poll a ready result, while the buffers refill themselves in the background.
+ */
+public class MediaAPI {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     * @throws IllegalStateException it is a utility class.
+     */
+    private MediaAPI() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The amount of results every buffer keeps ready.
+     */
+    private static final int CAPACITY = 20;
+
+    /**
+     * The amount of results at which a buffer starts to refill.
+     */
+    private static final int LOW_WATER_MARK = 5;
+
+    /**
+     * The amount of recently served results every buffer remembers.
+     */
+    private static final int RECENT_SIZE = 50;
+
+    /**
+     * The amount of parallel requests for sources that only return a single result per request.
+     */
+    private static final int SINGLE_BATCH = 5;
+
+    /**
+     * Random cat image URLs from thecatapi.com, which returns up to 10 images per request.
+     */
+    public static final PrefetchBuffer<String> CAT = create("cat", () ->
+            requestArray("https://api.thecatapi.com/v1/images/search?limit=10", null)
+                    .thenApply(array -> map(array, element -> element.getAsJsonObject().get("url").getAsString())), Function.identity());
+
+    /**
+     * Random dog image URLs from dog.ceo, which returns up to 50 images per request.
+     */
+    public static final PrefetchBuffer<String> DOG = create("dog", () ->
+            requestObject("https://dog.ceo/api/breeds/image/random/10", null)
+                    .thenApply(jsonObject -> jsonObject.has("message") && jsonObject.get("message").isJsonArray() ?
+                            map(jsonObject.getAsJsonArray("message"), JsonElement::getAsString) : List.of()), Function.identity());
+
+    /**
+     * Random shiba image URLs from shibe.online, which returns up to 100 images per request.
+     */
+    public static final PrefetchBuffer<String> SHIBA = create("shiba", () ->
+            requestArray("https://shibe.online/api/shibes?count=10&urls=true&httpsUrls=true", null)
+                    .thenApply(array -> map(array, JsonElement::getAsString)), Function.identity());
+
+    /**
+     * Random memes from the meme-api, which returns up to 50 memes per request.
+     */
+    public static final PrefetchBuffer<JsonObject> MEME = create("meme", () ->
+            requestObject("https://meme-api.herokuapp.com/gimme/10", null)
+                    .thenApply(jsonObject -> jsonObject.has("memes") && jsonObject.get("memes").isJsonArray() ?
+                            map(jsonObject.getAsJsonArray("memes"), JsonElement::getAsJsonObject) : List.of()),
+            jsonObject -> jsonObject.has("url") ? jsonObject.get("url").getAsString() : jsonObject.toString());
+
+    /**
+     * Random waifus from dagpi.xyz.
+     */
+    public static final PrefetchBuffer<JsonObject> WAIFU = create("waifu", () ->
+            requestSingles(() -> requestObject("https://api.dagpi.xyz/data/waifu", getDagpiToken()), jsonObject -> jsonObject.has("series")),
+            jsonObject -> jsonObject.has("name") ? jsonObject.get("name").getAsString() : jsonObject.toString());
+
+    /**
+     * Random pickup lines from dagpi.xyz.
+     */
+    public static final PrefetchBuffer<JsonObject> PICKUP_LINE = create("pickupline", () ->
+            requestSingles(() -> requestObject("https://api.dagpi.xyz/data/pickupline", getDagpiToken()), jsonObject -> jsonObject.has("category")),
+            jsonObject -> jsonObject.has("joke") ? jsonObject.get("joke").getAsString() : jsonObject.toString());
+
+    /**
+     * Random facts from the useless-facts API.
+     */
+    public static final PrefetchBuffer<String> FUN_FACT = create("funfact", () ->
+            requestSingles(() -> requestObject("https://useless-facts.sameerkumar.website/api", null)
+                    .thenApply(jsonObject -> jsonObject.has("data") ? jsonObject.get("data").getAsString() : null), fact -> true),
+            Function.identity());
+
+    /**
+     * The buffers of the nekos.life image types, by their type.
+     */
+    private static final Map<String, PrefetchBuffer<String>> NEKO = new ConcurrentHashMap<>();
+
+    /**
+     * Get the buffer of a nekos.life image type.
+     *
+     * @param type the type of the images, e.g. hug, kiss or slap.
+     * @return the {@link PrefetchBuffer} of the type.
+     */
+    public static PrefetchBuffer<String> getNeko(String type) {
+        return NEKO.computeIfAbsent(type, key -> create("neko-" + key, () ->
+                requestSingles(() -> CompletableFuture.supplyAsync(() -> {
+                    Image image = Neko4JsAPI.imageAPI.getImageProvider().getRandomImage(key).execute();
+                    return image != null ? image.getUrl() : null;
+                }), url -> true), Function.identity()));
+    }
+
+    /**
+     * Create a new buffer with the default sizes.
+     *
+     * @param name       the name of the buffer.
+     * @param loader     the loader of a batch.
+     * @param identifier the identifier of a result.
+     * @param <T>        the type of the results.
+     * @return the {@link PrefetchBuffer}.
+     */
+    private static <T> PrefetchBuffer<T> create(String name, Supplier<CompletableFuture<List<T>>> loader, Function<T, String> identifier) {
+        return new PrefetchBuffer<>(name, CAPACITY, LOW_WATER_MARK, RECENT_SIZE, loader, identifier);
+    }
+
+    /**
+     * Send multiple requests in parallel for sources that don't support a count parameter.
+     *
+     * @param request the request of a single result.
+     * @param valid   the filter used to drop invalid results.
+     * @param <T>     the type of the results.
+     * @return a {@link CompletableFuture} with every valid result.
+     */
+    private static <T> CompletableFuture<List<T>> requestSingles(Supplier<CompletableFuture<T>> request, Predicate<T> valid) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (int i = 0; i < SINGLE_BATCH; i++) {
+            futures.add(request.get().exceptionally(throwable -> null));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignore ->
+                futures.stream().map(CompletableFuture::join).filter(result -> result != null && valid.test(result)).toList());
+    }
+
+    /**
+     * Request a JSON object, bypassing the response cache since every response is random.
+     *
+     * @param url        the URL.
+     * @param bearerAuth the bearer token, can be null.
+     * @return a {@link CompletableFuture} with the {@link JsonObject}, empty if the response was no object.
+     */
+    private static CompletableFuture<JsonObject> requestObject(String url, String bearerAuth) {
+        return RequestUtility.requestJsonAsync(RequestUtility.Request.builder().url(url).bearerAuth(bearerAuth).cache(false).build())
+                .thenApply(jsonElement -> jsonElement.isJsonObject() ? jsonElement.getAsJsonObject() : new JsonObject());
+    }
+
+    /**
+     * Request a JSON array, bypassing the response cache since every response is random.
+     *
+     * @param url        the URL.
+     * @param bearerAuth the bearer token, can be null.
+     * @return a {@link CompletableFuture} with the JSON array as list, empty if the response was no array.
+     */
+    private static CompletableFuture<List<JsonElement>> requestArray(String url, String bearerAuth) {
+        return RequestUtility.requestJsonAsync(RequestUtility.Request.builder().url(url).bearerAuth(bearerAuth).cache(false).build())
+                .thenApply(jsonElement -> jsonElement.isJsonArray() ? jsonElement.getAsJsonArray().asList() : List.of());
+    }
+
+    /**
+     * Map every element of a JSON array.
+     *
+     * @param elements the elements.
+     * @param mapper   the mapper.
+     * @param <T>      the type of the results.
+     * @return the mapped elements.
+     */
+    private static <T> List<T> map(Iterable<JsonElement> elements, Function<JsonElement, T> mapper) {
+        List<T> results = new ArrayList<>();
+        for (JsonElement element : elements) {
+            try {
+                results.add(mapper.apply(element));
+            } catch (Exception ignore) {
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get the configured dagpi.xyz token.
+     *
+     * @return the token.
+     */
+    private static String getDagpiToken() {
+        return Main.getInstance().getConfig().getConfiguration().getString("dagpi.apitoken");
+    }
+}
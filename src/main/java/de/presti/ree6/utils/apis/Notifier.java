@@ -12,7 +12,6 @@ import com.github.instagram4j.instagram4j.responses.feed.FeedUserResponse;
 import com.github.instagram4j.instagram4j.utils.IGChallengeUtils;
 import com.github.philippheuer.credentialmanager.CredentialManager;
 import com.github.philippheuer.credentialmanager.CredentialManagerBuilder;
-import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
 import com.github.scribejava.core.model.Response;
 import com.github.twitch4j.TwitchClient;
 import com.github.twitch4j.TwitchClientBuilder;
@@ -22,22 +21,24 @@ import com.github.twitch4j.events.ChannelFollowCountUpdateEvent;
 import com.github.twitch4j.events.ChannelGoLiveEvent;
 import com.github.twitch4j.eventsub.events.ChannelSubscribeEvent;
 import com.github.twitch4j.helix.domain.User;
-import com.github.twitch4j.pubsub.PubSubSubscription;
 import com.github.twitch4j.pubsub.events.FollowingEvent;
 import com.github.twitch4j.pubsub.events.RewardRedeemedEvent;
+import com.google.gson.JsonObject;
 import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.bot.cluster.ClusterManager;
 import de.presti.ree6.bot.util.WebhookUtil;
 import de.presti.ree6.bot.version.BotVersion;
 import de.presti.ree6.language.LanguageService;
 import de.presti.ree6.main.Main;
 import de.presti.ree6.sql.SQLSession;
-import de.presti.ree6.sql.entities.TwitchIntegration;
 import de.presti.ree6.sql.entities.stats.ChannelStats;
 import de.presti.ree6.sql.entities.webhook.*;
 import de.presti.ree6.actions.streamtools.container.StreamActionContainer;
 import de.presti.ree6.actions.streamtools.container.StreamActionContainerCreator;
 import de.presti.ree6.utils.data.Data;
 import de.presti.ree6.utils.data.DatabaseStorageBackend;
+import de.presti.ree6.utils.metrics.Metrics;
+import de.presti.ree6.utils.others.SentryReporter;
 import de.presti.ree6.utils.others.ThreadUtil;
 import de.presti.wrapper.entities.VideoResult;
 import de.presti.wrapper.entities.channel.ChannelResult;
@@ -45,7 +46,6 @@ import io.github.redouane59.twitter.TwitterClient;
 import io.github.redouane59.twitter.dto.stream.StreamRules;
 import io.github.redouane59.twitter.dto.user.UserV2;
 import io.github.redouane59.twitter.signature.TwitterCredentials;
-import io.sentry.Sentry;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -66,6 +66,8 @@ import java.util.List;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 // TODO:: translate
 // TODO:: fix the Twitter Stream handler, wait for responses via https://github.com/redouane59/twittered/issues/447
@@ -131,10 +133,10 @@ public class Notifier {
     private final ArrayList<String> registeredTwitchChannels = new ArrayList<>();
 
     /**
-     * A list with all the Twitch Subscription for the Streaming Tools.
+     * The manager of the Twitch Subscriptions for the Streaming Tools.
      */
     @Getter(AccessLevel.PUBLIC)
-    private final HashMap<String, PubSubSubscription[]> twitchSubscription = new HashMap<>();
+    private TwitchSubscriptionManager twitchSubscriptionManager;
 
     /**
      * Local list of registered YouTube Channels.
@@ -159,11 +161,20 @@ public class Notifier {
      * Constructor used to created instance of the API Clients.
      */
     public Notifier() {
+        ClusterManager.registerHandler("stats-channel", payload -> {
+            String value = payload.get("value").getAsString();
+            updateStatsChannel(payload.get("guildId").getAsString(), payload.get("channelId").getAsString(),
+                    payload.has("labelKey") && !payload.get("labelKey").isJsonNull() ? payload.get("labelKey").getAsString() : null,
+                    payload.get("number").getAsBoolean() ? (Object) Long.parseLong(value) : value);
+            return null;
+        });
+
         if (!Data.isModuleActive("addons")) return;
 
         log.info("Initializing Twitch Client...");
+        DatabaseStorageBackend storageBackend = new DatabaseStorageBackend();
         credentialManager = CredentialManagerBuilder.builder()
-                .withStorageBackend(new DatabaseStorageBackend())
+                .withStorageBackend(storageBackend)
                 .build();
 
         TwitchAuth.registerIdentityProvider(credentialManager, Main.getInstance().getConfig().getConfiguration().getString("twitch.client.id"),
@@ -180,18 +191,8 @@ public class Notifier {
                 .withCredentialManager(credentialManager)
                 .build();
 
-        for (TwitchIntegration twitchIntegrations :
-                SQLSession.getSqlConnector().getSqlWorker().getEntityList(new TwitchIntegration(), "SELECT * FROM TwitchIntegration", null)) {
-
-            OAuth2Credential credential = new OAuth2Credential("twitch", twitchIntegrations.getToken());
-
-            PubSubSubscription[] subscriptions = new PubSubSubscription[3];
-            subscriptions[0] = getTwitchClient().getPubSub().listenForChannelPointsRedemptionEvents(credential, twitchIntegrations.getChannelId());
-            subscriptions[1] = getTwitchClient().getPubSub().listenForSubscriptionEvents(credential, twitchIntegrations.getChannelId());
-            subscriptions[2] = getTwitchClient().getPubSub().listenForFollowingEvents(credential, twitchIntegrations.getChannelId());
-
-            twitchSubscription.put(credential.getUserId(), subscriptions);
-        }
+        twitchSubscriptionManager = new TwitchSubscriptionManager(twitchClient, twitchIdentityProvider, storageBackend);
+        twitchSubscriptionManager.start();
 
         twitchClient.getEventManager().onEvent(RewardRedeemedEvent.class, event -> {
             List<StreamActionContainer> list = StreamActionContainerCreator.getContainers(0);
@@ -228,8 +229,9 @@ public class Notifier {
             twitterClient = new TwitterClient(TwitterCredentials.builder()
                     .bearerToken(Main.getInstance().getConfig().getConfiguration().getString("twitter.bearer")).build());
 
-            List<StreamRules.StreamRule> rules = twitterClient.retrieveFilteredStreamRules();
+            List<StreamRules.StreamRule> rules = ClusterManager.isEnabled() ? null : twitterClient.retrieveFilteredStreamRules();
 
+            // The rules are shared by every node of a cluster, so they can't be reset when a single node starts.
             if (rules != null && !rules.isEmpty()) {
                 rules.forEach(x -> twitterClient.deleteFilteredStreamRuleId(x.getId()));
             }
@@ -255,7 +257,7 @@ public class Notifier {
                 log.warn("Reddit Credentials are invalid, you can ignore this if you don't use Reddit.");
             } else {
                 log.error("Failed to connect to Reddit API.", exception);
-                Sentry.captureException(exception);
+                SentryReporter.captureException(exception);
             }
         }
 
@@ -286,7 +288,7 @@ public class Notifier {
         log.info("Initializing YouTube Streams...");
         createUploadStream();
 
-        ThreadUtil.createThread(x -> {
+        ThreadUtil.createThread(leaderPoll("twitter", x -> {
             for (String twitterName : registeredTwitterUsers) {
                 List<ChannelStats> channelStats = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ChannelStats(), "SELECT * FROM ChannelStats WHERE twitterFollowerChannelUsername=:name", Map.of("name", twitterName));
                 if (!channelStats.isEmpty()) {
@@ -299,26 +301,108 @@ public class Notifier {
 
                     for (ChannelStats channelStat : channelStats) {
                         if (channelStat.getTwitterFollowerChannelUsername() != null) {
-                            GuildChannel guildChannel = BotWorker.getShardManager().getGuildChannelById(channelStat.getTwitchFollowerChannelId());
-                            if (guildChannel == null) continue;
-                            String newName = LanguageService.getByGuild(guildChannel.getGuild(), "label.twitterCountName", twitterUser.getFollowersCount());
-
-                            if (!guildChannel.getGuild().getSelfMember().hasAccess(guildChannel))
-                                continue;
-
-                            if (!guildChannel.getName().equalsIgnoreCase(newName)) {
-                                guildChannel.getManager().setName(newName).queue();
-                            }
+                            updateStatsChannel(channelStat.getGuildId(), channelStat.getTwitchFollowerChannelId(), "label.twitterCountName", twitterUser.getFollowersCount());
                         }
                     }
                 }
             }
-        }, x -> {
+        }), x -> {
             log.error("Failed to run Follower count checker!", x.getCause());
-            Sentry.captureException(x);
+            SentryReporter.captureException(x);
         }, Duration.ofMinutes(5), true, true);
     }
 
+    /**
+     * Wrap a poll of a notifier, so that it only runs on the leader of the cluster and its duration is measured.
+     *
+     * @param notifier the name of the notifier.
+     * @param poll     the poll.
+     * @return the wrapped poll.
+     */
+    private static Consumer<Void> leaderPoll(String notifier, Consumer<Void> poll) {
+        return x -> {
+            if (!ClusterManager.isLeader()) return;
+
+            long start = System.nanoTime();
+
+            try {
+                poll.accept(x);
+            } finally {
+                Metrics.NOTIFIER_POLL_DURATION.observeSince(start, notifier);
+            }
+        };
+    }
+
+    /**
+     * Rename a statistic channel to show a new count.
+     * If the Guild runs on another node of the cluster, the node is asked to rename the channel.
+     *
+     * @param guildId   the ID of the Guild.
+     * @param channelId the ID of the channel.
+     * @param labelKey  the language key of the name, or null if the value already is the name.
+     * @param value     the count.
+     */
+    public void updateStatsChannel(String guildId, String channelId, String labelKey, Object value) {
+        GuildChannel guildChannel = BotWorker.getShardManager().getGuildChannelById(channelId);
+
+        if (guildChannel == null) {
+            int node = ClusterManager.getNodeOfGuild(Long.parseLong(guildId));
+            if (node == ClusterManager.getNodeId()) return;
+
+            JsonObject payload = new JsonObject();
+            payload.addProperty("guildId", guildId);
+            payload.addProperty("channelId", channelId);
+            payload.addProperty("labelKey", labelKey);
+            payload.addProperty("value", String.valueOf(value));
+            payload.addProperty("number", value instanceof Number);
+
+            ClusterManager.send(node, "stats-channel", payload).exceptionally(throwable -> {
+                log.warn("Couldn't update the statistic channel {} on node {}: {}", channelId, node, throwable.getMessage());
+                return null;
+            });
+            return;
+        }
+
+        if (!guildChannel.getGuild().getSelfMember().hasAccess(guildChannel)) return;
+
+        String newName = labelKey != null ? LanguageService.getByGuild(guildChannel.getGuild(), labelKey, value) : String.valueOf(value);
+
+        if (!guildChannel.getName().equalsIgnoreCase(newName)) {
+            guildChannel.getManager().setName(newName).queue();
+        }
+    }
+
+    /**
+     * Unregister every channel and user that is no longer stored in the Database.
+     * In a cluster a command on another node only changes the Database, so the leader has to find the removals itself.
+     *
+     * @param twitchChannels   the stored Twitch Channels.
+     * @param twitterUsers     the stored Twitter Users.
+     * @param youtubeChannels  the stored YouTube Channels.
+     * @param subreddits       the stored Subreddits.
+     * @param instagramUsers   the stored Instagram Users.
+     */
+    public void unregisterRemoved(Collection<String> twitchChannels, Collection<String> twitterUsers, Collection<String> youtubeChannels,
+                                  Collection<String> subreddits, Collection<String> instagramUsers) {
+        getRemoved(registeredTwitchChannels, twitchChannels).forEach(this::unregisterTwitchChannel);
+        getRemoved(registeredTwitterUsers, twitterUsers).forEach(this::unregisterTwitterUser);
+        getRemoved(registeredYouTubeChannels, youtubeChannels).forEach(this::unregisterYouTubeChannel);
+        getRemoved(registeredSubreddits, subreddits).forEach(this::unregisterSubreddit);
+        getRemoved(registeredInstagramUsers, instagramUsers).forEach(this::unregisterInstagramUser);
+    }
+
+    /**
+     * Get the registered entries that are no longer stored, ignoring the case.
+     *
+     * @param registered the registered entries.
+     * @param stored     the stored entries.
+     * @return the entries that have been removed.
+     */
+    public static List<String> getRemoved(Collection<String> registered, Collection<String> stored) {
+        Set<String> storedNames = stored.stream().filter(Objects::nonNull).map(String::toLowerCase).collect(Collectors.toSet());
+        return new ArrayList<>(registered).stream().filter(name -> !storedNames.contains(name.toLowerCase())).toList();
+    }
+
     //region Twitch
 
     /**
@@ -326,6 +410,8 @@ public class Notifier {
      */
     public void registerTwitchEventHandler() {
         getTwitchClient().getEventManager().onEvent(ChannelGoLiveEvent.class, channelGoLiveEvent -> {
+            // Every node polls the registered channels, but only the leader notifies.
+            if (!ClusterManager.isLeader()) return;
 
             List<WebhookTwitch> webhooks = SQLSession.getSqlConnector().getSqlWorker().getTwitchWebhooksByName(channelGoLiveEvent.getChannel().getName());
             if (webhooks.isEmpty()) {
@@ -372,17 +458,13 @@ public class Notifier {
         });
 
         getTwitchClient().getEventManager().onEvent(ChannelFollowCountUpdateEvent.class, channelFollowCountUpdateEvent -> {
+            if (!ClusterManager.isLeader()) return;
+
             List<ChannelStats> channelStats = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ChannelStats(), "SELECT * FROM ChannelStats WHERE LOWER(twitchFollowerChannelUsername) = :name", Map.of("name", channelFollowCountUpdateEvent.getChannel().getName()));
             if (!channelStats.isEmpty()) {
                 for (ChannelStats channelStat : channelStats) {
                     if (channelStat.getTwitchFollowerChannelId() != null) {
-                        GuildChannel guildChannel = BotWorker.getShardManager().getGuildChannelById(channelStat.getTwitchFollowerChannelId());
-                        if (guildChannel != null) {
-                            if (!guildChannel.getGuild().getSelfMember().hasAccess(guildChannel))
-                                continue;
-
-                            guildChannel.getManager().setName(LanguageService.getByGuild(guildChannel.getGuild(), "label.twitchCountName", channelFollowCountUpdateEvent.getFollowCount())).queue();
-                        }
+                        updateStatsChannel(channelStat.getGuildId(), channelStat.getTwitchFollowerChannelId(), "label.twitchCountName", channelFollowCountUpdateEvent.getFollowCount());
                     }
                 }
             }
@@ -464,6 +546,8 @@ public class Notifier {
      */
     public Future<Response> registerTwitterEventHandler() {
         return twitterClient.startFilteredStream(x -> {
+            if (!ClusterManager.isLeader()) return;
+
             List<WebhookTwitter> webhooks = SQLSession.getSqlConnector().getSqlWorker().getTwitterWebhooksByName(x.getUser().getName());
 
             if (webhooks.isEmpty()) return;
@@ -522,10 +606,13 @@ public class Notifier {
      * @param twitterUser the Name of the Twitter User.
      */
     public void registerTwitterUser(String twitterUser) {
-        if (getTwitterClient() == null) return;
+        if (getTwitterClient() == null || !ClusterManager.isLeader()) return;
 
         twitterUser = twitterUser.toLowerCase();
 
+        // The leader reloads every User periodically, so don't look up the ones that are registered already.
+        if (isTwitterRegistered(twitterUser)) return;
+
         UserV2 user;
 
         try {
@@ -536,17 +623,8 @@ public class Notifier {
             return;
         }
 
-
-        if (!isTwitterRegistered(twitterUser)) {
-            registeredTwitterUsers.add(twitterUser);
-            if (streamRule == null) {
-                streamRule = getTwitterClient().addFilteredStreamRule("from:" + twitterUser, "Notification");
-            } else {
-                String value = streamRule.getValue();
-                getTwitterClient().deleteFilteredStreamRuleId(streamRule.getId());
-                streamRule = getTwitterClient().addFilteredStreamRule(value + " or from:" + twitterUser, "Notification");
-            }
-        }
+        registeredTwitterUsers.add(twitterUser);
+        updateTwitterStreamRule();
     }
 
     /**
@@ -555,7 +633,7 @@ public class Notifier {
      * @param twitterUser the Name of the Twitter User.
      */
     public void unregisterTwitterUser(String twitterUser) {
-        if (getTwitterClient() == null) return;
+        if (getTwitterClient() == null || !ClusterManager.isLeader()) return;
 
         twitterUser = twitterUser.toLowerCase();
 
@@ -564,12 +642,30 @@ public class Notifier {
             return;
 
         if (isTwitterRegistered(twitterUser)) {
-            String value = streamRule.getValue();
+            registeredTwitterUsers.remove(twitterUser);
+            updateTwitterStreamRule();
+        }
+    }
 
+    /**
+     * Replace the stream rule with one that matches every registered Twitter User.
+     */
+    private void updateTwitterStreamRule() {
+        if (streamRule != null) {
             getTwitterClient().deleteFilteredStreamRuleId(streamRule.getId());
-            streamRule = getTwitterClient().addFilteredStreamRule(value.replace(" or from:" + twitterUser, ""), "Notification");
+            streamRule = null;
+        } else if (ClusterManager.isEnabled()) {
+            // The rules are shared by every node, a previous leader might have left its rule behind.
+            List<StreamRules.StreamRule> rules = getTwitterClient().retrieveFilteredStreamRules();
+            if (rules != null) {
+                rules.stream().filter(rule -> "Notification".equals(rule.getTag()))
+                        .forEach(rule -> getTwitterClient().deleteFilteredStreamRuleId(rule.getId()));
+            }
+        }
 
-            registeredTwitterUsers.remove(twitterUser);
+        if (!registeredTwitterUsers.isEmpty()) {
+            streamRule = getTwitterClient().addFilteredStreamRule(registeredTwitterUsers.stream()
+                    .map(user -> "from:" + user).collect(Collectors.joining(" or ")), "Notification");
         }
     }
 
@@ -591,7 +687,7 @@ public class Notifier {
      * Used to create a Thread that listens for new YouTube uploads.
      */
     public void createUploadStream() {
-        ThreadUtil.createThread(x -> {
+        ThreadUtil.createThread(leaderPoll("youtube", x -> {
             try {
                 for (String channel : registeredYouTubeChannels) {
 
@@ -601,23 +697,13 @@ public class Notifier {
                         try {
                             youTubeChannel = YouTubeAPIHandler.getInstance().getYouTubeChannelBySearch(channel);
                         } catch (IOException e) {
-                            Sentry.captureException(e);
+                            SentryReporter.captureException(e);
                             return;
                         }
 
                         for (ChannelStats channelStat : channelStats) {
                             if (channelStat.getYoutubeSubscribersChannelId() != null) {
-                                GuildChannel guildChannel = BotWorker.getShardManager().getGuildChannelById(channelStat.getYoutubeSubscribersChannelId());
-
-                                if (guildChannel == null) continue;
-
-                                String newName = LanguageService.getByGuild(guildChannel.getGuild(), "label.youtubeCountName", youTubeChannel.getSubscriberCountText());
-                                if (!guildChannel.getName().equalsIgnoreCase(newName)) {
-                                    if (!guildChannel.getGuild().getSelfMember().hasAccess(guildChannel))
-                                        continue;
-
-                                    guildChannel.getManager().setName(newName).queue();
-                                }
+                                updateStatsChannel(channelStat.getGuildId(), channelStat.getYoutubeSubscribersChannelId(), "label.youtubeCountName", youTubeChannel.getSubscriberCountText());
                             }
                         }
                     }
@@ -670,11 +756,11 @@ public class Notifier {
                 }
             } catch (Exception e) {
                 log.error("Couldn't get upload data!", e);
-                Sentry.captureException(e);
+                SentryReporter.captureException(e);
             }
-        }, x -> {
+        }), x -> {
             log.error("Couldn't start upload Stream!");
-            Sentry.captureException(x);
+            SentryReporter.captureException(x);
         }, Duration.ofMinutes(5), true, true);
     }
 
@@ -735,7 +821,7 @@ public class Notifier {
      * Used to register a Reddit-Post Event for all Subreddits.
      */
     public void createRedditPostStream() {
-        ThreadUtil.createThread(x -> {
+        ThreadUtil.createThread(leaderPoll("reddit", x -> {
             try {
                 for (String subreddit : registeredSubreddits) {
                     List<ChannelStats> channelStats = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ChannelStats(),
@@ -751,16 +837,7 @@ public class Notifier {
 
                         for (ChannelStats channelStat : channelStats) {
                             if (channelStat.getSubredditMemberChannelId() != null) {
-                                GuildChannel guildChannel = BotWorker.getShardManager().getGuildChannelById(channelStat.getSubredditMemberChannelId());
-                                String newName = "Subreddit Members: " + subredditEntity.getActiveUserCount();
-                                if (guildChannel != null &&
-                                        !guildChannel.getName().equalsIgnoreCase(newName)) {
-
-                                    if (!guildChannel.getGuild().getSelfMember().hasAccess(guildChannel))
-                                        continue;
-
-                                    guildChannel.getManager().setName(newName).queue();
-                                }
+                                updateStatsChannel(channelStat.getGuildId(), channelStat.getSubredditMemberChannelId(), null, "Subreddit Members: " + subredditEntity.getActiveUserCount());
                             }
                         }
                     }
@@ -808,11 +885,11 @@ public class Notifier {
                 }
             } catch (Exception exception) {
                 log.error("Could not get Reddit Posts!", exception);
-                Sentry.captureException(exception);
+                SentryReporter.captureException(exception);
             }
-        }, x -> {
+        }), x -> {
             log.error("Couldn't start Reddit Stream!");
-            Sentry.captureException(x);
+            SentryReporter.captureException(x);
         }, Duration.ofMinutes(5), true, true);
     }
 
@@ -885,7 +962,7 @@ public class Notifier {
      * Used to register an Instagram-Post Event for all Insta-Users.
      */
     public void createInstagramPostStream() {
-        ThreadUtil.createThread(x -> {
+        ThreadUtil.createThread(leaderPoll("instagram", x -> {
             if (!instagramClient.isLoggedIn()) return;
 
             for (String username : registeredInstagramUsers) {
@@ -898,17 +975,7 @@ public class Notifier {
                     if (!channelStats.isEmpty()) {
                         for (ChannelStats channelStat : channelStats) {
                             if (channelStat.getInstagramFollowerChannelId() != null) {
-                                GuildChannel guildChannel = BotWorker.getShardManager().getGuildChannelById(channelStat.getInstagramFollowerChannelId());
-
-                                if (guildChannel == null) continue;
-
-                                String newName = LanguageService.getByGuild(guildChannel.getGuild(), "label.instagramCountName", user.getFollower_count());
-                                if (!guildChannel.getName().equalsIgnoreCase(newName)) {
-                                    if (!guildChannel.getGuild().getSelfMember().hasAccess(guildChannel))
-                                        continue;
-
-                                    guildChannel.getManager().setName(newName).queue();
-                                }
+                                updateStatsChannel(channelStat.getGuildId(), channelStat.getInstagramFollowerChannelId(), "label.instagramCountName", user.getFollower_count());
                             }
                         }
                     }
@@ -959,13 +1026,13 @@ public class Notifier {
                     }
                 }).exceptionally(exception -> {
                     log.error("Could not get Instagram User!", exception);
-                    Sentry.captureException(exception);
+                    SentryReporter.captureException(exception);
                     return null;
                 }).join();
             }
-        }, x -> {
+        }), x -> {
             log.error("Couldn't start Instagram Stream!");
-            Sentry.captureException(x);
+            SentryReporter.captureException(x);
         }, Duration.ofMinutes(5), true, true);
     }
 
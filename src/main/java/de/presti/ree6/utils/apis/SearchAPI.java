@@ -0,0 +1,157 @@
+package de.presti.ree6.utils.apis;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import de.presti.ree6.utils.external.RequestUtility;
+import de.presti.ree6.utils.external.SearchResultCache;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The paginated search sources used by the search commands, combined with the {@link SearchResultCache}.
+ */
+public class SearchAPI {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     * @throws IllegalStateException it is a utility class.
+     */
+    private SearchAPI() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The page size of kitsu.io, which is also its maximum.
+     */
+    private static final int KITSU_PAGE_SIZE = 20;
+
+    /**
+     * The page size used for reddit.com and rule34.xxx.
+     */
+    private static final int PAGE_SIZE = 100;
+
+    /**
+     * Animes from kitsu.io, the query is the search text.
+     */
+    public static final SearchResultCache.Source KITSU_ANIME = new SearchResultCache.Source("kitsu-anime",
+            (query, cursor) -> requestKitsu("anime", query, cursor));
+
+    /**
+     * Mangas from kitsu.io, the query is the search text.
+     */
+    public static final SearchResultCache.Source KITSU_MANGA = new SearchResultCache.Source("kitsu-manga",
+            (query, cursor) -> requestKitsu("manga", query, cursor));
+
+    /**
+     * Image posts from r/hentai, the query is ignored.
+     */
+    public static final SearchResultCache.Source REDDIT_HENTAI = new SearchResultCache.Source("reddit-hentai",
+            (query, cursor) -> requestObject("https://www.reddit.com/r/hentai/new.json?sort=hot&limit=" + PAGE_SIZE +
+                    (cursor != null ? "&after=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "")).thenApply(jsonObject -> {
+                if (!jsonObject.has("data") || !jsonObject.get("data").isJsonObject()) return null;
+
+                JsonObject data = jsonObject.getAsJsonObject("data");
+                List<JsonObject> results = new ArrayList<>();
+
+                if (data.has("children") && data.get("children").isJsonArray()) {
+                    for (JsonElement child : data.getAsJsonArray("children")) {
+                        if (child.isJsonObject() && child.getAsJsonObject().has("data") &&
+                                child.getAsJsonObject().get("data").isJsonObject()) {
+                            JsonObject post = child.getAsJsonObject().getAsJsonObject("data");
+                            if (isRedditImage(post)) results.add(post);
+                        }
+                    }
+                }
+
+                String after = data.has("after") && data.get("after").isJsonPrimitive() ? data.get("after").getAsString() : null;
+                return new SearchResultCache.Page(results, after);
+            }));
+
+    /**
+     * Posts from rule34.xxx, the query are the tags.
+     */
+    public static final SearchResultCache.Source RULE34 = new SearchResultCache.Source("rule34", (query, cursor) -> {
+        int page = cursor != null ? Integer.parseInt(cursor) : 0;
+
+        return RequestUtility.requestJsonAsync(RequestUtility.Request.builder()
+                .url("https://api.rule34.xxx/index.php?page=dapi&s=post&q=index&json=1&limit=" + PAGE_SIZE + "&pid=" + page +
+                        (query.isEmpty() ? "" : "&tags=" + URLEncoder.encode(query, StandardCharsets.UTF_8)))
+                .cache(false).build()).thenApply(jsonElement -> {
+            // rule34.xxx responds with an empty body instead of an empty array, once there are no more posts.
+            if (jsonElement == null || !jsonElement.isJsonArray()) return page == 0 ? null : new SearchResultCache.Page(List.of(), null);
+
+            List<JsonObject> results = new ArrayList<>();
+            for (JsonElement element : jsonElement.getAsJsonArray()) {
+                if (element.isJsonObject() && element.getAsJsonObject().has("sample_url")) {
+                    results.add(element.getAsJsonObject());
+                }
+            }
+
+            return new SearchResultCache.Page(results, jsonElement.getAsJsonArray().size() >= PAGE_SIZE ? String.valueOf(page + 1) : null);
+        });
+    });
+
+    /**
+     * Request a page of a kitsu.io search.
+     *
+     * @param type   the type, either anime or manga.
+     * @param query  the search text.
+     * @param cursor the URL of the page, null for the first page.
+     * @return a {@link CompletableFuture} with the {@link SearchResultCache.Page}.
+     */
+    private static CompletableFuture<SearchResultCache.Page> requestKitsu(String type, String query, String cursor) {
+        String url = cursor != null ? cursor : "https://kitsu.io/api/edge/" + type + "?filter[text]=" +
+                URLEncoder.encode(query, StandardCharsets.UTF_8) + "&page[limit]=" + KITSU_PAGE_SIZE;
+
+        return requestObject(url).thenApply(jsonObject -> {
+            if (!jsonObject.has("data") || !jsonObject.get("data").isJsonArray()) return null;
+
+            List<JsonObject> results = new ArrayList<>();
+            for (JsonElement element : jsonObject.getAsJsonArray("data")) {
+                if (element.isJsonObject()) results.add(element.getAsJsonObject());
+            }
+
+            String next = jsonObject.has("links") && jsonObject.get("links").isJsonObject() &&
+                    jsonObject.getAsJsonObject("links").has("next") ?
+                    jsonObject.getAsJsonObject("links").get("next").getAsString() : null;
+
+            return new SearchResultCache.Page(results, next);
+        });
+    }
+
+    /**
+     * Check if a reddit post is an image or video that can be embedded.
+     *
+     * @param post the data of the post.
+     * @return true, if it can be embedded.
+     */
+    private static boolean isRedditImage(JsonObject post) {
+        if (post.get("url") == null || !post.get("url").isJsonPrimitive() ||
+                post.get("post_hint") == null || !post.get("post_hint").isJsonPrimitive()) return false;
+
+        String postHint = post.getAsJsonPrimitive("post_hint").getAsString(),
+                fileUrl = post.getAsJsonPrimitive("url").getAsString().toLowerCase(Locale.ROOT);
+
+        return (postHint.equalsIgnoreCase("image") ||
+                postHint.equalsIgnoreCase("link") ||
+                postHint.equalsIgnoreCase("rich:video")) &&
+                !fileUrl.startsWith("https://www.reddit.com/gallery/") &&
+                !fileUrl.startsWith("https://redgifs.com/");
+    }
+
+    /**
+     * Request a JSON object, bypassing the response cache since the results are cached by the {@link SearchResultCache}.
+     *
+     * @param url the URL.
+     * @return a {@link CompletableFuture} with the {@link JsonObject}, empty if the response was no object.
+     */
+    private static CompletableFuture<JsonObject> requestObject(String url) {
+        return RequestUtility.requestJsonAsync(RequestUtility.Request.builder().url(url).cache(false).build())
+                .thenApply(jsonElement -> jsonElement != null && jsonElement.isJsonObject() ? jsonElement.getAsJsonObject() : new JsonObject());
+    }
+}
@@ -1,7 +1,7 @@
 package de.presti.ree6.utils.apis;
 
 import de.presti.ree6.main.Main;
-import io.sentry.Sentry;
+import de.presti.ree6.utils.others.SentryReporter;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.core5.http.ParseException;
@@ -144,7 +144,7 @@ public class SpotifyAPIHandler {
                 try {
                     initSpotify();
                 } catch (Exception exception) {
-                    Sentry.captureException(exception);
+                    SentryReporter.captureException(exception);
                 }
 
                 return getTracks(playlistId);
@@ -0,0 +1,328 @@
+package de.presti.ree6.utils.apis;
+
+import com.github.philippheuer.credentialmanager.domain.Credential;
+import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
+import com.github.twitch4j.TwitchClient;
+import com.github.twitch4j.auth.providers.TwitchIdentityProvider;
+import com.github.twitch4j.pubsub.PubSubSubscription;
+import de.presti.ree6.bot.cluster.ClusterManager;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.TwitchIntegration;
+import de.presti.ree6.utils.data.CustomOAuth2Credential;
+import de.presti.ree6.utils.data.CustomOAuth2Util;
+import de.presti.ree6.utils.data.DatabaseStorageBackend;
+import de.presti.ree6.utils.others.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the Twitch PubSub subscriptions of the Stream Tools in sync with the Twitch Integrations.
+ * Only Integrations that have been added, removed or re-authorized are subscribed or unsubscribed, and every token
+ * is refreshed shortly before it expires.
+ * Between the full comparisons only the Integrations updated since the last check are loaded.
+ */
+@Slf4j
+public class TwitchSubscriptionManager {
+
+    /**
+     * The interval in which the Integrations are compared with the active subscriptions.
+     */
+    private static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(5);
+
+    /**
+     * The interval in which every Integration is loaded, to notice the Integrations that have been removed.
+     */
+    private static final Duration FULL_RECONCILE_INTERVAL = Duration.ofHours(1);
+
+    /**
+     * The overlap between two checks of updated Integrations, covers a clock difference to the Database.
+     */
+    private static final Duration CHECK_OVERLAP = Duration.ofMinutes(1);
+
+    /**
+     * The interval in which refreshed credentials are written to the Database.
+     */
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * The time before the expiry of a token, at which it is refreshed.
+     */
+    private static final Duration REFRESH_MARGIN = Duration.ofMinutes(5);
+
+    /**
+     * The Twitch Client used to subscribe.
+     */
+    private final TwitchClient twitchClient;
+
+    /**
+     * The Twitch Identity Provider used to validate and refresh tokens.
+     */
+    private final TwitchIdentityProvider twitchIdentityProvider;
+
+    /**
+     * The Storage backend used to persist refreshed credentials.
+     */
+    private final DatabaseStorageBackend storageBackend;
+
+    /**
+     * The active subscriptions, mapped by the ID of the Twitch channel.
+     */
+    private final Map<String, ActiveSubscription> active = new HashMap<>();
+
+    /**
+     * Refreshed credentials that have not been written to the Database yet, mapped by the ID of the Twitch channel.
+     */
+    private final Map<String, CustomOAuth2Credential> pendingSaves = new HashMap<>();
+
+    /**
+     * The time in millis of the last check, 0 if every Integration has to be loaded.
+     */
+    private long lastCheck;
+
+    /**
+     * The time in millis of the last full comparison.
+     */
+    private long lastFullReconcile;
+
+    /**
+     * Constructor.
+     *
+     * @param twitchClient           the Twitch Client used to subscribe.
+     * @param twitchIdentityProvider the Twitch Identity Provider used to validate and refresh tokens.
+     * @param storageBackend         the Storage backend used to persist refreshed credentials.
+     */
+    public TwitchSubscriptionManager(TwitchClient twitchClient, TwitchIdentityProvider twitchIdentityProvider, DatabaseStorageBackend storageBackend) {
+        this.twitchClient = twitchClient;
+        this.twitchIdentityProvider = twitchIdentityProvider;
+        this.storageBackend = storageBackend;
+    }
+
+    /**
+     * Subscribe every Integration and start to reconcile and persist in the background.
+     */
+    public void start() {
+        ThreadUtil.createThread(x -> {
+            try {
+                reconcile();
+            } catch (Exception exception) {
+                log.error("[Twitch] Failed to reconcile the PubSub subscriptions!", exception);
+            }
+        }, null, RECONCILE_INTERVAL, true, true);
+
+        ThreadUtil.createThread(x -> flush(), null, FLUSH_INTERVAL, true, false);
+
+        // Hand the subscriptions over right away, when the leader of the cluster changes.
+        ClusterManager.addLeaderListener(leader -> ThreadUtil.createThread(x -> reconcile(true)));
+    }
+
+    /**
+     * Compare the Integrations with the active subscriptions and only subscribe or unsubscribe the difference.
+     * Only the Integrations updated since the last check are loaded, unless a full comparison is due.
+     */
+    public void reconcile() {
+        reconcile(false);
+    }
+
+    /**
+     * Compare the Integrations with the active subscriptions and only subscribe or unsubscribe the difference.
+     * Only the leader of the cluster subscribes, every other node unsubscribes everything.
+     *
+     * @param full if every Integration should be loaded, otherwise only the ones updated since the last check are.
+     */
+    public synchronized void reconcile(boolean full) {
+        long now = System.currentTimeMillis();
+        boolean leader = ClusterManager.isLeader();
+        full = full || !leader || lastCheck == 0 || now - lastFullReconcile >= FULL_RECONCILE_INTERVAL.toMillis();
+
+        Map<String, TwitchIntegration> desired = new HashMap<>();
+        if (leader) {
+            List<TwitchIntegration> twitchIntegrations = full ?
+                    SQLSession.getSqlConnector().getSqlWorker().getEntityList(new TwitchIntegration(), "SELECT * FROM TwitchIntegration", null) :
+                    SQLSession.getSqlConnector().getSqlWorker().getEntityList(new TwitchIntegration(),
+                            "SELECT * FROM TwitchIntegration WHERE last_updated > :since", Map.of("since", new Timestamp(lastCheck - CHECK_OVERLAP.toMillis())));
+
+            for (TwitchIntegration twitchIntegration : twitchIntegrations) {
+                desired.put(twitchIntegration.getChannelId(), twitchIntegration);
+            }
+        }
+
+        lastCheck = now;
+        if (full) lastFullReconcile = now;
+
+        List<TwitchIntegration> added = new ArrayList<>();
+
+        synchronized (active) {
+            // Removed Integrations can only be noticed by their absence, which requires every Integration.
+            if (full) {
+                for (String channelId : new ArrayList<>(active.keySet())) {
+                    if (!desired.containsKey(channelId)) {
+                        unsubscribe(active.remove(channelId));
+                        pendingSaves.remove(channelId);
+                    }
+                }
+            }
+
+            for (TwitchIntegration twitchIntegration : desired.values()) {
+                ActiveSubscription subscription = active.get(twitchIntegration.getChannelId());
+
+                // A refreshed token that has not been saved yet is newer than the one in the Database.
+                if (subscription != null && (subscription.token().equals(twitchIntegration.getToken()) ||
+                        pendingSaves.containsKey(twitchIntegration.getChannelId()))) continue;
+
+                added.add(twitchIntegration);
+            }
+        }
+
+        for (TwitchIntegration twitchIntegration : added) {
+            try {
+                subscribe(CustomOAuth2Util.convert(twitchIntegration), true);
+            } catch (Exception exception) {
+                log.error("[Twitch] Failed to subscribe to the channel {}!", twitchIntegration.getChannelId(), exception);
+            }
+        }
+
+        if (!added.isEmpty()) log.info("[Twitch] Subscribed to {} new or re-authorized channels.", added.size());
+    }
+
+    /**
+     * Subscribe to the topics of a channel, replacing the old subscription, and queue the refresh of its token.
+     *
+     * @param credential the credential of the channel.
+     * @param validate   if the token should be validated first, to get its remaining lifetime.
+     */
+    private void subscribe(CustomOAuth2Credential credential, boolean validate) {
+        OAuth2Credential oAuth2Credential = toOAuth2Credential(credential);
+
+        if (validate) {
+            Optional<OAuth2Credential> validated = twitchIdentityProvider.getAdditionalCredentialInformation(oAuth2Credential);
+
+            if (validated.isEmpty()) {
+                // The token is not valid anymore, so it has to be refreshed before it can be used.
+                refresh(credential);
+                return;
+            }
+
+            credential.setExpiresIn(validated.get().getExpiresIn());
+        }
+
+        PubSubSubscription[] subscriptions = new PubSubSubscription[3];
+        subscriptions[0] = twitchClient.getPubSub().listenForChannelPointsRedemptionEvents(oAuth2Credential, credential.getUserId());
+        subscriptions[1] = twitchClient.getPubSub().listenForSubscriptionEvents(oAuth2Credential, credential.getUserId());
+        subscriptions[2] = twitchClient.getPubSub().listenForFollowingEvents(oAuth2Credential, credential.getUserId());
+
+        synchronized (active) {
+            unsubscribe(active.put(credential.getUserId(), new ActiveSubscription(credential.getAccessToken(), subscriptions)));
+        }
+
+        if (credential.getExpiresIn() != null && credential.getExpiresIn() > 0) {
+            long delay = Math.max(Duration.ofSeconds(credential.getExpiresIn()).minus(REFRESH_MARGIN).toMillis(), 0);
+            CompletableFuture.runAsync(() -> refreshIfActive(credential), CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Refresh the token of a channel, unless it has been unsubscribed or re-authorized in the meantime.
+     *
+     * @param credential the credential of the channel at the time the refresh has been queued.
+     */
+    private void refreshIfActive(CustomOAuth2Credential credential) {
+        synchronized (active) {
+            ActiveSubscription subscription = active.get(credential.getUserId());
+            if (subscription == null || !subscription.token().equals(credential.getAccessToken())) return;
+        }
+
+        refresh(credential);
+    }
+
+    /**
+     * Refresh the token of a channel and subscribe with the new token.
+     *
+     * @param credential the credential of the channel.
+     */
+    private void refresh(CustomOAuth2Credential credential) {
+        try {
+            Optional<OAuth2Credential> refreshed = twitchIdentityProvider.refreshCredential(toOAuth2Credential(credential));
+
+            if (refreshed.isEmpty()) {
+                log.warn("[Twitch] Couldn't refresh the token of the channel {}, it might have been revoked.", credential.getUserId());
+                return;
+            }
+
+            CustomOAuth2Credential newCredential = new CustomOAuth2Credential(credential.getDiscordId(), refreshed.get());
+
+            synchronized (active) {
+                pendingSaves.put(newCredential.getUserId(), newCredential);
+            }
+
+            subscribe(newCredential, false);
+        } catch (Exception exception) {
+            log.error("[Twitch] Failed to refresh the token of the channel {}!", credential.getUserId(), exception);
+        }
+    }
+
+    /**
+     * Unsubscribe every topic of a subscription.
+     *
+     * @param subscription the subscription, can be null.
+     */
+    private void unsubscribe(ActiveSubscription subscription) {
+        if (subscription == null) return;
+
+        for (PubSubSubscription pubSubSubscription : subscription.subscriptions()) {
+            twitchClient.getPubSub().unsubscribeFromTopic(pubSubSubscription);
+        }
+    }
+
+    /**
+     * Write every refreshed credential to the Database.
+     */
+    public void flush() {
+        List<Credential> credentials;
+
+        synchronized (active) {
+            if (pendingSaves.isEmpty()) return;
+
+            credentials = new ArrayList<>(pendingSaves.values());
+            pendingSaves.clear();
+        }
+
+        try {
+            storageBackend.saveCredentials(credentials);
+        } catch (Exception exception) {
+            log.error("[Twitch] Failed to save {} refreshed credentials!", credentials.size(), exception);
+
+            // Retry with the next flush, unless the channel has been refreshed again or removed in the meantime.
+            synchronized (active) {
+                for (Credential credential : credentials) {
+                    CustomOAuth2Credential oAuth2Credential = (CustomOAuth2Credential) credential;
+                    if (active.containsKey(oAuth2Credential.getUserId())) pendingSaves.putIfAbsent(oAuth2Credential.getUserId(), oAuth2Credential);
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert a credential into the format used by Twitch4J.
+     *
+     * @param credential the credential.
+     * @return the {@link OAuth2Credential}.
+     */
+    private static OAuth2Credential toOAuth2Credential(CustomOAuth2Credential credential) {
+        return new OAuth2Credential("twitch", credential.getAccessToken(), credential.getRefreshToken(), credential.getUserId(),
+                credential.getUserName(), credential.getExpiresIn(), credential.getScopes());
+    }
+
+    /**
+     * An active subscription of a channel.
+     *
+     * @param token         the token used to subscribe.
+     * @param subscriptions the subscribed topics.
+     */
+    private record ActiveSubscription(String token, PubSubSubscription[] subscriptions) {
+    }
+}
@@ -1,5 +1,6 @@
 package de.presti.ree6.utils.apis;
 
+import de.presti.ree6.utils.others.SentryReporter;
 import de.presti.wrapper.YouTubeWrapper;
 import de.presti.wrapper.entities.VideoResult;
 import de.presti.wrapper.entities.channel.ChannelResult;
@@ -7,7 +8,6 @@ import de.presti.wrapper.entities.channel.ChannelShortResult;
 import de.presti.wrapper.entities.channel.ChannelVideoResult;
 import de.presti.wrapper.entities.search.ChannelSearchResult;
 import de.presti.wrapper.entities.search.SearchResult;
-import io.sentry.Sentry;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
@@ -71,7 +71,7 @@ public class YouTubeAPIHandler {
                 try {
                     playlistItemList.add(YouTubeWrapper.getVideo(video.getId(), false));
                 } catch (Exception exception) {
-                    Sentry.captureException(exception);
+                    SentryReporter.captureException(exception);
                 }
             }
 
@@ -81,7 +81,7 @@ public class YouTubeAPIHandler {
                 try {
                     playlistItemList.add(YouTubeWrapper.getVideo(shorts.getId(), true));
                 } catch (Exception exception) {
-                    Sentry.captureException(exception);
+                    SentryReporter.captureException(exception);
                 }
             }
         }
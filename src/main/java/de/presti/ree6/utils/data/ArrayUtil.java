@@ -26,14 +26,6 @@ public class ArrayUtil {
         throw new IllegalStateException("Utility class");
     }
 
-    /**
-     * HashMap used to store conversations between the user and the Chat-GPT implementation.
-     * These are being stored guild specific so Ree6 will not continue a conversation in another guild.
-     * While at the same time we store them in memory to protect users privacy, since there is no actual
-     * reason for us to keep these longer then the current application uptime.
-     */
-    public static final Map<String, List<com.lilittlecat.chatgpt.offical.entity.Message>> chatGPTMessages = new HashMap<>();
-
     /**
      * HashMap used to store message contents and their IDs, to show the content when the message gets deleted.
      */
@@ -44,11 +36,6 @@ public class ArrayUtil {
      */
     public static final Map<String, User> messageIDwithUser = new HashMap<>();
 
-    /**
-     * HashMap used to store user Ids and their VC join time, to track VoiceXP.
-     */
-    public static final Map<User, Long> voiceJoined = new HashMap<>();
-
     /**
      * HashMap used to store a users Ids, to keep them from spamming commands.
      */
@@ -6,8 +6,8 @@ import org.simpleyaml.configuration.MemorySection;
 import org.simpleyaml.configuration.file.YamlFile;
 
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.*;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,7 +19,17 @@ public class Config {
     /**
      * The Configuration.
      */
-    private YamlFile yamlFile;
+    private volatile YamlFile yamlFile;
+
+    /**
+     * The compiled snapshot of the Configuration.
+     */
+    private volatile ConfigSnapshot snapshot;
+
+    /**
+     * The Thread watching the Configuration file.
+     */
+    private Thread watcher;
 
     /**
      * Initialize the Configuration.
@@ -93,6 +103,10 @@ public class Config {
                     .parent().path("advertisement").addDefault("powered by Tube-hosting").commentSide("The Advertisement in Embed Footers and the rest.")
                     .parent().path("name").addDefault("Ree6").commentSide("The Name of the Bot.")
                     .parent().path("shards").addDefault(1).commentSide("The shard amount of the Bot. Check out https://anidiots.guide/understanding/sharding/#sharding for more information.")
+                    .parent().path("memberCachePolicy").addDefault("voice,owner,recent").commentSide("Which Members should be cached, separated by commas. Possible entries: all, voice, online, owner, booster, pending, recent")
+                    .parent().path("recentMemberDuration").addDefault(30).commentSide("The time in minutes a Member stays cached after being active, when using recent.")
+                    .parent().path("downloadStorageInBackground").addDefault(false).commentSide("Should the storage files be downloaded while the Bot logs in? Features like rank cards can miss their files on the very first start.")
+                    .parent().path("restoreMusicQueues").addDefault(true).commentSide("Should the music queues be stored, so they continue after a restart?")
                     .parent().path("modules").comment("Customize the active modules in Ree6.").blankLine()
                     .path("moderation").addDefault(true).commentSide("Enable the moderation module.")
                     .parent().path("music").addDefault(true).commentSide("Enable the music module.")
@@ -124,6 +138,31 @@ public class Config {
                     .path("url").addDefault("none").commentSide("The URL to the Heartbeat-Server")
                     .parent().path("interval").addDefault(60);
 
+            yamlFile.path("metrics")
+                    .comment("Metrics Configuration, exports runtime metrics in the Prometheus format on /metrics.").blankLine()
+                    .path("enabled").addDefault(false).commentSide("Should the metrics be exported?")
+                    .parent().path("host").addDefault("127.0.0.1").commentSide("The host the metrics endpoint binds to.")
+                    .parent().path("port").addDefault(9464).commentSide("The port of the metrics endpoint.");
+
+            yamlFile.path("cluster")
+                    .comment("Cluster Configuration, used to split the shards over multiple processes.").blankLine()
+                    .path("enabled").addDefault(false).commentSide("Should the shards be split over multiple processes?")
+                    .parent().path("nodeId").addDefault(0).commentSide("The ID of this process, can be overridden with -Dree6.cluster.nodeId=<id>.")
+                    .parent().path("nodes").addDefault(List.of("127.0.0.1:9470")).commentSide("The address of every process, the shards are split evenly in this order.")
+                    .parent().path("secret").addDefault("yourClusterSecretHere").commentSide("The secret every process uses to talk to each other.")
+                    .parent().path("leaseDuration").addDefault(30).commentSide("The time in seconds the leader has to renew its lease.");
+
+            yamlFile.path("http")
+                    .comment("HTTP Client Configuration, used for every outgoing API request.").blankLine()
+                    .path("timeout").path("connect").addDefault(10).commentSide("Connect timeout in seconds.")
+                    .parent().path("request").addDefault(30).commentSide("Request timeout in seconds.")
+                    .parent().parent().path("retries").addDefault(2).commentSide("How often idempotent requests should be retried.")
+                    .parent().path("retryBackoff").addDefault(250).commentSide("Base backoff between retries in milliseconds, jitter will be added.")
+                    .parent().path("maxConcurrentPerHost").addDefault(8).commentSide("The maximum amount of concurrent requests to a single host.")
+                    .parent().path("maxBodySize").addDefault(16777216).commentSide("The maximum size of a response body in bytes.")
+                    .parent().path("cache").path("memorySize").addDefault(8388608).commentSide("The maximum size of the in-memory response cache in bytes.")
+                    .parent().path("diskSize").addDefault(67108864).commentSide("The maximum size of the on-disk response cache in bytes, 0 to disable.");
+
             yamlFile.path("dagpi").path("apitoken").commentSide("Your Dagpi.xyz API-Token, for tweet image generation!")
                     .addDefault("DAGPI.xyz API-Token");
 
@@ -134,15 +173,35 @@ public class Config {
 
             yamlFile.setBlankLine("amari");
 
+            yamlFile.path("import")
+                    .comment("Import Configuration, used to import the leaderboards of other Bots.").blankLine()
+                    .path("mee6Url").addDefault("https://mee6.xyz/api/plugins/levels/leaderboard/").commentSide("The URL of the Mee6 leaderboard, followed by the ID of the Guild.")
+                    .parent().path("amariUrl").addDefault("https://amaribot.com/api/v1/guild/raw/leaderboard/").commentSide("The URL of the Amari leaderboard, followed by the ID of the Guild.")
+                    .parent().path("pageDelay").addDefault(1000).commentSide("The pause between two pages in milliseconds, to stay below the rate-limits.");
+
+            yamlFile.path("games")
+                    .comment("Games Configuration, used to limit the running games.").blankLine()
+                    .path("timeout").addDefault(600).commentSide("The seconds without any interaction after which a game is ended.")
+                    .parent().path("maxPerGuild").addDefault(10).commentSide("The maximum amount of running games per Guild.")
+                    .parent().path("maxPerUser").addDefault(2).commentSide("The maximum amount of running games a User can host.");
+
             yamlFile.path("openai").path("apiToken").commentSide("Your OpenAI API-Token, for ChatGPT!")
                     .addDefault("OpenAI API-Token")
                     .parent().path("apiUrl").addDefault("https://api.openai.com/v1/chat/completions").commentSide("The URL to the OpenAI API.")
-                    .parent().path("model").addDefault("gpt-3.5-turbo-0301").commentSide("The Model used for the OpenAI API.");
+                    .parent().path("model").addDefault("gpt-3.5-turbo-0301").commentSide("The Model used for the OpenAI API.")
+                    .parent().path("maxPromptTokens").addDefault(3000).commentSide("The maximum amount of tokens sent per request, older messages of a conversation are left out.")
+                    .parent().path("summarize").addDefault(false).commentSide("Should older messages of a conversation be summarized instead of dropped? This costs an additional request.")
+                    .parent().path("sessionTimeout").addDefault(30).commentSide("The time in minutes after which an idle conversation is forgotten.")
+                    .parent().path("maxConcurrentRequests").addDefault(4).commentSide("The maximum amount of concurrent requests to the OpenAI API.");
 
             yamlFile.setBlankLine("openai");
 
             yamlFile.path("sentry").path("dsn").commentSide("Your Sentry DSN, for error reporting!")
-                    .addDefault("yourSentryDSNHere");
+                    .addDefault("yourSentryDSNHere")
+                    .parent().path("tracesSampleRate").addDefault(0.0).commentSide("The rate of transactions that should be traced, between 0 and 1.")
+                    .parent().path("eventSampleRate").addDefault(1.0).commentSide("The rate of errors that should be reported, between 0 and 1.")
+                    .parent().path("deduplicationWindow").addDefault(60).commentSide("The time in seconds in which identical errors are only reported once.")
+                    .parent().path("queueSize").addDefault(1000).commentSide("The maximum amount of errors waiting to be reported, further errors will be dropped.");
 
             yamlFile.setBlankLine("sentry");
 
@@ -183,6 +242,66 @@ public class Config {
                 log.error("Could not load config!", exception);
             }
         }
+
+        snapshot = ConfigSnapshot.compile(yamlFile);
+    }
+
+    /**
+     * Load the Configuration file again and swap the snapshot.
+     *
+     * @return true, if the Configuration has been loaded.
+     */
+    public synchronized boolean reload() {
+        YamlFile reloadedFile = createConfiguration();
+
+        try {
+            reloadedFile.load();
+        } catch (Exception exception) {
+            log.error("Could not reload config!", exception);
+            return false;
+        }
+
+        yamlFile = reloadedFile;
+        snapshot = ConfigSnapshot.compile(reloadedFile);
+        log.info("Reloaded the config!");
+        return true;
+    }
+
+    /**
+     * Watch the Configuration file and reload it, once it has been changed.
+     * The watcher blocks while waiting for changes, so it runs on its own daemon Thread instead of the shared Thread-pool.
+     */
+    public synchronized void watch() {
+        if (watcher != null && watcher.isAlive()) return;
+
+        watcher = new Thread(() -> {
+            Path file = getFile().toPath().toAbsolutePath();
+
+            try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+                file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+                long lastModified = getFile().lastModified();
+
+                while (!Thread.currentThread().isInterrupted()) {
+                    WatchKey watchKey = watchService.take();
+                    boolean changed = watchKey.pollEvents().stream().anyMatch(event -> file.getFileName().equals(event.context()));
+                    watchKey.reset();
+
+                    if (!changed || getFile().lastModified() == lastModified) continue;
+
+                    // Editors often write a file in multiple steps, give them time to finish.
+                    Thread.sleep(500);
+                    lastModified = getFile().lastModified();
+                    reload();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } catch (Exception exception) {
+                log.error("Could not watch the config file!", exception);
+            }
+        }, "Config-Watcher");
+        watcher.setDaemon(true);
+        watcher.start();
     }
 
     /**
@@ -318,6 +437,19 @@ public class Config {
         return yamlFile;
     }
 
+    /**
+     * Get the compiled snapshot of the Configuration.
+     *
+     * @return The Configuration as {@link ConfigSnapshot}.
+     */
+    public ConfigSnapshot getSnapshot() {
+        if (snapshot == null) {
+            init();
+        }
+
+        return snapshot;
+    }
+
     /**
      * Get the Configuration File.
      *
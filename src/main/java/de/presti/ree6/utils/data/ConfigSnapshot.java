@@ -0,0 +1,203 @@
+package de.presti.ree6.utils.data;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.simpleyaml.configuration.file.YamlFile;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the frequently used values of the Configuration.
+ * A new snapshot is compiled every time the Configuration has been loaded, so that the values can be read
+ * without walking through the YAML tree.
+ */
+@Getter
+public final class ConfigSnapshot {
+
+    /**
+     * The modules that are active.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<Module> activeModules;
+
+    /**
+     * The Discord Bot status.
+     */
+    private final String status;
+
+    /**
+     * The Discord Bot Website.
+     */
+    private final String website;
+
+    /**
+     * The Github repository.
+     */
+    private final String github;
+
+    /**
+     * The Discord Bot invite.
+     */
+    private final String invite;
+
+    /**
+     * The Discord Bot support server.
+     */
+    private final String support;
+
+    /**
+     * The Discord Bot Feedback channel id.
+     */
+    private final long feedbackChannel;
+
+    /**
+     * The Advertisement.
+     */
+    private final String advertisement;
+
+    /**
+     * The Discord Bot owner.
+     */
+    private final String botOwner;
+
+    /**
+     * The Discord Bot name.
+     */
+    private final String botName;
+
+    /**
+     * The Twitch Auth Url.
+     */
+    private final String twitchAuth;
+
+    /**
+     * The Recording Url.
+     */
+    private final String recordingUrl;
+
+    /**
+     * The Webinterface Url.
+     */
+    private final String webinterface;
+
+    /**
+     * Constructor used to compile a snapshot of a Configuration.
+     *
+     * @param configuration the loaded Configuration.
+     */
+    private ConfigSnapshot(YamlFile configuration) {
+        EnumSet<Module> modules = EnumSet.noneOf(Module.class);
+
+        for (Module module : Module.values()) {
+            if (configuration.getBoolean("bot.misc.modules." + module.getConfigName(), true)) {
+                modules.add(module);
+            }
+        }
+
+        activeModules = Collections.unmodifiableSet(modules);
+        status = configuration.getString("bot.misc.status", "ree6.de | %guilds% Servers. (%shard%)");
+        website = configuration.getString("bot.misc.website", "https://ree6.de");
+        github = configuration.getString("bot.misc.github", "https://github.ree6.de");
+        invite = configuration.getString("bot.misc.invite", "https://invite.ree6.de");
+        support = configuration.getString("bot.misc.support", "https://support.ree6.de");
+        feedbackChannel = configuration.getLong("bot.misc.feedbackChannelId", 0);
+        advertisement = configuration.getString("bot.misc.advertisement", "powered by Tube-Hosting");
+        botOwner = configuration.getString("bot.misc.ownerId", "321580743488831490");
+        botName = configuration.getString("bot.misc.name", "Ree6");
+        twitchAuth = configuration.getString("bot.misc.twitchAuth", "https://cp.ree6.de/external/twitch");
+        recordingUrl = configuration.getString("bot.misc.recording", "https://cp.ree6.de/external/recording");
+        webinterface = configuration.getString("bot.misc.webinterface", "https://cp.ree6.de");
+    }
+
+    /**
+     * Compile a snapshot of a Configuration.
+     *
+     * @param configuration the loaded Configuration.
+     * @return the {@link ConfigSnapshot}.
+     */
+    public static ConfigSnapshot compile(YamlFile configuration) {
+        return new ConfigSnapshot(configuration);
+    }
+
+    /**
+     * Check if a module is active.
+     *
+     * @param module the {@link Module}.
+     * @return if the module is active.
+     */
+    public boolean isModuleActive(Module module) {
+        return activeModules.contains(module);
+    }
+
+    /**
+     * Every module that can be disabled in the Configuration.
+     */
+    @Getter
+    public enum Module {
+        MODERATION("moderation"),
+        MUSIC("music"),
+        FUN("fun"),
+        COMMUNITY("community"),
+        ECONOMY("economy"),
+        LEVEL("level"),
+        NSFW("nsfw"),
+        INFO("info"),
+        HIDDEN("hidden"),
+        LOGGING("logging"),
+        NOTIFIER("notifier"),
+        STREAMTOOLS("streamtools"),
+        TEMPORALVOICE("temporalvoice"),
+        TICKETS("tickets"),
+        SUGGESTIONS("suggestions"),
+        CUSTOMCOMMANDS("customcommands"),
+        CUSTOMEVENTS("customevents"),
+        AI("ai"),
+        ADDONS("addons"),
+        NEWS("news"),
+        GAMES("games"),
+        REACTIONROLES("reactionroles"),
+        SLASHCOMMANDS("slashcommands"),
+        MESSAGECOMMANDS("messagecommands");
+
+        /**
+         * The modules, mapped by their lower case name.
+         */
+        private static final Map<String, Module> BY_NAME = new HashMap<>();
+
+        static {
+            for (Module module : values()) {
+                BY_NAME.put(module.getConfigName().toLowerCase(Locale.ROOT), module);
+            }
+        }
+
+        /**
+         * The name of the module in the Configuration.
+         */
+        private final String configName;
+
+        /**
+         * Constructor used to create a new module.
+         *
+         * @param configName the name of the module in the Configuration.
+         */
+        Module(String configName) {
+            this.configName = configName;
+        }
+
+        /**
+         * Get a module by its name, ignoring the case.
+         *
+         * @param name the name of the module.
+         * @return the {@link Module} or null, if there is none with the given name.
+         */
+        public static Module getByName(String name) {
+            Module module = BY_NAME.get(name);
+            return module != null ? module : BY_NAME.get(name.toLowerCase(Locale.ROOT));
+        }
+    }
+}
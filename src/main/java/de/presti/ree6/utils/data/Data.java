@@ -19,7 +19,7 @@ public class Data {
      * @return the Discord Bot status from the config.
      */
     public static String getStatus() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.status", "ree6.de | %guilds% Servers. (%shard%)");
+        return getSnapshot().getStatus();
     }
 
     /**
@@ -27,7 +27,7 @@ public class Data {
      * @return the Discord Bot Website from the config.
      */
     public static String getWebsite() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.website", "https://ree6.de");
+        return getSnapshot().getWebsite();
     }
 
     /**
@@ -35,7 +35,7 @@ public class Data {
      * @return the Github repository from the config.
      */
     public static String getGithub() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.github", "https://github.ree6.de");
+        return getSnapshot().getGithub();
     }
 
     /**
@@ -43,7 +43,7 @@ public class Data {
      * @return the Discord Bot invite from the config.
      */
     public static String getInvite() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.invite", "https://invite.ree6.de");
+        return getSnapshot().getInvite();
     }
 
     /**
@@ -51,7 +51,7 @@ public class Data {
      * @return the Discord Bot support server from the config.
      */
     public static String getSupport() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.support", "https://support.ree6.de");
+        return getSnapshot().getSupport();
     }
 
     /**
@@ -59,7 +59,7 @@ public class Data {
      * @return the Discord Bot Feedback channel id from the config.
      */
     public static long getFeedbackChannel() {
-        return Main.getInstance().getConfig().getConfiguration().getLong("bot.misc.feedbackChannelId", 0);
+        return getSnapshot().getFeedbackChannel();
     }
 
     /**
@@ -67,7 +67,7 @@ public class Data {
      * @return the Advertisement from the config.
      */
     public static String getAdvertisement() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.advertisement", "powered by Tube-Hosting");
+        return getSnapshot().getAdvertisement();
     }
 
     /**
@@ -75,7 +75,7 @@ public class Data {
      * @return the Discord Bot owner from the config.
      */
     public static String getBotOwner() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.ownerId", "321580743488831490");
+        return getSnapshot().getBotOwner();
     }
 
     /**
@@ -83,7 +83,7 @@ public class Data {
      * @return the Discord Bot name from the config.
      */
     public static String getBotName() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.name", "Ree6");
+        return getSnapshot().getBotName();
     }
 
     /**
@@ -92,7 +92,31 @@ public class Data {
      * @return if the module is activated.
      */
     public static boolean isModuleActive(String moduleName) {
-        return Main.getInstance().getConfig().getConfiguration().getBoolean("bot.misc.modules." + moduleName, true);
+        ConfigSnapshot.Module module = ConfigSnapshot.Module.getByName(moduleName);
+
+        // Unknown modules, for example of Addons, are not part of the snapshot.
+        if (module == null) {
+            return Main.getInstance().getConfig().getConfiguration().getBoolean("bot.misc.modules." + moduleName, true);
+        }
+
+        return isModuleActive(module);
+    }
+
+    /**
+     * Check if a module is activated in the config.
+     * @param module the module.
+     * @return if the module is activated.
+     */
+    public static boolean isModuleActive(ConfigSnapshot.Module module) {
+        return getSnapshot().isModuleActive(module);
+    }
+
+    /**
+     * Get the current snapshot of the config.
+     * @return the {@link ConfigSnapshot}.
+     */
+    private static ConfigSnapshot getSnapshot() {
+        return Main.getInstance().getConfig().getSnapshot();
     }
 
     /**
@@ -100,7 +124,7 @@ public class Data {
      * @return the Twitch Auth Url from the config.
      */
     public static String getTwitchAuth() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.twitchAuth", "https://cp.ree6.de/external/twitch");
+        return getSnapshot().getTwitchAuth();
     }
 
     /**
@@ -108,7 +132,7 @@ public class Data {
      * @return the Recording Url from the config.
      */
     public static String getRecordingUrl() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.recording", "https://cp.ree6.de/external/recording");
+        return getSnapshot().getRecordingUrl();
     }
 
     /**
@@ -116,7 +140,7 @@ public class Data {
      * @return the Webinterface Url from the config.
      */
     public static String getWebinterface() {
-        return Main.getInstance().getConfig().getConfiguration().getString("bot.misc.webinterface", "https://cp.ree6.de");
+        return getSnapshot().getWebinterface();
     }
 }
 
@@ -38,11 +38,22 @@ public class DatabaseStorageBackend implements IStorageBackend {
      */
     @Override
     public void saveCredentials(List<Credential> list) {
+        if (list.isEmpty()) return;
+
+        List<String> channelIds = list.stream().filter(CustomOAuth2Credential.class::isInstance)
+                .map(credential -> ((CustomOAuth2Credential) credential).getUserId()).toList();
+
+        if (channelIds.isEmpty()) return;
+
+        // Load only the affected Integrations once, instead of querying them for every Credential.
+        Map<String, TwitchIntegration> twitchIntegrations = new HashMap<>();
+        SQLSession.getSqlConnector().getSqlWorker().getEntityList(new TwitchIntegration(),
+                "SELECT * FROM TwitchIntegration WHERE channel_id IN (:channelIds)", Map.of("channelIds", channelIds))
+                .forEach(twitchIntegration -> twitchIntegrations.put(twitchIntegration.getChannelId(), twitchIntegration));
+
         list.forEach(credential -> {
             if (credential instanceof CustomOAuth2Credential oAuth2Credential) {
-                TwitchIntegration twitchIntegration =
-                        SQLSession.getSqlConnector().getSqlWorker().getEntity(new TwitchIntegration(),
-                                "SELECT * FROM TwitchIntegration WHERE channel_id = :userid", Map.of("userid",oAuth2Credential.getUserId()));
+                TwitchIntegration twitchIntegration = twitchIntegrations.get(oAuth2Credential.getUserId());
 
                 if (twitchIntegration == null) {
                     twitchIntegration = new TwitchIntegration();
@@ -3,17 +3,83 @@ package de.presti.ree6.utils.data;
 import de.presti.ree6.sql.SQLSession;
 import de.presti.ree6.sql.entities.economy.MoneyHolder;
 import de.presti.ree6.sql.entities.economy.MoneyTransaction;
+import de.presti.ree6.utils.metrics.Metrics;
+import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.Member;
 
+import java.lang.ref.WeakReference;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Utility class for Economy related stuff.
+ * Balances are kept in memory and every change is applied while holding the locks of the involved MoneyHolders,
+ * the Database is updated in batches afterwards.
  */
+@Slf4j
 public class EconomyUtil {
 
+    /**
+     * The maximum amount of MoneyHolders kept in memory.
+     */
+    private static final int MAX_CACHED_HOLDERS = 10000;
+
+    /**
+     * The time changes are collected, before they are saved into the Database.
+     */
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(5);
+
+    /**
+     * The locks of the MoneyHolders, a MoneyHolder always uses the lock at the position of its hash.
+     */
+    private static final Object[] LOCKS = new Object[64];
+
+    static {
+        Arrays.setAll(LOCKS, i -> new Object());
+    }
+
+    /**
+     * The MoneyHolders in memory, ordered by their last access.
+     * Trimmed by {@link #trimHolders()}, which never evicts a MoneyHolder with unsaved changes.
+     */
+    private static final Map<String, MoneyHolder> holders = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The MoneyHolders that have been evicted from {@link #holders}, as long as they are still referenced somewhere.
+     * A command that still uses an evicted MoneyHolder keeps it alive, so that every lookup returns the same instance.
+     */
+    private static final Map<String, WeakReference<MoneyHolder>> evictedHolders = new HashMap<>();
+
+    /**
+     * The MoneyHolders which changed since the last batch has been saved.
+     */
+    private static final Map<String, MoneyHolder> dirtyHolders = new ConcurrentHashMap<>();
+
+    /**
+     * The MoneyTransactions which have not been saved yet, in the order they happened.
+     */
+    private static final Queue<MoneyTransaction> pendingTransactions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * If a batch has already been scheduled.
+     */
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     * @throws IllegalStateException it is a utility class.
+     */
+    private EconomyUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
     /**
      * Check if a MoneyHolder has any cash.
      * @param member The Member.
@@ -69,7 +135,12 @@ public class EconomyUtil {
      * @return The MoneyHolder.
      */
     public static MoneyHolder getMoneyHolder(long guildId, long memberId, boolean createIfNotExists) {
-        MoneyHolder moneyHolder = SQLSession.getSqlConnector().getSqlWorker().getEntity(new MoneyHolder(), "SELECT * FROM Money_Holder WHERE guildId = :gid AND userId = :uid",
+        String key = getKey(guildId, memberId);
+
+        MoneyHolder moneyHolder = getCachedHolder(key);
+        if (moneyHolder != null) return moneyHolder;
+
+        moneyHolder = SQLSession.getSqlConnector().getSqlWorker().getEntity(new MoneyHolder(), "SELECT * FROM Money_Holder WHERE guildId = :gid AND userId = :uid",
                 Map.of("gid", guildId, "uid", memberId));
 
         if (moneyHolder == null && createIfNotExists) {
@@ -79,9 +150,78 @@ public class EconomyUtil {
             moneyHolder = SQLSession.getSqlConnector().getSqlWorker().updateEntity(moneyHolder);
         }
 
+        if (moneyHolder == null) return null;
+
+        synchronized (holders) {
+            // Someone else might have loaded it in the meantime, only one instance may be used for changes.
+            MoneyHolder cached = getCachedHolder(key);
+            if (cached != null) return cached;
+
+            holders.put(key, moneyHolder);
+            trimHolders();
+        }
+
         return moneyHolder;
     }
 
+    /**
+     * Get a MoneyHolder from memory.
+     * @param key The key of the MoneyHolder.
+     * @return The MoneyHolder or null, if it is not in memory.
+     */
+    private static MoneyHolder getCachedHolder(String key) {
+        synchronized (holders) {
+            MoneyHolder moneyHolder = holders.get(key);
+            if (moneyHolder != null) return moneyHolder;
+
+            // Evicted before its changes have been saved, the Database would still contain the old balance.
+            moneyHolder = dirtyHolders.get(key);
+
+            if (moneyHolder == null) {
+                WeakReference<MoneyHolder> reference = evictedHolders.remove(key);
+                moneyHolder = reference != null ? reference.get() : null;
+            }
+
+            if (moneyHolder != null) {
+                evictedHolders.remove(key);
+                holders.put(key, moneyHolder);
+                trimHolders();
+            }
+
+            return moneyHolder;
+        }
+    }
+
+    /**
+     * Evict the least recently used MoneyHolders until there are at most {@link #MAX_CACHED_HOLDERS} left.
+     * MoneyHolders with unsaved changes are pinned until they have been saved.
+     * Has to be called while holding the lock of {@link #holders}.
+     */
+    private static void trimHolders() {
+        if (holders.size() <= MAX_CACHED_HOLDERS) return;
+
+        Iterator<Map.Entry<String, MoneyHolder>> iterator = holders.entrySet().iterator();
+        while (holders.size() > MAX_CACHED_HOLDERS && iterator.hasNext()) {
+            Map.Entry<String, MoneyHolder> entry = iterator.next();
+            if (dirtyHolders.containsKey(entry.getKey())) continue;
+
+            iterator.remove();
+            evictedHolders.put(entry.getKey(), new WeakReference<>(entry.getValue()));
+        }
+
+        evictedHolders.values().removeIf(reference -> reference.get() == null);
+    }
+
+    /**
+     * Get the amount of MoneyHolders kept in memory.
+     * @return The amount of MoneyHolders.
+     */
+    public static int getCachedHolderCount() {
+        synchronized (holders) {
+            return holders.size();
+        }
+    }
+
     /**
      * Check if the MoneyHolder has enough money.
      * @param target The MoneyHolder to check.
@@ -117,33 +257,170 @@ public class EconomyUtil {
      * @return If the payment was successful.
      */
     public static boolean pay(MoneyHolder sender, MoneyHolder receiver, double amount, boolean fromBank, boolean toBank, boolean isSystem) {
-        if (!isSystem && !hasEnoughMoney(sender, amount, fromBank)) {
+        if (amount <= 0 || receiver == null || (!isSystem && sender == null)) {
             return false;
         }
 
-        if (toBank) {
-            receiver.setBankAmount(receiver.getBankAmount() + amount);
-        } else {
-            receiver.setAmount(receiver.getAmount() + amount);
+        // Always lock in the same order, so that two opposite payments can't block each other.
+        int receiverLock = getLockIndex(receiver);
+        int senderLock = isSystem ? receiverLock : getLockIndex(sender);
+
+        synchronized (LOCKS[Math.min(senderLock, receiverLock)]) {
+            synchronized (LOCKS[Math.max(senderLock, receiverLock)]) {
+                if (!isSystem && !hasEnoughMoney(sender, amount, fromBank)) {
+                    return false;
+                }
+
+                if (toBank) {
+                    receiver.setBankAmount(receiver.getBankAmount() + amount);
+                } else {
+                    receiver.setAmount(receiver.getAmount() + amount);
+                }
+
+                markDirty(receiver);
+
+                if (!isSystem) {
+                    if (fromBank) {
+                        sender.setBankAmount(sender.getBankAmount() - amount);
+                    } else {
+                        sender.setAmount(sender.getAmount() - amount);
+                    }
+
+                    markDirty(sender);
+                }
+
+                pendingTransactions.add(new MoneyTransaction(0L, isSystem, isSystem ? receiver.getGuildId(): sender.getGuildId(), receiver, receiver, toBank, fromBank, amount, Timestamp.from(Instant.now())));
+            }
         }
 
-        SQLSession.getSqlConnector().getSqlWorker().updateEntity(receiver);
+        scheduleFlush();
+
+        return true;
+    }
+
+    /**
+     * Save every changed MoneyHolder and every new MoneyTransaction into the Database.
+     * The lock of a MoneyHolder is only held while its balance is copied, not while the copy is written.
+     */
+    public static synchronized void flush() {
+        flushScheduled.set(false);
 
-        if (!isSystem) {
-            if (fromBank) {
-                sender.setBankAmount(sender.getBankAmount() - amount);
-            } else {
-                sender.setAmount(sender.getAmount() - amount);
+        for (Map.Entry<String, MoneyHolder> entry : dirtyHolders.entrySet()) {
+            MoneyHolder moneyHolder = entry.getValue();
+            MoneyHolder snapshot;
+
+            // Hold the lock, so that no half applied payment is copied.
+            synchronized (LOCKS[getLockIndex(moneyHolder)]) {
+                snapshot = copyOf(moneyHolder);
             }
 
-            SQLSession.getSqlConnector().getSqlWorker().updateEntity(sender);
+            try {
+                Metrics.timeSql("updateEntity", () -> SQLSession.getSqlConnector().getSqlWorker().updateEntity(snapshot));
+
+                synchronized (LOCKS[getLockIndex(moneyHolder)]) {
+                    // Only clean, if nothing changed while the copy has been written.
+                    if (isSameBalance(moneyHolder, snapshot)) dirtyHolders.remove(entry.getKey(), moneyHolder);
+                }
+            } catch (Exception exception) {
+                log.error("Couldn't save the MoneyHolder of {}!", entry.getKey(), exception);
+            }
         }
 
-        SQLSession.getSqlConnector().getSqlWorker().updateEntity(new MoneyTransaction(0L, isSystem, isSystem ? receiver.getGuildId(): sender.getGuildId(), receiver, receiver, toBank, fromBank, amount, Timestamp.from(Instant.now())));
+        MoneyTransaction moneyTransaction;
+        while ((moneyTransaction = pendingTransactions.poll()) != null) {
+            try {
+                SQLSession.getSqlConnector().getSqlWorker().updateEntity(moneyTransaction);
+            } catch (Exception exception) {
+                log.error("Couldn't save a MoneyTransaction!", exception);
+            }
+        }
 
-        return true;
+        if (!dirtyHolders.isEmpty()) scheduleFlush();
+    }
+
+    /**
+     * Forget every MoneyHolder and unsaved MoneyTransaction of a Guild, e.g. before its data is purged.
+     * Unsaved changes are dropped, otherwise the next batch would write them back after the purge.
+     * @param guildId The ID of the Guild.
+     */
+    public static synchronized void invalidateGuild(long guildId) {
+        String prefix = guildId + ":";
+
+        synchronized (holders) {
+            holders.keySet().removeIf(key -> key.startsWith(prefix));
+            evictedHolders.keySet().removeIf(key -> key.startsWith(prefix));
+            dirtyHolders.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+
+        pendingTransactions.removeIf(moneyTransaction -> moneyTransaction.getGuildId() == guildId);
     }
 
+    /**
+     * Copy the balance of a MoneyHolder into a detached instance, used to save it without holding its lock.
+     * @param moneyHolder The MoneyHolder.
+     * @return The copy.
+     */
+    private static MoneyHolder copyOf(MoneyHolder moneyHolder) {
+        MoneyHolder copy = new MoneyHolder();
+        copy.setId(moneyHolder.getId());
+        copy.setGuildId(moneyHolder.getGuildId());
+        copy.setUserId(moneyHolder.getUserId());
+        copy.setAmount(moneyHolder.getAmount());
+        copy.setBankAmount(moneyHolder.getBankAmount());
+        return copy;
+    }
+
+    /**
+     * Check if a MoneyHolder still has the balance of a copy.
+     * @param moneyHolder The MoneyHolder.
+     * @param copy The copy.
+     * @return If both balances are the same.
+     */
+    private static boolean isSameBalance(MoneyHolder moneyHolder, MoneyHolder copy) {
+        return moneyHolder.getAmount() == copy.getAmount() && moneyHolder.getBankAmount() == copy.getBankAmount();
+    }
+
+    /**
+     * Queue a MoneyHolder to be saved with the next batch.
+     * @param moneyHolder The MoneyHolder.
+     */
+    private static void markDirty(MoneyHolder moneyHolder) {
+        dirtyHolders.put(getKey(moneyHolder.getGuildId(), moneyHolder.getUserId()), moneyHolder);
+    }
+
+    /**
+     * Schedule the next batch, if there is none scheduled yet.
+     */
+    private static void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(EconomyUtil::flush, CompletableFuture.delayedExecutor(FLUSH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Get the position of the lock of a MoneyHolder.
+     * @param moneyHolder The MoneyHolder.
+     * @return The position in {@link #LOCKS}.
+     */
+    private static int getLockIndex(MoneyHolder moneyHolder) {
+        return Math.floorMod(getKey(moneyHolder.getGuildId(), moneyHolder.getUserId()).hashCode(), LOCKS.length);
+    }
+
+    /**
+     * Get the key of a MoneyHolder.
+     * @param guildId The ID of the Guild.
+     * @param memberId The ID of the Member.
+     * @return The key.
+     */
+    private static String getKey(long guildId, long memberId) {
+        return guildId + ":" + memberId;
+    }
+
+    /**
+     * Format an amount of money.
+     * @param amount The amount.
+     * @return The formatted amount.
+     */
     public static String formatMoney(double amount) {
         return String.format("%,.2f", amount);
     }
@@ -2,6 +2,7 @@ package de.presti.ree6.utils.data;
 
 import de.presti.ree6.bot.BotWorker;
 import de.presti.ree6.sql.entities.level.UserLevel;
+import de.presti.ree6.utils.metrics.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.User;
 
@@ -222,6 +223,7 @@ public class ImageCreationUtility {
             ImageIO.write(base, "PNG", outputStream);
             log.debug("Finished writing Image into ByteArrayOutputStream. ({}ms)", System.currentTimeMillis() - actionPerformance);
             log.debug("Finished creation in {}ms", System.currentTimeMillis() - start);
+            Metrics.IMAGE_RENDER_DURATION.observe((System.currentTimeMillis() - start) / 1000D, "rank");
             return outputStream.toByteArray();
         }
     }
@@ -319,6 +321,7 @@ public class ImageCreationUtility {
             ImageIO.write(base, "PNG", outputStream);
             log.debug("Finished writing Image into ByteArrayOutputStream. ({}ms)", System.currentTimeMillis() - actionPerformance);
             log.debug("Finished creation in {}ms", System.currentTimeMillis() - start);
+            Metrics.IMAGE_RENDER_DURATION.observe((System.currentTimeMillis() - start) / 1000D, "join");
             return outputStream.toByteArray();
         }
     }
@@ -334,6 +337,8 @@ public class ImageCreationUtility {
         if (user == null)
             return new byte[128];
 
+        long start = System.currentTimeMillis();
+
         // Generate a 128x128 Image Background.
         BufferedImage base = new BufferedImage(128, 128, BufferedImage.TYPE_INT_RGB);
         BufferedImage userImage;
@@ -371,6 +376,7 @@ public class ImageCreationUtility {
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
 
             ImageIO.write(base, "PNG", outputStream);
+            Metrics.IMAGE_RENDER_DURATION.observe((System.currentTimeMillis() - start) / 1000D, "hornyjail");
             return outputStream.toByteArray();
         }
     }
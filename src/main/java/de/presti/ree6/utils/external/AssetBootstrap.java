@@ -0,0 +1,339 @@
+package de.presti.ree6.utils.external;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+
+/**
+ * Utility class used to download the assets of the Bot, e.g. the Languages, from the GitHub Repository.
+ * The listings and the SHA of every downloaded file are stored in a local manifest, so unchanged files are never downloaded again.
+ * Directory listings are requested with the ETag of the last listing, and directories whose tree SHA didn't change are not requested at all.
+ * Every request goes through the {@link RequestUtility}, which bounds the amount of concurrent requests per host.
+ */
+@Slf4j
+public class AssetBootstrap {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private AssetBootstrap() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The URL of the contents API of the GitHub Repository.
+     */
+    private static String contentsUrl = "https://api.github.com/repos/Ree6-Applications/Ree6/contents/";
+
+    /**
+     * The local directory the files are downloaded into.
+     */
+    private static Path localRoot = Path.of("");
+
+    /**
+     * The path of the manifest, relative to the local directory.
+     */
+    private static final Path MANIFEST_PATH = Path.of("storage", "cache", "assets.json");
+
+    /**
+     * The Gson instance used to read and write the manifest.
+     */
+    private static final Gson GSON = new Gson();
+
+    /**
+     * The manifest, loaded on first use.
+     */
+    private static Manifest manifest;
+
+    /**
+     * Change the Repository and the local directory, e.g. to sync from a local mirror.
+     * The manifest is loaded again from the new local directory.
+     *
+     * @param url  the URL of the contents API, ending with a slash.
+     * @param root the local directory the files are downloaded into.
+     */
+    static synchronized void setSource(String url, Path root) {
+        contentsUrl = url;
+        localRoot = root;
+        manifest = null;
+    }
+
+    /**
+     * Download every new or changed file of a directory of the GitHub Repository, into the same path locally.
+     * A local file that has been changed since its download is only replaced if the given predicate allows it.
+     *
+     * @param remotePath the path of the directory in the Repository.
+     * @param overwrite  the predicate that gets the local file and the new content and decides if a changed local file should be replaced,
+     *                   null to always keep changed local files.
+     * @return a {@link CompletableFuture} with every file that has been written.
+     */
+    public static CompletableFuture<List<Path>> sync(String remotePath, BiPredicate<Path, byte[]> overwrite) {
+        getManifest();
+
+        return syncDirectory(remotePath, null, localRoot.resolve(remotePath).toAbsolutePath().normalize(), overwrite)
+                .whenComplete((written, throwable) -> saveManifest());
+    }
+
+    /**
+     * Download every new or changed file of a directory and its subdirectories.
+     *
+     * @param remotePath the path of the directory in the Repository.
+     * @param treeSha    the tree SHA of the directory, as listed by its parent, null if unknown.
+     * @param base       the local directory every file has to be in.
+     * @param overwrite  the predicate that decides if a changed local file should be replaced, can be null.
+     * @return a {@link CompletableFuture} with every file that has been written.
+     */
+    private static CompletableFuture<List<Path>> syncDirectory(String remotePath, String treeSha, Path base, BiPredicate<Path, byte[]> overwrite) {
+        return listDirectory(remotePath, treeSha).thenCompose(entries -> {
+            List<CompletableFuture<List<Path>>> futures = new ArrayList<>();
+
+            for (Entry entry : entries) {
+                Path localPath = localRoot.resolve(entry.path).toAbsolutePath().normalize();
+
+                if (!localPath.startsWith(base)) {
+                    log.warn("[Bootstrap] Ignoring {}, since Path Traversal has been detected!", entry.path);
+                    continue;
+                }
+
+                if (entry.type.equals("dir")) {
+                    futures.add(syncDirectory(entry.path, entry.sha, base, overwrite));
+                } else if (entry.type.equals("file") && entry.downloadUrl != null) {
+                    futures.add(syncFile(entry, localPath, overwrite));
+                }
+            }
+
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .thenApply(ignore -> futures.stream().flatMap(future -> future.join().stream()).toList());
+        }).exceptionally(throwable -> {
+            log.error("[Bootstrap] Couldn't download the directory {}!", remotePath, throwable);
+            return List.of();
+        });
+    }
+
+    /**
+     * List a directory of the Repository.
+     *
+     * @param remotePath the path of the directory in the Repository.
+     * @param treeSha    the tree SHA of the directory, as listed by its parent, null if unknown.
+     * @return a {@link CompletableFuture} with the entries of the directory.
+     */
+    private static CompletableFuture<List<Entry>> listDirectory(String remotePath, String treeSha) {
+        Directory known = manifest.directories.get(remotePath);
+
+        // The tree SHA only changes if something inside the directory changed.
+        if (known != null && treeSha != null && treeSha.equals(known.sha())) {
+            return CompletableFuture.completedFuture(known.entries());
+        }
+
+        RequestUtility.Request.RequestBuilder request = RequestUtility.Request.builder().url(contentsUrl + remotePath).cache(false);
+
+        if (known != null && known.eTag() != null) {
+            request.header(new String[]{"If-None-Match", known.eTag()});
+        }
+
+        return RequestUtility.requestAsync(request.build()).thenApply(response -> {
+            if (response.getStatusCode() == 304 && known != null) {
+                manifest.directories.put(remotePath, new Directory(treeSha, known.eTag(), known.entries()));
+                return known.entries();
+            }
+
+            if (!response.isSuccess()) {
+                throw new IllegalStateException("GitHub answered the listing of " + remotePath + " with " + response.getStatusCode());
+            }
+
+            List<Entry> entries = List.of(GSON.fromJson(response.asString(), Entry[].class));
+            manifest.directories.put(remotePath, new Directory(treeSha, response.getETag(), entries));
+            return entries;
+        });
+    }
+
+    /**
+     * Download a file, if it is missing or has changed.
+     *
+     * @param entry     the entry of the file.
+     * @param localPath the local path of the file.
+     * @param overwrite the predicate that decides if a changed local file should be replaced, can be null.
+     * @return a {@link CompletableFuture} with the file, if it has been written.
+     */
+    private static CompletableFuture<List<Path>> syncFile(Entry entry, Path localPath, BiPredicate<Path, byte[]> overwrite) {
+        String downloadedSha = manifest.files.get(entry.path);
+        boolean exists = Files.exists(localPath);
+
+        if (exists && entry.sha.equals(downloadedSha)) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        String localSha = exists ? getBlobSha(localPath) : null;
+
+        // Files downloaded before the manifest existed are only hashed once.
+        if (entry.sha.equals(localSha)) {
+            manifest.files.put(entry.path, entry.sha);
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        boolean changedLocally = localSha != null && !localSha.equals(downloadedSha);
+
+        if (changedLocally && overwrite == null) {
+            log.info("[Bootstrap] Keeping the changed local file {}.", entry.path);
+            manifest.files.put(entry.path, entry.sha);
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        return RequestUtility.requestAsync(RequestUtility.Request.builder().url(entry.downloadUrl).cache(false).build()).thenApply(response -> {
+            if (!response.isSuccess()) {
+                log.warn("[Bootstrap] Couldn't download {}, GitHub answered with {}!", entry.path, response.getStatusCode());
+                return List.<Path>of();
+            }
+
+            manifest.files.put(entry.path, entry.sha);
+
+            if (changedLocally && !overwrite.test(localPath, response.getBody())) {
+                return List.<Path>of();
+            }
+
+            try {
+                Files.createDirectories(localPath.getParent());
+                Files.write(localPath, response.getBody());
+            } catch (IOException exception) {
+                log.error("[Bootstrap] Couldn't write {}!", entry.path, exception);
+                manifest.files.remove(entry.path);
+                return List.<Path>of();
+            }
+
+            log.info("[Bootstrap] Downloaded {}!", entry.path);
+            return List.of(localPath);
+        });
+    }
+
+    /**
+     * Calculate the Git blob SHA of a local file, which is the SHA GitHub lists for it.
+     *
+     * @param path the path of the file.
+     * @return the SHA as hex string, or null if the file couldn't be read.
+     */
+    private static String getBlobSha(Path path) {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            messageDigest.update(("blob " + Files.size(path) + "\0").getBytes(StandardCharsets.UTF_8));
+
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (IOException | NoSuchAlgorithmException exception) {
+            log.warn("[Bootstrap] Couldn't hash {}!", path, exception);
+            return null;
+        }
+    }
+
+    /**
+     * Get the manifest, loads it if needed.
+     *
+     * @return the {@link Manifest}.
+     */
+    private static synchronized Manifest getManifest() {
+        if (manifest != null) return manifest;
+
+        Path manifestPath = localRoot.resolve(MANIFEST_PATH);
+
+        if (Files.exists(manifestPath)) {
+            try {
+                manifest = GSON.fromJson(Files.readString(manifestPath), Manifest.class);
+            } catch (Exception exception) {
+                log.warn("[Bootstrap] Couldn't read the manifest, every file will be checked again!", exception);
+            }
+        }
+
+        if (manifest == null || manifest.directories == null || manifest.files == null) {
+            manifest = new Manifest();
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Write the manifest to the disk.
+     */
+    private static synchronized void saveManifest() {
+        Path manifestPath = localRoot.resolve(MANIFEST_PATH);
+
+        try {
+            Files.createDirectories(manifestPath.getParent());
+            Files.writeString(manifestPath, GSON.toJson(manifest));
+        } catch (IOException exception) {
+            log.error("[Bootstrap] Couldn't write the manifest!", exception);
+        }
+    }
+
+    /**
+     * The local manifest.
+     */
+    private static class Manifest {
+
+        /**
+         * The last listing of every directory, mapped by its path in the Repository.
+         */
+        private ConcurrentHashMap<String, Directory> directories = new ConcurrentHashMap<>();
+
+        /**
+         * The SHA of every downloaded file, mapped by its path in the Repository.
+         */
+        private ConcurrentHashMap<String, String> files = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The last listing of a directory.
+     *
+     * @param sha     the tree SHA of the directory, null if unknown.
+     * @param eTag    the ETag of the listing, null if unknown.
+     * @param entries the entries of the directory.
+     */
+    private record Directory(String sha, String eTag, List<Entry> entries) {
+    }
+
+    /**
+     * An entry of a directory listing, as returned by the contents API.
+     */
+    private static class Entry {
+
+        /**
+         * The path in the Repository.
+         */
+        private String path;
+
+        /**
+         * The type, either file or dir.
+         */
+        private String type;
+
+        /**
+         * The Git SHA.
+         */
+        private String sha;
+
+        /**
+         * The URL to download a file, null for directories.
+         */
+        @SerializedName("download_url")
+        private String downloadUrl;
+    }
+}
@@ -0,0 +1,152 @@
+package de.presti.ree6.utils.external;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request metrics of a single host, collected by the {@link RequestUtility}.
+ */
+public class HostMetrics {
+
+    /**
+     * The amount of requests that have been sent to the host.
+     */
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * The amount of requests that failed or returned a non-successful status code.
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * The amount of retries that have been made.
+     */
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * The amount of requests that have been answered by the cache, without contacting the host.
+     */
+    private final LongAdder cacheHits = new LongAdder();
+
+    /**
+     * The amount of conditional requests answered with 304 Not Modified.
+     */
+    private final LongAdder notModified = new LongAdder();
+
+    /**
+     * The summed up latency of every request in nanoseconds.
+     */
+    private final LongAdder totalLatency = new LongAdder();
+
+    /**
+     * The highest latency that has been measured in nanoseconds.
+     */
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * Record a finished request.
+     *
+     * @param latencyNanos the latency of the request in nanoseconds.
+     * @param success      if the request was successful.
+     */
+    void record(long latencyNanos, boolean success) {
+        requests.increment();
+        if (!success) errors.increment();
+        totalLatency.add(latencyNanos);
+        maxLatency.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * Record a retry.
+     */
+    void recordRetry() {
+        retries.increment();
+    }
+
+    /**
+     * Record a cache hit.
+     */
+    void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    /**
+     * Record a 304 Not Modified response.
+     */
+    void recordNotModified() {
+        notModified.increment();
+    }
+
+    /**
+     * Get the amount of requests that have been sent to the host.
+     *
+     * @return the amount of requests.
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Get the amount of requests that failed.
+     *
+     * @return the amount of failed requests.
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Get the amount of retries that have been made.
+     *
+     * @return the amount of retries.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Get the amount of requests answered by the cache.
+     *
+     * @return the amount of cache hits.
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Get the amount of 304 Not Modified responses.
+     *
+     * @return the amount of 304 responses.
+     */
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    /**
+     * Get the summed up latency of every request.
+     *
+     * @return the latency in nanoseconds.
+     */
+    public long getTotalLatency() {
+        return totalLatency.sum();
+    }
+
+    /**
+     * Get the average latency of the requests.
+     *
+     * @return the average latency in milliseconds.
+     */
+    public double getAverageLatencyMillis() {
+        long count = getRequests();
+        return count == 0 ? 0 : (getTotalLatency() / (double) count) / 1_000_000D;
+    }
+
+    /**
+     * Get the highest latency that has been measured.
+     *
+     * @return the highest latency in milliseconds.
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatency.get() / 1_000_000D;
+    }
+}
@@ -0,0 +1,405 @@
+package de.presti.ree6.utils.external;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * HTTP Response cache used by the {@link RequestUtility}.
+ * Entries are kept in memory, bounded by their body size, and can optionally overflow to the disk.
+ * Freshness is decided by the Cache-Control and Expires headers, while ETag and Last-Modified are
+ * kept to revalidate stale entries with conditional requests.
+ */
+@Slf4j
+public class HttpResponseCache {
+
+    /**
+     * The maximum amount of bytes kept in memory.
+     */
+    private final long maxMemoryBytes;
+
+    /**
+     * The maximum amount of bytes kept on disk, 0 to disable the disk overflow.
+     */
+    private final long maxDiskBytes;
+
+    /**
+     * The folder used to store the overflowing entries.
+     */
+    private final Path diskPath;
+
+    /**
+     * The current memory usage in bytes.
+     */
+    private long memoryBytes;
+
+    /**
+     * The current disk usage in bytes.
+     */
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    /**
+     * The in-memory entries, ordered by their last access.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Constructor used to create a new cache.
+     *
+     * @param maxMemoryBytes the maximum amount of bytes kept in memory.
+     * @param maxDiskBytes   the maximum amount of bytes kept on disk, 0 to disable the disk overflow.
+     * @param diskPath       the folder used to store the overflowing entries.
+     */
+    public HttpResponseCache(long maxMemoryBytes, long maxDiskBytes, Path diskPath) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = diskPath == null ? 0 : maxDiskBytes;
+        this.diskPath = diskPath;
+
+        if (this.maxDiskBytes > 0) {
+            try {
+                Files.createDirectories(diskPath);
+                try (Stream<Path> files = Files.list(diskPath)) {
+                    diskBytes.set(files.mapToLong(HttpResponseCache::sizeOf).sum());
+                }
+            } catch (IOException exception) {
+                log.error("Couldn't prepare the HTTP cache folder!", exception);
+            }
+        }
+    }
+
+    /**
+     * Get a cached entry.
+     *
+     * @param key the key of the entry.
+     * @return the {@link Entry} or null if there is none.
+     */
+    public Entry get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) return entry;
+        }
+
+        Entry entry = readFromDisk(key);
+        if (entry != null) {
+            put(entry);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Store an entry in the cache.
+     *
+     * @param entry the {@link Entry} to store.
+     */
+    public void put(Entry entry) {
+        if (entry.getBody().length > maxMemoryBytes) {
+            writeToDisk(entry);
+            return;
+        }
+
+        synchronized (entries) {
+            Entry old = entries.put(entry.getKey(), entry);
+            if (old != null) memoryBytes -= old.getBody().length;
+            memoryBytes += entry.getBody().length;
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                memoryBytes -= eldest.getBody().length;
+                writeToDisk(eldest);
+            }
+        }
+    }
+
+    /**
+     * Remove an entry from the cache.
+     *
+     * @param key the key of the entry.
+     */
+    public void remove(String key) {
+        synchronized (entries) {
+            Entry old = entries.remove(key);
+            if (old != null) memoryBytes -= old.getBody().length;
+        }
+
+        if (maxDiskBytes > 0) {
+            Path file = diskPath.resolve(hash(key));
+            long size = sizeOf(file);
+            try {
+                if (Files.deleteIfExists(file)) diskBytes.addAndGet(-size);
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Write an entry to the disk, if the disk overflow is enabled.
+     *
+     * @param entry the {@link Entry} to write.
+     */
+    private void writeToDisk(Entry entry) {
+        if (maxDiskBytes <= 0 || entry.getBody().length > maxDiskBytes) return;
+
+        Path file = diskPath.resolve(hash(entry.getKey()));
+        long oldSize = sizeOf(file);
+
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            outputStream.writeUTF(entry.getKey());
+            outputStream.writeInt(entry.getStatusCode());
+            outputStream.writeUTF(Optional.ofNullable(entry.getETag()).orElse(""));
+            outputStream.writeUTF(Optional.ofNullable(entry.getLastModified()).orElse(""));
+            outputStream.writeLong(entry.getExpiresAt());
+            outputStream.writeInt(entry.getBody().length);
+            outputStream.write(entry.getBody());
+        } catch (IOException exception) {
+            log.warn("Couldn't write HTTP cache entry to disk!", exception);
+            return;
+        }
+
+        if (diskBytes.addAndGet(sizeOf(file) - oldSize) > maxDiskBytes) {
+            trimDisk();
+        }
+    }
+
+    /**
+     * Read an entry from the disk.
+     *
+     * @param key the key of the entry.
+     * @return the {@link Entry} or null if there is none.
+     */
+    private Entry readFromDisk(String key) {
+        if (maxDiskBytes <= 0) return null;
+
+        Path file = diskPath.resolve(hash(key));
+        if (!Files.exists(file)) return null;
+
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (!inputStream.readUTF().equals(key)) return null;
+
+            int statusCode = inputStream.readInt();
+            String eTag = inputStream.readUTF();
+            String lastModified = inputStream.readUTF();
+            long expiresAt = inputStream.readLong();
+            byte[] body = inputStream.readNBytes(inputStream.readInt());
+
+            return new Entry(key, statusCode, body, eTag.isEmpty() ? null : eTag, lastModified.isEmpty() ? null : lastModified, expiresAt);
+        } catch (IOException exception) {
+            log.warn("Couldn't read HTTP cache entry from disk!", exception);
+            return null;
+        }
+    }
+
+    /**
+     * Delete the oldest files on the disk, until the disk limit is met again.
+     */
+    private synchronized void trimDisk() {
+        try (Stream<Path> files = Files.list(diskPath)) {
+            Iterator<Path> iterator = files.sorted(Comparator.comparingLong(path -> path.toFile().lastModified())).iterator();
+            while (diskBytes.get() > maxDiskBytes && iterator.hasNext()) {
+                Path path = iterator.next();
+                long size = sizeOf(path);
+                if (Files.deleteIfExists(path)) diskBytes.addAndGet(-size);
+            }
+        } catch (IOException exception) {
+            log.warn("Couldn't trim the HTTP cache folder!", exception);
+        }
+    }
+
+    /**
+     * Get the size of a file, without throwing.
+     *
+     * @param path the path of the file.
+     * @return the size of the file or 0.
+     */
+    private static long sizeOf(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException exception) {
+            return 0;
+        }
+    }
+
+    /**
+     * Hash a cache key to get a file name from it.
+     *
+     * @param key the key.
+     * @return the SHA-256 hash of the key as hex.
+     */
+    private static String hash(String key) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+
+    /**
+     * Create an entry out of the response headers.
+     *
+     * @param key        the key of the entry.
+     * @param statusCode the status code of the response.
+     * @param headers    the headers of the response.
+     * @param body       the body of the response.
+     * @return the {@link Entry} or null if the response should not be stored.
+     */
+    public static Entry createEntry(String key, int statusCode, HttpHeaders headers, byte[] body) {
+        String cacheControl = headers.firstValue("Cache-Control").orElse("").toLowerCase();
+
+        if (cacheControl.contains("no-store")) return null;
+
+        long expiresAt = 0;
+
+        if (!cacheControl.contains("no-cache")) {
+            long maxAge = -1;
+            for (String directive : cacheControl.split(",")) {
+                directive = directive.trim();
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        maxAge = Long.parseLong(directive.substring("max-age=".length()));
+                    } catch (NumberFormatException ignore) {
+                    }
+                }
+            }
+
+            if (maxAge > 0) {
+                expiresAt = System.currentTimeMillis() + (maxAge * 1000);
+            } else if (maxAge < 0) {
+                Optional<String> expires = headers.firstValue("Expires");
+                if (expires.isPresent()) {
+                    try {
+                        expiresAt = ZonedDateTime.parse(expires.get(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                    } catch (Exception ignore) {
+                    }
+                }
+            }
+        }
+
+        String eTag = headers.firstValue("ETag").orElse(null);
+        String lastModified = headers.firstValue("Last-Modified").orElse(null);
+
+        // Nothing that allows us to reuse the response later on.
+        if (expiresAt <= System.currentTimeMillis() && eTag == null && lastModified == null) return null;
+
+        return new Entry(key, statusCode, body, eTag, lastModified, expiresAt);
+    }
+
+    /**
+     * A single cached response.
+     */
+    @Getter
+    public static class Entry {
+
+        /**
+         * The key of the entry.
+         */
+        private final String key;
+
+        /**
+         * The status code of the original response.
+         */
+        private final int statusCode;
+
+        /**
+         * The body of the original response.
+         */
+        private final byte[] body;
+
+        /**
+         * The ETag of the original response.
+         */
+        private final String eTag;
+
+        /**
+         * The Last-Modified header of the original response.
+         */
+        private final String lastModified;
+
+        /**
+         * The time in millis, until the entry is considered fresh.
+         */
+        private final long expiresAt;
+
+        /**
+         * Constructor used to create a new Entry.
+         *
+         * @param key          the key of the entry.
+         * @param statusCode   the status code of the original response.
+         * @param body         the body of the original response.
+         * @param eTag         the ETag of the original response.
+         * @param lastModified the Last-Modified header of the original response.
+         * @param expiresAt    the time in millis, until the entry is considered fresh.
+         */
+        public Entry(String key, int statusCode, byte[] body, String eTag, String lastModified, long expiresAt) {
+            this.key = key;
+            this.statusCode = statusCode;
+            this.body = body;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Check if the entry can be used without revalidation.
+         *
+         * @return true, if it is still fresh.
+         */
+        public boolean isFresh() {
+            return expiresAt > System.currentTimeMillis();
+        }
+
+        /**
+         * Check if the entry can be revalidated with a conditional request.
+         *
+         * @return true, if there is an ETag or a Last-Modified header.
+         */
+        public boolean isRevalidatable() {
+            return eTag != null || lastModified != null;
+        }
+
+        /**
+         * Create a copy of this entry with updated freshness information, used after a 304 response.
+         *
+         * @param headers the headers of the 304 response.
+         * @return the refreshed {@link Entry}.
+         */
+        public Entry refresh(HttpHeaders headers) {
+            Entry refreshed = createEntry(key, statusCode, headers, body);
+            if (refreshed == null) return new Entry(key, statusCode, body, eTag, lastModified, 0);
+
+            return new Entry(key, statusCode, body,
+                    refreshed.getETag() != null ? refreshed.getETag() : eTag,
+                    refreshed.getLastModified() != null ? refreshed.getLastModified() : lastModified,
+                    refreshed.getExpiresAt());
+        }
+    }
+
+    /**
+     * Get the current usage of the cache.
+     *
+     * @return a map with the memory and disk usage in bytes.
+     */
+    public Map<String, Long> getUsage() {
+        synchronized (entries) {
+            return Map.of("memory", memoryBytes, "disk", diskBytes.get(), "entries", (long) entries.size());
+        }
+    }
+}
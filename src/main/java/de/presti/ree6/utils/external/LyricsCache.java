@@ -0,0 +1,297 @@
+package de.presti.ree6.utils.external;
+
+import com.jagrosh.jlyrics.LyricsClient;
+import de.presti.ree6.utils.metrics.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Cache for the lyrics of songs, keyed by the normalized artist and title, so different uploads of the same song share an entry.
+ * The lyrics are cached already split into pages, songs without lyrics are cached for a shorter time,
+ * and concurrent lookups of the same song share a single request.
+ */
+@Slf4j
+public class LyricsCache {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private LyricsCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The maximum amount of cached songs.
+     */
+    private static final int MAX_ENTRIES = 512;
+
+    /**
+     * The time after which found lyrics will be looked up again.
+     */
+    private static final long TTL = Duration.ofHours(12).toMillis();
+
+    /**
+     * The time after which a song without lyrics will be looked up again.
+     */
+    private static final long NEGATIVE_TTL = Duration.ofMinutes(30).toMillis();
+
+    /**
+     * The length of lyrics after which they are most likely not the lyrics of a song.
+     */
+    private static final int MAX_LENGTH = 15000;
+
+    /**
+     * The maximum length of a page.
+     */
+    private static final int PAGE_LENGTH = 2000;
+
+    /**
+     * Parts in brackets, e.g. (Official Video), [Remastered 2011] or (feat. Someone).
+     */
+    private static final Pattern BRACKETS = Pattern.compile("[(\\[][^)\\]]*[)\\]]");
+
+    /**
+     * Suffixes of another version of a song, e.g. - Remastered 2011 or - Radio Edit.
+     */
+    private static final Pattern VERSION = Pattern.compile("\\s-\\s[^-]*\\b(remaster(ed)?|version|edit|mix|live|mono|stereo)\\b.*$");
+
+    /**
+     * Featured artists at the end of an artist or title.
+     */
+    private static final Pattern FEATURING = Pattern.compile("\\s(feat\\.?|ft\\.?|featuring)\\s.*$");
+
+    /**
+     * Suffixes of upload channels, e.g. RickAstleyVEVO or Rick Astley - Topic.
+     */
+    private static final Pattern CHANNEL = Pattern.compile("(\\s-\\stopic|vevo|\\sofficial)$");
+
+    /**
+     * Everything that is neither a letter, a digit nor a space.
+     */
+    private static final Pattern PUNCTUATION = Pattern.compile("[^\\p{L}\\p{N} ]");
+
+    /**
+     * The cached songs, ordered by their last access.
+     */
+    private static final Map<String, Entry> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * The provider used to look up the lyrics of a search query.
+     */
+    private static volatile Function<String, CompletableFuture<Song>> provider = createDefaultProvider();
+
+    /**
+     * Get the lyrics of a song.
+     *
+     * @param artist the artist or uploader of the song, can be null.
+     * @param title  the title of the song.
+     * @return a {@link CompletableFuture} with the {@link CachedLyrics} or null if there are no lyrics.
+     */
+    public static CompletableFuture<CachedLyrics> get(String artist, String title) {
+        String[] song = normalize(artist, title);
+        String key = PUNCTUATION.matcher(song[0] + "|" + song[1]).replaceAll("");
+
+        Entry entry;
+
+        synchronized (CACHE) {
+            Entry cached = CACHE.get(key);
+
+            if (cached != null && !cached.isExpired()) {
+                Metrics.LYRICS_LOOKUPS.inc(!cached.future().isDone() ? "coalesced" : cached.future().join() != null ? "hit" : "negative_hit");
+                return cached.future();
+            }
+
+            entry = new Entry(new CompletableFuture<>(), System.currentTimeMillis());
+            CACHE.put(key, entry);
+        }
+
+        Metrics.LYRICS_LOOKUPS.inc("miss");
+        lookup(key, (song[0] + " " + song[1]).trim(), entry);
+        return entry.future();
+    }
+
+    /**
+     * Look up the lyrics of a song and complete its entry.
+     *
+     * @param key   the key of the song in the cache.
+     * @param query the search query.
+     * @param entry the entry of the song.
+     */
+    private static void lookup(String key, String query, Entry entry) {
+        long start = System.nanoTime();
+        CompletableFuture<Song> result;
+
+        try {
+            result = provider.apply(query);
+        } catch (Exception exception) {
+            result = CompletableFuture.failedFuture(exception);
+        }
+
+        result.whenComplete((song, throwable) -> {
+            if (throwable != null) {
+                Metrics.LYRICS_LOOKUP_DURATION.observeSince(start, "error");
+                log.warn("[Lyrics] Couldn't look up the lyrics of '{}'!", query, throwable);
+
+                // Don't remember failed lookups, they are most likely temporary.
+                synchronized (CACHE) {
+                    CACHE.remove(key, entry);
+                }
+
+                entry.future().complete(null);
+                return;
+            }
+
+            Metrics.LYRICS_LOOKUP_DURATION.observeSince(start, song != null ? "found" : "not_found");
+            entry.future().complete(song != null ? paginate(song) : null);
+        });
+    }
+
+    /**
+     * Normalize the artist and title of a song, by removing everything that differs between uploads of the same song.
+     *
+     * @param artist the artist or uploader of the song, can be null.
+     * @param title  the title of the song.
+     * @return the normalized artist and title.
+     */
+    public static String[] normalize(String artist, String title) {
+        String normalizedTitle = clean(BRACKETS.matcher(title == null ? "" : title.toLowerCase(Locale.ROOT)).replaceAll(" "));
+        String normalizedArtist = clean(artist == null ? "" : artist.toLowerCase(Locale.ROOT));
+
+        // Uploads are often titled "Artist - Title", in which case the uploader is most likely not the artist.
+        int separator = normalizedTitle.indexOf(" - ");
+        if (separator != -1) {
+            normalizedArtist = normalizedTitle.substring(0, separator);
+            normalizedTitle = normalizedTitle.substring(separator + 3);
+        }
+
+        // Only after the split, otherwise "Artist - Live Forever" would be taken for a version suffix.
+        normalizedTitle = VERSION.matcher(normalizedTitle).replaceAll("");
+
+        normalizedArtist = CHANNEL.matcher(FEATURING.matcher(normalizedArtist).replaceAll("")).replaceAll("");
+        normalizedTitle = FEATURING.matcher(normalizedTitle).replaceAll("");
+
+        return new String[]{clean(normalizedArtist), clean(normalizedTitle)};
+    }
+
+    /**
+     * Collapse the whitespaces of a text.
+     *
+     * @param text the text.
+     * @return the text without repeated, leading or trailing whitespaces.
+     */
+    private static String clean(String text) {
+        return text.replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * Split the lyrics of a song into pages, preferably between verses.
+     *
+     * @param song the song.
+     * @return the {@link CachedLyrics}.
+     */
+    private static CachedLyrics paginate(Song song) {
+        String content = song.content() == null ? "" : song.content().trim();
+
+        if (content.length() > MAX_LENGTH) {
+            return new CachedLyrics(song.author(), song.title(), song.url(), List.of(), true);
+        }
+
+        List<String> pages = new ArrayList<>();
+
+        while (content.length() > PAGE_LENGTH) {
+            int index = content.lastIndexOf("\n\n", PAGE_LENGTH);
+            if (index == -1)
+                index = content.lastIndexOf("\n", PAGE_LENGTH);
+            if (index == -1)
+                index = content.lastIndexOf(" ", PAGE_LENGTH);
+            if (index == -1)
+                index = PAGE_LENGTH;
+
+            pages.add(content.substring(0, index).trim());
+            content = content.substring(index).trim();
+        }
+
+        pages.add(content);
+        return new CachedLyrics(song.author(), song.title(), song.url(), List.copyOf(pages), false);
+    }
+
+    /**
+     * Replace the provider used to look up lyrics, e.g. with a local provider to measure the hit rate and latency.
+     * Already cached songs are kept.
+     *
+     * @param provider the provider, gets the search query and returns the found song or null.
+     */
+    public static void setProvider(Function<String, CompletableFuture<Song>> provider) {
+        LyricsCache.provider = provider;
+    }
+
+    /**
+     * Create the provider that looks up lyrics with the {@link LyricsClient}.
+     *
+     * @return the provider.
+     */
+    private static Function<String, CompletableFuture<Song>> createDefaultProvider() {
+        LyricsClient lyricsClient = new LyricsClient();
+        return query -> lyricsClient.getLyrics(query).thenApply(lyrics -> lyrics == null ? null :
+                new Song(lyrics.getAuthor(), lyrics.getTitle(), lyrics.getURL(), lyrics.getContent()));
+    }
+
+    /**
+     * A song as returned by a provider.
+     *
+     * @param author  the author of the song.
+     * @param title   the title of the song.
+     * @param url     the URL of the lyrics.
+     * @param content the lyrics.
+     */
+    public record Song(String author, String title, String url, String content) {
+    }
+
+    /**
+     * The cached lyrics of a song.
+     *
+     * @param author   the author of the song.
+     * @param title    the title of the song.
+     * @param url      the URL of the lyrics.
+     * @param pages    the lyrics split into pages, empty if the lyrics are most likely wrong.
+     * @param unlikely if the lyrics are too long to be the lyrics of a song.
+     */
+    public record CachedLyrics(String author, String title, String url, List<String> pages, boolean unlikely) {
+    }
+
+    /**
+     * A cached song.
+     *
+     * @param future    the lookup of the song, shared by every caller.
+     * @param createdAt the time in millis when the lookup has been started.
+     */
+    private record Entry(CompletableFuture<CachedLyrics> future, long createdAt) {
+
+        /**
+         * Check if the song should be looked up again.
+         *
+         * @return true, if the lookup finished and its TTL has been exceeded.
+         */
+        boolean isExpired() {
+            if (!future.isDone()) return false;
+
+            return createdAt + (future.join() != null ? TTL : NEGATIVE_TTL) < System.currentTimeMillis();
+        }
+    }
+}
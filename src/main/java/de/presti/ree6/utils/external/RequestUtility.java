@@ -4,19 +4,38 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonStreamParser;
 import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.data.Config;
+import de.presti.ree6.utils.others.AsyncLimiter;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Scanner;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 /**
  * Utility used to work with HTTP Requests.
@@ -27,13 +46,43 @@ public class RequestUtility {
     /**
      * HTTP Client used to send the Requests.
      */
-    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private static HttpClient client;
+
+    /**
+     * The Response cache used for GET Requests.
+     */
+    private static HttpResponseCache cache;
+
+    /**
+     * The concurrency limiter of every host.
+     */
+    private static final Map<String, AsyncLimiter> HOST_LIMITERS = new ConcurrentHashMap<>();
+
+    /**
+     * The collected metrics of every host.
+     */
+    private static final Map<String, HostMetrics> HOST_METRICS = new ConcurrentHashMap<>();
 
     /**
      * User-Agent for all the Requests.
      */
     private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 6.1; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/44.0.2403.52 Safari/537.36 Ree6/" + BotWorker.getBuild();
 
+    /**
+     * Status codes that are worth a retry.
+     */
+    private static final List<Integer> RETRY_CODES = List.of(408, 429, 500, 502, 503, 504);
+
+    /**
+     * The longest time in millis a Request waits before a retry, when the server asks to wait.
+     */
+    private static final long MAX_RETRY_AFTER = 30_000;
+
+    /**
+     * Headers that carry credentials, besides the ones recognised by their name.
+     */
+    private static final List<String> AUTH_HEADERS = List.of("authorization", "proxy-authorization", "cookie", "client-id");
+
     /**
      * Send a Request.
      *
@@ -41,55 +90,259 @@ public class RequestUtility {
      * @return an {@link InputStream}.
      */
     public static InputStream request(Request request) {
+        try {
+            Response response = requestAsync(request).join();
+
+            if (response.isSuccess()) {
+                return response.asStream();
+            }
+        } catch (Exception ex) {
+            log.error("Couldn't send a Request!", ex);
+        }
+
+        return null;
+    }
+
+    /**
+     * Send a Request asynchronously.
+     * GET Requests will be answered from the cache if possible and revalidated with a conditional request once stale.
+     *
+     * @param request the Request.
+     * @return a {@link CompletableFuture} with the {@link Response}.
+     */
+    public static CompletableFuture<Response> requestAsync(Request request) {
+        URI uri = request.getUri();
+        String host = uri.getHost() == null ? "unknown" : uri.getHost().toLowerCase();
+        HostMetrics metrics = getHostMetrics(host);
+
+        String cacheKey = request.isCache() && request.getMethod() == Method.GET ? getCacheKey(request) : null;
+        boolean cacheable = cacheKey != null;
+        HttpResponseCache.Entry cached = cacheable ? getCache().get(cacheKey) : null;
+
+        if (cached != null && cached.isFresh()) {
+            metrics.recordCacheHit();
+            return CompletableFuture.completedFuture(new Response(cached.getStatusCode(), cached.getBody(), true, cached.getETag()));
+        }
+
+        HttpRequest httpRequest;
+
+        try {
+            httpRequest = buildRequest(request, cached);
+        } catch (Exception exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+
+        long start = System.nanoTime();
+
+        return HOST_LIMITERS.computeIfAbsent(host, key -> new AsyncLimiter(getSetting("http.maxConcurrentPerHost", 8)))
+                .submit(() -> send(httpRequest, request.getMethod() != Method.POST, 0, metrics))
+                .handle((httpResponse, throwable) -> {
+                    if (throwable != null) {
+                        metrics.record(System.nanoTime() - start, false);
+                        throw new CompletionException(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                    }
+
+                    if (httpResponse.statusCode() == 304 && cached != null) {
+                        metrics.recordNotModified();
+                        metrics.record(System.nanoTime() - start, true);
+                        HttpResponseCache.Entry refreshed = cached.refresh(httpResponse.headers());
+                        getCache().put(refreshed);
+                        return new Response(refreshed.getStatusCode(), refreshed.getBody(), true, refreshed.getETag());
+                    }
+
+                    Response response = new Response(httpResponse.statusCode(), httpResponse.body(), false,
+                            httpResponse.headers().firstValue("ETag").orElse(null), getRetryAfter(httpResponse.headers()));
+                    metrics.record(System.nanoTime() - start, response.isSuccess());
+
+                    if (cacheable && response.getStatusCode() == 200) {
+                        HttpResponseCache.Entry entry = HttpResponseCache.createEntry(cacheKey, response.getStatusCode(), httpResponse.headers(), response.getBody());
+                        if (entry != null) {
+                            getCache().put(entry);
+                        } else if (cached != null) {
+                            getCache().remove(cacheKey);
+                        }
+                    }
+
+                    return response;
+                });
+    }
+
+    /**
+     * Get the key of a Request in the Response cache.
+     * Requests with credentials get a SHA-256 hash of every auth-bearing header appended, so a Response is never shared between different credentials.
+     *
+     * @param request the Request.
+     * @return the key.
+     */
+    static String getCacheKey(Request request) {
+        List<String> credentials = new ArrayList<>();
 
+        if (request.getBearerAuth() != null) {
+            credentials.add("authorization:" + request.getBearerAuth());
+        }
+
+        for (String[] header : request.getHeaders()) {
+            if (header.length == 2 && isAuthHeader(header[0])) {
+                credentials.add(header[0].toLowerCase() + ":" + header[1]);
+            }
+        }
+
+        if (credentials.isEmpty()) return request.getUrl();
+
+        Collections.sort(credentials);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String credential : credentials) {
+                digest.update(credential.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+
+            return request.getUrl() + "#" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException exception) {
+            // Without a hash the Response can't be separated safely, so don't cache it at all.
+            return null;
+        }
+    }
+
+    /**
+     * Check if a header carries credentials.
+     *
+     * @param name the name of the header.
+     * @return true, if the header is used to authenticate.
+     */
+    private static boolean isAuthHeader(String name) {
+        String lowerName = name.toLowerCase();
+        return AUTH_HEADERS.contains(lowerName) || lowerName.contains("auth") || lowerName.contains("token") ||
+                lowerName.contains("key") || lowerName.contains("secret");
+    }
+
+    /**
+     * Build the actual HTTP Request.
+     *
+     * @param request the Request.
+     * @param cached  a stale cache entry that should be revalidated, can be null.
+     * @return the {@link HttpRequest}.
+     */
+    private static HttpRequest buildRequest(Request request, HttpResponseCache.Entry cached) {
         HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder()
                 .uri(request.getUri())
+                .timeout(Duration.ofSeconds(getSetting("http.timeout.request", 30)))
                 .header("User-Agent", USER_AGENT);
 
         if (request.getHeaders().isEmpty()) {
-            httpRequestBuilder = httpRequestBuilder.header("Content-Type", "application/json-rpc");
+            httpRequestBuilder.header("Content-Type", "application/json-rpc");
         } else {
             for (String[] header : request.getHeaders()) {
                 if (header.length == 2) {
-                    httpRequestBuilder = httpRequestBuilder.header(header[0], header[1]);
+                    httpRequestBuilder.header(header[0], header[1]);
                 }
             }
         }
 
         if (request.bearerAuth != null) {
-            httpRequestBuilder = httpRequestBuilder.header("Authorization", request.getBearerAuth());
+            httpRequestBuilder.header("Authorization", request.getBearerAuth());
         }
 
-        if (request.getMethod() == Method.GET) {
-            httpRequestBuilder = httpRequestBuilder.GET();
-        } else if (request.getMethod() == Method.POST) {
-            httpRequestBuilder = httpRequestBuilder.POST(request.bodyPublisher);
-        } else if (request.getMethod() == Method.PUT) {
-            httpRequestBuilder = httpRequestBuilder.PUT(request.bodyPublisher);
+        if (cached != null) {
+            if (cached.getETag() != null) httpRequestBuilder.header("If-None-Match", cached.getETag());
+            if (cached.getLastModified() != null) httpRequestBuilder.header("If-Modified-Since", cached.getLastModified());
         }
 
-        if (httpRequestBuilder == null) {
-            return null;
+        switch (request.getMethod()) {
+            case POST -> httpRequestBuilder.POST(request.bodyPublisher);
+            case PUT -> httpRequestBuilder.PUT(request.bodyPublisher);
+            default -> httpRequestBuilder.GET();
         }
 
-        HttpRequest httpRequest = httpRequestBuilder.build();
+        return httpRequestBuilder.build();
+    }
 
-        if (httpRequest == null) {
-            return null;
-        }
+    /**
+     * Send the Request and retry it with an exponential backoff and jitter, if possible.
+     *
+     * @param httpRequest the {@link HttpRequest} to send.
+     * @param idempotent  if the Request can be retried safely.
+     * @param attempt     the current attempt.
+     * @param metrics     the {@link HostMetrics} of the host.
+     * @return a {@link CompletableFuture} with the {@link HttpResponse}.
+     */
+    private static CompletableFuture<HttpResponse<byte[]>> send(HttpRequest httpRequest, boolean idempotent, int attempt, HostMetrics metrics) {
+        long maxBodySize = getSetting("http.maxBodySize", 16 * 1024 * 1024);
 
-        try {
-            HttpResponse<InputStream> httpResponse = CLIENT.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+        return getClient().sendAsync(httpRequest, responseInfo -> new LimitedBodySubscriber(maxBodySize))
+                .handle((httpResponse, throwable) -> {
+                    long retryAfter = httpResponse != null ? getRetryAfter(httpResponse.headers()) : -1;
+
+                    // A server that asks to wait longer is left to the caller, instead of blocking the Request.
+                    boolean retry = idempotent && attempt < getSetting("http.retries", 2) && retryAfter <= MAX_RETRY_AFTER &&
+                            (throwable != null ? isRetryable(throwable) : RETRY_CODES.contains(httpResponse.statusCode()));
+
+                    if (!retry) {
+                        if (throwable != null) return CompletableFuture.<HttpResponse<byte[]>>failedFuture(throwable);
+
+                        return CompletableFuture.completedFuture(httpResponse);
+                    }
+
+                    metrics.recordRetry();
 
-            if (httpResponse.statusCode() == 200) {
-                return httpResponse.body();
+                    long backoff = (long) getSetting("http.retryBackoff", 250) << attempt;
+                    long delay = backoff + ThreadLocalRandom.current().nextLong(backoff + 1);
+
+                    delay = Math.max(delay, retryAfter);
+
+                    return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignore -> send(httpRequest, true, attempt + 1, metrics));
+                }).thenCompose(future -> future);
+    }
+
+    /**
+     * Get the time the server asks to wait before the next Request, from the Retry-After or rate-limit headers.
+     *
+     * @param headers the {@link HttpHeaders} of the Response.
+     * @return the time in millis, or -1 if the Response doesn't ask to wait.
+     */
+    static long getRetryAfter(HttpHeaders headers) {
+        String retryAfter = headers.firstValue("Retry-After").orElse(null);
+
+        if (retryAfter != null) {
+            try {
+                return Math.max(0, (long) (Double.parseDouble(retryAfter.trim()) * 1000));
+            } catch (NumberFormatException ignore) {
+                // Not a delay in seconds, but an HTTP-date.
             }
 
-        } catch (Exception ex) {
-            log.error("Couldn't send a Request!", ex);
+            try {
+                return Math.max(0, ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException ignore) {
+                // Invalid, the rate-limit headers are checked instead.
+            }
         }
 
-        return null;
+        // The seconds until the rate-limit resets, only relevant once no Requests are remaining.
+        for (String name : List.of("RateLimit-Reset", "X-RateLimit-Reset-After")) {
+            String reset = headers.firstValue(name).orElse(null);
+            if (reset == null) continue;
+
+            try {
+                return Math.max(0, (long) (Double.parseDouble(reset.trim()) * 1000));
+            } catch (NumberFormatException ignore) {
+                // Invalid, try the next header.
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Check if an exception is worth a retry.
+     *
+     * @param throwable the exception.
+     * @return true, if it has been caused by a network issue.
+     */
+    private static boolean isRetryable(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof IOException && !(cause instanceof BodyTooLargeException);
     }
 
     /**
@@ -99,34 +352,38 @@ public class RequestUtility {
      * @return an {@link JsonElement}.
      */
     public static JsonElement requestJson(Request request) {
-        JsonElement jsonObject = new JsonObject();
-        try (InputStream httpResponse = request(request)) {
+        return requestJsonAsync(request).join();
+    }
+
+    /**
+     * Send a Request asynchronously.
+     *
+     * @param request the Request.
+     * @return a {@link CompletableFuture} with the {@link JsonElement}.
+     */
+    public static CompletableFuture<JsonElement> requestJsonAsync(Request request) {
+        return requestAsync(request).handle((response, throwable) -> {
+            JsonElement jsonObject = new JsonObject();
 
-            if (httpResponse == null) {
+            if (throwable != null || !response.isSuccess()) {
+                if (throwable != null) log.error("Couldn't send a Request!", throwable);
                 jsonObject.getAsJsonObject().addProperty("success", false);
                 return jsonObject;
             }
 
             try {
-
-                JsonStreamParser jsonStreamParser = new JsonStreamParser(new InputStreamReader(httpResponse));
+                JsonStreamParser jsonStreamParser = new JsonStreamParser(new InputStreamReader(response.asStream(), StandardCharsets.UTF_8));
                 if (jsonStreamParser.hasNext()) {
                     jsonObject = jsonStreamParser.next();
                 } else {
                     jsonObject.getAsJsonObject().addProperty("success", false);
                 }
-
-                return jsonObject;
             } catch (Exception ex) {
                 log.error("Couldn't send a Request!", ex);
             }
-        } catch (IOException e) {
-            log.error("Couldn't send a Request!", e);
-            jsonObject.getAsJsonObject().addProperty("success", false);
-            return jsonObject;
-        }
 
-        return jsonObject;
+            return jsonObject;
+        });
     }
 
     /**
@@ -135,23 +392,23 @@ public class RequestUtility {
      * @return a {@link byte[]}
      */
     public static byte[] requestBytes(Request request) {
-        try (InputStream httpResponse = request(request)) {
+        return requestBytesAsync(request).join();
+    }
 
-            if (httpResponse == null) {
+    /**
+     * Send a Request asynchronously.
+     * @param request the Request.
+     * @return a {@link CompletableFuture} with the {@link byte[]}
+     */
+    public static CompletableFuture<byte[]> requestBytesAsync(Request request) {
+        return requestAsync(request).handle((response, throwable) -> {
+            if (throwable != null) {
+                log.error("Couldn't send a Request!", throwable);
                 return new byte[0];
             }
 
-            try {
-                return httpResponse.readAllBytes();
-            } catch (Exception ex) {
-                log.error("Couldn't send a Request!", ex);
-            }
-        } catch (IOException e) {
-            log.error("Couldn't send a Request!", e);
-            return new byte[0];
-        }
-
-        return new byte[0];
+            return response.isSuccess() ? response.getBody() : new byte[0];
+        });
     }
 
     /**
@@ -160,30 +417,289 @@ public class RequestUtility {
      * @return a {@link String}
      */
     public static String requestString(Request request) {
-        try (InputStream httpResponse = request(request)) {
+        return requestStringAsync(request).join();
+    }
 
-            if (httpResponse == null) {
-                return "";
-            }
+    /**
+     * Send a Request asynchronously.
+     * @param request the Request.
+     * @return a {@link CompletableFuture} with the {@link String}
+     */
+    public static CompletableFuture<String> requestStringAsync(Request request) {
+        return requestBytesAsync(request).thenApply(bytes ->
+                new String(bytes, StandardCharsets.UTF_8).lines().collect(Collectors.joining()));
+    }
 
-            try {
-                Scanner scanner = new Scanner(httpResponse);
-                StringBuilder stringBuilder = new StringBuilder();
+    /**
+     * Get the collected metrics of every host.
+     *
+     * @return an unmodifiable map with the host as key and the {@link HostMetrics} as value.
+     */
+    public static Map<String, HostMetrics> getHostMetrics() {
+        return Collections.unmodifiableMap(HOST_METRICS);
+    }
+
+    /**
+     * Get the metrics of a specific host.
+     *
+     * @param host the host.
+     * @return the {@link HostMetrics} of the host.
+     */
+    private static HostMetrics getHostMetrics(String host) {
+        return HOST_METRICS.computeIfAbsent(host, key -> new HostMetrics());
+    }
+
+    /**
+     * Get the HTTP Client, creates it if there is none.
+     *
+     * @return the {@link HttpClient}.
+     */
+    private static synchronized HttpClient getClient() {
+        if (client == null) {
+            client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(getSetting("http.timeout.connect", 10)))
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+        }
+
+        return client;
+    }
+
+    /**
+     * Get the Response cache, creates it if there is none.
+     *
+     * @return the {@link HttpResponseCache}.
+     */
+    public static synchronized HttpResponseCache getCache() {
+        if (cache == null) {
+            cache = new HttpResponseCache(getSetting("http.cache.memorySize", 8 * 1024 * 1024),
+                    getSetting("http.cache.diskSize", 64 * 1024 * 1024), Path.of("storage", "cache", "http"));
+        }
+
+        return cache;
+    }
+
+    /**
+     * Replace the Response cache.
+     *
+     * @param responseCache the new {@link HttpResponseCache}.
+     */
+    static synchronized void setCache(HttpResponseCache responseCache) {
+        cache = responseCache;
+    }
+
+    /**
+     * Get a numeric setting of the HTTP section in the config.
+     *
+     * @param path         the path of the setting.
+     * @param defaultValue the value used, if there is no config or no value.
+     * @return the value.
+     */
+    private static int getSetting(String path, int defaultValue) {
+        Config config = Main.getInstance().getConfig();
+        return config == null ? defaultValue : config.getConfiguration().getInt(path, defaultValue);
+    }
+
+    /**
+     * Body subscriber which collects the body into a byte array and fails once the configured limit has been exceeded.
+     */
+    private static class LimitedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        /**
+         * The maximum amount of bytes.
+         */
+        private final long limit;
+
+        /**
+         * The collected body.
+         */
+        private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        /**
+         * The result.
+         */
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        /**
+         * The current subscription.
+         */
+        private Flow.Subscription subscription;
+
+        /**
+         * Constructor used to create a new subscriber.
+         *
+         * @param limit the maximum amount of bytes.
+         */
+        LimitedBodySubscriber(long limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return result;
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
 
-                while(scanner.hasNext()){
-                    stringBuilder.append(scanner.nextLine());
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (result.isDone()) return;
+
+            for (ByteBuffer buffer : items) {
+                if (outputStream.size() + (long) buffer.remaining() > limit) {
+                    subscription.cancel();
+                    result.completeExceptionally(new BodyTooLargeException(limit));
+                    return;
                 }
 
-                return stringBuilder.toString();
-            } catch (Exception ex) {
-                log.error("Couldn't send a Request!", ex);
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                outputStream.write(bytes, 0, bytes.length);
             }
-        } catch (IOException e) {
-            log.error("Couldn't send a Request!", e);
-            return "";
         }
 
-        return "";
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public void onComplete() {
+            result.complete(outputStream.toByteArray());
+        }
+    }
+
+    /**
+     * Exception thrown when a Response body exceeds the configured limit.
+     */
+    public static class BodyTooLargeException extends IOException {
+
+        /**
+         * Constructor used to create a new exception.
+         *
+         * @param limit the limit that has been exceeded.
+         */
+        public BodyTooLargeException(long limit) {
+            super("The response body exceeded the limit of " + limit + " bytes!");
+        }
+    }
+
+    /**
+     * A received Response.
+     */
+    @Getter
+    public static class Response {
+
+        /**
+         * The status code of the Response.
+         */
+        private final int statusCode;
+
+        /**
+         * The body of the Response.
+         */
+        private final byte[] body;
+
+        /**
+         * If the Response has been answered by the cache.
+         */
+        private final boolean cached;
+
+        /**
+         * The ETag of the Response, can be null.
+         */
+        private final String eTag;
+
+        /**
+         * Constructor used to create a new Response.
+         *
+         * @param statusCode the status code of the Response.
+         * @param body       the body of the Response.
+         * @param cached     if the Response has been answered by the cache.
+         */
+        public Response(int statusCode, byte[] body, boolean cached) {
+            this(statusCode, body, cached, null);
+        }
+
+        /**
+         * The time in millis the server asks to wait before the next Request, or -1 if it doesn't.
+         */
+        private final long retryAfter;
+
+        /**
+         * Constructor used to create a new Response.
+         *
+         * @param statusCode the status code of the Response.
+         * @param body       the body of the Response.
+         * @param cached     if the Response has been answered by the cache.
+         * @param eTag       the ETag of the Response, can be null.
+         */
+        public Response(int statusCode, byte[] body, boolean cached, String eTag) {
+            this(statusCode, body, cached, eTag, -1);
+        }
+
+        /**
+         * Constructor used to create a new Response.
+         *
+         * @param statusCode the status code of the Response.
+         * @param body       the body of the Response.
+         * @param cached     if the Response has been answered by the cache.
+         * @param eTag       the ETag of the Response, can be null.
+         * @param retryAfter the time in millis the server asks to wait before the next Request, or -1 if it doesn't.
+         */
+        public Response(int statusCode, byte[] body, boolean cached, String eTag, long retryAfter) {
+            this.statusCode = statusCode;
+            this.body = body == null ? new byte[0] : body;
+            this.cached = cached;
+            this.eTag = eTag;
+            this.retryAfter = retryAfter;
+        }
+
+        /**
+         * Check if the Response has a successful status code.
+         *
+         * @return true, if the status code is in the 2xx range.
+         */
+        public boolean isSuccess() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+
+        /**
+         * Get the body as {@link InputStream}.
+         *
+         * @return the body as {@link InputStream}.
+         */
+        public InputStream asStream() {
+            return new ByteArrayInputStream(body);
+        }
+
+        /**
+         * Get the body as {@link String}.
+         *
+         * @return the body as {@link String}.
+         */
+        public String asString() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
     }
 
     /**
@@ -216,6 +732,11 @@ public class RequestUtility {
          */
         List<String[]> headers = new ArrayList<>();
 
+        /**
+         * If the Response may be cached.
+         */
+        boolean cache = true;
+
         /**
          * Create a new Request builder.
          *
@@ -279,6 +800,15 @@ public class RequestUtility {
             return headers;
         }
 
+        /**
+         * Check if the Response may be cached.
+         *
+         * @return true, if the Response may be cached.
+         */
+        public boolean isCache() {
+            return cache;
+        }
+
         /**
          * Builder class for a Request class.
          */
@@ -309,6 +839,11 @@ public class RequestUtility {
              */
             List<String[]> headers = new ArrayList<>();
 
+            /**
+             * If the Response may be cached.
+             */
+            boolean cache = true;
+
             /**
              * Change the Url of the Request.
              *
@@ -391,6 +926,17 @@ public class RequestUtility {
                 return this;
             }
 
+            /**
+             * Change if the Response may be cached.
+             *
+             * @param cache if the Response may be cached.
+             * @return the Request.
+             */
+            public RequestBuilder cache(boolean cache) {
+                this.cache = cache;
+                return this;
+            }
+
             /**
              * Build the Request.
              *
@@ -403,6 +949,7 @@ public class RequestUtility {
                 request.bodyPublisher = this.bodyPublisher;
                 request.headers = this.headers;
                 request.bearerAuth = this.bearerAuth;
+                request.cache = this.cache;
                 return request;
             }
         }
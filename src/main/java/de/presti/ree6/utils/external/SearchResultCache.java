@@ -0,0 +1,338 @@
+package de.presti.ree6.utils.external;
+
+import com.google.gson.JsonObject;
+import de.presti.ree6.utils.others.RandomUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Cache for the results of upstream searches, keyed by the source and the normalized query.
+ * Result sets are loaded page by page, only once a caller needs more results than already loaded.
+ */
+@Slf4j
+public class SearchResultCache {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     * @throws IllegalStateException it is a utility class.
+     */
+    private SearchResultCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The maximum amount of cached result sets.
+     */
+    private static final int MAX_ENTRIES = 256;
+
+    /**
+     * The time after which a result set will be loaded again.
+     */
+    private static final long TTL = Duration.ofMinutes(15).toMillis();
+
+    /**
+     * The highest position of a result that can be requested, as the first position is 1.
+     */
+    public static final int MAX_RESULTS = 100;
+
+    /**
+     * The maximum amount of pages loaded for a result set, so no caller can page through a source without limit.
+     */
+    static final int MAX_PAGES = 20;
+
+    /**
+     * The amount of not yet served results at which the next page will be loaded for random picks.
+     */
+    private static final int LOW_WATER_MARK = 5;
+
+    /**
+     * The cached result sets, ordered by their last access.
+     */
+    private static final Map<String, ResultSet> RESULTS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ResultSet> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Get a result by its position in the result set, loading further pages if needed.
+     *
+     * @param source the {@link Source} of the results.
+     * @param query  the query.
+     * @param index  the position of the result.
+     * @return a {@link CompletableFuture} with the result or null if there is none at the given position
+     * or the position is above {@link #MAX_RESULTS}.
+     */
+    public static CompletableFuture<JsonObject> get(Source source, String query, int index) {
+        if (index < 0 || index >= MAX_RESULTS) return CompletableFuture.completedFuture(null);
+
+        ResultSet resultSet = getResultSet(source, query);
+        return resultSet.ensureLoaded(index + 1).thenApply(ignore -> resultSet.get(index));
+    }
+
+    /**
+     * Get a random result that has not been served recently, the next page is loaded in the background
+     * once most loaded results have been served.
+     *
+     * @param source the {@link Source} of the results.
+     * @param query  the query.
+     * @return a {@link CompletableFuture} with the result or null if the result set is empty.
+     */
+    public static CompletableFuture<JsonObject> random(Source source, String query) {
+        ResultSet resultSet = getResultSet(source, query);
+        return resultSet.ensureLoaded(1).thenApply(ignore -> {
+            JsonObject result = resultSet.pickRandom();
+
+            if (resultSet.getRemaining() <= LOW_WATER_MARK) {
+                resultSet.loadNextPage();
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the result set of a query or create a new one, if there is none or the old one expired.
+     *
+     * @param source the {@link Source} of the results.
+     * @param query  the query.
+     * @return the {@link ResultSet}.
+     */
+    private static ResultSet getResultSet(Source source, String query) {
+        String normalizedQuery = normalize(query);
+        String key = source.name() + ":" + normalizedQuery;
+
+        synchronized (RESULTS) {
+            ResultSet resultSet = RESULTS.get(key);
+
+            if (resultSet == null || resultSet.isExpired()) {
+                resultSet = new ResultSet(key, source, normalizedQuery);
+                RESULTS.put(key, resultSet);
+            }
+
+            return resultSet;
+        }
+    }
+
+    /**
+     * Normalize a query, so that different spellings of the same query share a result set.
+     *
+     * @param query the query.
+     * @return the normalized query.
+     */
+    public static String normalize(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An upstream search source.
+     *
+     * @param name    the unique name of the source.
+     * @param fetcher the function used to fetch a page, receives the normalized query and the cursor of the page,
+     *                which is null for the first page.
+     */
+    public record Source(String name, BiFunction<String, String, CompletableFuture<Page>> fetcher) {
+    }
+
+    /**
+     * A single page of results.
+     *
+     * @param results    the results of the page.
+     * @param nextCursor the cursor of the next page, null if there is none.
+     */
+    public record Page(List<JsonObject> results, String nextCursor) {
+    }
+
+    /**
+     * The loaded results of a single query.
+     */
+    private static class ResultSet {
+
+        /**
+         * The key of the result set in the cache.
+         */
+        private final String key;
+
+        /**
+         * The source of the results.
+         */
+        private final Source source;
+
+        /**
+         * The normalized query.
+         */
+        private final String query;
+
+        /**
+         * The time in millis when the result set has been created.
+         */
+        private final long createdAt = System.currentTimeMillis();
+
+        /**
+         * The loaded results.
+         */
+        private final List<JsonObject> results = new ArrayList<>();
+
+        /**
+         * The positions of the loaded results that have not been served as random pick yet.
+         */
+        private final List<Integer> unserved = new ArrayList<>();
+
+        /**
+         * The cursor of the next page.
+         */
+        private String nextCursor;
+
+        /**
+         * The amount of loaded pages.
+         */
+        private int pages;
+
+        /**
+         * If every page has been loaded, or {@link #MAX_PAGES}.
+         */
+        private boolean exhausted;
+
+        /**
+         * The page that is currently being loaded, shared by every caller.
+         */
+        private CompletableFuture<Void> loading;
+
+        /**
+         * Constructor used to create a new result set.
+         *
+         * @param key    the key of the result set in the cache.
+         * @param source the source of the results.
+         * @param query  the normalized query.
+         */
+        ResultSet(String key, Source source, String query) {
+            this.key = key;
+            this.source = source;
+            this.query = query;
+        }
+
+        /**
+         * Load pages until there are at least the given amount of results, there are no pages left or {@link #MAX_PAGES} have been loaded.
+         *
+         * @param amount the wanted amount of results.
+         * @return a {@link CompletableFuture} that completes once enough results have been loaded.
+         */
+        CompletableFuture<Void> ensureLoaded(int amount) {
+            while (true) {
+                synchronized (this) {
+                    if (results.size() >= amount || exhausted) return CompletableFuture.completedFuture(null);
+                }
+
+                // Pages that are already available are consumed in this loop, so a fetcher that answers synchronously can't grow the stack.
+                CompletableFuture<Void> page = loadNextPage();
+                if (!page.isDone()) return page.thenCompose(ignore -> ensureLoaded(amount));
+            }
+        }
+
+        /**
+         * Load the next page, if there is no page being loaded already.
+         *
+         * @return a {@link CompletableFuture} that completes once the page has been loaded.
+         */
+        synchronized CompletableFuture<Void> loadNextPage() {
+            if (loading != null) return loading;
+            if (exhausted) return CompletableFuture.completedFuture(null);
+
+            CompletableFuture<Page> page;
+
+            try {
+                page = source.fetcher().apply(query, nextCursor);
+            } catch (Exception exception) {
+                page = CompletableFuture.failedFuture(exception);
+            }
+
+            // Published before the callback is registered, since an already completed page runs it right away.
+            CompletableFuture<Void> current = new CompletableFuture<>();
+            loading = current;
+
+            page.whenComplete((result, throwable) -> {
+                synchronized (this) {
+                    if (loading == current) loading = null;
+
+                    if (throwable != null || result == null) {
+                        if (throwable != null) log.warn("Couldn't load the next page of {} for '{}'!", source.name(), query, throwable);
+                        exhausted = true;
+
+                        // Serve what has been loaded so far, but don't remember a failed first page.
+                        if (results.isEmpty()) {
+                            synchronized (RESULTS) {
+                                RESULTS.remove(key, this);
+                            }
+                        }
+                    } else {
+                        for (JsonObject entry : result.results()) {
+                            unserved.add(results.size());
+                            results.add(entry);
+                        }
+
+                        nextCursor = result.nextCursor();
+                        pages++;
+                        exhausted = nextCursor == null || result.results().isEmpty() || pages >= MAX_PAGES;
+                    }
+                }
+
+                current.complete(null);
+            });
+
+            return current;
+        }
+
+        /**
+         * Get a loaded result.
+         *
+         * @param index the position of the result.
+         * @return the result or null if there is none.
+         */
+        synchronized JsonObject get(int index) {
+            return index >= 0 && index < results.size() ? results.get(index) : null;
+        }
+
+        /**
+         * Pick a random result that has not been served yet, starts over once every result has been served.
+         *
+         * @return the result or null if there are no results.
+         */
+        synchronized JsonObject pickRandom() {
+            if (results.isEmpty()) return null;
+
+            if (unserved.isEmpty()) {
+                for (int i = 0; i < results.size(); i++) unserved.add(i);
+            }
+
+            int position = unserved.remove(RandomUtils.secureRandom.nextInt(unserved.size()));
+            return results.get(position);
+        }
+
+        /**
+         * Get the amount of loaded results that have not been served yet.
+         *
+         * @return the amount of results.
+         */
+        synchronized int getRemaining() {
+            return unserved.size();
+        }
+
+        /**
+         * Check if the result set should be loaded again.
+         *
+         * @return true, if the TTL has been exceeded.
+         */
+        boolean isExpired() {
+            return createdAt + TTL < System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package de.presti.ree6.utils.external.leaderboard;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import de.presti.ree6.utils.external.RequestUtility;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The raw leaderboard of Amari, which needs an API-Token.
+ */
+public class AmariLeaderboardSource implements LeaderboardSource {
+
+    /**
+     * The maximum amount of members per page, which Amari allows.
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * The URL of the leaderboard, followed by the ID of the Guild.
+     */
+    private final String url;
+
+    /**
+     * The API-Token.
+     */
+    private final String apiToken;
+
+    /**
+     * Constructor used to create a source.
+     *
+     * @param url      the URL of the leaderboard, followed by the ID of the Guild.
+     * @param apiToken the API-Token.
+     */
+    public AmariLeaderboardSource(String url, String apiToken) {
+        this.url = url;
+        this.apiToken = apiToken;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String getName() {
+        return "amari";
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public Page fetchPage(String guildId, int page) throws LeaderboardImportException {
+        // The pages of Amari start at 1.
+        JsonObject body = request(RequestUtility.Request.builder()
+                .url(url + guildId + "?page=" + (page + 1) + "&limit=" + PAGE_SIZE)
+                .header(new String[]{"Authorization", apiToken})
+                .cache(false)
+                .build());
+
+        if (!body.has("members") || !body.get("members").isJsonArray()) {
+            throw new LeaderboardImportException(LeaderboardImportException.Reason.UNKNOWN, "Missing members");
+        }
+
+        JsonArray members = body.getAsJsonArray("members");
+        List<Entry> entries = new ArrayList<>(members.size());
+
+        for (JsonElement member : members) {
+            if (!member.isJsonObject()) continue;
+
+            JsonElement id = member.getAsJsonObject().get("id");
+            JsonElement exp = member.getAsJsonObject().get("exp");
+
+            if (id != null && exp != null && id.isJsonPrimitive() && exp.isJsonPrimitive()) {
+                entries.add(new Entry(id.getAsString(), exp.getAsLong()));
+            }
+        }
+
+        boolean last = members.size() < PAGE_SIZE;
+
+        if (body.has("total_members") && body.get("total_members").isJsonPrimitive()) {
+            last |= (long) (page + 1) * PAGE_SIZE >= body.get("total_members").getAsLong();
+        }
+
+        return new Page(entries, last);
+    }
+}
@@ -0,0 +1,75 @@
+package de.presti.ree6.utils.external.leaderboard;
+
+import lombok.Getter;
+
+/**
+ * Exception class, used for errors while importing a leaderboard.
+ */
+@Getter
+public class LeaderboardImportException extends Exception {
+
+    /**
+     * Serial version ID.
+     */
+    @java.io.Serial
+    private static final long serialVersionUID = 3190268317626404291L;
+
+    /**
+     * The reason of the failure.
+     */
+    private final Reason reason;
+
+    /**
+     * The time in millis the source asks to wait before the next request, or -1 if it doesn't.
+     */
+    private final long retryAfter;
+
+    /**
+     * Constructs a LeaderboardImportException object.
+     *
+     * @param reason  the reason of the failure.
+     * @param message a String describing the failure.
+     */
+    public LeaderboardImportException(Reason reason, String message) {
+        this(reason, message, -1);
+    }
+
+    /**
+     * Constructs a LeaderboardImportException object.
+     *
+     * @param reason     the reason of the failure.
+     * @param message    a String describing the failure.
+     * @param retryAfter the time in millis the source asks to wait before the next request, or -1 if it doesn't.
+     */
+    public LeaderboardImportException(Reason reason, String message, long retryAfter) {
+        super(message);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * The reasons of a failed import.
+     */
+    public enum Reason {
+        /**
+         * The Bot has no data of the Guild.
+         */
+        NO_DATA,
+        /**
+         * The leaderboard of the Guild isn't public.
+         */
+        VISIBILITY,
+        /**
+         * The source kept rejecting the requests because of its rate-limit.
+         */
+        RATE_LIMITED,
+        /**
+         * An import of the Guild is already running.
+         */
+        RUNNING,
+        /**
+         * Any other failure.
+         */
+        UNKNOWN
+    }
+}
@@ -0,0 +1,250 @@
+package de.presti.ree6.utils.external.leaderboard;
+
+import de.presti.ree6.main.Main;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.Setting;
+import de.presti.ree6.sql.entities.level.ChatUserLevel;
+import de.presti.ree6.utils.data.Config;
+import de.presti.ree6.utils.others.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.simpleyaml.configuration.file.YamlFile;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility class used to import the leaderboard of another Bot as chat experience.
+ * The leaderboard is imported page by page in the background, with a pause between the pages.
+ * When rate-limited, the import waits as long as the source asks to, or a growing pause if it doesn't say.
+ * After every page a checkpoint is stored, so a failed import continues with the next page once it is started again.
+ * Experience is only ever raised, so importing a page twice doesn't change anything.
+ */
+@Slf4j
+public class LeaderboardImporter {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private LeaderboardImporter() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The prefix of the name of the Setting that stores the checkpoint, followed by the name of the source.
+     */
+    private static final String CHECKPOINT_PREFIX = "import_checkpoint_";
+
+    /**
+     * The pause before the first retry of a rate-limited page, doubled with every attempt.
+     */
+    private static final long RATE_LIMIT_DELAY = Duration.ofSeconds(5).toMillis();
+
+    /**
+     * The longest wait the source may ask for, a source that asks for more stops the import until it is started again.
+     */
+    private static final long MAX_RATE_LIMIT_DELAY = Duration.ofMinutes(5).toMillis();
+
+    /**
+     * The amount of retries of a rate-limited page, before the import stops.
+     */
+    private static final int RATE_LIMIT_RETRIES = 5;
+
+    /**
+     * The maximum amount of pages, in case a source ignores the page and keeps returning full pages.
+     */
+    private static final int MAX_PAGES = 1000;
+
+    /**
+     * The IDs of the Guilds with a running import.
+     */
+    private static final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Create the source of a Bot.
+     *
+     * @param name the name of the Bot.
+     * @return the {@link LeaderboardSource}, or null if the Bot is unknown.
+     */
+    public static LeaderboardSource getSource(String name) {
+        Config config = Main.getInstance().getConfig();
+        YamlFile configuration = config == null ? new YamlFile() : config.getConfiguration();
+
+        return switch (name.toLowerCase()) {
+            case "mee6" -> new Mee6LeaderboardSource(configuration.getString("import.mee6Url", "https://mee6.xyz/api/plugins/levels/leaderboard/"));
+            case "amari" -> new AmariLeaderboardSource(configuration.getString("import.amariUrl", "https://amaribot.com/api/v1/guild/raw/leaderboard/"),
+                    configuration.getString("amari.apitoken"));
+            default -> null;
+        };
+    }
+
+    /**
+     * Get the checkpoint of an import.
+     *
+     * @param guildId the ID of the Guild.
+     * @param source  the {@link LeaderboardSource}.
+     * @return the next page and the amount of imported Users, or null if there is no unfinished import.
+     */
+    public static int[] getCheckpoint(String guildId, LeaderboardSource source) {
+        Setting setting = getCheckpointSetting(guildId, source);
+        if (setting == null || setting.getStringValue() == null) return null;
+
+        String[] values = setting.getStringValue().split(":");
+
+        try {
+            return values.length == 2 ? new int[]{Integer.parseInt(values[0]), Integer.parseInt(values[1])} : null;
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Start or continue the import of a leaderboard.
+     *
+     * @param guildId the ID of the Guild.
+     * @param source  the {@link LeaderboardSource}.
+     * @return a {@link CompletableFuture} with the amount of imported Users,
+     * completes exceptionally with a {@link LeaderboardImportException} if the import failed.
+     */
+    public static CompletableFuture<Integer> start(String guildId, LeaderboardSource source) {
+        if (!running.add(guildId)) {
+            return CompletableFuture.failedFuture(new LeaderboardImportException(LeaderboardImportException.Reason.RUNNING, guildId));
+        }
+
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        ThreadUtil.createThread(x -> {
+            try {
+                future.complete(run(guildId, source));
+            } catch (LeaderboardImportException exception) {
+                future.completeExceptionally(exception);
+            } catch (InterruptedException exception) {
+                // Shutting down, the checkpoint lets the import continue once it is started again.
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(exception);
+            } catch (Exception exception) {
+                future.completeExceptionally(new LeaderboardImportException(LeaderboardImportException.Reason.UNKNOWN, exception.getMessage()));
+            } finally {
+                running.remove(guildId);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Import every page, starting with the page of the checkpoint.
+     *
+     * @param guildId the ID of the Guild.
+     * @param source  the {@link LeaderboardSource}.
+     * @return the amount of imported Users.
+     * @throws LeaderboardImportException if a page couldn't be fetched.
+     * @throws InterruptedException       if the Thread has been interrupted while waiting.
+     */
+    private static int run(String guildId, LeaderboardSource source) throws LeaderboardImportException, InterruptedException {
+        int[] checkpoint = getCheckpoint(guildId, source);
+        int page = checkpoint != null ? checkpoint[0] : 0;
+        int imported = checkpoint != null ? checkpoint[1] : 0;
+
+        Config config = Main.getInstance().getConfig();
+        long pageDelay = Math.max(0, config == null ? 1000 : config.getConfiguration().getLong("import.pageDelay", 1000));
+
+        while (page < MAX_PAGES) {
+            LeaderboardSource.Page result = fetch(guildId, source, page);
+
+            write(guildId, result.entries());
+
+            imported += result.entries().size();
+            page++;
+
+            if (result.last()) break;
+
+            SQLSession.getSqlConnector().getSqlWorker().setSetting(guildId, CHECKPOINT_PREFIX + source.getName(), "Import checkpoint", page + ":" + imported);
+            Thread.sleep(pageDelay);
+        }
+
+        Setting setting = getCheckpointSetting(guildId, source);
+        if (setting != null) SQLSession.getSqlConnector().getSqlWorker().deleteEntity(setting);
+
+        log.info("[Import] Imported {} Users from {} on {} in {} pages.", imported, source.getName(), guildId, page);
+        return imported;
+    }
+
+    /**
+     * Fetch a page and wait for the rate-limit, if needed.
+     *
+     * @param guildId the ID of the Guild.
+     * @param source  the {@link LeaderboardSource}.
+     * @param page    the page.
+     * @return the {@link LeaderboardSource.Page}.
+     * @throws LeaderboardImportException if the page couldn't be fetched.
+     * @throws InterruptedException       if the Thread has been interrupted while waiting.
+     */
+    private static LeaderboardSource.Page fetch(String guildId, LeaderboardSource source, int page) throws LeaderboardImportException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return source.fetchPage(guildId, page);
+            } catch (LeaderboardImportException exception) {
+                if (exception.getReason() != LeaderboardImportException.Reason.RATE_LIMITED || attempt >= RATE_LIMIT_RETRIES ||
+                        exception.getRetryAfter() > MAX_RATE_LIMIT_DELAY) throw exception;
+
+                long delay = exception.getRetryAfter() >= 0 ? exception.getRetryAfter() : RATE_LIMIT_DELAY << attempt;
+                log.info("[Import] Rate-limited by {} on page {} of {}, waiting {}ms.", source.getName(), page, guildId, delay);
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Raise the chat experience of the Users of a page to the imported experience.
+     * The existing levels of the page are loaded with a single query, instead of one per User.
+     *
+     * @param guildId the ID of the Guild.
+     * @param entries the {@link LeaderboardSource.Entry}s of the page.
+     */
+    private static void write(String guildId, List<LeaderboardSource.Entry> entries) {
+        if (entries.isEmpty()) return;
+
+        Map<String, ChatUserLevel> levels = new HashMap<>();
+        for (ChatUserLevel chatUserLevel : SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ChatUserLevel(),
+                "SELECT * FROM Level WHERE GID=:gid AND UID IN (:uids)",
+                Map.of("gid", guildId, "uids", entries.stream().map(LeaderboardSource.Entry::userId).toList()))) {
+            levels.put(chatUserLevel.getUserId(), chatUserLevel);
+        }
+
+        for (LeaderboardSource.Entry entry : entries) {
+            ChatUserLevel chatUserLevel = levels.get(entry.userId());
+
+            if (chatUserLevel != null && chatUserLevel.getExperience() >= entry.experience()) {
+                continue;
+            }
+
+            if (chatUserLevel == null) {
+                chatUserLevel = new ChatUserLevel(guildId, entry.userId(), entry.experience());
+            } else {
+                chatUserLevel.setExperience(entry.experience());
+            }
+
+            // A source could list a User twice, the second entry has to update the stored level.
+            levels.put(entry.userId(), SQLSession.getSqlConnector().getSqlWorker().updateEntity(chatUserLevel));
+        }
+    }
+
+    /**
+     * Get the Setting that stores the checkpoint of an import.
+     *
+     * @param guildId the ID of the Guild.
+     * @param source  the {@link LeaderboardSource}.
+     * @return the Setting, or null if there is no unfinished import.
+     */
+    private static Setting getCheckpointSetting(String guildId, LeaderboardSource source) {
+        return SQLSession.getSqlConnector().getSqlWorker().getEntity(new Setting(), "SELECT * FROM Settings WHERE GID=:gid AND NAME=:name",
+                Map.of("gid", guildId, "name", CHECKPOINT_PREFIX + source.getName()));
+    }
+}
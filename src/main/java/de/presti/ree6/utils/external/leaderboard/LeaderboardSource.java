@@ -0,0 +1,86 @@
+package de.presti.ree6.utils.external.leaderboard;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import de.presti.ree6.utils.external.RequestUtility;
+
+import java.util.List;
+
+/**
+ * A leaderboard of another Bot, whose experience can be imported page by page.
+ */
+public interface LeaderboardSource {
+
+    /**
+     * Get the name of the source, used for the command argument and to store the checkpoint of an import.
+     *
+     * @return the name in lower case.
+     */
+    String getName();
+
+    /**
+     * Fetch a page of the leaderboard.
+     *
+     * @param guildId the ID of the Guild.
+     * @param page    the page, the first page is 0.
+     * @return the {@link Page}.
+     * @throws LeaderboardImportException if the page couldn't be fetched.
+     */
+    Page fetchPage(String guildId, int page) throws LeaderboardImportException;
+
+    /**
+     * Send a Request and check its status code.
+     *
+     * @param request the Request.
+     * @return the body of the Response as {@link JsonObject}.
+     * @throws LeaderboardImportException if the request failed or the body isn't a JSON object.
+     */
+    default JsonObject request(RequestUtility.Request request) throws LeaderboardImportException {
+        RequestUtility.Response response;
+
+        try {
+            response = RequestUtility.requestAsync(request).join();
+        } catch (Exception exception) {
+            throw new LeaderboardImportException(LeaderboardImportException.Reason.UNKNOWN, exception.getMessage());
+        }
+
+        switch (response.getStatusCode()) {
+            case 401, 403 -> throw new LeaderboardImportException(LeaderboardImportException.Reason.VISIBILITY, response.asString());
+            case 404 -> throw new LeaderboardImportException(LeaderboardImportException.Reason.NO_DATA, response.asString());
+            case 429 -> throw new LeaderboardImportException(LeaderboardImportException.Reason.RATE_LIMITED, response.asString(), response.getRetryAfter());
+            default -> {
+                if (!response.isSuccess()) {
+                    throw new LeaderboardImportException(LeaderboardImportException.Reason.UNKNOWN, String.valueOf(response.getStatusCode()));
+                }
+            }
+        }
+
+        try {
+            JsonElement jsonElement = JsonParser.parseString(response.asString());
+            if (jsonElement.isJsonObject()) return jsonElement.getAsJsonObject();
+        } catch (Exception ignore) {
+            // Handled below, the same as any other unexpected body.
+        }
+
+        throw new LeaderboardImportException(LeaderboardImportException.Reason.UNKNOWN, "Invalid response body");
+    }
+
+    /**
+     * A page of a leaderboard.
+     *
+     * @param entries the entries of the page.
+     * @param last    if there are no further pages.
+     */
+    record Page(List<Entry> entries, boolean last) {
+    }
+
+    /**
+     * An entry of a leaderboard.
+     *
+     * @param userId     the ID of the User.
+     * @param experience the experience of the User.
+     */
+    record Entry(String userId, long experience) {
+    }
+}
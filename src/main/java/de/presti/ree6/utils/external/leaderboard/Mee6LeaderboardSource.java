@@ -0,0 +1,73 @@
+package de.presti.ree6.utils.external.leaderboard;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import de.presti.ree6.utils.external.RequestUtility;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The leaderboard of Mee6.
+ */
+public class Mee6LeaderboardSource implements LeaderboardSource {
+
+    /**
+     * The maximum amount of players per page, which Mee6 allows.
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * The URL of the leaderboard, followed by the ID of the Guild.
+     */
+    private final String url;
+
+    /**
+     * Constructor used to create a source.
+     *
+     * @param url the URL of the leaderboard, followed by the ID of the Guild.
+     */
+    public Mee6LeaderboardSource(String url) {
+        this.url = url;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String getName() {
+        return "mee6";
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public Page fetchPage(String guildId, int page) throws LeaderboardImportException {
+        JsonObject body = request(RequestUtility.Request.builder()
+                .url(url + guildId + "?page=" + page + "&limit=" + PAGE_SIZE)
+                .cache(false)
+                .build());
+
+        if (!body.has("players") || !body.get("players").isJsonArray()) {
+            throw new LeaderboardImportException(LeaderboardImportException.Reason.UNKNOWN, "Missing players");
+        }
+
+        JsonArray players = body.getAsJsonArray("players");
+        List<Entry> entries = new ArrayList<>(players.size());
+
+        for (JsonElement player : players) {
+            if (!player.isJsonObject()) continue;
+
+            JsonElement id = player.getAsJsonObject().get("id");
+            JsonElement xp = player.getAsJsonObject().get("xp");
+
+            if (id != null && xp != null && id.isJsonPrimitive() && xp.isJsonPrimitive()) {
+                entries.add(new Entry(id.getAsString(), xp.getAsLong()));
+            }
+        }
+
+        return new Page(entries, players.size() < PAGE_SIZE);
+    }
+}
@@ -0,0 +1,82 @@
+package de.presti.ree6.utils.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter that only goes up, with a striped {@link LongAdder} per label combination.
+ */
+public class Counter implements Metrics.Collector {
+
+    /**
+     * The name of the metric.
+     */
+    private final String name;
+
+    /**
+     * The description of the metric.
+     */
+    private final String help;
+
+    /**
+     * The names of the labels.
+     */
+    private final String[] labelNames;
+
+    /**
+     * The values, mapped by their label values.
+     */
+    private final Map<List<String>, LongAdder> values = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param name       the name of the metric.
+     * @param help       the description of the metric.
+     * @param labelNames the names of the labels.
+     */
+    Counter(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+    }
+
+    /**
+     * Increase the counter by one.
+     *
+     * @param labelValues the values of the labels, in the order of their names.
+     */
+    public void inc(String... labelValues) {
+        add(1, labelValues);
+    }
+
+    /**
+     * Increase the counter.
+     *
+     * @param amount      the amount.
+     * @param labelValues the values of the labels, in the order of their names.
+     */
+    public void add(long amount, String... labelValues) {
+        List<String> key = List.of(labelValues);
+        LongAdder value = values.get(key);
+
+        if (value == null) {
+            value = values.computeIfAbsent(key, ignore -> new LongAdder());
+        }
+
+        value.add(amount);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void collect(StringBuilder output) {
+        Metrics.writeHeader(output, name, help, "counter");
+
+        values.forEach((labelValues, value) ->
+                Metrics.writeSample(output, name, labelNames, labelValues, null, null, value.sum()));
+    }
+}
@@ -0,0 +1,19 @@
+package de.presti.ree6.utils.metrics;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener used to count every gateway event per type and shard.
+ */
+public class GatewayMetricsListener implements EventListener {
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void onEvent(@NotNull GenericEvent event) {
+        Metrics.GATEWAY_EVENTS.inc(event.getClass().getSimpleName(), String.valueOf(event.getJDA().getShardInfo().getShardId()));
+    }
+}
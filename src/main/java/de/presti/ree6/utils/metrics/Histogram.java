@@ -0,0 +1,141 @@
+package de.presti.ree6.utils.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram with fixed buckets, every bucket is a striped {@link LongAdder}, so observing never locks.
+ */
+public class Histogram implements Metrics.Collector {
+
+    /**
+     * Default buckets in seconds, for things that usually take a few milliseconds.
+     */
+    public static final double[] DEFAULT_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    /**
+     * Buckets in seconds, for long-running jobs.
+     */
+    public static final double[] LONG_BUCKETS = {0.1, 0.5, 1, 5, 10, 30, 60, 120, 300};
+
+    /**
+     * The name of the metric.
+     */
+    private final String name;
+
+    /**
+     * The description of the metric.
+     */
+    private final String help;
+
+    /**
+     * The names of the labels.
+     */
+    private final String[] labelNames;
+
+    /**
+     * The upper bounds of the buckets.
+     */
+    private final double[] buckets;
+
+    /**
+     * The observations, mapped by their label values.
+     */
+    private final Map<List<String>, Child> children = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param name       the name of the metric.
+     * @param help       the description of the metric.
+     * @param buckets    the upper bounds of the buckets, sorted ascending.
+     * @param labelNames the names of the labels.
+     */
+    Histogram(String name, String help, double[] buckets, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.buckets = buckets;
+        this.labelNames = labelNames;
+    }
+
+    /**
+     * Observe a value.
+     *
+     * @param value       the value, in seconds for durations.
+     * @param labelValues the values of the labels, in the order of their names.
+     */
+    public void observe(double value, String... labelValues) {
+        List<String> key = List.of(labelValues);
+        Child child = children.get(key);
+
+        if (child == null) {
+            child = children.computeIfAbsent(key, ignore -> new Child(buckets.length));
+        }
+
+        int bucket = 0;
+        while (bucket < buckets.length && value > buckets[bucket]) bucket++;
+
+        child.counts[bucket].increment();
+        child.sum.add(value);
+    }
+
+    /**
+     * Observe the time since a start time.
+     *
+     * @param startNanos  the start time, taken from {@link System#nanoTime()}.
+     * @param labelValues the values of the labels, in the order of their names.
+     */
+    public void observeSince(long startNanos, String... labelValues) {
+        observe((System.nanoTime() - startNanos) / 1_000_000_000D, labelValues);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void collect(StringBuilder output) {
+        Metrics.writeHeader(output, name, help, "histogram");
+
+        children.forEach((labelValues, child) -> {
+            long cumulative = 0;
+
+            for (int i = 0; i <= buckets.length; i++) {
+                cumulative += child.counts[i].sum();
+                Metrics.writeSample(output, name + "_bucket", labelNames, labelValues, "le",
+                        i < buckets.length ? String.valueOf(buckets[i]) : "+Inf", cumulative);
+            }
+
+            Metrics.writeSample(output, name + "_sum", labelNames, labelValues, null, null, child.sum.sum());
+            Metrics.writeSample(output, name + "_count", labelNames, labelValues, null, null, cumulative);
+        });
+    }
+
+    /**
+     * The observations of a single label combination.
+     */
+    private static class Child {
+
+        /**
+         * The amount of observations per bucket, the last one is the +Inf bucket.
+         */
+        private final LongAdder[] counts;
+
+        /**
+         * The sum of every observed value.
+         */
+        private final DoubleAdder sum = new DoubleAdder();
+
+        /**
+         * Constructor.
+         *
+         * @param bucketAmount the amount of buckets, without the +Inf bucket.
+         */
+        Child(int bucketAmount) {
+            counts = new LongAdder[bucketAmount + 1];
+            for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+        }
+    }
+}
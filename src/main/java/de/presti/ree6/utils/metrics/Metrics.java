@@ -0,0 +1,326 @@
+package de.presti.ree6.utils.metrics;
+
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.game.core.GameManager;
+import de.presti.ree6.main.Main;
+import de.presti.ree6.utils.data.EconomyUtil;
+import de.presti.ree6.utils.others.GuildLifecycleJobs;
+import de.presti.ree6.utils.others.ThreadUtil;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Registry of every runtime metric of the Bot, exported in the Prometheus text format by the {@link MetricsServer}.
+ * Recording a value never locks, so the metrics can be used on the hot path.
+ */
+public class Metrics {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private Metrics() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Every registered collector.
+     */
+    private static final List<Collector> collectors = new CopyOnWriteArrayList<>();
+
+    /**
+     * The received gateway events per type and shard.
+     */
+    public static final Counter GATEWAY_EVENTS = register(new Counter("ree6_gateway_events_total",
+            "Received gateway events.", "type", "shard"));
+
+    /**
+     * The execution time of commands.
+     */
+    public static final Histogram COMMAND_DURATION = register(new Histogram("ree6_command_duration_seconds",
+            "Execution time of commands.", Histogram.DEFAULT_BUCKETS, "command"));
+
+    /**
+     * The commands that failed with an exception.
+     */
+    public static final Counter COMMAND_ERRORS = register(new Counter("ree6_command_errors_total",
+            "Commands that failed with an exception.", "command"));
+
+    /**
+     * The duration of Database calls per call site.
+     */
+    public static final Histogram SQL_DURATION = register(new Histogram("ree6_sql_duration_seconds",
+            "Duration of Database calls.", Histogram.DEFAULT_BUCKETS, "call"));
+
+    /**
+     * The duration of Webhook sends per status.
+     */
+    public static final Histogram WEBHOOK_DURATION = register(new Histogram("ree6_webhook_send_duration_seconds",
+            "Duration of Webhook sends.", Histogram.DEFAULT_BUCKETS, "status"));
+
+    /**
+     * The duration of a single poll of a notifier.
+     */
+    public static final Histogram NOTIFIER_POLL_DURATION = register(new Histogram("ree6_notifier_poll_duration_seconds",
+            "Duration of a notifier poll.", Histogram.LONG_BUCKETS, "notifier"));
+
+    /**
+     * The time needed to render an image.
+     */
+    public static final Histogram IMAGE_RENDER_DURATION = register(new Histogram("ree6_image_render_duration_seconds",
+            "Time needed to render an image.", Histogram.DEFAULT_BUCKETS, "image"));
+
+    /**
+     * The Sentry events that have not been sent because of sampling or deduplication.
+     */
+    public static final Counter SENTRY_SUPPRESSED = register(new Counter("ree6_sentry_events_suppressed_total",
+            "Sentry events that have not been sent because of sampling or deduplication.", "reason"));
+
+    /**
+     * The Sentry events that have been dropped because the queue was full.
+     */
+    public static final Counter SENTRY_DROPPED = register(new Counter("ree6_sentry_events_dropped_total",
+            "Sentry events that have been dropped because the queue was full."));
+
+    /**
+     * The lookups of lyrics per cache result.
+     */
+    public static final Counter LYRICS_LOOKUPS = register(new Counter("ree6_lyrics_lookups_total",
+            "Lookups of lyrics, by their cache result.", "result"));
+
+    /**
+     * The duration of lyrics lookups that missed the cache.
+     */
+    public static final Histogram LYRICS_LOOKUP_DURATION = register(new Histogram("ree6_lyrics_lookup_duration_seconds",
+            "Duration of lyrics lookups that missed the cache.", Histogram.DEFAULT_BUCKETS, "result"));
+
+    /**
+     * The handled joins, leaves and purges of Guilds per job and result.
+     */
+    public static final Counter GUILD_JOBS = register(new Counter("ree6_guild_jobs_total",
+            "Handled joins, leaves and purges of Guilds, by their job and result.", "job", "result"));
+
+    /**
+     * The duration of the jobs of joined and left Guilds.
+     */
+    public static final Histogram GUILD_JOB_DURATION = register(new Histogram("ree6_guild_job_duration_seconds",
+            "Duration of the jobs of joined and left Guilds.", Histogram.DEFAULT_BUCKETS, "job"));
+
+    /**
+     * The created, rejected, ended and expired GameSessions.
+     */
+    public static final Counter GAME_SESSIONS = register(new Counter("ree6_game_sessions_total",
+            "GameSessions, by their result.", "result"));
+
+    /**
+     * The voice time that has been credited as voice XP.
+     */
+    public static final Counter VOICE_TIME = register(new Counter("ree6_voice_time_seconds_total",
+            "Voice time that has been credited as voice XP."));
+
+    static {
+        register(gauge("ree6_threadpool_queue_size", "Tasks waiting for a free Thread.", ThreadUtil::getQueueSize));
+        register(gauge("ree6_threadpool_active_threads", "Threads that are running a task.", ThreadUtil::getActiveCount));
+        register(gauge("ree6_music_players_active", "Music players that are playing a track.", () ->
+                Main.getInstance().getMusicWorker() != null ? Main.getInstance().getMusicWorker().getActivePlayerCount() : 0));
+        register(gauge("ree6_members_cached", "Members in the cache of every Guild.", () ->
+                BotWorker.getShardManager() != null ? BotWorker.getShardManager().getGuildCache().stream().mapToLong(guild -> guild.getMemberCache().size()).sum() : 0));
+        register(gauge("ree6_guild_jobs_queued", "Joins and leaves of Guilds that have not been handled yet.", GuildLifecycleJobs::getQueuedEvents));
+        register(gauge("ree6_guild_purges_pending", "Purges of left Guilds that have not been run yet.", GuildLifecycleJobs::getPendingPurges));
+        register(gauge("ree6_game_sessions_active", "GameSessions that are running.", GameManager::getGameSessionCount));
+        register(gauge("ree6_voice_sessions_counting", "Voice sessions whose time currently counts.", () ->
+                Main.getInstance().getVoiceSessionTracker() != null ? Main.getInstance().getVoiceSessionTracker().getCountingSessions() : 0));
+        register(gauge("ree6_economy_holders_cached", "MoneyHolders kept in memory.", EconomyUtil::getCachedHolderCount));
+        register(gauge("process_uptime_seconds", "Uptime of the JVM.", () ->
+                ManagementFactory.getRuntimeMXBean().getUptime() / 1000D));
+        register(gauge("jvm_threads_current", "Current Threads of the JVM.", () ->
+                ManagementFactory.getThreadMXBean().getThreadCount()));
+
+        register(output -> {
+            MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+            MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+            String[] labelNames = {"area"};
+
+            writeHeader(output, "jvm_memory_bytes_used", "Used memory of the JVM.", "gauge");
+            writeSample(output, "jvm_memory_bytes_used", labelNames, List.of("heap"), null, null, heap.getUsed());
+            writeSample(output, "jvm_memory_bytes_used", labelNames, List.of("nonheap"), null, null, nonHeap.getUsed());
+
+            writeHeader(output, "jvm_memory_bytes_committed", "Committed memory of the JVM.", "gauge");
+            writeSample(output, "jvm_memory_bytes_committed", labelNames, List.of("heap"), null, null, heap.getCommitted());
+            writeSample(output, "jvm_memory_bytes_committed", labelNames, List.of("nonheap"), null, null, nonHeap.getCommitted());
+
+            writeHeader(output, "jvm_memory_bytes_max", "Maximum memory of the JVM.", "gauge");
+            writeSample(output, "jvm_memory_bytes_max", labelNames, List.of("heap"), null, null, heap.getMax());
+        });
+
+        register(output -> {
+            String[] labelNames = {"gc"};
+
+            writeHeader(output, "jvm_gc_collection_seconds", "Time spent in garbage collections.", "summary");
+            for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                writeSample(output, "jvm_gc_collection_seconds_count", labelNames, List.of(garbageCollector.getName()), null, null,
+                        garbageCollector.getCollectionCount());
+                writeSample(output, "jvm_gc_collection_seconds_sum", labelNames, List.of(garbageCollector.getName()), null, null,
+                        garbageCollector.getCollectionTime() / 1000D);
+            }
+        });
+    }
+
+    /**
+     * Measure a Database call.
+     *
+     * @param call     the name of the call site, e.g. getSetting.
+     * @param supplier the call.
+     * @param <T>      the type of the result.
+     * @return the result of the call.
+     */
+    public static <T> T timeSql(String call, Supplier<T> supplier) {
+        long start = System.nanoTime();
+
+        try {
+            return supplier.get();
+        } finally {
+            SQL_DURATION.observeSince(start, call);
+        }
+    }
+
+    /**
+     * Measure a Database call without a result.
+     *
+     * @param call     the name of the call site, e.g. updateEntity.
+     * @param runnable the call.
+     */
+    public static void timeSql(String call, Runnable runnable) {
+        long start = System.nanoTime();
+
+        try {
+            runnable.run();
+        } finally {
+            SQL_DURATION.observeSince(start, call);
+        }
+    }
+
+    /**
+     * Export every metric.
+     *
+     * @return the metrics in the Prometheus text format.
+     */
+    public static String scrape() {
+        StringBuilder output = new StringBuilder(8192);
+        collectors.forEach(collector -> collector.collect(output));
+        return output.toString();
+    }
+
+    /**
+     * Register a collector.
+     *
+     * @param collector the collector.
+     * @param <T>       the type of the collector.
+     * @return the registered collector.
+     */
+    public static <T extends Collector> T register(T collector) {
+        collectors.add(collector);
+        return collector;
+    }
+
+    /**
+     * Create a gauge without labels, its value is read while exporting.
+     *
+     * @param name  the name of the metric.
+     * @param help  the description of the metric.
+     * @param value the supplier of the value.
+     * @return the collector of the gauge.
+     */
+    private static Collector gauge(String name, String help, Supplier<Number> value) {
+        return output -> {
+            writeHeader(output, name, help, "gauge");
+            writeSample(output, name, new String[0], List.of(), null, null, value.get().doubleValue());
+        };
+    }
+
+    /**
+     * Write the HELP and TYPE line of a metric.
+     *
+     * @param output the output.
+     * @param name   the name of the metric.
+     * @param help   the description of the metric.
+     * @param type   the type of the metric.
+     */
+    static void writeHeader(StringBuilder output, String name, String help, String type) {
+        output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        output.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Write a single sample.
+     *
+     * @param output      the output.
+     * @param name        the name of the sample.
+     * @param labelNames  the names of the labels.
+     * @param labelValues the values of the labels.
+     * @param extraName   the name of an additional label, can be null.
+     * @param extraValue  the value of the additional label, can be null.
+     * @param value       the value.
+     */
+    static void writeSample(StringBuilder output, String name, String[] labelNames, List<String> labelValues,
+                            String extraName, String extraValue, double value) {
+        output.append(name);
+
+        if (labelNames.length > 0 || extraName != null) {
+            output.append('{');
+
+            for (int i = 0; i < labelNames.length; i++) {
+                if (i > 0) output.append(',');
+                output.append(labelNames[i]).append("=\"").append(escape(i < labelValues.size() ? labelValues.get(i) : "")).append('"');
+            }
+
+            if (extraName != null) {
+                if (labelNames.length > 0) output.append(',');
+                output.append(extraName).append("=\"").append(escape(extraValue)).append('"');
+            }
+
+            output.append('}');
+        }
+
+        output.append(' ');
+
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            output.append((long) value);
+        } else {
+            output.append(value);
+        }
+
+        output.append('\n');
+    }
+
+    /**
+     * Escape a label value.
+     *
+     * @param value the value.
+     * @return the escaped value.
+     */
+    private static String escape(String value) {
+        if (value == null) return "";
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * A source of metrics, that writes its samples while exporting.
+     */
+    @FunctionalInterface
+    public interface Collector {
+
+        /**
+         * Write every sample.
+         *
+         * @param output the output.
+         */
+        void collect(StringBuilder output);
+    }
+}
@@ -0,0 +1,64 @@
+package de.presti.ree6.utils.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * A small HTTP Server that exports the {@link Metrics} on /metrics, so they can be scraped without any external service.
+ */
+@Slf4j
+public class MetricsServer {
+
+    /**
+     * The underlying HTTP Server.
+     */
+    private final HttpServer httpServer;
+
+    /**
+     * Constructor used to create and start the Server.
+     *
+     * @param host the host to bind to.
+     * @param port the port to bind to.
+     * @throws IOException if the Server couldn't be bound.
+     */
+    public MetricsServer(String host, int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+
+        httpServer.createContext("/metrics", exchange -> {
+            try (exchange) {
+                if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+
+                byte[] body = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            } catch (Exception exception) {
+                log.error("[Metrics] Failed to export the metrics!", exception);
+            }
+        });
+
+        httpServer.setExecutor(Executors.newSingleThreadExecutor());
+        httpServer.start();
+
+        log.info("[Metrics] Exporting metrics on http://{}:{}/metrics", host, port);
+    }
+
+    /**
+     * Stop the Server.
+     */
+    public void stop() {
+        httpServer.stop(0);
+    }
+}
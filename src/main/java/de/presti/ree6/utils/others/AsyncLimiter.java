@@ -0,0 +1,88 @@
+package de.presti.ree6.utils.others;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Limits the amount of concurrently running asynchronous tasks, e.g. Requests to a single host, every other task is queued.
+ */
+public class AsyncLimiter {
+
+    /**
+     * The maximum amount of concurrent tasks.
+     */
+    private final int limit;
+
+    /**
+     * The amount of currently running tasks.
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * The queued tasks.
+     */
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor used to create a new limiter.
+     *
+     * @param limit the maximum amount of concurrent tasks.
+     */
+    public AsyncLimiter(int limit) {
+        this.limit = Math.max(1, limit);
+    }
+
+    /**
+     * Submit a task to the limiter.
+     *
+     * @param task the task, which will be started once there is a free slot.
+     * @param <T>  the type of the result.
+     * @return a {@link CompletableFuture} with the result.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        pending.add(() -> {
+            CompletableFuture<T> future;
+            try {
+                future = task.get();
+            } catch (Exception exception) {
+                future = CompletableFuture.failedFuture(exception);
+            }
+
+            future.whenComplete((value, throwable) -> {
+                active.decrementAndGet();
+                drain();
+
+                if (throwable != null) result.completeExceptionally(throwable);
+                else result.complete(value);
+            });
+        });
+
+        drain();
+        return result;
+    }
+
+    /**
+     * Start queued tasks as long as there are free slots.
+     */
+    private void drain() {
+        while (!pending.isEmpty()) {
+            int current = active.get();
+            if (current >= limit) return;
+
+            if (active.compareAndSet(current, current + 1)) {
+                Runnable next = pending.poll();
+                if (next == null) {
+                    active.decrementAndGet();
+                    continue;
+                }
+
+                next.run();
+            }
+        }
+    }
+}
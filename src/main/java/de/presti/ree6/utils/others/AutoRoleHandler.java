@@ -8,10 +8,17 @@ import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 
-import java.util.Map;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Utility class used to handle Roles that should be added to Members automatically.
+ * The role tables of every Guild are cached and every grant of a Member is collected for a short time,
+ * so that all missing roles are added with a single request.
  */
 @Slf4j
 public class AutoRoleHandler {
@@ -25,6 +32,46 @@ public class AutoRoleHandler {
         throw new IllegalStateException("Utility class");
     }
 
+    /**
+     * The time the role tables of a Guild are cached.
+     */
+    private static final Duration TABLE_TTL = Duration.ofMinutes(5);
+
+    /**
+     * The time grants of a Member are collected, before they are applied.
+     */
+    private static final Duration GRANT_DELAY = Duration.ofSeconds(1);
+
+    /**
+     * The time the same problem of a Guild will not be reported to its owner again.
+     */
+    private static final Duration NOTIFICATION_COOLDOWN = Duration.ofHours(6);
+
+    /**
+     * The cached IDs of the roles every joining Member gets, mapped by the ID of the Guild.
+     */
+    private static final Map<String, CachedTable<List<String>>> autoRoles = new ConcurrentHashMap<>();
+
+    /**
+     * The cached chat level rewards, mapped by the ID of the Guild.
+     */
+    private static final Map<String, CachedTable<Map<Long, String>>> chatLevelRewards = new ConcurrentHashMap<>();
+
+    /**
+     * The cached voice level rewards, mapped by the ID of the Guild.
+     */
+    private static final Map<String, CachedTable<Map<Long, String>>> voiceLevelRewards = new ConcurrentHashMap<>();
+
+    /**
+     * The roles waiting to be added, mapped by the ID of the Guild and Member.
+     */
+    private static final Map<String, Set<Role>> pendingGrants = new HashMap<>();
+
+    /**
+     * The time in millis the last notification of a problem has been sent, mapped by the ID of the Guild and the problem.
+     */
+    private static final Map<String, Long> notifications = new ConcurrentHashMap<>();
+
     /**
      * Check if a Member should get a rule, when joining the Guild, and if Ree6 has enough permissions.
      *
@@ -32,48 +79,14 @@ public class AutoRoleHandler {
      * @param member the {@link Member} Entity.
      */
     public static void handleMemberJoin(Guild guild, Member member) {
-
-        if (!SQLSession.getSqlConnector().getSqlWorker().isAutoRoleSetup(guild.getId())) return;
-
         if (member.getIdLong() == guild.getOwnerIdLong()) return;
 
-        ThreadUtil.createThread(x -> {
-            if (!guild.getSelfMember().canInteract(member)) {
-                log.error("[AutoRole] Failed to give a role, when someone joined the Guild!");
-                log.error("[AutoRole] Server: {} ({})", guild.getName(), guild.getId());
-                log.error("[AutoRole] Member: {} ({})", member.getUser().getName(), member.getId());
+        List<String> roleIds = getTable(autoRoles, guild.getId(), guildId ->
+                SQLSession.getSqlConnector().getSqlWorker().getAutoRoles(guildId).stream().map(de.presti.ree6.sql.entities.roles.Role::getRoleId).toList());
 
-                if (guild.getOwner() != null)
-                    guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                            privateChannel.sendMessage(LanguageService.getByGuild(guild, "message.brs.autoRole.hierarchy", "@everyone"))
-                                    .queue());
-                return;
-            }
+        if (roleIds.isEmpty()) return;
 
-            for (de.presti.ree6.sql.entities.roles.Role roles : SQLSession.getSqlConnector().getSqlWorker().getAutoRoles(guild.getId())) {
-                Role role = guild.getRoleById(roles.getRoleId());
-
-                if (role != null && !guild.getSelfMember().canInteract(role)) {
-                    if (guild.getOwner() != null)
-                        guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                                privateChannel.sendMessage(LanguageService.getByGuild(guild, guild.getSelfMember().hasPermission(Permission.MANAGE_ROLES) ?
-                                                "message.brs.autoRole.hierarchy"
-                                                : "message.brs.autoRole.missingPermission", role.getName()))
-                                        .queue());
-                    return;
-                } else if (role == null) {
-                    if (guild.getOwner() != null)
-                        guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                                privateChannel.sendMessage(LanguageService.getByGuild(guild, "message.brs.autoRole.deleted"))
-                                        .queue());
-
-                    SQLSession.getSqlConnector().getSqlWorker().removeAutoRole(guild.getId(), roles.getRoleId());
-                    return;
-                }
-
-                addRole(guild, member, role);
-            }
-        }, null, null, false, true);
+        grantRoles(guild, member, roleIds, "joined the Guild");
     }
 
     /**
@@ -81,140 +94,206 @@ public class AutoRoleHandler {
      *
      * @param guild  the {@link Guild} Entity.
      * @param member the {@link Member} Entity.
+     * @param level  the current voice level of the Member.
      */
-    public static void handleVoiceLevelReward(Guild guild, Member member) {
+    public static void handleVoiceLevelReward(Guild guild, Member member, long level) {
+        if (member.getIdLong() == guild.getOwnerIdLong()) return;
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isVoiceLevelRewardSetup(guild.getId()))
-            return;
+        Map<Long, String> rewards = getTable(voiceLevelRewards, guild.getId(), guildId ->
+                SQLSession.getSqlConnector().getSqlWorker().getVoiceLevelRewards(guildId));
+
+        grantRoles(guild, member, getReachedRewards(rewards, level), "leveled up in Voice");
+    }
 
+    /**
+     * Check if a Member should get a role, when leveling up in the Guild, and if Ree6 has enough permissions.
+     *
+     * @param guild  the {@link Guild} Entity.
+     * @param member the {@link Member} Entity.
+     * @param level  the current chat level of the Member.
+     */
+    public static void handleChatLevelReward(Guild guild, Member member, long level) {
         if (member.getIdLong() == guild.getOwnerIdLong()) return;
 
-        ThreadUtil.createThread(x -> {
-            long level = SQLSession.getSqlConnector().getSqlWorker().getVoiceLevelData(guild.getId(), member.getUser().getId()).getLevel();
+        Map<Long, String> rewards = getTable(chatLevelRewards, guild.getId(), guildId ->
+                SQLSession.getSqlConnector().getSqlWorker().getChatLevelRewards(guildId));
 
-            if (!guild.getSelfMember().canInteract(member)) {
-                log.error("[AutoRole] Failed to give a role, when someone leveled up in Voice!");
-                log.error("[AutoRole] Server: {} ({})", guild.getName(), guild.getId());
-                log.error("[AutoRole] Member: {} ({})", member.getUser().getName(), member.getId());
+        grantRoles(guild, member, getReachedRewards(rewards, level), "leveled up in Chat");
+    }
 
-                if (guild.getOwner() != null)
-                    guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                            privateChannel.sendMessage(LanguageService.getByGuild(guild, "message.brs.autoRole.hierarchy", "@everyone"))
-                            .queue());
+    /**
+     * Forget the cached role tables of a Guild, so that changes are used right away.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void invalidate(String guildId) {
+        autoRoles.remove(guildId);
+        chatLevelRewards.remove(guildId);
+        voiceLevelRewards.remove(guildId);
+    }
 
-                return;
+    /**
+     * Get the roles of every reward that has been reached.
+     *
+     * @param rewards the rewards, mapped by their level.
+     * @param level   the level of the Member.
+     * @return the IDs of the roles.
+     */
+    private static List<String> getReachedRewards(Map<Long, String> rewards, long level) {
+        List<String> roleIds = new ArrayList<>();
+
+        for (Map.Entry<Long, String> entry : rewards.entrySet()) {
+            if (entry.getKey() <= level) roleIds.add(entry.getValue());
+        }
+
+        return roleIds;
+    }
+
+    /**
+     * Validate the roles and queue every role the Member is missing.
+     *
+     * @param guild   the {@link Guild} Entity.
+     * @param member  the {@link Member} Entity.
+     * @param roleIds the IDs of the roles the Member should have.
+     * @param cause   the cause of the grant, used for logging.
+     */
+    private static void grantRoles(Guild guild, Member member, List<String> roleIds, String cause) {
+        if (roleIds.isEmpty()) return;
+
+        Set<Role> missing = new HashSet<>();
+
+        for (String roleId : roleIds) {
+            Role role = guild.getRoleById(roleId);
+
+            if (role == null) {
+                notifyOwner(guild, "deleted:" + roleId, LanguageService.getByGuild(guild, "message.brs.autoRole.deleted"));
+
+                SQLSession.getSqlConnector().getSqlWorker().removeAutoRole(guild.getId(), roleId);
+                invalidate(guild.getId());
+            } else if (!member.getRoles().contains(role)) {
+                missing.add(role);
             }
+        }
+
+        // Most calls come from members that already have every role, those don't need any further work.
+        if (missing.isEmpty()) return;
 
-            for (Map.Entry<Long, String> entry : SQLSession.getSqlConnector().getSqlWorker().getVoiceLevelRewards(guild.getId()).entrySet()) {
+        if (!guild.getSelfMember().canInteract(member)) {
+            log.error("[AutoRole] Failed to give a role, when someone {}!", cause);
+            log.error("[AutoRole] Server: {} ({})", guild.getName(), guild.getId());
+            log.error("[AutoRole] Member: {} ({})", member.getUser().getName(), member.getId());
 
-                if (entry.getKey() <= level) {
+            notifyOwner(guild, "member", LanguageService.getByGuild(guild, "message.brs.autoRole.hierarchy", "@everyone"));
+            return;
+        }
 
-                    Role role = guild.getRoleById(entry.getValue());
+        missing.removeIf(role -> {
+            if (guild.getSelfMember().canInteract(role)) return false;
 
-                    if (role != null && !guild.getSelfMember().canInteract(role)) {
-                        if (guild.getOwner() != null)
-                            guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                                    privateChannel.sendMessage(LanguageService.getByGuild(guild, guild.getSelfMember().hasPermission(Permission.MANAGE_ROLES) ?
-                                                    "message.brs.autoRole.hierarchy"
-                                                    : "message.brs.autoRole.missingPermission", role.getName()))
-                                            .queue());
-                        return;
-                    } else if (role == null) {
-                        if (guild.getOwner() != null)
-                            guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                                    privateChannel.sendMessage(LanguageService.getByGuild(guild, "message.brs.autoRole.deleted"))
-                                            .queue());
+            notifyOwner(guild, "role:" + role.getId(), LanguageService.getByGuild(guild, guild.getSelfMember().hasPermission(Permission.MANAGE_ROLES) ?
+                    "message.brs.autoRole.hierarchy"
+                    : "message.brs.autoRole.missingPermission", role.getName()));
+            return true;
+        });
 
-                        SQLSession.getSqlConnector().getSqlWorker().removeAutoRole(guild.getId(), entry.getValue());
-                        return;
-                    }
+        if (missing.isEmpty()) return;
 
-                    addRole(guild, member, role);
-                }
+        String key = guild.getId() + ":" + member.getId();
+
+        synchronized (pendingGrants) {
+            Set<Role> pending = pendingGrants.get(key);
+
+            if (pending != null) {
+                pending.addAll(missing);
+                return;
             }
-        }, null, null, false, true);
+
+            pendingGrants.put(key, missing);
+        }
+
+        CompletableFuture.runAsync(() -> applyGrants(guild, member, key),
+                CompletableFuture.delayedExecutor(GRANT_DELAY.toMillis(), TimeUnit.MILLISECONDS));
     }
 
     /**
-     * Check if a Member should get a role, when leveling up in the Guild, and if Ree6 has enough permissions.
+     * Add every collected role to the Member with a single request.
      *
      * @param guild  the {@link Guild} Entity.
      * @param member the {@link Member} Entity.
+     * @param key    the key of the collected roles.
      */
-    public static void handleChatLevelReward(Guild guild, Member member) {
+    private static void applyGrants(Guild guild, Member member, String key) {
+        Set<Role> roles;
 
-        if (!SQLSession.getSqlConnector().getSqlWorker().isChatLevelRewardSetup(guild.getId()))
-            return;
+        synchronized (pendingGrants) {
+            roles = pendingGrants.remove(key);
+        }
 
-        if (member.getIdLong() == guild.getOwnerIdLong()) return;
+        if (roles == null) return;
 
-        ThreadUtil.createThread(x -> {
+        // Use the current state of the Member, the roles might have changed while the grants were collected.
+        Member current = Objects.requireNonNullElse(guild.getMemberById(member.getIdLong()), member);
+        roles.removeAll(current.getRoles());
 
-            long level = (SQLSession.getSqlConnector().getSqlWorker().getChatLevelData(guild.getId(), member.getUser().getId()).getLevel());
+        if (roles.isEmpty()) return;
 
-            if (!guild.getSelfMember().canInteract(member)) {
-                log.error("[AutoRole] Failed to give a Role, when someone leveled up in Chat!");
-                log.error("[AutoRole] Server: {} ({})", guild.getName(), guild.getId());
-                log.error("[AutoRole] Member: {} ({})", member.getUser().getName(), member.getId());
+        guild.modifyMemberRoles(current, roles, null).queue(null, throwable -> {
+            log.error("[AutoRole] Failed to give roles!");
+            log.error("[AutoRole] Server: {} ({})", guild.getName(), guild.getId());
+            log.error("[AutoRole] Member: {} ({})", member.getUser().getName(), member.getId(), throwable);
+        });
+    }
 
-                if (guild.getOwner() != null)
-                    guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                            privateChannel.sendMessage(LanguageService.getByGuild(guild, "message.brs.autoRole.hierarchy", "@everyone"))
-                                    .queue());
+    /**
+     * Send a message to the owner of the Guild, unless the same problem has been reported recently.
+     *
+     * @param guild   the {@link Guild} Entity.
+     * @param problem the identifier of the problem.
+     * @param message the message.
+     */
+    private static void notifyOwner(Guild guild, String problem, String message) {
+        long now = System.currentTimeMillis();
+        String key = guild.getId() + ":" + problem;
 
-                return;
-            }
+        Long lastSent = notifications.get(key);
+        if (lastSent != null && lastSent + NOTIFICATION_COOLDOWN.toMillis() > now) return;
 
-            for (Map.Entry<Long, String> entry : SQLSession.getSqlConnector().getSqlWorker().getChatLevelRewards(guild.getId()).entrySet()) {
+        // Two threads could pass the check above, only the one that updates the entry sends the message.
+        if (lastSent == null ? notifications.putIfAbsent(key, now) != null : !notifications.replace(key, lastSent, now)) return;
 
-                if (entry.getKey() <= level) {
-                    Role role = guild.getRoleById(entry.getValue());
+        notifications.values().removeIf(time -> time + NOTIFICATION_COOLDOWN.toMillis() <= now);
 
-                    if (role != null && !guild.getSelfMember().canInteract(role)) {
-                        if (guild.getOwner() != null)
-                            guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                                    privateChannel.sendMessage(LanguageService.getByGuild(guild, guild.getSelfMember().hasPermission(Permission.MANAGE_ROLES) ?
-                                                    "message.brs.autoRole.hierarchy"
-                                                    : "message.brs.autoRole.missingPermission", role.getName()))
-                                            .queue());
-                    } else if (role == null) {
-                        if (guild.getOwner() != null)
-                            guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                                    privateChannel.sendMessage(LanguageService.getByGuild(guild, "message.brs.autoRole.deleted"))
-                                            .queue());
+        if (guild.getOwner() != null)
+            guild.getOwner().getUser().openPrivateChannel().queue(privateChannel -> privateChannel.sendMessage(message).queue());
+    }
 
-                        SQLSession.getSqlConnector().getSqlWorker().removeAutoRole(guild.getId(), entry.getValue());
-                        return;
-                    }
+    /**
+     * Get a cached role table of a Guild or load it from the Database, if there is none or it expired.
+     *
+     * @param cache   the cache of the table.
+     * @param guildId the ID of the Guild.
+     * @param loader  the function used to load the table.
+     * @param <T>     the type of the table.
+     * @return the table.
+     */
+    private static <T> T getTable(Map<String, CachedTable<T>> cache, String guildId, Function<String, T> loader) {
+        CachedTable<T> table = cache.get(guildId);
 
-                    addRole(guild, member, role);
-                }
+        if (table == null || table.loadedAt() + TABLE_TTL.toMillis() < System.currentTimeMillis()) {
+            table = new CachedTable<>(loader.apply(guildId), System.currentTimeMillis());
+            cache.put(guildId, table);
+        }
 
-            }
-        }, null, null, false, true);
+        return table.value();
     }
 
     /**
-     * Add a Role to the Member, if Ree6 has enough power to do so.
+     * A role table of a Guild.
      *
-     * @param guild  the {@link Guild} Entity.
-     * @param member the {@link Member} Entity.
-     * @param role   the {@link Role} Entity.
+     * @param value    the table.
+     * @param loadedAt the time in millis the table has been loaded.
+     * @param <T>      the type of the table.
      */
-    private static void addRole(Guild guild, Member member, Role role) {
-        if (guild.getSelfMember().canInteract(role) && guild.getSelfMember().canInteract(member)) {
-            if (!member.getRoles().contains(role)) {
-                guild.addRoleToMember(member, role).queue();
-            }
-        } else {
-            log.error("[AutoRole] Failed to give a Role!");
-            log.error("[AutoRole] Server: {} ({})", guild.getName(), guild.getId());
-            if (guild.getOwner() != null)
-                guild.getOwner().getUser().openPrivateChannel().queue(privateChannel ->
-                        privateChannel.sendMessage(LanguageService.getByGuild(guild, guild.getSelfMember().hasPermission(Permission.MANAGE_ROLES) ?
-                                        "message.brs.autoRole.hierarchy"
-                                        : "message.brs.autoRole.missingPermission", role.getName()))
-                                .queue());
-        }
+    private record CachedTable<T>(T value, long loadedAt) {
     }
 }
@@ -0,0 +1,316 @@
+package de.presti.ree6.utils.others;
+
+import com.google.gson.JsonObject;
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.bot.cluster.ClusterManager;
+import de.presti.ree6.language.LanguageService;
+import de.presti.ree6.sql.SQLSession;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility class used to wish Members a happy Birthday.
+ * Birthdays are loaded once and kept in buckets by their month and day, so a day only looks at its own Birthdays.
+ * The wishes of a day are spread over a time window, instead of sending all of them at midnight.
+ */
+@Slf4j
+public class BirthdayHandler {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private BirthdayHandler() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The format used by the Birthday command.
+     */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    /**
+     * The time of the day the first wishes are sent.
+     */
+    private static final LocalTime WINDOW_START = LocalTime.of(8, 0);
+
+    /**
+     * The time span over which the wishes of a day are spread.
+     */
+    private static final Duration WINDOW_LENGTH = Duration.ofHours(12);
+
+    /**
+     * The time a wish may be overdue and still be sent, since the day rollover is only checked every minute.
+     */
+    private static final Duration GRACE = Duration.ofMinutes(10);
+
+    /**
+     * The Birthdays, mapped by their month and day and then by the ID of the Guild and Member.
+     */
+    private static final Map<MonthDay, Map<String, Wish>> birthdays = new HashMap<>();
+
+    /**
+     * The keys of the wishes that have been queued for the current day.
+     */
+    private static final Set<String> queuedToday = new HashSet<>();
+
+    /**
+     * If the Birthdays have been loaded from the Database.
+     */
+    private static boolean loaded;
+
+    /**
+     * The day whose wishes have been queued.
+     */
+    private static LocalDate currentDay;
+
+    /**
+     * Start receiving the Birthdays and wishes of other nodes of the cluster.
+     */
+    public static void start() {
+        ClusterManager.registerHandler("birthday", payload -> {
+            if (payload.has("date")) {
+                put(payload.get("guildId").getAsString(), payload.get("channelId").getAsString(),
+                        payload.get("userId").getAsString(), payload.get("date").getAsString());
+            } else {
+                delete(payload.get("guildId").getAsString(), payload.get("userId").getAsString());
+            }
+
+            return null;
+        });
+
+        ClusterManager.registerHandler("birthday-wish", payload -> {
+            deliver(payload.get("channelId").getAsString(), payload.get("userId").getAsString());
+            return null;
+        });
+
+        // A node that became the leader during the day sends the remaining wishes of the day.
+        ClusterManager.addLeaderListener(leader -> {
+            if (leader && ClusterManager.isEnabled()) ThreadUtil.createThread(x -> dispatch(LocalDate.now()));
+        });
+    }
+
+    /**
+     * Queue the wishes of a new day, should be called once the day changed.
+     *
+     * @param day the new day.
+     */
+    public static void dispatch(LocalDate day) {
+        List<Wish> wishes;
+
+        synchronized (birthdays) {
+            load();
+
+            currentDay = day;
+            queuedToday.clear();
+            wishes = new ArrayList<>(getBucket(MonthDay.from(day)));
+
+            // Birthdays on the 29th of February are celebrated on the 28th, if the year has no 29th.
+            if (!day.isLeapYear() && day.getMonth() == Month.FEBRUARY && day.getDayOfMonth() == 28) {
+                wishes.addAll(getBucket(MonthDay.of(Month.FEBRUARY, 29)));
+            }
+        }
+
+        wishes.forEach(BirthdayHandler::queue);
+    }
+
+    /**
+     * Add or update a Birthday, should be called once it has been saved in the Database.
+     *
+     * @param guildId   the ID of the Guild.
+     * @param channelId the ID of the channel the wish should be sent to.
+     * @param userId    the ID of the Member.
+     * @param date      the date in the format of the Birthday command.
+     */
+    public static void add(String guildId, String channelId, String userId, String date) {
+        put(guildId, channelId, userId, date);
+
+        JsonObject payload = new JsonObject();
+        payload.addProperty("guildId", guildId);
+        payload.addProperty("channelId", channelId);
+        payload.addProperty("userId", userId);
+        payload.addProperty("date", date);
+        ClusterManager.broadcast("birthday", payload);
+    }
+
+    /**
+     * Remove a Birthday, should be called once it has been removed from the Database.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the Member.
+     */
+    public static void remove(String guildId, String userId) {
+        delete(guildId, userId);
+
+        JsonObject payload = new JsonObject();
+        payload.addProperty("guildId", guildId);
+        payload.addProperty("userId", userId);
+        ClusterManager.broadcast("birthday", payload);
+    }
+
+    /**
+     * Add or update a Birthday on this node.
+     *
+     * @param guildId   the ID of the Guild.
+     * @param channelId the ID of the channel the wish should be sent to.
+     * @param userId    the ID of the Member.
+     * @param date      the date in the format of the Birthday command.
+     */
+    private static void put(String guildId, String channelId, String userId, String date) {
+        Wish wish = new Wish(guildId, channelId, userId, MonthDay.from(LocalDate.parse(date, DATE_FORMAT)));
+        boolean today;
+
+        synchronized (birthdays) {
+            if (!loaded) return;
+
+            delete(guildId, userId);
+            queuedToday.remove(wish.key());
+            birthdays.computeIfAbsent(wish.monthDay(), key -> new HashMap<>()).put(wish.key(), wish);
+
+            today = currentDay != null && isCelebrated(wish.monthDay(), currentDay);
+        }
+
+        if (today) queue(wish);
+    }
+
+    /**
+     * Remove a Birthday on this node.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the Member.
+     */
+    private static void delete(String guildId, String userId) {
+        String key = guildId + ":" + userId;
+
+        synchronized (birthdays) {
+            birthdays.values().forEach(bucket -> bucket.remove(key));
+        }
+    }
+
+    /**
+     * Load every Birthday from the Database, if they haven't been loaded yet.
+     */
+    private static void load() {
+        if (loaded) return;
+
+        SQLSession.getSqlConnector().getSqlWorker().getBirthdays().forEach(birthday -> {
+            Wish wish = new Wish(birthday.getGuildId(), birthday.getChannelId(), birthday.getUserId(),
+                    // java.sql.Date, as mapped from a DATE column, doesn't support toInstant.
+                    MonthDay.from(Instant.ofEpochMilli(birthday.getBirthdate().getTime()).atZone(ZoneId.systemDefault())));
+            birthdays.computeIfAbsent(wish.monthDay(), key -> new HashMap<>()).put(wish.key(), wish);
+        });
+
+        loaded = true;
+    }
+
+    /**
+     * Get the Birthdays of a day.
+     *
+     * @param monthDay the month and day.
+     * @return the wishes of the day.
+     */
+    private static Collection<Wish> getBucket(MonthDay monthDay) {
+        return birthdays.getOrDefault(monthDay, Map.of()).values();
+    }
+
+    /**
+     * Check if a Birthday is celebrated on a day.
+     *
+     * @param monthDay the month and day of the Birthday.
+     * @param day      the day.
+     * @return true, if the Birthday is celebrated on the day.
+     */
+    private static boolean isCelebrated(MonthDay monthDay, LocalDate day) {
+        return monthDay.equals(MonthDay.from(day)) ||
+                (!day.isLeapYear() && monthDay.equals(MonthDay.of(Month.FEBRUARY, 29)) && MonthDay.from(day).equals(MonthDay.of(Month.FEBRUARY, 28)));
+    }
+
+    /**
+     * Queue a wish at its time of the current day, every Member always gets the same time.
+     *
+     * @param wish the wish.
+     */
+    private static void queue(Wish wish) {
+        synchronized (birthdays) {
+            if (currentDay == null || !queuedToday.add(wish.key())) return;
+        }
+
+        ZonedDateTime sendAt = currentDay.atTime(WINDOW_START).atZone(ZoneId.systemDefault())
+                .plusSeconds(Math.floorMod(wish.key().hashCode(), WINDOW_LENGTH.toSeconds()));
+        long delay = Duration.between(ZonedDateTime.now(), sendAt).toMillis();
+
+        // The time has passed while the bot was offline, the wish has most likely been sent already.
+        if (delay < -GRACE.toMillis()) return;
+
+        CompletableFuture.runAsync(() -> send(wish), CompletableFuture.delayedExecutor(Math.max(delay, 0), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Send a wish, if the Birthday still exists.
+     *
+     * @param wish the wish.
+     */
+    private static void send(Wish wish) {
+        // The leader might have changed since the wish has been queued.
+        if (!ClusterManager.isLeader()) return;
+
+        synchronized (birthdays) {
+            if (!getBucket(wish.monthDay()).contains(wish)) return;
+        }
+
+        int node = ClusterManager.getNodeOfGuild(Long.parseLong(wish.guildId()));
+
+        if (node == ClusterManager.getNodeId()) {
+            deliver(wish.channelId(), wish.userId());
+            return;
+        }
+
+        JsonObject payload = new JsonObject();
+        payload.addProperty("channelId", wish.channelId());
+        payload.addProperty("userId", wish.userId());
+        ClusterManager.send(node, "birthday-wish", payload).exceptionally(throwable -> {
+            log.warn("[Birthday] Couldn't send the wish of {} to node {}: {}", wish.key(), node, throwable.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Send a wish to a channel of a shard of this node.
+     *
+     * @param channelId the ID of the channel.
+     * @param userId    the ID of the Member.
+     */
+    private static void deliver(String channelId, String userId) {
+        TextChannel textChannel = BotWorker.getShardManager().getTextChannelById(channelId);
+
+        if (textChannel != null && textChannel.canTalk())
+            textChannel.sendMessage(LanguageService.getByGuild(textChannel.getGuild(), "message.birthday.wish", userId)).queue();
+    }
+
+    /**
+     * A Birthday of a Member.
+     *
+     * @param guildId   the ID of the Guild.
+     * @param channelId the ID of the channel the wish should be sent to.
+     * @param userId    the ID of the Member.
+     * @param monthDay  the month and day of the Birthday.
+     */
+    private record Wish(String guildId, String channelId, String userId, MonthDay monthDay) {
+
+        /**
+         * Get the key of the Birthday.
+         *
+         * @return the ID of the Guild and the Member.
+         */
+        String key() {
+            return guildId + ":" + userId;
+        }
+    }
+}
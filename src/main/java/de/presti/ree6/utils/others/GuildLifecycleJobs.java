@@ -0,0 +1,497 @@
+package de.presti.ree6.utils.others;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.bot.cluster.ClusterManager;
+import de.presti.ree6.bot.util.MemberLoader;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.Setting;
+import de.presti.ree6.sql.util.SettingsManager;
+import de.presti.ree6.utils.data.EconomyUtil;
+import de.presti.ree6.utils.metrics.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class used to create and delete the data of Guilds the Bot joins or leaves, outside the event thread.
+ * Joins and leaves are queued in the order they happened and handled in batches by a single worker,
+ * the purge jobs and existing settings of every joined Guild of a batch are loaded at once and only missing default settings are written.
+ * <p>
+ * Purges are stored as jobs in the Database, as Settings of the Guild 0, so they survive a restart and are run by the leader of the cluster.
+ * A purge only runs after a short delay, a Guild that is joined again before is not purged. The node that runs the shard of the Guild decides
+ * if it is still gone and forgets its cached data, before the data is deleted. Failed purges are retried with a growing delay.
+ */
+@Slf4j
+public class GuildLifecycleJobs {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private GuildLifecycleJobs() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The Guild ID of the Settings that store the purge jobs.
+     */
+    private static final String JOB_GUILD = "0";
+
+    /**
+     * The prefix of the names of the Settings that store the purge jobs, followed by the ID of the Guild.
+     */
+    private static final String JOB_PREFIX = "purge_";
+
+    /**
+     * The interval in which queued joins and leaves are handled.
+     */
+    private static final Duration EVENT_INTERVAL = Duration.ofSeconds(2);
+
+    /**
+     * The interval in which due purges are run.
+     */
+    private static final Duration PURGE_INTERVAL = Duration.ofSeconds(10);
+
+    /**
+     * The time after a leave until the data of the Guild is purged.
+     */
+    private static final long PURGE_DELAY = Duration.ofMinutes(1).toMillis();
+
+    /**
+     * The delay before the first retry of a failed purge, doubled with every attempt.
+     */
+    private static final long RETRY_DELAY = Duration.ofSeconds(30).toMillis();
+
+    /**
+     * The maximum delay before a retry of a failed purge.
+     */
+    private static final long MAX_RETRY_DELAY = Duration.ofHours(1).toMillis();
+
+    /**
+     * The amount of attempts after which a purge is given up.
+     */
+    private static final int MAX_ATTEMPTS = 10;
+
+    /**
+     * The maximum amount of joins and leaves handled at once.
+     */
+    private static final int EVENT_BATCH_SIZE = 100;
+
+    /**
+     * The maximum amount of purges run at once.
+     */
+    private static final int PURGE_BATCH_SIZE = 25;
+
+    /**
+     * The amount of purges of a batch that run at the same time, each one uses a connection of the Database pool.
+     */
+    private static final int PURGE_PARALLELISM = 4;
+
+    /**
+     * The type of the cluster message, which asks the node of Guilds which ones are still gone.
+     */
+    private static final String RELEASE_MESSAGE = "guild_release";
+
+    /**
+     * The joins and leaves that have not been handled yet, in the order they happened.
+     */
+    private static final Queue<Event> events = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The amount of purge jobs in the Database, as of the last check.
+     */
+    private static volatile int pendingPurges;
+
+    /**
+     * Start handling the queued joins and leaves, and running the due purges.
+     */
+    public static void start() {
+        ClusterManager.registerHandler(RELEASE_MESSAGE, payload -> {
+            List<String> guildIds = new ArrayList<>();
+            payload.getAsJsonArray("guilds").forEach(guildId -> guildIds.add(guildId.getAsString()));
+            return toPayload(releaseLeftGuilds(guildIds));
+        });
+
+        ThreadUtil.createThread(x -> {
+            try {
+                handleEvents();
+            } catch (Exception exception) {
+                log.error("[Lifecycle] Failed to handle the queued joins and leaves!", exception);
+            }
+        }, null, EVENT_INTERVAL, true, false);
+
+        ThreadUtil.createThread(x -> {
+            try {
+                runPurges(System.currentTimeMillis());
+            } catch (Exception exception) {
+                log.error("[Lifecycle] Failed to run the due purges!", exception);
+            }
+        }, null, PURGE_INTERVAL, true, false);
+    }
+
+    /**
+     * Queue the creation of the default data of a Guild the Bot joined.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void provision(String guildId) {
+        events.add(new Event(guildId, true));
+    }
+
+    /**
+     * Queue the purge of the data of a Guild the Bot left.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void purge(String guildId) {
+        events.add(new Event(guildId, false));
+    }
+
+    /**
+     * Get the amount of joins and leaves that have not been handled yet.
+     *
+     * @return the amount of queued joins and leaves.
+     */
+    public static int getQueuedEvents() {
+        return events.size();
+    }
+
+    /**
+     * Get the amount of purges that have not been run yet.
+     *
+     * @return the amount of purge jobs, as of the last check.
+     */
+    public static int getPendingPurges() {
+        return pendingPurges;
+    }
+
+    /**
+     * Handle every queued join and leave, e.g. on shutdown so no leave is lost.
+     */
+    public static void flush() {
+        while (!events.isEmpty()) {
+            handleEvents();
+        }
+    }
+
+    /**
+     * Handle the next batch of queued joins and leaves.
+     * A leave stores a purge job, a join removes the purge job of the Guild and creates its missing default settings.
+     */
+    private static synchronized void handleEvents() {
+        List<Event> batch = new ArrayList<>();
+
+        Event polled;
+        while (batch.size() < EVENT_BATCH_SIZE && (polled = events.poll()) != null) {
+            batch.add(polled);
+        }
+
+        if (batch.isEmpty()) return;
+
+        List<String> joined = batch.stream().filter(Event::join).map(Event::guildId).distinct().toList();
+        Map<String, Setting> jobs = new HashMap<>();
+        Map<String, Set<String>> existingSettings = new HashMap<>();
+        Exception loadFailure = null;
+
+        if (!joined.isEmpty()) {
+            try {
+                // Two queries for the whole batch, instead of a few for every Guild and default setting.
+                for (Setting job : SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Setting(),
+                        "SELECT * FROM Settings WHERE GID=:gid AND NAME IN (:names)",
+                        Map.of("gid", JOB_GUILD, "names", joined.stream().map(guildId -> JOB_PREFIX + guildId).toList()))) {
+                    jobs.put(job.getName().substring(JOB_PREFIX.length()), job);
+                }
+
+                for (Setting setting : SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Setting(),
+                        "SELECT * FROM Settings WHERE GID IN (:gids)", Map.of("gids", joined))) {
+                    existingSettings.computeIfAbsent(setting.getGuildId(), guildId -> new HashSet<>()).add(setting.getName());
+                }
+            } catch (Exception exception) {
+                loadFailure = exception;
+            }
+        }
+
+        Set<String> leftInBatch = new HashSet<>();
+
+        for (Event event : batch) {
+            long start = System.nanoTime();
+
+            try {
+                if (event.join()) {
+                    if (loadFailure != null) throw loadFailure;
+
+                    Setting job = jobs.remove(event.guildId());
+
+                    // The job of a leave in this batch has been stored after the jobs have been loaded.
+                    if (leftInBatch.remove(event.guildId())) job = getJob(event.guildId());
+
+                    if (job != null) {
+                        SQLSession.getSqlConnector().getSqlWorker().deleteEntity(job);
+                        Metrics.GUILD_JOBS.inc("purge", "cancelled");
+                    }
+
+                    provisionDefaults(event.guildId(), existingSettings.computeIfAbsent(event.guildId(), guildId -> new HashSet<>()));
+                    Metrics.GUILD_JOBS.inc("provision", "success");
+                } else {
+                    writeJob(event.guildId(), 0, System.currentTimeMillis() + PURGE_DELAY);
+                    leftInBatch.add(event.guildId());
+                    Metrics.GUILD_JOBS.inc("purge", "queued");
+                }
+            } catch (Exception exception) {
+                log.error("[Lifecycle] Failed to handle the {} of {}!", event.join() ? "join" : "leave", event.guildId(), exception);
+                Metrics.GUILD_JOBS.inc(event.join() ? "provision" : "purge", "error");
+            } finally {
+                Metrics.GUILD_JOB_DURATION.observeSince(start, event.join() ? "provision" : "queue");
+            }
+        }
+    }
+
+    /**
+     * Create the default settings a Guild doesn't have yet.
+     *
+     * @param guildId          the ID of the Guild.
+     * @param existingSettings the names of the settings the Guild already has, the created ones are added.
+     */
+    private static void provisionDefaults(String guildId, Set<String> existingSettings) {
+        for (Setting defaultSetting : SettingsManager.getSettings()) {
+            if (defaultSetting == null || !existingSettings.add(defaultSetting.getName())) continue;
+
+            SQLSession.getSqlConnector().getSqlWorker().updateEntity(new Setting(guildId, defaultSetting.getName(),
+                    defaultSetting.getDisplayName(), defaultSetting.getValue()));
+        }
+    }
+
+    /**
+     * Run the next batch of due purges.
+     *
+     * @param now the current time in millis.
+     */
+    static void runPurges(long now) {
+        // Only the leader runs the purges, so every purge runs once.
+        if (!ClusterManager.isLeader()) return;
+
+        List<Job> jobs = new ArrayList<>();
+        for (Setting setting : SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Setting(),
+                "SELECT * FROM Settings WHERE GID=:gid AND NAME LIKE :name", Map.of("gid", JOB_GUILD, "name", JOB_PREFIX + "%"))) {
+            Job job = Job.parse(setting);
+            if (job != null) jobs.add(job);
+        }
+
+        pendingPurges = jobs.size();
+
+        List<Job> due = jobs.stream().filter(job -> job.dueAt() <= now)
+                .sorted(Comparator.comparingLong(Job::dueAt)).limit(PURGE_BATCH_SIZE).toList();
+
+        if (due.isEmpty()) return;
+
+        // Only the node that runs the shard of a Guild knows if it has been joined again.
+        Map<Integer, List<Job>> jobsByNode = due.stream().collect(Collectors.groupingBy(job -> ClusterManager.getNodeOfGuild(Long.parseLong(job.guildId()))));
+        List<Job> released = new ArrayList<>();
+
+        for (Map.Entry<Integer, List<Job>> entry : jobsByNode.entrySet()) {
+            Set<String> leftGuilds;
+
+            try {
+                leftGuilds = releaseLeftGuilds(entry.getKey(), entry.getValue().stream().map(Job::guildId).toList()).join();
+            } catch (Exception exception) {
+                // The jobs stay due, they are run once the node answers again.
+                log.warn("[Lifecycle] Couldn't ask node {} which Guilds are still gone: {}", entry.getKey(), exception.getMessage());
+                continue;
+            }
+
+            for (Job job : entry.getValue()) {
+                if (leftGuilds.contains(job.guildId())) {
+                    released.add(job);
+                } else {
+                    // The Guild has been joined again, but the join hasn't been handled yet.
+                    SQLSession.getSqlConnector().getSqlWorker().deleteEntity(job.setting());
+                    Metrics.GUILD_JOBS.inc("purge", "cancelled");
+                }
+            }
+        }
+
+        List<Future<?>> lanes = new ArrayList<>();
+        for (int lane = 0; lane < Math.min(PURGE_PARALLELISM, released.size()); lane++) {
+            List<Job> laneJobs = new ArrayList<>();
+            for (int i = lane; i < released.size(); i += PURGE_PARALLELISM) {
+                laneJobs.add(released.get(i));
+            }
+
+            lanes.add(ThreadUtil.createThread(x -> laneJobs.forEach(job -> purge(job, now)), null));
+        }
+
+        for (Future<?> lane : lanes) {
+            try {
+                lane.get();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException exception) {
+                log.error("[Lifecycle] Failed to run a batch of purges!", exception.getCause());
+            }
+        }
+    }
+
+    /**
+     * Delete the data of a Guild and its purge job, a failed purge is retried later.
+     *
+     * @param job the purge job.
+     * @param now the current time in millis.
+     */
+    private static void purge(Job job, long now) {
+        long start = System.nanoTime();
+
+        try {
+            SQLSession.getSqlConnector().getSqlWorker().deleteAllData(job.guildId());
+            SQLSession.getSqlConnector().getSqlWorker().deleteEntity(job.setting());
+            Metrics.GUILD_JOBS.inc("purge", "success");
+        } catch (Exception exception) {
+            int attempts = job.attempts() + 1;
+
+            if (attempts >= MAX_ATTEMPTS) {
+                log.error("[Lifecycle] Giving up purging the data of {} after {} attempts!", job.guildId(), attempts, exception);
+                SQLSession.getSqlConnector().getSqlWorker().deleteEntity(job.setting());
+                Metrics.GUILD_JOBS.inc("purge", "failed");
+            } else {
+                long delay = Math.min(RETRY_DELAY << (attempts - 1), MAX_RETRY_DELAY);
+                log.warn("[Lifecycle] Failed to purge the data of {}, retrying in {}s!", job.guildId(), delay / 1000, exception);
+                writeJob(job.guildId(), attempts, now + delay);
+                Metrics.GUILD_JOBS.inc("purge", "retry");
+            }
+        } finally {
+            Metrics.GUILD_JOB_DURATION.observeSince(start, "purge");
+        }
+    }
+
+    /**
+     * Ask a node which of its Guilds are still gone, the node forgets their cached data.
+     *
+     * @param node     the ID of the node that runs the shards of the Guilds.
+     * @param guildIds the IDs of the Guilds.
+     * @return a {@link CompletableFuture} with the IDs of the Guilds that are still gone.
+     */
+    private static CompletableFuture<Set<String>> releaseLeftGuilds(int node, List<String> guildIds) {
+        if (!ClusterManager.isEnabled() || node == ClusterManager.getNodeId()) {
+            return CompletableFuture.completedFuture(releaseLeftGuilds(guildIds));
+        }
+
+        return ClusterManager.send(node, RELEASE_MESSAGE, toPayload(guildIds)).thenApply(response -> {
+            Set<String> leftGuilds = new HashSet<>();
+            response.getAsJsonArray("guilds").forEach(guildId -> leftGuilds.add(guildId.getAsString()));
+            return leftGuilds;
+        });
+    }
+
+    /**
+     * Find the Guilds this node isn't part of and forget their cached data, so nothing is written back after the purge.
+     *
+     * @param guildIds the IDs of the Guilds.
+     * @return the IDs of the Guilds that are gone.
+     */
+    private static Set<String> releaseLeftGuilds(List<String> guildIds) {
+        Set<String> leftGuilds = new HashSet<>();
+
+        for (String guildId : guildIds) {
+            if (BotWorker.getShardManager() != null && BotWorker.getShardManager().getGuildById(guildId) != null) continue;
+
+            EconomyUtil.invalidateGuild(Long.parseLong(guildId));
+            MemberLoader.invalidate(Long.parseLong(guildId));
+            leftGuilds.add(guildId);
+        }
+
+        return leftGuilds;
+    }
+
+    /**
+     * Create the payload of a cluster message with Guilds.
+     *
+     * @param guildIds the IDs of the Guilds.
+     * @return the payload.
+     */
+    private static JsonObject toPayload(Iterable<String> guildIds) {
+        JsonArray guilds = new JsonArray();
+        guildIds.forEach(guilds::add);
+
+        JsonObject payload = new JsonObject();
+        payload.add("guilds", guilds);
+        return payload;
+    }
+
+    /**
+     * Get the purge job of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the Setting that stores the job, or null if there is none.
+     */
+    private static Setting getJob(String guildId) {
+        return SQLSession.getSqlConnector().getSqlWorker().getEntity(new Setting(), "SELECT * FROM Settings WHERE GID=:gid AND NAME=:name",
+                Map.of("gid", JOB_GUILD, "name", JOB_PREFIX + guildId));
+    }
+
+    /**
+     * Create or replace the purge job of a Guild.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param attempts the amount of failed attempts.
+     * @param dueAt    the time in millis when the purge should run.
+     */
+    private static void writeJob(String guildId, int attempts, long dueAt) {
+        SQLSession.getSqlConnector().getSqlWorker().setSetting(JOB_GUILD, JOB_PREFIX + guildId, "Guild purge", attempts + ":" + dueAt);
+    }
+
+    /**
+     * A queued join or leave.
+     *
+     * @param guildId the ID of the Guild.
+     * @param join    true, if the Bot joined the Guild, false if it left.
+     */
+    private record Event(String guildId, boolean join) {
+    }
+
+    /**
+     * A purge job.
+     *
+     * @param setting  the Setting that stores the job.
+     * @param guildId  the ID of the Guild.
+     * @param attempts the amount of failed attempts.
+     * @param dueAt    the time in millis when the purge should run.
+     */
+    private record Job(Setting setting, String guildId, int attempts, long dueAt) {
+
+        /**
+         * Read a job from its Setting.
+         *
+         * @param setting the Setting.
+         * @return the job, or null if the Setting isn't a valid job.
+         */
+        static Job parse(Setting setting) {
+            if (setting.getStringValue() == null) return null;
+
+            String[] values = setting.getStringValue().split(":");
+            if (values.length != 2) return null;
+
+            try {
+                return new Job(setting, setting.getName().substring(JOB_PREFIX.length()), Integer.parseInt(values[0]), Long.parseLong(values[1]));
+            } catch (NumberFormatException exception) {
+                log.warn("[Lifecycle] Ignoring the invalid purge job {}.", setting.getName());
+                return null;
+            }
+        }
+    }
+}
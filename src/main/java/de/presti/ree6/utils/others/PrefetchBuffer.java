@@ -0,0 +1,259 @@
+package de.presti.ree6.utils.others;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A buffer which keeps a number of ready results of an upstream source in memory and refills itself
+ * asynchronously, once it drops below its low-water mark.
+ * Recently served results are remembered to skip duplicates and to have something to serve, when the upstream is down.
+ *
+ * @param <T> the type of the results.
+ */
+@Slf4j
+public class PrefetchBuffer<T> {
+
+    /**
+     * The name of the buffer, used for logging.
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * The amount of results that should be kept ready.
+     */
+    private final int capacity;
+
+    /**
+     * The amount of results at which a refill will be started.
+     */
+    private final int lowWaterMark;
+
+    /**
+     * The loader used to retrieve a new batch of results from the upstream.
+     */
+    private final Supplier<CompletableFuture<List<T>>> loader;
+
+    /**
+     * The function used to get a unique identifier of a result, used to skip duplicates.
+     */
+    private final Function<T, String> identifier;
+
+    /**
+     * The results that are ready to be served.
+     */
+    private final Queue<T> ready = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The amount of results that are ready to be served.
+     */
+    private final AtomicInteger readySize = new AtomicInteger();
+
+    /**
+     * The identifiers of the results that are ready to be served.
+     */
+    private final Set<String> readyIds = Collections.synchronizedSet(new HashSet<>());
+
+    /**
+     * The recently served results, ordered by their insertion.
+     */
+    private final LinkedHashMap<String, T> recent;
+
+    /**
+     * The current refill, completed if there is none.
+     */
+    private CompletableFuture<Void> refill = CompletableFuture.completedFuture(null);
+
+    /**
+     * Future completed once the next batch has been handled, used to wait for results when the buffer is empty.
+     */
+    private volatile CompletableFuture<Void> arrival = new CompletableFuture<>();
+
+    /**
+     * The time in millis until which no refill should be tried, after the upstream failed.
+     */
+    private volatile long backoffUntil;
+
+    /**
+     * Constructor used to create a new buffer.
+     *
+     * @param name         the name of the buffer, used for logging.
+     * @param capacity     the amount of results that should be kept ready.
+     * @param lowWaterMark the amount of results at which a refill will be started.
+     * @param recentSize   the amount of recently served results that should be remembered.
+     * @param loader       the loader used to retrieve a new batch of results from the upstream.
+     * @param identifier   the function used to get a unique identifier of a result.
+     */
+    public PrefetchBuffer(String name, int capacity, int lowWaterMark, int recentSize,
+                          Supplier<CompletableFuture<List<T>>> loader, Function<T, String> identifier) {
+        this.name = name;
+        this.capacity = capacity;
+        this.lowWaterMark = lowWaterMark;
+        this.loader = loader;
+        this.identifier = identifier;
+        this.recent = new LinkedHashMap<>(recentSize, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                return size() > recentSize;
+            }
+        };
+    }
+
+    /**
+     * Take a result out of the buffer.
+     * If the buffer is empty, the current refill will be awaited for a short time and if the upstream
+     * is down a recently served result will be returned instead.
+     *
+     * @return the result or null if there is nothing that could be served.
+     */
+    public T poll() {
+        T item = take();
+
+        if (item == null) {
+            CompletableFuture<Void> nextArrival = arrival;
+            refill();
+
+            if (backoffUntil <= System.currentTimeMillis()) {
+                try {
+                    nextArrival.get(5, TimeUnit.SECONDS);
+                } catch (Exception exception) {
+                    log.debug("Waiting for the {} buffer refill failed!", name, exception);
+                }
+
+                item = take();
+            }
+
+            if (item == null) {
+                return getRecent();
+            }
+        }
+
+        refill();
+        return item;
+    }
+
+    /**
+     * Take the next ready result and remember it as recently served.
+     *
+     * @return the result or null if there is none.
+     */
+    private T take() {
+        T item = ready.poll();
+        if (item == null) return null;
+
+        readySize.decrementAndGet();
+
+        String id = identifier.apply(item);
+        readyIds.remove(id);
+
+        synchronized (recent) {
+            recent.put(id, item);
+        }
+
+        return item;
+    }
+
+    /**
+     * Get a random recently served result.
+     *
+     * @return the result or null if nothing has been served yet.
+     */
+    private T getRecent() {
+        synchronized (recent) {
+            if (recent.isEmpty()) return null;
+
+            int index = ThreadLocalRandom.current().nextInt(recent.size());
+            Iterator<T> iterator = recent.values().iterator();
+            for (int i = 0; i < index; i++) iterator.next();
+            return iterator.next();
+        }
+    }
+
+    /**
+     * Start a refill, if the buffer is below its low-water mark and there is no refill running.
+     *
+     * @return the current refill.
+     */
+    public synchronized CompletableFuture<Void> refill() {
+        if (!refill.isDone() || readySize.get() > lowWaterMark || backoffUntil > System.currentTimeMillis()) {
+            return refill;
+        }
+
+        refill = loadBatch();
+        return refill;
+    }
+
+    /**
+     * Load batches from the upstream, until the buffer is full or the upstream has nothing new to offer.
+     *
+     * @return a {@link CompletableFuture} that completes once the buffer has been filled.
+     */
+    private CompletableFuture<Void> loadBatch() {
+        CompletableFuture<List<T>> batch;
+
+        try {
+            batch = loader.get();
+        } catch (Exception exception) {
+            batch = CompletableFuture.failedFuture(exception);
+        }
+
+        return batch.handle((items, throwable) -> {
+            if (throwable != null || items == null || items.isEmpty()) {
+                backoffUntil = System.currentTimeMillis() + Duration.ofSeconds(30).toMillis();
+                if (throwable != null) log.warn("Couldn't refill the {} buffer!", name, throwable);
+                signalArrival();
+                return false;
+            }
+
+            int added = 0;
+            for (T item : items) {
+                if (item == null || readySize.get() >= capacity) continue;
+
+                String id = identifier.apply(item);
+
+                boolean servedRecently;
+                synchronized (recent) {
+                    servedRecently = recent.containsKey(id);
+                }
+
+                if (servedRecently || !readyIds.add(id)) continue;
+
+                ready.add(item);
+                readySize.incrementAndGet();
+                added++;
+            }
+
+            signalArrival();
+
+            return added > 0 && readySize.get() < capacity;
+        }).thenCompose(loadMore -> loadMore ? loadBatch() : CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Wake up everyone waiting for the next batch.
+     */
+    private void signalArrival() {
+        CompletableFuture<Void> current = arrival;
+        arrival = new CompletableFuture<>();
+        current.complete(null);
+    }
+
+    /**
+     * Get the amount of results that are ready to be served.
+     *
+     * @return the amount of ready results.
+     */
+    public int getReadySize() {
+        return readySize.get();
+    }
+}
@@ -0,0 +1,320 @@
+package de.presti.ree6.utils.others;
+
+import club.minnced.discord.webhook.send.WebhookMessageBuilder;
+import com.google.gson.JsonObject;
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.bot.cluster.ClusterManager;
+import de.presti.ree6.bot.util.WebhookUtil;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.ScheduledMessage;
+import de.presti.ree6.utils.data.Data;
+import de.presti.ree6.utils.metrics.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Utility class used to send Scheduled Messages once they are due.
+ * Every schedule is loaded once and kept in a queue ordered by the time it is due, so only due schedules are looked at.
+ * <p>
+ * Catch-up policy: schedules that have been missed, e.g. while the bot was offline, are sent once right away.
+ * Repeated schedules don't send every missed repetition, their next repetition is counted from the catch-up.
+ */
+@Slf4j
+public class ScheduledMessageHandler {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private ScheduledMessageHandler() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The interval in which the queue is checked for due schedules.
+     */
+    private static final Duration TICK_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * The interval in which executed schedules are written to the Database.
+     */
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * The schedules, ordered by the time they are due.
+     */
+    private static final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(Entry::dueAt));
+
+    /**
+     * The queued schedules, mapped by their ID.
+     */
+    private static final Map<Long, Entry> entries = new HashMap<>();
+
+    /**
+     * Repeated schedules whose last execution has not been written to the Database yet, mapped by their ID.
+     */
+    private static final Map<Long, ScheduledMessage> pendingUpdates = new HashMap<>();
+
+    /**
+     * Single schedules that have been sent and have not been deleted from the Database yet, mapped by their ID.
+     */
+    private static final Map<Long, ScheduledMessage> pendingDeletes = new HashMap<>();
+
+    /**
+     * Schedules that have been removed, mapped by their ID to the time they have been removed.
+     * A write of an older copy is skipped for them, so that it can't insert the deleted row again.
+     */
+    private static final Map<Long, Long> tombstones = new HashMap<>();
+
+    /**
+     * The lock held while a schedule is written to or deleted from the Database, guards {@link #tombstones}.
+     */
+    private static final Object writeLock = new Object();
+
+    /**
+     * Load every schedule from the Database and start checking for due schedules.
+     */
+    public static void start() {
+        load();
+
+        // The previous leader has sent messages in the meantime, so the new leader starts with their state from the Database.
+        ClusterManager.addLeaderListener(leader -> {
+            if (leader && ClusterManager.isEnabled()) ThreadUtil.createThread(x -> load());
+        });
+
+        // Schedules are changed by commands on every node, but only the leader of the cluster sends them.
+        ClusterManager.registerHandler("scheduled-message", payload -> {
+            long id = payload.get("id").getAsLong();
+
+            if (payload.get("removed").getAsBoolean()) {
+                dequeue(id);
+
+                // The row has been deleted by another node, delete it again in case a write of ours raced with it.
+                synchronized (writeLock) {
+                    tombstones.put(id, System.currentTimeMillis());
+                    ScheduledMessage scheduledMessage = SQLSession.getSqlConnector().getSqlWorker()
+                            .getEntity(new ScheduledMessage(), "SELECT * FROM ScheduledMessage WHERE Id = :id", Map.of("id", id));
+                    if (scheduledMessage != null) SQLSession.getSqlConnector().getSqlWorker().deleteEntity(scheduledMessage);
+                }
+            } else {
+                ScheduledMessage scheduledMessage = SQLSession.getSqlConnector().getSqlWorker()
+                        .getEntity(new ScheduledMessage(), "SELECT * FROM ScheduledMessage WHERE Id = :id", Map.of("id", id));
+                if (scheduledMessage != null) enqueue(scheduledMessage);
+            }
+
+            return null;
+        });
+
+        ThreadUtil.createThread(x -> {
+            try {
+                tick();
+            } catch (Exception exception) {
+                log.error("[Scheduler] Failed to send due scheduled messages!", exception);
+            }
+        }, null, TICK_INTERVAL, true, false);
+
+        ThreadUtil.createThread(x -> flush(), null, FLUSH_INTERVAL, true, false);
+    }
+
+    /**
+     * Replace the queue with every schedule in the Database.
+     */
+    private static void load() {
+        List<ScheduledMessage> scheduledMessages = SQLSession.getSqlConnector().getSqlWorker()
+                .getEntityList(new ScheduledMessage(), "SELECT * FROM ScheduledMessage", null);
+
+        synchronized (queue) {
+            queue.clear();
+            entries.clear();
+        }
+
+        scheduledMessages.forEach(ScheduledMessageHandler::enqueue);
+        log.info("[Scheduler] Loaded {} scheduled messages.", scheduledMessages.size());
+    }
+
+    /**
+     * Add a schedule or replace the queued version of it, on every node of the cluster.
+     *
+     * @param scheduledMessage the {@link ScheduledMessage}, has to be saved in the Database already.
+     */
+    public static void schedule(ScheduledMessage scheduledMessage) {
+        enqueue(scheduledMessage);
+        announce(scheduledMessage.getId(), false);
+    }
+
+    /**
+     * Remove a schedule on every node of the cluster and delete it from the Database, so that it won't be sent anymore.
+     *
+     * @param scheduledMessage the {@link ScheduledMessage}.
+     */
+    public static void unschedule(ScheduledMessage scheduledMessage) {
+        dequeue(scheduledMessage.getId());
+
+        synchronized (writeLock) {
+            tombstones.put(scheduledMessage.getId(), System.currentTimeMillis());
+            SQLSession.getSqlConnector().getSqlWorker().deleteEntity(scheduledMessage);
+        }
+
+        announce(scheduledMessage.getId(), true);
+    }
+
+    /**
+     * Inform the other nodes of the cluster about a changed schedule.
+     *
+     * @param id      the ID of the {@link ScheduledMessage}.
+     * @param removed if the schedule has been removed.
+     */
+    private static void announce(long id, boolean removed) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("id", id);
+        payload.addProperty("removed", removed);
+        ClusterManager.broadcast("scheduled-message", payload);
+    }
+
+    /**
+     * Add a schedule or replace the queued version of it.
+     *
+     * @param scheduledMessage the {@link ScheduledMessage}.
+     */
+    private static void enqueue(ScheduledMessage scheduledMessage) {
+        synchronized (writeLock) {
+            if (tombstones.containsKey(scheduledMessage.getId())) return;
+        }
+
+        // A single schedule that has been executed already only failed to be deleted.
+        if (!scheduledMessage.isRepeated() && scheduledMessage.getLastExecute() != null) {
+            synchronized (queue) {
+                pendingDeletes.put(scheduledMessage.getId(), scheduledMessage);
+            }
+            return;
+        }
+
+        Timestamp lastRun = scheduledMessage.isRepeated() && scheduledMessage.getLastExecute() != null ?
+                scheduledMessage.getLastExecute() : scheduledMessage.getCreated();
+        long dueAt = (lastRun != null ? lastRun.getTime() : System.currentTimeMillis()) + scheduledMessage.getDelayAmount();
+
+        synchronized (queue) {
+            Entry previous = entries.remove(scheduledMessage.getId());
+            if (previous != null) queue.remove(previous);
+
+            Entry entry = new Entry(scheduledMessage, dueAt);
+            entries.put(scheduledMessage.getId(), entry);
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Remove a schedule, so that it won't be sent anymore.
+     *
+     * @param id the ID of the {@link ScheduledMessage}.
+     */
+    private static void dequeue(long id) {
+        synchronized (queue) {
+            Entry entry = entries.remove(id);
+            if (entry != null) queue.remove(entry);
+
+            pendingUpdates.remove(id);
+            pendingDeletes.remove(id);
+        }
+    }
+
+    /**
+     * Send every due schedule and queue the next repetition of repeated schedules.
+     */
+    private static void tick() {
+        // Only the leader of the cluster sends the messages.
+        if (!ClusterManager.isLeader()) return;
+
+        long now = System.currentTimeMillis();
+        List<ScheduledMessage> due = new ArrayList<>();
+
+        synchronized (queue) {
+            while (!queue.isEmpty() && queue.peek().dueAt() <= now) {
+                ScheduledMessage scheduledMessage = queue.poll().scheduledMessage();
+                scheduledMessage.setLastExecute(new Timestamp(now));
+                due.add(scheduledMessage);
+
+                if (scheduledMessage.isRepeated()) {
+                    // Missed repetitions are not sent, the next one is counted from now.
+                    Entry next = new Entry(scheduledMessage, now + Math.max(scheduledMessage.getDelayAmount(), TICK_INTERVAL.toMillis()));
+                    entries.put(scheduledMessage.getId(), next);
+                    queue.add(next);
+                    pendingUpdates.put(scheduledMessage.getId(), scheduledMessage);
+                } else {
+                    entries.remove(scheduledMessage.getId());
+                    pendingDeletes.put(scheduledMessage.getId(), scheduledMessage);
+                }
+            }
+        }
+
+        if (due.isEmpty() || BotWorker.getShardManager() == null || BotWorker.getShardManager().getShards().isEmpty()) return;
+
+        String avatarUrl = BotWorker.getShardManager().getShards().get(0).getSelfUser().getAvatarUrl();
+
+        for (ScheduledMessage scheduledMessage : due) {
+            ThreadUtil.createThread(x -> WebhookUtil.sendWebhook(null, new WebhookMessageBuilder()
+                    .setUsername(Data.getBotName() + "-Scheduler")
+                    .setAvatarUrl(avatarUrl)
+                    .append(scheduledMessage.getMessage()).build(), scheduledMessage.getScheduledMessageWebhook(), false),
+                    throwable -> log.error("[Scheduler] Failed to send scheduled message {}!", scheduledMessage.getId(), throwable));
+        }
+    }
+
+    /**
+     * Write every executed schedule to the Database.
+     */
+    public static void flush() {
+        List<ScheduledMessage> updates;
+        List<ScheduledMessage> deletes;
+
+        synchronized (queue) {
+            updates = new ArrayList<>(pendingUpdates.values());
+            deletes = new ArrayList<>(pendingDeletes.values());
+            pendingUpdates.clear();
+            pendingDeletes.clear();
+        }
+
+        for (ScheduledMessage scheduledMessage : updates) {
+            synchronized (writeLock) {
+                // Removed after the update has been taken, writing it would insert the deleted row again.
+                if (tombstones.containsKey(scheduledMessage.getId())) continue;
+
+                try {
+                    Metrics.timeSql("updateEntity", () -> SQLSession.getSqlConnector().getSqlWorker().updateEntity(scheduledMessage));
+                } catch (Exception exception) {
+                    log.error("[Scheduler] Failed to update scheduled message {}!", scheduledMessage.getId(), exception);
+                }
+            }
+        }
+
+        for (ScheduledMessage scheduledMessage : deletes) {
+            synchronized (writeLock) {
+                try {
+                    SQLSession.getSqlConnector().getSqlWorker().deleteEntity(scheduledMessage);
+                    tombstones.put(scheduledMessage.getId(), System.currentTimeMillis());
+                } catch (Exception exception) {
+                    log.error("[Scheduler] Failed to delete scheduled message {}!", scheduledMessage.getId(), exception);
+                }
+            }
+        }
+
+        // Every write that could have been taken before a removal has been skipped by now.
+        long expired = System.currentTimeMillis() - FLUSH_INTERVAL.toMillis() * 2;
+        synchronized (writeLock) {
+            tombstones.values().removeIf(removedAt -> removedAt < expired);
+        }
+    }
+
+    /**
+     * A queued schedule.
+     *
+     * @param scheduledMessage the {@link ScheduledMessage}.
+     * @param dueAt            the time in millis the schedule is due.
+     */
+    private record Entry(ScheduledMessage scheduledMessage, long dueAt) {
+    }
+}
@@ -0,0 +1,215 @@
+package de.presti.ree6.utils.others;
+
+import de.presti.ree6.bot.BotWorker;
+import de.presti.ree6.utils.metrics.Metrics;
+import io.sentry.Sentry;
+import io.sentry.SentryEvent;
+import io.sentry.SentryLevel;
+import io.sentry.protocol.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.simpleyaml.configuration.file.YamlFile;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Utility class used to report every error to Sentry.
+ * Events are sampled and deduplicated on the calling Thread, and captured by a single worker Thread from a bounded queue,
+ * so reporting never blocks the calling Thread. Events are dropped if the queue is full.
+ */
+@Slf4j
+public class SentryReporter {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private SentryReporter() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The amount of deduplication keys after which expired keys are removed.
+     */
+    private static final int DEDUPLICATION_CLEANUP_SIZE = 1024;
+
+    /**
+     * The events waiting to be captured.
+     */
+    private static volatile BlockingQueue<SentryEvent> queue = new ArrayBlockingQueue<>(1000);
+
+    /**
+     * The time in millis an event has been reported the last time, mapped by its deduplication key.
+     */
+    private static final Map<String, Long> lastReported = new ConcurrentHashMap<>();
+
+    /**
+     * The rate of events that should be sent, between 0 and 1.
+     */
+    private static volatile double eventSampleRate = 1.0;
+
+    /**
+     * The time in millis in which identical events are only sent once.
+     */
+    private static volatile long deduplicationWindow = Duration.ofMinutes(1).toMillis();
+
+    /**
+     * The worker Thread that captures the queued events.
+     */
+    private static Thread worker;
+
+    /**
+     * Initialize Sentry and start capturing queued events.
+     *
+     * @param configuration the Configuration.
+     */
+    public static synchronized void init(YamlFile configuration) {
+        String dsn = configuration.getString("sentry.dsn");
+        double tracesSampleRate = configuration.getDouble("sentry.tracesSampleRate", 0.0);
+
+        eventSampleRate = Math.max(0, Math.min(1, configuration.getDouble("sentry.eventSampleRate", 1.0)));
+        deduplicationWindow = Duration.ofSeconds(Math.max(0, configuration.getLong("sentry.deduplicationWindow", 60))).toMillis();
+        Sentry.init(options -> {
+            options.setDsn((dsn == null || dsn.equalsIgnoreCase("yourSentryDSNHere")) ? "" : dsn);
+            // Tracing has a cost on every transaction, so it is only sampled as configured.
+            options.setTracesSampleRate(Math.max(0, Math.min(1, tracesSampleRate)));
+            options.setRelease(BotWorker.getBuild());
+        });
+
+        if (worker == null) {
+            queue = new ArrayBlockingQueue<>(Math.max(1, configuration.getInt("sentry.queueSize", 1000)));
+            worker = new Thread(SentryReporter::work, "Sentry-Reporter");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Report an exception.
+     *
+     * @param throwable the exception.
+     */
+    public static void captureException(Throwable throwable) {
+        if (throwable == null) return;
+
+        report(getKey(throwable), () -> {
+            SentryEvent sentryEvent = new SentryEvent(throwable);
+            sentryEvent.setLevel(SentryLevel.ERROR);
+            return sentryEvent;
+        });
+    }
+
+    /**
+     * Report a message.
+     *
+     * @param message the message.
+     */
+    public static void captureMessage(String message) {
+        captureMessage(message, SentryLevel.INFO, null);
+    }
+
+    /**
+     * Report a message.
+     *
+     * @param message   the message.
+     * @param level     the level of the message.
+     * @param throwable the exception that caused the message, can be null.
+     */
+    public static void captureMessage(String message, SentryLevel level, Throwable throwable) {
+        report(message, () -> {
+            SentryEvent sentryEvent = new SentryEvent();
+            Message sentryMessage = new Message();
+            sentryMessage.setMessage(message);
+            sentryEvent.setMessage(sentryMessage);
+            sentryEvent.setThrowable(throwable);
+            sentryEvent.setLevel(level);
+            return sentryEvent;
+        });
+    }
+
+    /**
+     * Sample, deduplicate and queue an event.
+     *
+     * @param key   the deduplication key of the event.
+     * @param event the supplier of the event, only called if the event will be queued.
+     */
+    private static void report(String key, Supplier<SentryEvent> event) {
+        if (!Sentry.isEnabled()) return;
+
+        if (eventSampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= eventSampleRate) {
+            Metrics.SENTRY_SUPPRESSED.inc("sampled");
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Long previous = lastReported.get(key);
+
+        // Only the Thread that starts a new window reports the event, repeated events don't extend the window.
+        if ((previous != null && now - previous < deduplicationWindow) ||
+                (previous == null ? lastReported.putIfAbsent(key, now) != null : !lastReported.replace(key, previous, now))) {
+            Metrics.SENTRY_SUPPRESSED.inc("duplicate");
+            return;
+        }
+
+        if (lastReported.size() > DEDUPLICATION_CLEANUP_SIZE) {
+            lastReported.values().removeIf(reported -> now - reported >= deduplicationWindow);
+        }
+
+        if (!queue.offer(event.get())) {
+            Metrics.SENTRY_DROPPED.inc();
+        }
+    }
+
+    /**
+     * Capture the queued events, until the Thread is interrupted.
+     */
+    private static void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Sentry.captureEvent(queue.take());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } catch (Exception exception) {
+                log.error("[Sentry] Failed to capture an event!", exception);
+            }
+        }
+    }
+
+    /**
+     * Capture every queued event and wait for Sentry to send them.
+     *
+     * @param timeout the maximum time to wait.
+     */
+    public static void flush(Duration timeout) {
+        SentryEvent sentryEvent;
+        while ((sentryEvent = queue.poll()) != null) {
+            Sentry.captureEvent(sentryEvent);
+        }
+
+        Sentry.flush(TimeUnit.MILLISECONDS.convert(timeout));
+    }
+
+    /**
+     * Create the deduplication key of an exception, made of its type, message and origin.
+     *
+     * @param throwable the exception.
+     * @return the deduplication key.
+     */
+    private static String getKey(Throwable throwable) {
+        StringBuilder key = new StringBuilder(throwable.getClass().getName()).append(':').append(throwable.getMessage());
+
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        if (stackTrace.length > 0) {
+            key.append('@').append(stackTrace[0]);
+        }
+
+        return key.toString();
+    }
+}
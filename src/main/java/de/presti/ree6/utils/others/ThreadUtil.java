@@ -1,11 +1,10 @@
 package de.presti.ree6.utils.others;
 
-import io.sentry.Sentry;
-
 import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Consumer;
 
 /**
@@ -18,6 +17,24 @@ public class ThreadUtil {
      */
     static ExecutorService executorService = Executors.newFixedThreadPool(150);
 
+    /**
+     * Get the amount of tasks waiting for a free Thread.
+     *
+     * @return the amount of waiting tasks.
+     */
+    public static int getQueueSize() {
+        return executorService instanceof ThreadPoolExecutor threadPoolExecutor ? threadPoolExecutor.getQueue().size() : 0;
+    }
+
+    /**
+     * Get the amount of Threads that are currently running a task.
+     *
+     * @return the amount of active Threads.
+     */
+    public static int getActiveCount() {
+        return executorService instanceof ThreadPoolExecutor threadPoolExecutor ? threadPoolExecutor.getActiveCount() : 0;
+    }
+
     /**
      * Creates a Thread with a Consumer.
      *
@@ -25,7 +42,7 @@ public class ThreadUtil {
      * @return the Future of the Thread.
      */
     public static Future<?> createThread(Consumer<Void> success) {
-        return createThread(success, Sentry::captureException);
+        return createThread(success, SentryReporter::captureException);
     }
 
     /**
@@ -49,7 +66,7 @@ public class ThreadUtil {
      * @return the Future of the Thread.
      */
     public static Future<?> createThread(Consumer<Void> success, Duration duration, boolean loop, boolean pre) {
-        return createThread(success, Sentry::captureException, duration, loop, pre);
+        return createThread(success, SentryReporter::captureException, duration, loop, pre);
     }
 
     /**
@@ -73,7 +90,7 @@ public class ThreadUtil {
                 try {
                     if (duration != null) Thread.sleep(duration.toMillis());
                 } catch (InterruptedException e) {
-                    if (failure == null) Sentry.captureException(e);
+                    if (failure == null) SentryReporter.captureException(e);
                     else failure.accept(e);
 
                     Thread.currentThread().interrupt();
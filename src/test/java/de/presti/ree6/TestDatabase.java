@@ -0,0 +1,44 @@
+package de.presti.ree6;
+
+import de.presti.ree6.sql.DatabaseTyp;
+import de.presti.ree6.sql.SQLSession;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Starts a single embedded H2 Database, shared by every test that needs one.
+ */
+public class TestDatabase {
+
+    /**
+     * If the Database has been started.
+     */
+    private static boolean started;
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     * @throws IllegalStateException it is a utility class.
+     */
+    private TestDatabase() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Start the Database, if it is not running yet.
+     */
+    public static synchronized void start() {
+        if (started) return;
+
+        try {
+            Path storageFile = Files.createTempDirectory("ree6-test").resolve("storage.db");
+            new SQLSession("sa", "ree6", "", "localhost", 0, storageFile.toString(), DatabaseTyp.H2, 4, false);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        started = true;
+    }
+}
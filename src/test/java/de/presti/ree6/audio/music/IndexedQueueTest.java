@@ -0,0 +1,187 @@
+package de.presti.ree6.audio.music;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests and microbenchmarks for the {@link IndexedQueue}.
+ */
+class IndexedQueueTest {
+
+    /**
+     * Create a queue with the elements from 0 to size - 1.
+     *
+     * @param size the amount of elements.
+     * @return the {@link IndexedQueue}.
+     */
+    private static IndexedQueue<Integer> queue(int size) {
+        IndexedQueue<Integer> queue = new IndexedQueue<>();
+        queue.addAll(IntStream.range(0, size).boxed().toList());
+        return queue;
+    }
+
+    @Test
+    void randomOperationsMatchAList() {
+        Random random = new Random(44);
+        IndexedQueue<Integer> queue = new IndexedQueue<>();
+        List<Integer> expected = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int size = expected.size();
+
+            switch (size == 0 ? 0 : random.nextInt(6)) {
+                case 0 -> {
+                    queue.add(i);
+                    expected.add(i);
+                }
+                case 1 -> {
+                    int index = random.nextInt(size + 1);
+                    queue.add(index, i);
+                    expected.add(index, i);
+                }
+                case 2 -> {
+                    int index = random.nextInt(size);
+                    assertEquals(expected.remove(index), queue.remove(index));
+                }
+                case 3 -> {
+                    int from = random.nextInt(size);
+                    int to = random.nextInt(size);
+                    queue.move(from, to);
+                    expected.add(to, expected.remove(from));
+                }
+                case 4 -> assertEquals(expected.remove(0), queue.poll());
+                default -> {
+                    int index = random.nextInt(size);
+                    assertEquals(expected.get(index), queue.get(index));
+                }
+            }
+        }
+
+        assertEquals(expected.size(), queue.size());
+        assertEquals(expected, queue.toList());
+    }
+
+    @Test
+    void removeFirstSkipsAndReturnsTheLastSkipped() {
+        IndexedQueue<Integer> queue = queue(10);
+
+        assertEquals(2, queue.removeFirst(3));
+        assertEquals(3, queue.get(0));
+        assertEquals(9, queue.removeFirst(100));
+        assertTrue(queue.isEmpty());
+        assertNull(queue.removeFirst(1));
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void subListReturnsAPage() {
+        IndexedQueue<Integer> queue = queue(45);
+
+        assertEquals(IntStream.range(20, 40).boxed().toList(), queue.subList(20, 20));
+        assertEquals(IntStream.range(40, 45).boxed().toList(), queue.subList(40, 20));
+        assertTrue(queue.subList(60, 20).isEmpty());
+    }
+
+    @Test
+    void unshuffleRestoresTheOrderOfTheRemainingElements() {
+        IndexedQueue<Integer> queue = queue(1_000);
+
+        queue.shuffle();
+        assertNotEquals(IntStream.range(0, 1_000).boxed().toList(), queue.toList());
+
+        queue.remove(queue.toList().indexOf(500));
+        queue.removeFirst(10);
+        queue.add(1_000);
+        queue.unshuffle();
+
+        List<Integer> remaining = queue.toList();
+        List<Integer> sorted = new ArrayList<>(remaining);
+        Collections.sort(sorted);
+        assertEquals(sorted, remaining);
+        assertFalse(remaining.contains(500));
+        assertEquals(1_000, remaining.get(remaining.size() - 1));
+    }
+
+    @Test
+    void invalidPositionsAreRejected() {
+        IndexedQueue<Integer> queue = queue(3);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.remove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.add(4, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.move(0, 3));
+        assertEquals(List.of(0, 1, 2), queue.toList());
+    }
+
+    /**
+     * Measure the average time of an operation.
+     *
+     * @param name       the name of the operation.
+     * @param size       the size of the queue.
+     * @param iterations the amount of iterations.
+     * @param operation  the operation, called with the iteration.
+     */
+    private static void measure(String name, int size, int iterations, IntConsumer operation) {
+        // Warm up, so the JIT has compiled the operation before it is measured.
+        for (int i = 0; i < iterations; i++) {
+            operation.accept(i);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.accept(i);
+        }
+
+        System.out.printf("[Benchmark] %-40s %,9d tracks: %,12.0f ns/op%n", name, size, (System.nanoTime() - start) / (double) iterations);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void queueOperations() {
+        for (int size : new int[]{10_000, 100_000, 1_000_000}) {
+            Random random = new Random(size);
+            IndexedQueue<Integer> queue = queue(size);
+            List<Integer> list = new ArrayList<>(queue.toList());
+            LinkedBlockingQueue<Integer> blockingQueue = new LinkedBlockingQueue<>(list);
+
+            measure("IndexedQueue get(random)", size, 100_000, i -> queue.get(random.nextInt(size)));
+            measure("IndexedQueue remove+add(random)", size, 100_000, i -> queue.add(random.nextInt(size), queue.remove(random.nextInt(size))));
+            measure("IndexedQueue move(random)", size, 100_000, i -> queue.move(random.nextInt(size), random.nextInt(size)));
+            measure("ArrayList remove+add(random)", size, 1_000, i -> list.add(random.nextInt(size), list.remove(random.nextInt(size))));
+
+            // Skipping 100 tracks and refilling, so the size of the queue stays the same.
+            measure("IndexedQueue skip 100 + refill", size, 10_000, i -> {
+                queue.removeFirst(100);
+                for (int j = 0; j < 100; j++) queue.add(j);
+            });
+            measure("LinkedBlockingQueue skip 100 + refill", size, 10_000, i -> {
+                for (int j = 0; j < 100; j++) blockingQueue.poll();
+                for (int j = 0; j < 100; j++) blockingQueue.offer(j);
+            });
+
+            measure("IndexedQueue page 20 at the end", size, 10_000, i -> queue.subList(size - 20, 20));
+            measure("LinkedBlockingQueue page 20 at the end", size, 100, i -> blockingQueue.stream().skip(size - 20).limit(20).toList());
+
+            measure("IndexedQueue shuffle", size, 10, i -> queue.shuffle());
+            measure("IndexedQueue unshuffle", size, 10, i -> queue.unshuffle());
+            measure("LinkedBlockingQueue shuffle", size, 10, i -> {
+                List<Integer> tracks = new ArrayList<>(blockingQueue.stream().toList());
+                Collections.shuffle(tracks);
+                blockingQueue.clear();
+                blockingQueue.addAll(tracks);
+            });
+
+            assertEquals(size, queue.size());
+        }
+    }
+}
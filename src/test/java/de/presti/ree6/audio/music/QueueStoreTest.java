@@ -0,0 +1,285 @@
+package de.presti.ree6.audio.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.local.LocalAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests and benchmarks for the {@link QueueStore}, with generated WAV files played through the {@link LocalAudioSourceManager}.
+ * <p>
+ * The upcoming tracks aren't prefetched: a queued track is already a loaded {@link AudioTrack}, so the gap between
+ * two tracks is only the time lavaplayer needs to open the file and decode the first frame, which the benchmark reports.
+ */
+class QueueStoreTest {
+
+    /**
+     * The sample rate of the generated files.
+     */
+    private static final int SAMPLE_RATE = 48_000;
+
+    /**
+     * The JDA instance the Guilds belong to, it is never logged in.
+     */
+    private static final JDAImpl jda = new JDAImpl(new AuthorizationConfig("test"));
+
+    /**
+     * The directory of the generated files.
+     */
+    @TempDir
+    static Path audioDirectory;
+
+    /**
+     * The AudioPlayerManager, only local files are registered.
+     */
+    private static AudioPlayerManager playerManager;
+
+    /**
+     * Create the AudioPlayerManager.
+     */
+    @BeforeAll
+    static void setUp() {
+        playerManager = new DefaultAudioPlayerManager();
+        playerManager.registerSourceManager(new LocalAudioSourceManager());
+    }
+
+    /**
+     * Shutdown the AudioPlayerManager.
+     */
+    @AfterAll
+    static void tearDown() {
+        playerManager.shutdown();
+    }
+
+    /**
+     * Generate a WAV file with a sine tone, as 16-bit stereo PCM.
+     *
+     * @param name      the name of the file.
+     * @param millis    the length of the tone.
+     * @param frequency the frequency of the tone.
+     * @return the {@link Path} of the file.
+     * @throws IOException if the file couldn't be written.
+     */
+    private static Path wav(String name, int millis, int frequency) throws IOException {
+        int samples = SAMPLE_RATE * millis / 1000;
+        int dataLength = samples * 4;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.put("RIFF".getBytes()).putInt(36 + dataLength).put("WAVE".getBytes());
+        buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 2)
+                .putInt(SAMPLE_RATE).putInt(SAMPLE_RATE * 4).putShort((short) 4).putShort((short) 16);
+        buffer.put("data".getBytes()).putInt(dataLength);
+
+        for (int i = 0; i < samples; i++) {
+            short sample = (short) (Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE) * 8_000);
+            buffer.putShort(sample).putShort(sample);
+        }
+
+        Path path = audioDirectory.resolve(name);
+        Files.write(path, buffer.array());
+        return path;
+    }
+
+    /**
+     * Load a local file as track.
+     *
+     * @param path the {@link Path} of the file.
+     * @return the {@link AudioTrack}.
+     * @throws Exception if it couldn't be loaded.
+     */
+    private static AudioTrack load(Path path) throws Exception {
+        CompletableFuture<AudioTrack> result = new CompletableFuture<>();
+
+        playerManager.loadItem(path.toString(), new AudioLoadResultHandler() {
+            @Override
+            public void trackLoaded(AudioTrack track) {
+                result.complete(track);
+            }
+
+            @Override
+            public void playlistLoaded(AudioPlaylist playlist) {
+                result.completeExceptionally(new IllegalStateException("Not a single track: " + path));
+            }
+
+            @Override
+            public void noMatches() {
+                result.completeExceptionally(new IllegalStateException("No matches: " + path));
+            }
+
+            @Override
+            public void loadFailed(FriendlyException exception) {
+                result.completeExceptionally(exception);
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        return result.get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Generate and load a list of tracks.
+     *
+     * @param prefix the prefix of the file names.
+     * @param count  the amount of tracks.
+     * @param millis the length of each track.
+     * @return the {@link AudioTrack}s, in order.
+     * @throws Exception if they couldn't be loaded.
+     */
+    private static List<AudioTrack> tracks(String prefix, int count, int millis) throws Exception {
+        List<AudioTrack> tracks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tracks.add(load(wav(prefix + i + ".wav", millis, 220 + i * 20)));
+        }
+        return tracks;
+    }
+
+    /**
+     * Create the GuildMusicManager of a Guild that isn't connected to anything.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the {@link GuildMusicManager}.
+     */
+    private static GuildMusicManager musicManager(long guildId) {
+        return new GuildMusicManager(new GuildImpl(jda, guildId), playerManager);
+    }
+
+    @Test
+    void snapshotIsRestored(@TempDir Path storage) throws Exception {
+        List<AudioTrack> tracks = tracks("restore", 4, 3_000);
+        AudioTrack current = tracks.get(0);
+        current.setPosition(1_500);
+
+        QueueStore queueStore = new QueueStore(null, playerManager, storage);
+        queueStore.write(4301, queueStore.capture(43011, 43012, true, current, tracks.subList(1, 4)));
+
+        // A new start of the Bot only knows the stored files.
+        QueueStore restarted = new QueueStore(null, playerManager, storage);
+        assertTrue(restarted.isPending(4301));
+        assertFalse(restarted.isPending(4302));
+
+        QueueStore.Snapshot snapshot = restarted.read(4301);
+        assertEquals(43011, snapshot.audioChannelId());
+        assertEquals(43012, snapshot.channelId());
+        assertEquals(1_500, snapshot.position());
+        assertEquals(3, snapshot.queue().size());
+
+        GuildMusicManager musicManager = musicManager(4301);
+        restarted.apply(snapshot, musicManager.getScheduler());
+
+        AudioTrack playing = musicManager.getPlayer().getPlayingTrack();
+        assertEquals(current.getIdentifier(), playing.getIdentifier());
+        assertEquals(1_500, playing.getPosition(), 100);
+        assertTrue(musicManager.getScheduler().isLoop());
+        assertEquals(tracks.subList(1, 4).stream().map(AudioTrack::getIdentifier).toList(),
+                musicManager.getScheduler().getQueue().toList().stream().map(AudioTrack::getIdentifier).toList());
+
+        musicManager.getPlayer().destroy();
+    }
+
+    @Test
+    void undecodableTracksAreSkipped(@TempDir Path storage) throws Exception {
+        List<AudioTrack> tracks = tracks("skip", 2, 1_000);
+        QueueStore queueStore = new QueueStore(null, playerManager, storage);
+        QueueStore.Snapshot snapshot = queueStore.capture(43021, 0, false, null, tracks);
+
+        List<String> queue = new ArrayList<>(snapshot.queue());
+        queue.add(1, "bm90IGEgdHJhY2s=");
+        queueStore.write(4303, new QueueStore.Snapshot(43021, 0, false, null, 0, queue));
+
+        GuildMusicManager musicManager = musicManager(4303);
+        queueStore.apply(queueStore.read(4303), musicManager.getScheduler());
+
+        // Without a current track, the first queued one is played right away.
+        assertEquals(tracks.get(0).getIdentifier(), musicManager.getPlayer().getPlayingTrack().getIdentifier());
+        assertEquals(List.of(tracks.get(1).getIdentifier()),
+                musicManager.getScheduler().getQueue().toList().stream().map(AudioTrack::getIdentifier).toList());
+        assertFalse(musicManager.getScheduler().isLoop());
+
+        musicManager.getPlayer().destroy();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void restoreTimeAndTrackGap(@TempDir Path storage) throws Exception {
+        List<AudioTrack> files = tracks("benchmark", 20, 500);
+
+        for (int size : new int[]{100, 1_000, 10_000}) {
+            List<AudioTrack> queue = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) queue.add(files.get(i % files.size()).makeClone());
+
+            QueueStore queueStore = new QueueStore(null, playerManager, storage);
+
+            long start = System.nanoTime();
+            queueStore.write(4304, queueStore.capture(43041, 0, false, null, queue));
+            long written = System.nanoTime();
+
+            GuildMusicManager musicManager = musicManager(4304);
+            new QueueStore(null, playerManager, storage).apply(queueStore.read(4304), musicManager.getScheduler());
+            long restored = System.nanoTime();
+
+            assertEquals(size - 1, musicManager.getScheduler().getQueue().size());
+            System.out.printf("[Benchmark] %-40s %,9d tracks: %,12.2f ms%n", "QueueStore write", size, (written - start) / 1e6);
+            System.out.printf("[Benchmark] %-40s %,9d tracks: %,12.2f ms%n", "QueueStore restore", size, (restored - written) / 1e6);
+            musicManager.getPlayer().destroy();
+        }
+
+        // Play the queue like the send handler would, and measure the time from the last frame of a track to the first of the next.
+        GuildMusicManager musicManager = musicManager(4305);
+        files.forEach(track -> musicManager.getScheduler().queue(track.makeClone()));
+        AudioPlayer player = musicManager.getPlayer();
+
+        List<Long> gaps = new ArrayList<>();
+        AudioTrack lastTrack = null;
+        long lastFrame = 0;
+        long deadline = System.currentTimeMillis() + 60_000;
+
+        while (gaps.size() < files.size() - 1 && System.currentTimeMillis() < deadline) {
+            AudioFrame frame = player.provide(100, TimeUnit.MILLISECONDS);
+            if (frame == null) continue;
+
+            long now = System.nanoTime();
+            AudioTrack playing = player.getPlayingTrack();
+
+            if (lastTrack != null && playing != lastTrack) {
+                gaps.add(now - lastFrame);
+            }
+
+            lastTrack = playing;
+            lastFrame = now;
+        }
+
+        player.destroy();
+        assertEquals(files.size() - 1, gaps.size(), "Not every track has been played");
+
+        gaps.sort(null);
+        System.out.printf("[Benchmark] %-40s %,9d tracks: %,12.2f ms median, %,.2f ms max%n", "Gap between local tracks",
+                files.size(), gaps.get(gaps.size() / 2) / 1e6, gaps.get(gaps.size() - 1) / 1e6);
+
+        // A gap of a whole Opus frame would be audible.
+        assertTrue(gaps.get(gaps.size() / 2) < TimeUnit.MILLISECONDS.toNanos(20));
+    }
+}
@@ -0,0 +1,312 @@
+package de.presti.ree6.bot.cluster;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs three {@link ClusterNode} processes on this host, sharing one H2 server.
+ */
+class ClusterManagerProcessTest {
+
+    /**
+     * The secret of the test cluster.
+     */
+    private static final String SECRET = "cluster-test-secret";
+
+    /**
+     * The HTTP Client used to reach the nodes.
+     */
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    /**
+     * The shared H2 server.
+     */
+    private Server database;
+
+    /**
+     * The node processes, the index is the ID of the node.
+     */
+    private final List<Process> processes = new ArrayList<>();
+
+    /**
+     * The addresses of the nodes, the index is the ID of the node.
+     */
+    private final List<String> nodes = new ArrayList<>();
+
+    /**
+     * The directory of the Database and the logs of the nodes.
+     */
+    private Path directory;
+
+    /**
+     * Start the H2 server and the nodes.
+     *
+     * @throws Exception if a process couldn't be started.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("ree6-cluster");
+        int databasePort = freePort();
+        database = Server.createTcpServer("-tcpPort", String.valueOf(databasePort), "-ifNotExists", "-baseDir", directory.toString()).start();
+
+        for (int node = 0; node < 3; node++) {
+            nodes.add("127.0.0.1:" + freePort());
+        }
+
+        String javaBinary = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        for (int node = 0; node < 3; node++) {
+            processes.add(new ProcessBuilder(javaBinary, "-cp", classPath(), ClusterNode.class.getName(),
+                    String.valueOf(node), String.valueOf(databasePort), "cluster", String.join(",", nodes), SECRET)
+                    .redirectErrorStream(true)
+                    .redirectOutput(directory.resolve("node-" + node + ".log").toFile())
+                    .start());
+        }
+    }
+
+    /**
+     * Stop the nodes and the H2 server.
+     *
+     * @throws InterruptedException if the Thread has been interrupted while waiting for the processes.
+     */
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Process process : processes) {
+            process.destroyForcibly().waitFor();
+        }
+
+        if (database != null) database.stop();
+    }
+
+    @Test
+    void removalsOnFollowersReachTheLeader() throws Exception {
+        int leader = awaitLeader(List.of(0, 1, 2));
+        int firstFollower = (leader + 1) % 3, secondFollower = (leader + 2) % 3;
+
+        store(firstFollower, "alpha", true);
+        store(secondFollower, "beta", true);
+        awaitRegistered(leader, List.of("alpha", "beta"));
+
+        store(firstFollower, "beta", false);
+        awaitRegistered(leader, List.of("alpha"));
+
+        // The next leader takes over once the lease ran out, and catches up with the stored names.
+        processes.get(leader).destroyForcibly().waitFor();
+        int next = awaitLeader(List.of(firstFollower, secondFollower));
+        assertNotEquals(leader, next);
+
+        store(next == firstFollower ? secondFollower : firstFollower, "gamma", true);
+        awaitRegistered(next, List.of("alpha", "gamma"));
+    }
+
+    /**
+     * Wait until exactly one of the given nodes is the leader.
+     *
+     * @param candidates the IDs of the running nodes.
+     * @return the ID of the leader.
+     * @throws Exception if no single leader has been elected in time.
+     */
+    private int awaitLeader(List<Integer> candidates) throws Exception {
+        List<Integer> leaders = await(() -> {
+            List<Integer> found = new ArrayList<>();
+            for (int node : candidates) {
+                JsonObject state = state(node);
+                if (state == null) return null;
+                if (state.get("leader").getAsBoolean()) found.add(node);
+            }
+            return found;
+        }, found -> found.size() == 1, "a single leader of " + candidates);
+
+        return leaders.get(0);
+    }
+
+    /**
+     * Wait until a node has registered exactly the given names.
+     *
+     * @param node  the ID of the node.
+     * @param names the expected names, sorted.
+     * @throws Exception if the names weren't registered in time.
+     */
+    private void awaitRegistered(int node, List<String> names) throws Exception {
+        await(() -> {
+            JsonObject state = state(node);
+            if (state == null) return null;
+            JsonArray registered = state.getAsJsonArray("registered");
+            List<String> found = new ArrayList<>();
+            registered.forEach(name -> found.add(name.getAsString()));
+            return found;
+        }, names::equals, "node " + node + " to register " + names);
+    }
+
+    /**
+     * Poll a value until it matches.
+     *
+     * @param supplier  the supplier of the value, may return null if it isn't available yet.
+     * @param condition the condition of the value.
+     * @param what      what is waited for.
+     * @param <T>       the type of the value.
+     * @return the matching value.
+     * @throws Exception if the value didn't match in time.
+     */
+    private <T> T await(ThrowingSupplier<T> supplier, Predicate<T> condition, String what) throws Exception {
+        long deadline = System.currentTimeMillis() + Duration.ofSeconds(60).toMillis();
+        T value = null;
+
+        while (System.currentTimeMillis() < deadline) {
+            value = supplier.get();
+            if (value != null && condition.test(value)) return value;
+            Thread.sleep(200);
+        }
+
+        fail("Timed out waiting for " + what + ", last value " + value + "\n" + logs());
+        return value;
+    }
+
+    /**
+     * Ask a node for its state.
+     *
+     * @param node the ID of the node.
+     * @return the state, or null if the node isn't reachable yet.
+     * @throws InterruptedException if the Thread has been interrupted.
+     */
+    private JsonObject state(int node) throws InterruptedException {
+        try {
+            return send(node, "state", new JsonObject());
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Store or remove a name through a node.
+     *
+     * @param node the ID of the node.
+     * @param name the name.
+     * @param add  true to store the name, false to remove it.
+     * @throws Exception if the node couldn't be reached.
+     */
+    private void store(int node, String name, boolean add) throws Exception {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("name", name);
+        payload.addProperty("add", add);
+        send(node, "store", payload);
+    }
+
+    /**
+     * Send a message to a node, the same way {@link ClusterManager#send(int, String, JsonObject)} does.
+     *
+     * @param node    the ID of the node.
+     * @param type    the type of the message.
+     * @param payload the payload.
+     * @return the response.
+     * @throws IOException          if the node couldn't be reached.
+     * @throws InterruptedException if the Thread has been interrupted.
+     */
+    private JsonObject send(int node, String type, JsonObject payload) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://" + nodes.get(node) + "/cluster/" + type))
+                .timeout(Duration.ofSeconds(5))
+                .header("Authorization", SECRET)
+                .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) throw new IOException("Node " + node + " answered " + response.statusCode());
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    /**
+     * Read the logs of every node.
+     *
+     * @return the logs.
+     */
+    private String logs() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).sorted().map(file -> {
+                try {
+                    return file.getFileName() + ":\n" + Files.readString(file);
+                } catch (IOException exception) {
+                    return file.getFileName() + ": " + exception.getMessage();
+                }
+            }).collect(Collectors.joining("\n"));
+        } catch (IOException exception) {
+            return exception.getMessage();
+        }
+    }
+
+    /**
+     * Get the class path of the tests, also when they run in their own class loader.
+     *
+     * @return the class path.
+     */
+    private static String classPath() {
+        List<String> entries = new ArrayList<>();
+
+        if (ClusterManagerProcessTest.class.getClassLoader() instanceof URLClassLoader urlClassLoader) {
+            for (URL url : urlClassLoader.getURLs()) {
+                try {
+                    entries.add(new File(url.toURI()).getPath());
+                } catch (Exception ignore) {
+                    // Not a local file.
+                }
+            }
+        }
+
+        entries.add(System.getProperty("java.class.path"));
+        return entries.stream().filter(Objects::nonNull).collect(Collectors.joining(File.pathSeparator));
+    }
+
+    /**
+     * Get a free port.
+     *
+     * @return the port.
+     * @throws IOException if no port could be found.
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    /**
+     * A supplier that may throw.
+     *
+     * @param <T> the type of the value.
+     */
+    @FunctionalInterface
+    private interface ThrowingSupplier<T> {
+
+        /**
+         * Get the value.
+         *
+         * @return the value.
+         * @throws Exception if the value couldn't be retrieved.
+         */
+        T get() throws Exception;
+    }
+}
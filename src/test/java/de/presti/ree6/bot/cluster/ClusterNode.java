@@ -0,0 +1,98 @@
+package de.presti.ree6.bot.cluster;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import de.presti.ree6.sql.DatabaseTyp;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.Setting;
+import de.presti.ree6.utils.apis.Notifier;
+import org.simpleyaml.configuration.file.YamlFile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A node of a test cluster, started as its own process by {@link ClusterManagerProcessTest}.
+ * It registers names stored in the Settings table like the leader registers notifier channels, and follows removals the same way.
+ */
+public class ClusterNode {
+
+    /**
+     * The Guild ID of the Settings that store the names.
+     */
+    static final String NAMES_GUILD = "cluster-test";
+
+    /**
+     * The names registered on this node.
+     */
+    private static final Set<String> registered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private ClusterNode() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Start the node.
+     *
+     * @param args the ID of the node, the port of the H2 server, the name of the Database, the addresses of every node and the secret.
+     * @throws InterruptedException if the node has been interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        new SQLSession("sa", "ree6", "", "localhost", Integer.parseInt(args[1]), args[2], DatabaseTyp.H2_Server, 4, false);
+
+        System.setProperty("ree6.cluster.nodeId", args[0]);
+
+        YamlFile configuration = new YamlFile();
+        configuration.set("cluster.enabled", true);
+        configuration.set("cluster.nodes", List.of(args[3].split(",")));
+        configuration.set("cluster.secret", args[4]);
+        configuration.set("cluster.leaseDuration", 5);
+
+        ClusterManager.registerHandler("state", payload -> {
+            JsonObject response = new JsonObject();
+            response.addProperty("leader", ClusterManager.isLeader());
+            JsonArray names = new JsonArray();
+            registered.stream().sorted().forEach(names::add);
+            response.add("registered", names);
+            return response;
+        });
+
+        // Like a command on this node, it only changes the Database.
+        ClusterManager.registerHandler("store", payload -> {
+            String name = payload.get("name").getAsString();
+            if (payload.get("add").getAsBoolean()) {
+                SQLSession.getSqlConnector().getSqlWorker().setSetting(NAMES_GUILD, name, name, "true");
+            } else {
+                Setting setting = SQLSession.getSqlConnector().getSqlWorker().getEntity(new Setting(), "SELECT * FROM Settings WHERE GID=:gid AND NAME=:name",
+                        Map.of("gid", NAMES_GUILD, "name", name));
+                if (setting != null) SQLSession.getSqlConnector().getSqlWorker().deleteEntity(setting);
+            }
+            return null;
+        });
+
+        ClusterManager.init(configuration, 3);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            if (ClusterManager.isLeader()) reload();
+            Thread.sleep(250);
+        }
+    }
+
+    /**
+     * Register every stored name and unregister the removed ones, like the leader does with the notifier data.
+     */
+    private static void reload() {
+        List<String> stored = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Setting(), "SELECT * FROM Settings WHERE GID=:gid",
+                Map.of("gid", NAMES_GUILD)).stream().map(Setting::getName).toList();
+
+        registered.addAll(stored);
+        Notifier.getRemoved(registered, stored).forEach(registered::remove);
+    }
+}
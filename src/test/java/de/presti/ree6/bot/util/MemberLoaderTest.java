@@ -0,0 +1,138 @@
+package de.presti.ree6.bot.util;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.utils.concurrent.Task;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the reused Members of {@link MemberLoader}.
+ */
+class MemberLoaderTest {
+
+    /**
+     * A Guild whose chunk request is completed by the test.
+     */
+    private static final class FakeGuild {
+
+        /**
+         * The ID of the Guild.
+         */
+        private final long id = System.nanoTime();
+
+        /**
+         * The amount of chunk requests.
+         */
+        private final AtomicInteger requests = new AtomicInteger();
+
+        /**
+         * The success callback of the last chunk request.
+         */
+        private final AtomicReference<Consumer<List<Member>>> success = new AtomicReference<>();
+
+        /**
+         * The proxied {@link Guild}.
+         */
+        private final Guild guild = (Guild) Proxy.newProxyInstance(Guild.class.getClassLoader(), new Class[]{Guild.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getIdLong" -> id;
+                    case "getId", "getName" -> String.valueOf(id);
+                    case "loadMembers" -> {
+                        requests.incrementAndGet();
+                        yield task();
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        /**
+         * Create the Task of a chunk request.
+         *
+         * @return the {@link Task}.
+         */
+        @SuppressWarnings("unchecked")
+        private Task<List<Member>> task() {
+            return (Task<List<Member>>) Proxy.newProxyInstance(Task.class.getClassLoader(), new Class[]{Task.class}, (proxy, method, args) -> {
+                if (method.getName().equals("onSuccess")) success.set((Consumer<List<Member>>) args[0]);
+                return proxy;
+            });
+        }
+
+        /**
+         * Create a Member of this Guild.
+         *
+         * @param memberId the ID of the Member.
+         * @return the proxied {@link Member}.
+         */
+        private Member member(long memberId) {
+            return (Member) Proxy.newProxyInstance(Member.class.getClassLoader(), new Class[]{Member.class}, (proxy, method, args) ->
+                    switch (method.getName()) {
+                        case "getIdLong" -> memberId;
+                        case "getGuild" -> guild;
+                        case "hashCode" -> Long.hashCode(memberId);
+                        case "equals" -> proxy == args[0];
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    /**
+     * Get the IDs of Members.
+     *
+     * @param members the Members.
+     * @return the IDs.
+     */
+    private static List<Long> ids(List<Member> members) {
+        return members.stream().map(Member::getIdLong).toList();
+    }
+
+    @Test
+    void joinsAndLeavesArePatchedIntoTheReusedList() {
+        FakeGuild fake = new FakeGuild();
+
+        MemberLoader.load(fake.guild);
+        fake.success.get().accept(List.of(fake.member(1), fake.member(2)));
+
+        MemberLoader.memberJoined(fake.member(3));
+        MemberLoader.memberJoined(fake.member(3));
+        MemberLoader.memberLeft(fake.id, 1);
+
+        assertEquals(List.of(2L, 3L), ids(MemberLoader.load(fake.guild).join()));
+        assertEquals(1, fake.requests.get());
+        MemberLoader.invalidate(fake.id);
+    }
+
+    @Test
+    void changesDuringARunningLoadAreApplied() {
+        FakeGuild fake = new FakeGuild();
+
+        MemberLoader.load(fake.guild);
+        MemberLoader.memberLeft(fake.id, 1);
+        MemberLoader.memberJoined(fake.member(3));
+        fake.success.get().accept(List.of(fake.member(1), fake.member(2)));
+
+        assertEquals(List.of(2L, 3L), ids(MemberLoader.load(fake.guild).join()));
+        MemberLoader.invalidate(fake.id);
+    }
+
+    @Test
+    void changesWithoutALoadDoNothing() {
+        FakeGuild fake = new FakeGuild();
+
+        MemberLoader.memberJoined(fake.member(3));
+        MemberLoader.load(fake.guild);
+        fake.success.get().accept(List.of(fake.member(1)));
+
+        assertEquals(List.of(1L), ids(MemberLoader.load(fake.guild).join()));
+        MemberLoader.invalidate(fake.id);
+    }
+}
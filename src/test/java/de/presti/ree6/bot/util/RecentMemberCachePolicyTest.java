@@ -0,0 +1,166 @@
+package de.presti.ree6.bot.util;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.UserImpl;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link RecentMemberCachePolicy}.
+ */
+class RecentMemberCachePolicyTest {
+
+    /**
+     * The JDA instance the entities belong to, it is never logged in.
+     */
+    private static final JDAImpl jda = new JDAImpl(new AuthorizationConfig("test"));
+
+    /**
+     * Create a Member.
+     *
+     * @param guild    the Guild of the Member.
+     * @param memberId the ID of the Member.
+     * @return the {@link MemberImpl}.
+     */
+    private static MemberImpl member(GuildImpl guild, long memberId) {
+        return new MemberImpl(guild, new UserImpl(memberId, jda).setName("member" + memberId));
+    }
+
+    @Test
+    void onlyActiveMembersAreCached() {
+        GuildImpl guild = new GuildImpl(jda, 1);
+        MemberImpl member = member(guild, 2);
+        RecentMemberCachePolicy policy = new RecentMemberCachePolicy(Duration.ofMinutes(30));
+
+        assertFalse(policy.cacheMember(member));
+
+        policy.touch(member);
+        assertTrue(policy.cacheMember(member));
+        assertFalse(policy.cacheMember(member(guild, 3)));
+        assertFalse(policy.cacheMember(member(new GuildImpl(jda, 4), 2)));
+    }
+
+    @Test
+    void activityExpires() {
+        RecentMemberCachePolicy policy = new RecentMemberCachePolicy(Duration.ofMinutes(30));
+        long now = System.currentTimeMillis();
+
+        policy.touch(1, 2, now - Duration.ofMinutes(31).toMillis());
+        assertFalse(policy.isActive(1, 2, now));
+
+        policy.touch(1, 2, now);
+        assertTrue(policy.isActive(1, 2, now + Duration.ofMinutes(29).toMillis()));
+        assertFalse(policy.isActive(1, 2, now + Duration.ofMinutes(30).toMillis()));
+    }
+
+    /**
+     * The synthetic state of a Member.
+     *
+     * @param online  if the Member is online.
+     * @param voice   if the Member is in a voice channel.
+     * @param owner   if the Member owns the Guild.
+     * @param active  if the Member wrote a message or used an interaction recently.
+     */
+    private record Profile(boolean online, boolean voice, boolean owner, boolean active) {
+    }
+
+    /**
+     * Measure the heap used by the cached Members of 10k Guilds under each policy.
+     * 1,000 Guilds with 250 Members each are built with JDA's own entities, the result is scaled to 10k Guilds.
+     * 15% of the Members are online, 1% are in a voice channel and 3% have been active within the recent duration.
+     */
+    @Test
+    @Tag("benchmark")
+    void heapPerTenThousandGuilds() {
+        int guilds = 1_000, membersPerGuild = 250, scale = 10_000 / guilds;
+
+        Random random = new Random(38);
+        List<Profile> profiles = new ArrayList<>(guilds * membersPerGuild);
+        for (int i = 0; i < guilds * membersPerGuild; i++) {
+            profiles.add(new Profile(random.nextInt(100) < 15, random.nextInt(100) < 1, i % membersPerGuild == 0, random.nextInt(100) < 3));
+        }
+
+        measure("all", profiles, guilds, membersPerGuild, scale, null, profile -> true);
+        measure("online", profiles, guilds, membersPerGuild, scale, null, Profile::online);
+        measure("voice,owner", profiles, guilds, membersPerGuild, scale, null, profile -> profile.voice() || profile.owner());
+        measure("voice,owner,recent", profiles, guilds, membersPerGuild, scale,
+                new RecentMemberCachePolicy(Duration.ofMinutes(30)), profile -> profile.voice() || profile.owner());
+    }
+
+    /**
+     * Build the Guilds and cache the Members a policy wants, then print the used heap.
+     *
+     * @param name            the name of the policy.
+     * @param profiles        the synthetic state of every Member.
+     * @param guilds          the amount of Guilds.
+     * @param membersPerGuild the amount of Members per Guild.
+     * @param scale           the factor to get to 10k Guilds.
+     * @param recent          the recent policy, or null if it isn't used.
+     * @param keep            the policy of the Members that are kept regardless of activity.
+     */
+    private static void measure(String name, List<Profile> profiles, int guilds, int membersPerGuild, int scale,
+                                RecentMemberCachePolicy recent, Predicate<Profile> keep) {
+        long before = usedHeap();
+
+        List<GuildImpl> built = new ArrayList<>(guilds);
+        long cached = 0;
+        for (int guildIndex = 0; guildIndex < guilds; guildIndex++) {
+            GuildImpl guild = new GuildImpl(jda, guildIndex + 1L);
+            built.add(guild);
+
+            for (int memberIndex = 0; memberIndex < membersPerGuild; memberIndex++) {
+                long memberId = (long) guildIndex * membersPerGuild + memberIndex + 1;
+                Profile profile = profiles.get((int) memberId - 1);
+                MemberImpl member = member(guild, memberId);
+
+                if (recent != null && profile.active()) recent.touch(member);
+
+                boolean cache = keep.test(profile) || (recent != null && recent.cacheMember(member));
+                if (cache) {
+                    try (UnlockHook ignored = guild.getMembersView().writeLock()) {
+                        guild.getMembersView().getMap().put(memberId, member);
+                    }
+                    cached++;
+                }
+            }
+        }
+
+        long used = usedHeap() - before;
+        System.out.printf("Benchmark memberCachePolicy=%-20s cached=%,9d members, heap=%,7.1f MiB per 10k guilds%n",
+                name, cached * scale, used * scale / (1024.0 * 1024.0));
+
+        assertEquals(guilds, built.size());
+        if (recent != null) assertTrue(recent.getTrackedCount() > 0);
+    }
+
+    /**
+     * Get the used heap after a garbage collection.
+     *
+     * @return the used heap in bytes.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
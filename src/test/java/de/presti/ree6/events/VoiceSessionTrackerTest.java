@@ -0,0 +1,182 @@
+package de.presti.ree6.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link VoiceSessionTracker}, replaying synthetic voice events with a fake clock.
+ */
+class VoiceSessionTrackerTest {
+
+    /**
+     * The length of a minute in millis.
+     */
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    /**
+     * The fake clock.
+     */
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    /**
+     * The tracker, using the fake clock.
+     */
+    private final VoiceSessionTracker tracker = new VoiceSessionTracker(clock::get);
+
+    /**
+     * Let time pass.
+     *
+     * @param minutes the passed time in minutes.
+     */
+    private void pass(double minutes) {
+        clock.addAndGet((long) (minutes * MINUTE));
+    }
+
+    /**
+     * Create a key.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the Member.
+     * @return the {@link VoiceSessionTracker.Key}.
+     */
+    private static VoiceSessionTracker.Key key(long guildId, long userId) {
+        return new VoiceSessionTracker.Key(guildId, userId);
+    }
+
+    @Test
+    void memberOnTwoGuildsHasTwoSessions() {
+        tracker.update(1, 10, true);
+        pass(2);
+        tracker.update(2, 10, true);
+        pass(3);
+        tracker.update(1, 10, false);
+
+        assertEquals(Map.of(key(1, 10), 5L, key(2, 10), 3L), tracker.drain(MINUTE));
+    }
+
+    @Test
+    void deafenedTimeDoesNotCount() {
+        tracker.update(1, 10, true);
+        pass(2);
+        // Deafened.
+        tracker.update(1, 10, false);
+        pass(10);
+        // Undeafened, then moved to another channel.
+        tracker.update(1, 10, true);
+        pass(1);
+        tracker.update(1, 10, true);
+        pass(1);
+
+        assertEquals(Map.of(key(1, 10), 4L), tracker.drain(MINUTE));
+        assertEquals(1, tracker.getCountingSessions());
+    }
+
+    @Test
+    void restIsOnlyKeptWhileCounting() {
+        tracker.update(1, 10, true);
+        tracker.update(1, 20, true);
+        pass(1.5);
+
+        assertEquals(Map.of(key(1, 10), 1L, key(1, 20), 1L), tracker.drain(MINUTE));
+
+        pass(0.25);
+        tracker.update(1, 20, false);
+        pass(0.25);
+
+        // The first Member keeps the rest of the last drain, the second one has left and loses it.
+        assertEquals(Map.of(key(1, 10), 1L), tracker.drain(MINUTE));
+        assertEquals(1, tracker.getCountingSessions());
+    }
+
+    @Test
+    void nonCountingMembersDoNotGetASession() {
+        tracker.update(1, 10, false);
+        pass(5);
+
+        assertTrue(tracker.drain(MINUTE).isEmpty());
+        assertEquals(0, tracker.getCountingSessions());
+    }
+
+    @Test
+    void reconcileFollowsTheCurrentVoiceStates() {
+        tracker.update(1, 10, true);
+        tracker.update(1, 20, true);
+        tracker.update(2, 10, true);
+        pass(3);
+
+        // While the shard was disconnected 10 left, 20 deafened and 30 joined.
+        tracker.reconcile(1, Map.of(20L, false, 30L, true));
+        pass(2);
+
+        assertEquals(Map.of(key(1, 10), 3L, key(1, 20), 3L, key(1, 30), 2L, key(2, 10), 5L), tracker.drain(MINUTE));
+        assertEquals(2, tracker.getCountingSessions());
+    }
+
+    @Test
+    void statisticsAreTakenOnce() {
+        tracker.update(1, 10, true);
+        tracker.update(1, 20, true);
+        tracker.update(2, 10, true);
+        pass(2);
+        tracker.drain(MINUTE);
+
+        tracker.update(1, 20, false);
+        tracker.update(2, 10, false);
+        pass(3);
+        tracker.drain(MINUTE);
+
+        assertEquals(new VoiceSessionTracker.Statistics(9, 3, 3), tracker.takeStatistics());
+        // The peak starts again from the Members that are still in a voice channel.
+        assertEquals(new VoiceSessionTracker.Statistics(0, 0, 1), tracker.takeStatistics());
+    }
+
+    @Test
+    void concurrentEventsAndDrainsLoseNoTime() throws Exception {
+        int threads = 8, members = 500, rounds = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int userId = 0; userId < members; userId++) {
+            tracker.update(userId % 3, userId, true);
+        }
+
+        pass(rounds);
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                // Every Member toggles between counting and not counting, without time passing.
+                for (int round = 0; round < rounds; round++) {
+                    for (int userId = thread; userId < members; userId += threads) {
+                        tracker.update(userId % 3, userId, round % 2 == 1);
+                    }
+                }
+            }));
+        }
+
+        List<Map<VoiceSessionTracker.Key, Long>> drains = new ArrayList<>();
+        Future<?> drainer = executor.submit(() -> {
+            for (int i = 0; i < 100; i++) drains.add(tracker.drain(MINUTE));
+        });
+
+        for (Future<?> result : results) result.get();
+        drainer.get();
+        drains.add(tracker.drain(MINUTE));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        long minutes = drains.stream().flatMap(drain -> drain.values().stream()).mapToLong(Long::longValue).sum();
+        assertEquals((long) members * rounds, minutes);
+    }
+}
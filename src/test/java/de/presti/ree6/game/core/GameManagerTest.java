@@ -0,0 +1,292 @@
+package de.presti.ree6.game.core;
+
+import de.presti.ree6.game.core.base.GamePlayer;
+import de.presti.ree6.game.core.base.IGame;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.UserImpl;
+import net.dv8tion.jda.internal.entities.channel.concrete.TextChannelImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the limits and the registry of the {@link GameManager}.
+ */
+class GameManagerTest {
+
+    /**
+     * The JDA instance the entities belong to, it is never logged in.
+     */
+    private static final JDAImpl jda = new JDAImpl(new AuthorizationConfig("test"));
+
+    /**
+     * A time after which every GameSession has expired.
+     */
+    private static final long LATER = System.currentTimeMillis() + Duration.ofDays(1).toMillis();
+
+    /**
+     * Register the test Games.
+     */
+    @BeforeAll
+    static void setUp() {
+        GameManager.setGameCache(Map.of("test", TestGame.class, "broken", BrokenGame.class));
+    }
+
+    /**
+     * Create a Member of a Guild.
+     *
+     * @param guild    the Guild.
+     * @param memberId the ID of the Member.
+     * @return the {@link Member}.
+     */
+    private static Member member(GuildImpl guild, long memberId) {
+        return new MemberImpl(guild, new UserImpl(memberId, jda));
+    }
+
+    /**
+     * Create a GameSession of the test Game.
+     *
+     * @param channel the Channel of the GameSession.
+     * @param host    the host of the GameSession.
+     * @return the {@link GameSession}.
+     * @throws GameSessionException if it couldn't be created.
+     */
+    private static GameSession create(TextChannelImpl channel, Member host) throws GameSessionException {
+        return GameManager.createGameSession("test", host, channel, new ArrayList<>());
+    }
+
+    /**
+     * Create a GameSession and get the reason it couldn't be created.
+     *
+     * @param gameName the Name of the Game.
+     * @param channel  the Channel of the GameSession.
+     * @param host     the host of the GameSession.
+     * @return the {@link GameSessionException.Reason}.
+     */
+    private static GameSessionException.Reason failure(String gameName, TextChannelImpl channel, Member host) {
+        return assertThrows(GameSessionException.class, () -> GameManager.createGameSession(gameName, host, channel, new ArrayList<>())).getReason();
+    }
+
+    @Test
+    void failuresHaveDistinctReasons() throws Exception {
+        GuildImpl guild = new GuildImpl(jda, 5001);
+        TextChannelImpl channel = new TextChannelImpl(50011, guild);
+        Member host = member(guild, 50012);
+
+        assertEquals(GameSessionException.Reason.UNKNOWN_GAME, failure("missing", channel, host));
+        assertEquals(GameSessionException.Reason.FAILED, failure("broken", channel, host));
+
+        // The failed Game gave its slot back.
+        GameSession first = create(channel, host);
+        create(channel, host);
+        assertEquals(GameSessionException.Reason.LIMIT_REACHED, failure("test", channel, host));
+
+        GameManager.removeGameSession(first);
+        GameManager.removeGameSession(first);
+        assertNotNull(create(channel, host));
+        assertEquals(GameSessionException.Reason.LIMIT_REACHED, failure("test", channel, host));
+    }
+
+    @Test
+    void guildLimitIsShared() throws Exception {
+        GuildImpl guild = new GuildImpl(jda, 5002);
+        TextChannelImpl channel = new TextChannelImpl(50021, guild);
+
+        for (int i = 0; i < 10; i++) {
+            create(channel, member(guild, 50030 + i));
+        }
+
+        assertEquals(GameSessionException.Reason.LIMIT_REACHED, failure("test", channel, member(guild, 50040)));
+
+        GameManager.expireSessions(LATER);
+        assertNotNull(create(channel, member(guild, 50040)));
+    }
+
+    @Test
+    void concurrentCreationsAndExpirationsKeepTheLimits() throws Exception {
+        int guildCount = 20, userCount = 200, threads = 16, creationsPerThread = 1_000;
+        List<GuildImpl> guilds = new ArrayList<>();
+        List<TextChannelImpl> channels = new ArrayList<>();
+
+        for (int i = 0; i < guildCount; i++) {
+            GuildImpl guild = new GuildImpl(jda, 6000 + i);
+            guilds.add(guild);
+            channels.add(new TextChannelImpl(60000 + i, guild));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        Queue<GameSession> kept = new ConcurrentLinkedQueue<>();
+        Map<GameSessionException.Reason, AtomicInteger> failures = new EnumMap<>(GameSessionException.Reason.class);
+        for (GameSessionException.Reason reason : GameSessionException.Reason.values()) failures.put(reason, new AtomicInteger());
+        AtomicInteger created = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < creationsPerThread; i++) {
+                    int guild = random.nextInt(guildCount);
+                    Member host = member(guilds.get(guild), 70_000 + random.nextInt(userCount));
+
+                    try {
+                        GameSession gameSession = GameManager.createGameSession(random.nextInt(20) == 0 ? "broken" : "test",
+                                host, channels.get(guild), new ArrayList<>());
+                        created.incrementAndGet();
+
+                        // Half of the Sessions end right away, the others are ended later or expire, often both at once.
+                        if (random.nextBoolean()) {
+                            GameManager.removeGameSession(gameSession);
+                        } else {
+                            kept.add(gameSession);
+                        }
+                    } catch (GameSessionException exception) {
+                        failures.get(exception.getReason()).incrementAndGet();
+                    }
+
+                    GameSession old = random.nextInt(3) == 0 ? kept.poll() : null;
+                    if (old != null) GameManager.removeGameSession(old);
+                }
+            }));
+        }
+
+        Future<?> expiry = executor.submit(() -> {
+            while (running.get()) GameManager.expireSessions(LATER);
+        });
+
+        for (Future<?> worker : workers) worker.get();
+        running.set(false);
+        expiry.get();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertTrue(created.get() > 1_000, "Only " + created.get() + " Sessions were created");
+        assertTrue(failures.get(GameSessionException.Reason.FAILED).get() > 0);
+        assertEquals(0, failures.get(GameSessionException.Reason.UNKNOWN_GAME).get());
+
+        // Whatever is still running is within the limits.
+        List<GameSession> runningSessions = GameManager.getGameSessions().stream().filter(gameSession -> gameSession.getGuild().getIdLong() >= 6000 &&
+                gameSession.getGuild().getIdLong() < 6000 + guildCount).toList();
+        runningSessions.stream().collect(Collectors.groupingBy(gameSession -> gameSession.getGuild().getId(), Collectors.counting()))
+                .values().forEach(count -> assertTrue(count <= 10));
+        runningSessions.stream().collect(Collectors.groupingBy(gameSession -> gameSession.getHost().getId(), Collectors.counting()))
+                .values().forEach(count -> assertTrue(count <= 2));
+
+        GameManager.expireSessions(LATER);
+        kept.forEach(GameManager::removeGameSession);
+
+        // Every Game has been removed exactly once, and no slot has been lost or given back twice.
+        assertTrue(TestGame.games.stream().allMatch(game -> game.removals.get() == 1));
+        for (int i = 0; i < guildCount; i++) {
+            for (int j = 0; j < 10; j++) {
+                create(channels.get(i), member(guilds.get(i), 80_000 + i * 10 + j));
+            }
+
+            assertEquals(GameSessionException.Reason.LIMIT_REACHED, failure("test", channels.get(i), member(guilds.get(i), 90_000)));
+        }
+
+        GameManager.expireSessions(LATER);
+        for (int userId = 70_000; userId < 70_000 + userCount; userId++) {
+            Member host = member(guilds.get(userId % guildCount), userId);
+            create(channels.get(userId % guildCount), host);
+            create(channels.get(userId % guildCount), host);
+            assertEquals(GameSessionException.Reason.LIMIT_REACHED, failure("test", channels.get(userId % guildCount), host));
+            GameManager.expireSessions(LATER);
+        }
+    }
+
+    /**
+     * A Game that does nothing, but counts how often it has been removed.
+     */
+    static class TestGame implements IGame {
+
+        /**
+         * Every created Game.
+         */
+        static final Queue<TestGame> games = new ConcurrentLinkedQueue<>();
+
+        /**
+         * How often the GameSession of the Game has been removed.
+         */
+        final AtomicInteger removals = new AtomicInteger();
+
+        /**
+         * Constructor used by the {@link GameManager}.
+         *
+         * @param gameSession the GameSession.
+         */
+        TestGame(GameSession gameSession) {
+            games.add(this);
+        }
+
+        @Override
+        public void createGame() {
+        }
+
+        @Override
+        public void startGame() {
+        }
+
+        @Override
+        public void joinGame(GamePlayer user) {
+        }
+
+        @Override
+        public void leaveGame(GamePlayer user) {
+        }
+
+        @Override
+        public void stopGame() {
+        }
+
+        @Override
+        public void onSessionRemoved(boolean expired) {
+            removals.incrementAndGet();
+        }
+    }
+
+    /**
+     * A Game that can't be created.
+     */
+    static class BrokenGame extends TestGame {
+
+        /**
+         * Constructor used by the {@link GameManager}, it always fails.
+         *
+         * @param gameSession the GameSession.
+         */
+        BrokenGame(GameSession gameSession) {
+            super(throwBroken());
+        }
+
+        /**
+         * Fail the creation of the Game, before it is counted.
+         *
+         * @return nothing, it always throws.
+         */
+        private static GameSession throwBroken() {
+            throw new IllegalStateException("Broken");
+        }
+    }
+}
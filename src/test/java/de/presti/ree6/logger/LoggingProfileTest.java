@@ -0,0 +1,165 @@
+package de.presti.ree6.logger;
+
+import de.presti.ree6.TestDatabase;
+import de.presti.ree6.bot.util.WebhookUtil;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.SQLWorker;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests and a replay benchmark for the {@link LoggingProfile}.
+ */
+class LoggingProfileTest {
+
+    /**
+     * Start the Database.
+     */
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.start();
+    }
+
+    /**
+     * Get the SQLWorker.
+     *
+     * @return the {@link SQLWorker}.
+     */
+    private static SQLWorker sql() {
+        return SQLSession.getSqlConnector().getSqlWorker();
+    }
+
+    /**
+     * Set up logging for a Guild.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param settings the enabled settings.
+     */
+    private static void setUpLogging(String guildId, LoggingProfile.Setting... settings) {
+        sql().setLogWebhook(guildId, 1, "1" + guildId, "token-" + guildId);
+
+        for (LoggingProfile.Setting setting : settings) {
+            sql().setSetting(guildId, setting.getKey(), setting.getKey(), true);
+        }
+    }
+
+    @Test
+    void guildWithoutLoggingHasNothingEnabled() {
+        LoggingProfile profile = LoggingProfile.get("4700");
+
+        assertNull(profile.getWebhook());
+        for (LoggingProfile.Setting setting : LoggingProfile.Setting.values()) {
+            assertFalse(profile.isEnabled(setting));
+        }
+    }
+
+    @Test
+    void settingsAreCompiledIntoTheProfile() {
+        setUpLogging("4701", LoggingProfile.Setting.NICKNAME, LoggingProfile.Setting.VOICE_MOVE);
+        sql().setSetting("4701", LoggingProfile.Setting.VOICE_JOIN.getKey(), "", false);
+
+        LoggingProfile profile = LoggingProfile.get("4701");
+
+        assertEquals("token-4701", profile.getWebhook().getToken());
+        assertTrue(profile.isEnabled(LoggingProfile.Setting.NICKNAME));
+        assertTrue(profile.isEnabled(LoggingProfile.Setting.VOICE_MOVE));
+        assertFalse(profile.isEnabled(LoggingProfile.Setting.VOICE_JOIN));
+        assertSame(profile, LoggingProfile.get("4701"));
+    }
+
+    @Test
+    void invalidatedProfileIsBuiltAgain() {
+        setUpLogging("4702", LoggingProfile.Setting.ROLE_ADD);
+        assertFalse(LoggingProfile.get("4702").isEnabled(LoggingProfile.Setting.ROLE_REMOVE));
+
+        sql().setSetting("4702", LoggingProfile.Setting.ROLE_REMOVE.getKey(), "", true);
+        LoggingProfile.invalidate("4702");
+
+        assertTrue(LoggingProfile.get("4702").isEnabled(LoggingProfile.Setting.ROLE_REMOVE));
+    }
+
+    @Test
+    void deletedWebhookDisablesLogging() {
+        setUpLogging("4703", LoggingProfile.Setting.MEMBER_JOIN);
+        assertTrue(LoggingProfile.get("4703").isEnabled(LoggingProfile.Setting.MEMBER_JOIN));
+
+        WebhookUtil.deleteWebhook("4703", sql().getLogWebhook("4703"));
+
+        LoggingProfile profile = LoggingProfile.get("4703");
+        assertNull(profile.getWebhook());
+        assertFalse(profile.isEnabled(LoggingProfile.Setting.MEMBER_JOIN));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void replaySyntheticEvents() {
+        int guilds = 1_000, events = 200_000;
+        LoggingProfile.Setting[] settings = LoggingProfile.Setting.values();
+        Random random = new Random(47);
+
+        // Every tenth Guild has logging set up, with a random half of the settings enabled.
+        int loggingGuilds = guilds / 10;
+        for (int guild = 0; guild < guilds; guild += 10) {
+            String guildId = String.valueOf(470_000 + guild);
+            setUpLogging(guildId);
+            for (LoggingProfile.Setting setting : settings) {
+                sql().setSetting(guildId, setting.getKey(), setting.getKey(), random.nextBoolean());
+            }
+        }
+
+        String[] eventGuilds = new String[events];
+        LoggingProfile.Setting[] eventSettings = new LoggingProfile.Setting[events];
+        for (int i = 0; i < events; i++) {
+            eventGuilds[i] = String.valueOf(470_000 + random.nextInt(guilds));
+            eventSettings[i] = settings[random.nextInt(settings.length)];
+        }
+
+        // The check every handler used to run before it did anything.
+        long start = System.nanoTime();
+        int legacyLogged = 0, legacyQueries = 0;
+        for (int i = 0; i < events; i++) {
+            legacyQueries++;
+            if (sql().isLogSetup(eventGuilds[i])) {
+                legacyQueries++;
+                if (sql().getSetting(eventGuilds[i], eventSettings[i].getKey()).getBooleanValue()) {
+                    legacyLogged++;
+                }
+            }
+        }
+        long legacy = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int profileLogged = 0;
+        for (int i = 0; i < events; i++) {
+            if (LoggingProfile.get(eventGuilds[i]).isEnabled(eventSettings[i])) {
+                profileLogged++;
+            }
+        }
+        long building = System.nanoTime() - start;
+
+        // Replayed again, now that every profile is cached.
+        start = System.nanoTime();
+        int cachedLogged = 0;
+        for (int i = 0; i < events; i++) {
+            if (LoggingProfile.get(eventGuilds[i]).isEnabled(eventSettings[i])) {
+                cachedLogged++;
+            }
+        }
+        long cached = System.nanoTime() - start;
+
+        assertEquals(legacyLogged, profileLogged);
+        assertEquals(legacyLogged, cachedLogged);
+        System.out.printf("[Benchmark] LoggingEvents replay of %,d events on %,d Guilds, %,d logged%n", events, guilds, profileLogged);
+        // isLogSetup for every Guild, getLogWebhook and every setting for the Guilds with logging.
+        int profileQueries = guilds + loggingGuilds * (1 + settings.length);
+        System.out.printf("[Benchmark] Database queries: %,d before, %,d with LoggingProfile%n", legacyQueries, profileQueries);
+        System.out.printf("[Benchmark] isLogSetup + getSetting:     %,12d events/s%n", events * 1_000_000_000L / legacy);
+        System.out.printf("[Benchmark] LoggingProfile, building:    %,12d events/s%n", events * 1_000_000_000L / building);
+        System.out.printf("[Benchmark] LoggingProfile, cached:      %,12d events/s%n", events * 1_000_000_000L / cached);
+    }
+}
@@ -0,0 +1,85 @@
+package de.presti.ree6.logger.invite;
+
+import net.dv8tion.jda.api.entities.Guild;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the join attribution of {@link InviteContainerManager}.
+ */
+class InviteContainerManagerTest {
+
+    /**
+     * Create an Invite.
+     *
+     * @param code the Code of the Invite.
+     * @param uses the uses of the Invite.
+     * @return the {@link InviteContainer}.
+     */
+    private static InviteContainer invite(String code, long uses) {
+        return new InviteContainer("1", "2", code, uses, false);
+    }
+
+    @Test
+    void joinsAreLimitedToTheGainedUses() {
+        InviteContainer invite = invite("abc", 5);
+        Map<InviteContainer, Long> used = new LinkedHashMap<>();
+        used.put(invite, 1L);
+
+        assertEquals(List.of(invite), InviteContainerManager.attributeJoins(used, List.of(), 3));
+    }
+
+    @Test
+    void everyJoinOfASingleInviteIsAttributed() {
+        InviteContainer invite = invite("abc", 5);
+        Map<InviteContainer, Long> used = new LinkedHashMap<>();
+        used.put(invite, 4L);
+
+        assertEquals(List.of(invite, invite, invite), InviteContainerManager.attributeJoins(used, List.of(), 3));
+    }
+
+    @Test
+    void differentInvitesAreNotGuessed() {
+        Map<InviteContainer, Long> used = new LinkedHashMap<>();
+        used.put(invite("abc", 5), 1L);
+        used.put(invite("def", 2), 1L);
+
+        assertTrue(InviteContainerManager.attributeJoins(used, List.of(), 2).isEmpty());
+    }
+
+    @Test
+    void vanishedInviteIsUsedForASingleJoin() {
+        InviteContainer invite = invite("abc", 9);
+
+        assertEquals(List.of(invite), InviteContainerManager.attributeJoins(Map.of(), List.of(invite), 1));
+        assertEquals(10, invite.getUses());
+        assertTrue(InviteContainerManager.attributeJoins(Map.of(), List.of(invite("def", 1)), 2).isEmpty());
+    }
+
+    @Test
+    void synchronousFailureCompletesEveryJoin() throws Exception {
+        Guild guild = (Guild) Proxy.newProxyInstance(Guild.class.getClassLoader(), new Class[]{Guild.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getId" -> "invite-test-guild";
+                    case "getVanityCode" -> null;
+                    case "retrieveInvites" -> throw new IllegalStateException("Missing permission");
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        CompletableFuture<InviteContainer> first = InviteContainerManager.getRightInvite(guild);
+        CompletableFuture<InviteContainer> second = InviteContainerManager.getRightInvite(guild);
+
+        assertNull(first.get(10, TimeUnit.SECONDS));
+        assertNull(second.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,47 @@
+package de.presti.ree6.main;
+
+import de.presti.ree6.utils.data.Config;
+import de.presti.ree6.utils.data.ConfigSnapshot;
+import org.simpleyaml.configuration.file.YamlFile;
+
+/**
+ * Replaces the Configuration of the Bot with one that only exists in memory, for the tests that need one.
+ */
+public class TestConfig {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     * @throws IllegalStateException it is a utility class.
+     */
+    private TestConfig() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Use a Configuration, it is never loaded from or written to a file.
+     *
+     * @param configuration the Configuration.
+     */
+    public static void use(YamlFile configuration) {
+        ConfigSnapshot snapshot = ConfigSnapshot.compile(configuration);
+
+        Main.getInstance().config = new Config() {
+            @Override
+            public YamlFile getConfiguration() {
+                return configuration;
+            }
+
+            @Override
+            public ConfigSnapshot getSnapshot() {
+                return snapshot;
+            }
+        };
+    }
+
+    /**
+     * Remove the Configuration again.
+     */
+    public static void reset() {
+        Main.getInstance().config = null;
+    }
+}
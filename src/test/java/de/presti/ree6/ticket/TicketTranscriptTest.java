@@ -0,0 +1,197 @@
+package de.presti.ree6.ticket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link TicketTranscript}, driven by synthetic messages.
+ */
+class TicketTranscriptTest {
+
+    /**
+     * The directory of the transcript.
+     */
+    private Path directory;
+
+    /**
+     * Create an empty directory.
+     *
+     * @throws IOException if the directory couldn't be created.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("ree6-ticket").resolve("1");
+    }
+
+    /**
+     * Append synthetic messages that have just been sent.
+     *
+     * @param transcript the transcript.
+     * @param first      the ID of the first message.
+     * @param last       the ID of the last message.
+     * @throws IOException if a chunk couldn't be written.
+     */
+    private static void append(TicketTranscript transcript, long first, long last) throws IOException {
+        for (long id = first; id <= last; id++) {
+            transcript.append(id, OffsetDateTime.now(), "user", "m" + id, List.of());
+        }
+    }
+
+    /**
+     * Backfill the synthetic history after a cursor.
+     *
+     * @param transcript the transcript.
+     * @param last       the ID of the last message of the history.
+     * @throws IOException if a chunk couldn't be written.
+     */
+    private static void backfill(TicketTranscript transcript, long last) throws IOException {
+        long cursor = transcript.startBackfill();
+        for (long id = cursor + 1; id <= last; id++) {
+            transcript.backfill(id, OffsetDateTime.now(), "user", "m" + id, List.of());
+        }
+        transcript.flush();
+    }
+
+    /**
+     * Read the IDs of every message in the transcript.
+     *
+     * @param transcript the transcript.
+     * @param compressed if the transcript should be read compressed.
+     * @return the IDs, in the order of the transcript.
+     * @throws IOException if the transcript couldn't be read.
+     */
+    private static List<Long> ids(TicketTranscript transcript, boolean compressed) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transcript.writeTo(outputStream, compressed);
+
+        byte[] content = outputStream.toByteArray();
+        if (compressed) {
+            try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(content))) {
+                content = inputStream.readAllBytes();
+            }
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (String line : new String(content, StandardCharsets.UTF_8).split("\n")) {
+            ids.add(Long.parseLong(line.substring(line.lastIndexOf(" m") + 2)));
+        }
+        return ids;
+    }
+
+    /**
+     * Get a range of IDs.
+     *
+     * @param first the first ID.
+     * @param last  the last ID.
+     * @return the IDs.
+     */
+    private static List<Long> range(long first, long last) {
+        return LongStream.rangeClosed(first, last).boxed().toList();
+    }
+
+    @Test
+    void closeOnlyLoadsTheMessagesAfterTheCapturedOnes() throws IOException {
+        TicketTranscript transcript = new TicketTranscript(directory, true);
+        append(transcript, 1, 20);
+
+        assertEquals(20, transcript.startBackfill());
+        for (long id = 21; id <= 25; id++) {
+            transcript.backfill(id, OffsetDateTime.now(), "user", "m" + id, List.of());
+        }
+        transcript.flush();
+
+        assertEquals(range(1, 25), ids(transcript, false));
+        assertEquals(25, transcript.getBackfillCursor());
+    }
+
+    @Test
+    void messagesOfARestartAreBackfilled() throws IOException {
+        TicketTranscript transcript = new TicketTranscript(directory, true);
+        append(transcript, 1, 10);
+        transcript.flush();
+        // Buffered when the Bot stopped, never written.
+        append(transcript, 11, 15);
+
+        TicketTranscript restarted = new TicketTranscript(directory, false);
+        assertEquals(10, restarted.getBackfillCursor());
+
+        // Messages sent after the restart are captured, the ones sent while offline are missing.
+        append(restarted, 20, 25);
+        restarted.flush();
+        assertEquals(10, restarted.getBackfillCursor());
+
+        backfill(restarted, 30);
+
+        assertEquals(range(1, 30), ids(restarted, false));
+        assertEquals(range(1, 30), ids(new TicketTranscript(directory, false), true));
+    }
+
+    @Test
+    void severalRestartsLeaveNoGap() throws IOException {
+        TicketTranscript transcript = new TicketTranscript(directory, true);
+        append(transcript, 1, 5);
+        transcript.flush();
+
+        transcript = new TicketTranscript(directory, false);
+        append(transcript, 10, 12);
+        transcript.flush();
+
+        transcript = new TicketTranscript(directory, false);
+        append(transcript, 20, 22);
+        transcript.flush();
+
+        backfill(transcript, 25);
+
+        assertEquals(range(1, 25), ids(transcript, false));
+    }
+
+    @Test
+    void ticketsOpenedBeforeCapturingLoadTheWholeHistory() throws IOException {
+        TicketTranscript transcript = new TicketTranscript(directory, false);
+        append(transcript, 7, 9);
+
+        backfill(transcript, 9);
+
+        assertEquals(range(1, 9), ids(transcript, false));
+    }
+
+    @Test
+    void messagesSentWhileBackfillingComeFromTheHistory() throws IOException {
+        TicketTranscript transcript = new TicketTranscript(directory, true);
+        append(transcript, 1, 3);
+
+        long cursor = transcript.startBackfill();
+        append(transcript, 4, 4);
+        for (long id = cursor + 1; id <= 5; id++) {
+            transcript.backfill(id, OffsetDateTime.now(), "user", "m" + id, List.of());
+        }
+        transcript.flush();
+
+        assertEquals(range(1, 5), ids(transcript, false));
+    }
+
+    @Test
+    void deleteRemovesTheDirectory() throws IOException {
+        TicketTranscript transcript = new TicketTranscript(directory, true);
+        append(transcript, 1, 3);
+        transcript.flush();
+
+        transcript.delete();
+
+        assertFalse(Files.exists(directory));
+    }
+}
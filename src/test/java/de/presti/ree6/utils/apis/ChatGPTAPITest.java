@@ -0,0 +1,406 @@
+package de.presti.ree6.utils.apis;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.presti.ree6.main.TestConfig;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.UserImpl;
+import net.dv8tion.jda.internal.entities.channel.concrete.TextChannelImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.simpleyaml.configuration.file.YamlFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the conversations of the {@link ChatGPTAPI}, using a fake Chat Completion endpoint on a local server.
+ */
+class ChatGPTAPITest {
+
+    /**
+     * The token budget of the prompts, the lowest one that can be configured.
+     */
+    private static final int MAX_PROMPT_TOKENS = 256;
+
+    /**
+     * The maximum amount of concurrent requests.
+     */
+    private static final int MAX_CONCURRENT_REQUESTS = 2;
+
+    /**
+     * The JDA instance the entities belong to, it is never logged in.
+     */
+    private static final JDAImpl jda = new JDAImpl(new AuthorizationConfig("test"));
+
+    /**
+     * The fake Chat Completion endpoint.
+     */
+    private static HttpServer server;
+
+    /**
+     * The Threads answering the requests, so that they can overlap.
+     */
+    private static ExecutorService executor;
+
+    /**
+     * The messages of every received request, in the order they have been received.
+     */
+    private static final List<JsonArray> requests = new CopyOnWriteArrayList<>();
+
+    /**
+     * The amount of requests that are currently being answered.
+     */
+    private static final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The highest amount of requests that have been answered at once.
+     */
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * The time in millis each answer takes.
+     */
+    private static volatile long delay;
+
+    /**
+     * The requests are only answered once this is open.
+     */
+    private static volatile CountDownLatch gate = new CountDownLatch(0);
+
+    /**
+     * Start the fake endpoint and load a configuration pointing at it.
+     *
+     * @throws IOException if the server couldn't be started.
+     */
+    @BeforeAll
+    static void setUp() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", ChatGPTAPITest::answer);
+        server.start();
+
+        YamlFile configuration = new YamlFile();
+        configuration.set("openai.apiUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions");
+        configuration.set("openai.apiToken", "test");
+        configuration.set("openai.maxPromptTokens", MAX_PROMPT_TOKENS);
+        configuration.set("openai.summarize", true);
+        configuration.set("openai.maxConcurrentRequests", MAX_CONCURRENT_REQUESTS);
+        TestConfig.use(configuration);
+
+        new ChatGPTAPI();
+    }
+
+    /**
+     * Stop the fake endpoint and remove the configuration.
+     */
+    @AfterAll
+    static void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+        TestConfig.reset();
+    }
+
+    /**
+     * Forget the requests of the previous test.
+     */
+    @BeforeEach
+    void reset() {
+        requests.clear();
+        maxInFlight.set(0);
+        delay = 0;
+        gate = new CountDownLatch(0);
+    }
+
+    /**
+     * Answer a request, summaries are answered with "summary" and everything else with "answer".
+     *
+     * @param exchange the {@link HttpExchange}.
+     * @throws IOException if the answer couldn't be sent.
+     */
+    private static void answer(HttpExchange exchange) throws IOException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+        try {
+            JsonArray messages = JsonParser.parseString(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                    .getAsJsonObject().getAsJsonArray("messages");
+            requests.add(messages);
+
+            gate.await(10, TimeUnit.SECONDS);
+            if (delay > 0) Thread.sleep(delay);
+
+            JsonObject message = new JsonObject();
+            message.addProperty("role", "assistant");
+            message.addProperty("content", isSummary(messages) ? "summary " + requests.size() : "answer " + requests.size());
+
+            JsonObject choice = new JsonObject();
+            choice.add("message", message);
+
+            JsonArray choices = new JsonArray();
+            choices.add(choice);
+
+            JsonObject body = new JsonObject();
+            body.add("choices", choices);
+
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    /**
+     * Check if a request asked for a summary.
+     *
+     * @param messages the messages of the request.
+     * @return true, if it is a summary.
+     */
+    private static boolean isSummary(JsonArray messages) {
+        return content(messages.get(0)).startsWith("Summarize");
+    }
+
+    /**
+     * Get the content of a message.
+     *
+     * @param message the message.
+     * @return the content.
+     */
+    private static String content(JsonElement message) {
+        return message.getAsJsonObject().get("content").getAsString();
+    }
+
+    /**
+     * Get the prompts that have been sent for the messages starting with a tag, without the summaries.
+     *
+     * @param tag the tag.
+     * @return the prompts, in the order they have been sent.
+     */
+    private static List<JsonArray> prompts(String tag) {
+        return requests.stream().filter(messages -> !isSummary(messages) &&
+                content(messages.get(messages.size() - 1)).startsWith(tag)).toList();
+    }
+
+    /**
+     * Check if a prompt contains a message starting with a prefix.
+     *
+     * @param messages the messages of the prompt.
+     * @param prefix   the prefix.
+     * @return true, if one of the messages starts with it.
+     */
+    private static boolean contains(JsonArray messages, String prefix) {
+        for (JsonElement message : messages) {
+            if (content(message).startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Estimate the tokens of a prompt, the same way the {@link ChatGPTAPI} does.
+     *
+     * @param messages the messages of the prompt.
+     * @return the estimated amount of tokens.
+     */
+    private static int tokens(JsonArray messages) {
+        int tokens = 0;
+        for (JsonElement message : messages) tokens += 4 + (content(message).length() + 3) / 4;
+        return tokens;
+    }
+
+    /**
+     * Create a message of about 100 tokens.
+     *
+     * @param tag   the tag the message starts with.
+     * @param index the index of the message.
+     * @return the message.
+     */
+    private static String question(String tag, int index) {
+        return tag + " question " + index + " " + "x".repeat(380);
+    }
+
+    /**
+     * Create a Member of a Guild.
+     *
+     * @param guild    the Guild.
+     * @param memberId the ID of the Member.
+     * @return the {@link Member}.
+     */
+    private static Member member(GuildImpl guild, long memberId) {
+        return new MemberImpl(guild, new UserImpl(memberId, jda));
+    }
+
+    /**
+     * Ask a question and wait for the answer.
+     *
+     * @param member  the Member asking.
+     * @param channel the channel it is asked in.
+     * @param message the question.
+     * @return the answer.
+     * @throws Exception if it couldn't be answered.
+     */
+    private static String ask(Member member, TextChannelImpl channel, String message) throws Exception {
+        return ChatGPTAPI.getResponse(member, channel, message).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void promptsStayWithinTheTokenBudget() throws Exception {
+        GuildImpl guild = new GuildImpl(jda, 4501);
+        TextChannelImpl channel = new TextChannelImpl(45011, guild);
+        Member member = member(guild, 45012);
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ask(member, channel, question("[4501]", i)).startsWith("answer"));
+        }
+
+        List<JsonArray> prompts = prompts("[4501]");
+        assertEquals(8, prompts.size());
+        prompts.forEach(prompt -> assertTrue(tokens(prompt) <= MAX_PROMPT_TOKENS, "The prompt has " + tokens(prompt) + " tokens"));
+
+        // Only the latest question still fits next to the new one.
+        JsonArray last = prompts.get(7);
+        assertTrue(content(last.get(last.size() - 1)).startsWith("[4501] question 7"));
+        assertTrue(contains(last, "[4501] question 6"));
+        for (int i = 0; i < 6; i++) {
+            assertFalse(contains(last, "[4501] question " + i + " "));
+        }
+    }
+
+    @Test
+    void oldMessagesAreSummarized() throws Exception {
+        GuildImpl guild = new GuildImpl(jda, 4502);
+        TextChannelImpl channel = new TextChannelImpl(45021, guild);
+        Member member = member(guild, 45022);
+
+        for (int i = 0; i < 5; i++) {
+            ask(member, channel, question("[4502]", i));
+        }
+
+        List<JsonArray> summaries = requests.stream().filter(ChatGPTAPITest::isSummary).filter(messages -> content(messages.get(1)).contains("[4502]")).toList();
+        assertFalse(summaries.isEmpty());
+        assertTrue(content(summaries.get(0).get(1)).contains("user: [4502] question 0"));
+
+        // Later summaries include the earlier one, so nothing is lost.
+        if (summaries.size() > 1) {
+            assertTrue(content(summaries.get(1).get(1)).startsWith("Earlier summary: summary"));
+        }
+
+        // The dropped question isn't sent anymore, but its summary is.
+        JsonArray last = prompts("[4502]").get(4);
+        assertTrue(content(last.get(0)).contains("Summary of the earlier conversation: summary"));
+        assertFalse(contains(last, "[4502] question 0"));
+    }
+
+    @Test
+    void conversationsAreSeparated() throws Exception {
+        GuildImpl guild = new GuildImpl(jda, 4503);
+        GuildImpl otherGuild = new GuildImpl(jda, 4504);
+        TextChannelImpl channel = new TextChannelImpl(45031, guild);
+        TextChannelImpl otherChannel = new TextChannelImpl(45032, guild);
+        TextChannelImpl otherGuildChannel = new TextChannelImpl(45041, otherGuild);
+
+        List<Member> members = List.of(member(guild, 45033), member(guild, 45033), member(guild, 45034), member(otherGuild, 45033));
+        List<TextChannelImpl> channels = List.of(channel, otherChannel, channel, otherGuildChannel);
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < members.size(); i++) {
+                ask(members.get(i), channels.get(i), question("[4503-" + i + "]", round));
+            }
+        }
+
+        for (int i = 0; i < members.size(); i++) {
+            List<JsonArray> prompts = prompts("[4503-" + i + "]");
+            assertEquals(2, prompts.size());
+
+            // The first question starts a new conversation, the second one only knows its own history.
+            assertEquals(2, prompts.get(0).size());
+            JsonArray second = prompts.get(1);
+            assertEquals(4, second.size());
+            assertTrue(contains(second, "[4503-" + i + "] question 0"));
+        }
+    }
+
+    @Test
+    void idleConversationsAreForgotten() throws Exception {
+        GuildImpl guild = new GuildImpl(jda, 4505);
+        TextChannelImpl channel = new TextChannelImpl(45051, guild);
+        Member member = member(guild, 45052);
+        long later = Duration.ofMinutes(31).toMillis();
+
+        ask(member, channel, question("[4505]", 0));
+        ChatGPTAPI.evictIdle(System.currentTimeMillis());
+        assertTrue(ChatGPTAPI.hasConversation(member, channel));
+
+        // The summary step after the answer may still be running, it has to finish before the conversation can be forgotten.
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (ChatGPTAPI.hasConversation(member, channel) && System.currentTimeMillis() < deadline) {
+            ChatGPTAPI.evictIdle(System.currentTimeMillis() + later);
+            Thread.onSpinWait();
+        }
+
+        assertFalse(ChatGPTAPI.hasConversation(member, channel));
+        ask(member, channel, question("[4505]", 1));
+        assertEquals(2, prompts("[4505]").get(1).size());
+
+        // A conversation that is still waiting for an answer isn't forgotten.
+        gate = new CountDownLatch(1);
+        CompletableFuture<String> pending = ChatGPTAPI.getResponse(member, channel, question("[4505]", 2));
+        ChatGPTAPI.evictIdle(System.currentTimeMillis() + later);
+        assertTrue(ChatGPTAPI.hasConversation(member, channel));
+        gate.countDown();
+        pending.get(10, TimeUnit.SECONDS);
+
+        ask(member, channel, question("[4505]", 3));
+        JsonArray last = prompts("[4505]").get(3);
+        assertTrue(contains(last, "[4505] question 2"));
+    }
+
+    @Test
+    void concurrentRequestsAreLimited() throws Exception {
+        GuildImpl guild = new GuildImpl(jda, 4506);
+        TextChannelImpl channel = new TextChannelImpl(45061, guild);
+        delay = 100;
+
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            responses.add(ChatGPTAPI.getResponse(member(guild, 45070 + i), channel, question("[4506]", i)));
+        }
+
+        for (CompletableFuture<String> response : responses) {
+            assertTrue(response.get(10, TimeUnit.SECONDS).startsWith("answer"));
+        }
+
+        assertEquals(12, prompts("[4506]").size());
+        assertEquals(MAX_CONCURRENT_REQUESTS, maxInFlight.get());
+    }
+}
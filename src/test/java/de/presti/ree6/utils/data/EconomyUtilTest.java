@@ -0,0 +1,198 @@
+package de.presti.ree6.utils.data;
+
+import de.presti.ree6.TestDatabase;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.economy.MoneyHolder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the in-memory balances of {@link EconomyUtil}.
+ */
+class EconomyUtilTest {
+
+    /**
+     * More MoneyHolders than are kept in memory, so that the cache has to evict.
+     */
+    private static final int OVERFLOW = 10_500;
+
+    /**
+     * Start the Database.
+     */
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.start();
+    }
+
+    /**
+     * Load the balance of a MoneyHolder from the Database, bypassing the cache.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the User.
+     * @return the MoneyHolder in the Database.
+     */
+    private static MoneyHolder stored(long guildId, long userId) {
+        return SQLSession.getSqlConnector().getSqlWorker().getEntity(new MoneyHolder(), "SELECT * FROM Money_Holder WHERE guildId = :gid AND userId = :uid",
+                Map.of("gid", guildId, "uid", userId));
+    }
+
+    @Test
+    void referencedHolderSurvivesEviction() {
+        long guildId = 1001;
+        MoneyHolder inUse = EconomyUtil.getMoneyHolder(guildId, 1);
+
+        for (int i = 2; i < OVERFLOW; i++) EconomyUtil.getMoneyHolder(guildId, i);
+
+        assertSame(inUse, EconomyUtil.getMoneyHolder(guildId, 1));
+    }
+
+    @Test
+    void dirtyHolderIsPinnedUntilFlushed() {
+        long guildId = 1002;
+        List<MoneyHolder> paid = new ArrayList<>();
+
+        for (int i = 0; i < OVERFLOW; i++) {
+            MoneyHolder moneyHolder = EconomyUtil.getMoneyHolder(guildId, i);
+            assertTrue(EconomyUtil.pay(null, moneyHolder, 10, false, false, true));
+            paid.add(moneyHolder);
+        }
+
+        for (int i = 0; i < OVERFLOW; i++) {
+            assertEquals(10, EconomyUtil.getMoneyHolder(guildId, i).getAmount());
+        }
+
+        paid.clear();
+        EconomyUtil.flush();
+
+        assertEquals(10, stored(guildId, 0).getAmount());
+        assertEquals(10, stored(guildId, OVERFLOW - 1).getAmount());
+        assertTrue(EconomyUtil.getCachedHolderCount() <= 10_000);
+    }
+
+    @Test
+    void concurrentPaymentsKeepTheTotal() throws Exception {
+        long guildId = 1003;
+        int users = 200;
+        int threads = 16;
+        int paymentsPerThread = 20_000;
+
+        for (int i = 0; i < users; i++) {
+            EconomyUtil.pay(null, EconomyUtil.getMoneyHolder(guildId, i), 1_000, false, false, true);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        // Flushes and cache churn run next to the payments.
+        executor.submit(() -> {
+            while (running.get()) EconomyUtil.flush();
+            return null;
+        });
+        executor.submit(() -> {
+            long other = 0;
+            while (running.get()) EconomyUtil.getMoneyHolder(guildId + 1, other++ % OVERFLOW);
+            return null;
+        });
+
+        List<Future<?>> payments = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            payments.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (int i = 0; i < paymentsPerThread; i++) {
+                    MoneyHolder sender = EconomyUtil.getMoneyHolder(guildId, random.nextInt(users));
+                    MoneyHolder receiver = EconomyUtil.getMoneyHolder(guildId, random.nextInt(users));
+                    boolean bank = random.nextBoolean();
+                    EconomyUtil.pay(sender, receiver, random.nextInt(1, 50), false, bank);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> payment : payments) payment.get(2, TimeUnit.MINUTES);
+        running.set(false);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        EconomyUtil.flush();
+
+        double memory = 0;
+        double database = 0;
+        for (int i = 0; i < users; i++) {
+            MoneyHolder moneyHolder = EconomyUtil.getMoneyHolder(guildId, i);
+            memory += moneyHolder.getAmount() + moneyHolder.getBankAmount();
+
+            MoneyHolder storedHolder = stored(guildId, i);
+            database += storedHolder.getAmount() + storedHolder.getBankAmount();
+
+            assertTrue(moneyHolder.getAmount() >= 0);
+        }
+
+        assertEquals(users * 1_000d, memory, 0.001);
+        assertEquals(users * 1_000d, database, 0.001);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void paymentThroughput() throws Exception {
+        long guildId = 1004;
+        int users = 1_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long duration = TimeUnit.SECONDS.toNanos(5);
+
+        for (int i = 0; i < users; i++) {
+            EconomyUtil.pay(null, EconomyUtil.getMoneyHolder(guildId, i), 1_000_000, false, false, true);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        executor.submit(() -> {
+            while (running.get()) {
+                EconomyUtil.flush();
+                Thread.sleep(100);
+            }
+            return null;
+        });
+
+        List<Future<Long>> results = new ArrayList<>();
+        long end = System.nanoTime() + duration;
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long payments = 0;
+
+                while (System.nanoTime() < end) {
+                    EconomyUtil.pay(EconomyUtil.getMoneyHolder(guildId, random.nextInt(users)),
+                            EconomyUtil.getMoneyHolder(guildId, random.nextInt(users)), 1, false, false);
+                    payments++;
+                }
+                return payments;
+            }));
+        }
+
+        long payments = 0;
+        for (Future<Long> result : results) payments += result.get();
+        running.set(false);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        System.out.printf("[Benchmark] EconomyUtil.pay: %d threads, %,d payments/s%n", threads, payments * TimeUnit.SECONDS.toNanos(1) / duration);
+    }
+}
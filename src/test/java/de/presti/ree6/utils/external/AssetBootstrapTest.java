@@ -0,0 +1,399 @@
+package de.presti.ree6.utils.external;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link AssetBootstrap}, using a local stub of the GitHub contents API.
+ */
+class AssetBootstrapTest {
+
+    /**
+     * The stub server.
+     */
+    private HttpServer server;
+
+    /**
+     * The files of the stub Repository, mapped by their path.
+     */
+    private final Map<String, byte[]> files = new TreeMap<>();
+
+    /**
+     * The amount of directory listings that have been answered with content.
+     */
+    private final AtomicInteger listings = new AtomicInteger();
+
+    /**
+     * The amount of directory listings that have been answered with 304.
+     */
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    /**
+     * The amount of file downloads.
+     */
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    /**
+     * The time every response of the stub server is delayed, to simulate the round trip to GitHub.
+     */
+    private volatile long latencyMillis;
+
+    /**
+     * The local directory the files are downloaded into.
+     */
+    private Path root;
+
+    /**
+     * Start the stub server with a Repository like the one of the Bot.
+     *
+     * @throws Exception if the server couldn't be started.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            files.put("languages/lang" + i + ".yml", ("version: 1\nkey" + i + ": value").getBytes(StandardCharsets.UTF_8));
+        }
+
+        for (String directory : List.of("images", "fonts", "templates")) {
+            for (int i = 0; i < 20; i++) {
+                files.put("storage/" + directory + "/file" + i + ".bin", (directory + i).repeat(200).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        for (int i = 0; i < 5; i++) {
+            files.put("storage/readme" + i + ".txt", ("readme " + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        root = Files.createTempDirectory("ree6-assets");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/contents/", this::handleListing);
+        server.createContext("/raw/", this::handleDownload);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.start();
+
+        AssetBootstrap.setSource(url("/contents/"), root);
+    }
+
+    /**
+     * Stop the stub server.
+     */
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        AssetBootstrap.setSource("https://api.github.com/repos/Ree6-Applications/Ree6/contents/", Path.of(""));
+    }
+
+    /**
+     * Build the URL of a path on the stub server.
+     *
+     * @param path the path.
+     * @return the URL.
+     */
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * Answer a directory listing, with the ETag of its content.
+     *
+     * @param exchange the exchange.
+     * @throws IOException if the response couldn't be sent.
+     */
+    private void handleListing(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+            String directory = exchange.getRequestURI().getPath().substring("/contents/".length());
+            JsonArray listing = list(directory);
+            String eTag = "\"" + sha(listing.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            listings.incrementAndGet();
+            exchange.getResponseHeaders().set("ETag", eTag);
+            send(exchange, listing.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Answer a file download.
+     *
+     * @param exchange the exchange.
+     * @throws IOException if the response couldn't be sent.
+     */
+    private void handleDownload(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+            downloads.incrementAndGet();
+            byte[] content = files.get(exchange.getRequestURI().getPath().substring("/raw/".length()));
+
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            send(exchange, content);
+        }
+    }
+
+    /**
+     * Send a body.
+     *
+     * @param exchange the exchange.
+     * @param body     the body.
+     * @throws IOException if the body couldn't be sent.
+     */
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    /**
+     * Wait for the simulated round trip.
+     */
+    private void delay() {
+        if (latencyMillis <= 0) return;
+
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * List a directory like the contents API, with the Git SHA of every file and directory.
+     *
+     * @param directory the path of the directory.
+     * @return the entries of the directory.
+     */
+    private synchronized JsonArray list(String directory) {
+        Map<String, JsonObject> entries = new TreeMap<>();
+
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            if (!file.getKey().startsWith(directory + "/")) continue;
+
+            String rest = file.getKey().substring(directory.length() + 1);
+            if (rest.contains("/")) {
+                String path = directory + "/" + rest.substring(0, rest.indexOf('/'));
+                entries.computeIfAbsent(path, key -> entry(key, "dir", sha(list(key).toString().getBytes(StandardCharsets.UTF_8)), null));
+            } else {
+                entries.put(file.getKey(), entry(file.getKey(), "file", blobSha(file.getValue()), url("/raw/" + file.getKey())));
+            }
+        }
+
+        JsonArray listing = new JsonArray();
+        entries.values().forEach(listing::add);
+        return listing;
+    }
+
+    /**
+     * Create an entry of a listing.
+     *
+     * @param path        the path.
+     * @param type        the type, file or dir.
+     * @param sha         the SHA.
+     * @param downloadUrl the download URL, null for directories.
+     * @return the entry.
+     */
+    private static JsonObject entry(String path, String type, String sha, String downloadUrl) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("path", path);
+        entry.addProperty("name", path.substring(path.lastIndexOf('/') + 1));
+        entry.addProperty("type", type);
+        entry.addProperty("sha", sha);
+        entry.addProperty("download_url", downloadUrl);
+        return entry;
+    }
+
+    /**
+     * Calculate the Git blob SHA of a content.
+     *
+     * @param content the content.
+     * @return the SHA as hex string.
+     */
+    private static String blobSha(byte[] content) {
+        byte[] header = ("blob " + content.length + "\0").getBytes(StandardCharsets.UTF_8);
+        byte[] blob = new byte[header.length + content.length];
+        System.arraycopy(header, 0, blob, 0, header.length);
+        System.arraycopy(content, 0, blob, header.length, content.length);
+        return sha(blob);
+    }
+
+    /**
+     * Calculate the SHA-1 of a content.
+     *
+     * @param content the content.
+     * @return the SHA as hex string.
+     */
+    private static String sha(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(content));
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Sync the languages and the storage, like the start of the Bot.
+     */
+    private static void syncAll() {
+        CompletableFuture<List<Path>> storage = AssetBootstrap.sync("storage", null);
+        AssetBootstrap.sync("languages", (path, content) -> true).join();
+        storage.join();
+    }
+
+    /**
+     * Sync the languages and the storage the way the Bot did before the {@link AssetBootstrap}.
+     * Every directory was listed one after another, every language file was downloaded to compare its version,
+     * and storage files were downloaded if they were missing.
+     *
+     * @param directory the path of the directory.
+     * @param languages if the directory contains the languages.
+     * @throws IOException if a file couldn't be written.
+     */
+    private void legacySync(String directory, boolean languages) throws IOException {
+        for (JsonElement jsonElement : RequestUtility.requestJson(RequestUtility.Request.builder().url(url("/contents/" + directory)).cache(false).build()).getAsJsonArray()) {
+            JsonObject entry = jsonElement.getAsJsonObject();
+            Path path = root.resolve(entry.get("path").getAsString());
+
+            if (entry.get("type").getAsString().equals("dir")) {
+                legacySync(entry.get("path").getAsString(), languages);
+                continue;
+            }
+
+            if (!languages && Files.exists(path)) continue;
+
+            try (InputStream inputStream = RequestUtility.request(RequestUtility.Request.builder().url(entry.get("download_url").getAsString()).cache(false).build())) {
+                if (inputStream == null) continue;
+                Files.createDirectories(path.getParent());
+                Files.write(path, inputStream.readAllBytes());
+            }
+        }
+    }
+
+    /**
+     * Reset the request counters.
+     */
+    private void resetCounters() {
+        listings.set(0);
+        notModified.set(0);
+        downloads.set(0);
+    }
+
+    @Test
+    void unchangedAssetsOnlyRevalidateTheRoots() {
+        syncAll();
+        assertEquals(files.size(), downloads.get());
+        assertTrue(Files.exists(root.resolve("storage/images/file0.bin")));
+
+        // Load the manifest from the disk, like the next start.
+        AssetBootstrap.setSource(url("/contents/"), root);
+        resetCounters();
+        syncAll();
+
+        assertEquals(0, listings.get());
+        assertEquals(2, notModified.get());
+        assertEquals(0, downloads.get());
+    }
+
+    @Test
+    void onlyChangedDirectoriesAndFilesAreRequested() {
+        syncAll();
+
+        synchronized (this) {
+            files.put("storage/fonts/file3.bin", "changed".getBytes(StandardCharsets.UTF_8));
+        }
+        resetCounters();
+        syncAll();
+
+        // The storage root and the fonts directory, the other directories keep their tree SHA.
+        assertEquals(2, listings.get());
+        assertEquals(1, notModified.get());
+        assertEquals(1, downloads.get());
+    }
+
+    @Test
+    void changedLocalStorageFilesAreKept() throws IOException {
+        syncAll();
+        Path file = root.resolve("storage/readme0.txt");
+        Files.writeString(file, "local");
+
+        synchronized (this) {
+            files.put("storage/readme0.txt", "remote".getBytes(StandardCharsets.UTF_8));
+        }
+        syncAll();
+
+        assertEquals("local", Files.readString(file));
+    }
+
+    /**
+     * Measure the time until the assets are ready, before and after the {@link AssetBootstrap}, with 50ms per request.
+     *
+     * @throws IOException if a file couldn't be written.
+     */
+    @Test
+    @Tag("benchmark")
+    void timeToReady() throws IOException {
+        latencyMillis = 50;
+        List<String> results = new ArrayList<>();
+
+        for (String run : List.of("cold", "warm")) {
+            resetCounters();
+            long start = System.nanoTime();
+            legacySync("languages", true);
+            legacySync("storage", false);
+            results.add(String.format("Benchmark assets legacy   %s: %,6d ms, %3d requests", run, (System.nanoTime() - start) / 1_000_000,
+                    listings.get() + notModified.get() + downloads.get()));
+        }
+
+        Path legacyRoot = root;
+        root = Files.createTempDirectory("ree6-assets");
+        AssetBootstrap.setSource(url("/contents/"), root);
+
+        for (String run : List.of("cold", "warm")) {
+            AssetBootstrap.setSource(url("/contents/"), root);
+            resetCounters();
+            long start = System.nanoTime();
+            syncAll();
+            results.add(String.format("Benchmark assets bootstrap %s: %,6d ms, %3d requests", run, (System.nanoTime() - start) / 1_000_000,
+                    listings.get() + notModified.get() + downloads.get()));
+        }
+
+        results.forEach(System.out::println);
+        assertTrue(Files.exists(legacyRoot.resolve("storage/fonts/file0.bin")));
+        assertTrue(Files.exists(root.resolve("storage/fonts/file0.bin")));
+    }
+}
@@ -0,0 +1,121 @@
+package de.presti.ree6.utils.external;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link LyricsCache}, using a fake provider.
+ */
+class LyricsCacheTest {
+
+    /**
+     * The queries the fake provider has been asked for, with their count.
+     */
+    private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+
+    /**
+     * Use a fake provider, that knows the songs of the given queries.
+     *
+     * @param songs the lyrics, mapped by their query.
+     */
+    private void fakeProvider(Map<String, String> songs) {
+        LyricsCache.setProvider(query -> {
+            queries.computeIfAbsent(query, key -> new AtomicInteger()).incrementAndGet();
+            String content = songs.get(query);
+            return CompletableFuture.completedFuture(content == null ? null : new LyricsCache.Song("author", query, "https://lyrics.invalid/" + query.hashCode(), content));
+        });
+    }
+
+    /**
+     * Restore a provider that doesn't reach the network.
+     */
+    @AfterEach
+    void tearDown() {
+        LyricsCache.setProvider(query -> CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void uploaderIsReplacedByTheArtistOfTheTitle() {
+        assertArrayEquals(new String[]{"rick astley", "never gonna give you up"},
+                LyricsCache.normalize("RickAstleyVEVO", "Rick Astley - Never Gonna Give You Up (Official Video)"));
+        assertArrayEquals(new String[]{"rick astley", "never gonna give you up"},
+                LyricsCache.normalize("Rick Astley - Topic", "Never Gonna Give You Up"));
+    }
+
+    @Test
+    void versionSuffixesOnlyApplyToTheTitle() {
+        assertArrayEquals(new String[]{"oasis", "live forever"}, LyricsCache.normalize("Oasis", "Oasis - Live Forever"));
+        assertArrayEquals(new String[]{"the beatles", "mix tape"}, LyricsCache.normalize(null, "The Beatles - Mix Tape"));
+        assertArrayEquals(new String[]{"oasis", "live forever"}, LyricsCache.normalize(null, "Oasis - Live Forever - Remastered 2014"));
+        assertArrayEquals(new String[]{"artist", "song"}, LyricsCache.normalize("Artist feat. Someone", "Song ft. Someone Else [Radio Edit]"));
+    }
+
+    @Test
+    void uploadsOfTheSameSongShareOneLookup() {
+        fakeProvider(Map.of("oasis live forever", "Maybe I don't really wanna know"));
+
+        LyricsCache.CachedLyrics first = LyricsCache.get("OasisVEVO", "Oasis - Live Forever (Official Video)").join();
+        LyricsCache.CachedLyrics second = LyricsCache.get("Oasis - Topic", "Live Forever (Remastered)").join();
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(List.of("Maybe I don't really wanna know"), first.pages());
+        assertEquals(1, queries.get("oasis live forever").get());
+    }
+
+    @Test
+    void concurrentLookupsAreCoalesced() {
+        CompletableFuture<LyricsCache.Song> pending = new CompletableFuture<>();
+        AtomicInteger lookups = new AtomicInteger();
+        LyricsCache.setProvider(query -> {
+            lookups.incrementAndGet();
+            return pending;
+        });
+
+        CompletableFuture<LyricsCache.CachedLyrics> first = LyricsCache.get("Coalesced", "Coalesced Song");
+        CompletableFuture<LyricsCache.CachedLyrics> second = LyricsCache.get("coalesced", "COALESCED SONG");
+        pending.complete(new LyricsCache.Song("author", "title", "url", "text"));
+
+        assertSame(first.join(), second.join());
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void missingLyricsAreRememberedButFailuresAreNot() {
+        fakeProvider(Map.of());
+
+        assertNull(LyricsCache.get("Nobody", "Unknown Song").join());
+        assertNull(LyricsCache.get("Nobody", "Unknown Song").join());
+        assertEquals(1, queries.get("nobody unknown song").get());
+
+        AtomicInteger failures = new AtomicInteger();
+        LyricsCache.setProvider(query -> {
+            failures.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("provider down"));
+        });
+
+        assertNull(LyricsCache.get("Failing", "Failing Song").join());
+        assertNull(LyricsCache.get("Failing", "Failing Song").join());
+        assertEquals(2, failures.get());
+    }
+
+    @Test
+    void longLyricsArePaginatedBetweenVerses() {
+        String verse = "line of a verse\n".repeat(40);
+        fakeProvider(Map.of("paged long song", (verse + "\n").repeat(6).trim()));
+
+        LyricsCache.CachedLyrics lyrics = LyricsCache.get("Paged", "Long Song").join();
+
+        assertTrue(lyrics.pages().size() > 1);
+        lyrics.pages().forEach(page -> assertTrue(page.length() <= 2000));
+        assertFalse(lyrics.unlikely());
+    }
+}
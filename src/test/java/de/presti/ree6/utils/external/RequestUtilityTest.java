@@ -0,0 +1,130 @@
+package de.presti.ree6.utils.external;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Response cache of {@link RequestUtility}, using a local stub server.
+ */
+class RequestUtilityTest {
+
+    /**
+     * The stub server, answers with the Authorization header it received.
+     */
+    private HttpServer server;
+
+    /**
+     * The amount of Requests that reached the stub server.
+     */
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /**
+     * Start the stub server and use an in-memory cache.
+     *
+     * @throws Exception if the server couldn't be started.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        RequestUtility.setCache(new HttpResponseCache(1024 * 1024, 0, null));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            byte[] body = String.valueOf(authorization).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Stop the stub server.
+     */
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        RequestUtility.setCache(null);
+    }
+
+    /**
+     * Build the URL of a path on the stub server.
+     *
+     * @param path the path.
+     * @return the URL.
+     */
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * Send a GET Request and get the body.
+     *
+     * @param request the Request.
+     * @return the body as String.
+     */
+    private static String get(RequestUtility.Request request) {
+        return RequestUtility.requestAsync(request).join().asString();
+    }
+
+    @Test
+    void sameTokenIsServedFromCache() {
+        String url = url("/same");
+
+        assertEquals("Bearer a", get(RequestUtility.Request.builder().url(url).bearerAuth("Bearer a").build()));
+        assertEquals("Bearer a", get(RequestUtility.Request.builder().url(url).bearerAuth("Bearer a").build()));
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void differentTokensAreNotShared() {
+        String url = url("/tokens");
+
+        // "Aa" and "BB" share the same String#hashCode.
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertEquals("Aa", get(RequestUtility.Request.builder().url(url).bearerAuth("Aa").build()));
+        assertEquals("BB", get(RequestUtility.Request.builder().url(url).bearerAuth("BB").build()));
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void authorizationHeaderIsPartOfTheKey() {
+        String url = url("/header");
+
+        assertEquals("null", get(RequestUtility.Request.builder().url(url).build()));
+        assertEquals("Bot first", get(RequestUtility.Request.builder().url(url).header(new String[]{"Authorization", "Bot first"}).build()));
+        assertEquals("Bot second", get(RequestUtility.Request.builder().url(url).header(new String[]{"authorization", "Bot second"}).build()));
+        assertEquals("Bot first", get(RequestUtility.Request.builder().url(url).header(new String[]{"Authorization", "Bot first"}).build()));
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void cacheKeyHashesEveryCredential() {
+        String url = url("/key");
+
+        assertEquals(url, RequestUtility.getCacheKey(RequestUtility.Request.builder().url(url)
+                .header(new String[]{"Accept", "application/json"}).build()));
+
+        String key = RequestUtility.getCacheKey(RequestUtility.Request.builder().url(url)
+                .header(new String[]{"Client-ID", "client"}).header(new String[]{"X-Api-Key", "secret"}).build());
+        assertTrue(key.matches("\\Q" + url + "\\E#[0-9a-f]{64}"), key);
+        assertFalse(key.contains("secret"));
+
+        assertEquals(key, RequestUtility.getCacheKey(RequestUtility.Request.builder().url(url)
+                .header(new String[]{"X-Api-Key", "secret"}).header(new String[]{"Client-ID", "client"}).build()));
+        assertNotEquals(key, RequestUtility.getCacheKey(RequestUtility.Request.builder().url(url)
+                .header(new String[]{"Client-ID", "client"}).header(new String[]{"X-Api-Key", "other"}).build()));
+    }
+}
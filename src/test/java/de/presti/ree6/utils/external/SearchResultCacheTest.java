@@ -0,0 +1,95 @@
+package de.presti.ree6.utils.external;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the paging of {@link SearchResultCache}.
+ */
+class SearchResultCacheTest {
+
+    /**
+     * Create a result.
+     *
+     * @param position the position of the result.
+     * @return the result.
+     */
+    private static JsonObject result(int position) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("position", position);
+        return jsonObject;
+    }
+
+    @Test
+    void synchronousFetcherLoadsManyPages() {
+        AtomicInteger fetches = new AtomicInteger();
+        SearchResultCache.Source source = new SearchResultCache.Source("sync-" + System.nanoTime(), (query, cursor) -> {
+            int position = cursor == null ? 0 : Integer.parseInt(cursor);
+            fetches.incrementAndGet();
+            return CompletableFuture.completedFuture(new SearchResultCache.Page(List.of(result(position)), String.valueOf(position + 1)));
+        });
+
+        JsonObject result = SearchResultCache.get(source, "query", SearchResultCache.MAX_PAGES - 1).join();
+
+        assertEquals(SearchResultCache.MAX_PAGES - 1, result.get("position").getAsInt());
+        assertEquals(SearchResultCache.MAX_PAGES, fetches.get());
+    }
+
+    @Test
+    void pagingIsBounded() {
+        AtomicInteger fetches = new AtomicInteger();
+        SearchResultCache.Source source = new SearchResultCache.Source("bounded-" + System.nanoTime(), (query, cursor) -> {
+            int position = cursor == null ? 0 : Integer.parseInt(cursor);
+            fetches.incrementAndGet();
+            return CompletableFuture.completedFuture(new SearchResultCache.Page(List.of(result(position)), String.valueOf(position + 1)));
+        });
+
+        // Above the highest position nothing is fetched at all.
+        assertNull(SearchResultCache.get(source, "query", 2_000_000_000).join());
+        assertEquals(0, fetches.get());
+
+        // Below it, but behind the last page that may be loaded.
+        assertNull(SearchResultCache.get(source, "query", SearchResultCache.MAX_RESULTS - 1).join());
+        assertEquals(SearchResultCache.MAX_PAGES, fetches.get());
+
+        for (int i = 0; i < 10; i++) SearchResultCache.random(source, "query").join();
+        assertEquals(SearchResultCache.MAX_PAGES, fetches.get());
+    }
+
+    @Test
+    void concurrentCallersShareThePendingPage() {
+        AtomicInteger fetches = new AtomicInteger();
+        CompletableFuture<SearchResultCache.Page> page = new CompletableFuture<>();
+        SearchResultCache.Source source = new SearchResultCache.Source("async-" + System.nanoTime(), (query, cursor) -> {
+            fetches.incrementAndGet();
+            return page;
+        });
+
+        CompletableFuture<JsonObject> first = SearchResultCache.get(source, "query", 1);
+        CompletableFuture<JsonObject> second = SearchResultCache.get(source, " QUERY ", 0);
+        page.complete(new SearchResultCache.Page(List.of(result(0), result(1)), null));
+
+        assertEquals(1, first.join().get("position").getAsInt());
+        assertEquals(0, second.join().get("position").getAsInt());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void failedFirstPageIsNotRemembered() {
+        AtomicInteger fetches = new AtomicInteger();
+        SearchResultCache.Source source = new SearchResultCache.Source("failing-" + System.nanoTime(), (query, cursor) -> {
+            if (fetches.incrementAndGet() == 1) throw new IllegalStateException("upstream down");
+            return CompletableFuture.completedFuture(new SearchResultCache.Page(List.of(result(0)), null));
+        });
+
+        assertNull(SearchResultCache.get(source, "query", 0).join());
+        assertEquals(0, SearchResultCache.get(source, "query", 0).join().get("position").getAsInt());
+        assertEquals(2, fetches.get());
+    }
+}
@@ -0,0 +1,268 @@
+package de.presti.ree6.utils.external.leaderboard;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.presti.ree6.TestDatabase;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.Setting;
+import de.presti.ree6.sql.entities.level.ChatUserLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link LeaderboardImporter}, using a fake Mee6 leaderboard on a local server.
+ */
+class LeaderboardImporterTest {
+
+    /**
+     * The fake leaderboard.
+     */
+    private HttpServer server;
+
+    /**
+     * The amount of requests that are answered as rate-limited, before the pages are returned.
+     */
+    private final AtomicInteger rateLimited = new AtomicInteger();
+
+    /**
+     * The Retry-After header of the rate-limited answers.
+     */
+    private volatile String retryAfter = "1";
+
+    /**
+     * The times in millis at which the fake leaderboard received a request.
+     */
+    private final List<Long> requests = new CopyOnWriteArrayList<>();
+
+    /**
+     * The pages that have been requested, without the rate-limited requests.
+     */
+    private final List<Integer> pages = new CopyOnWriteArrayList<>();
+
+    /**
+     * The page that fails with a server error, -1 if every page is returned.
+     */
+    private volatile int failingPage = -1;
+
+    /**
+     * Start the Database.
+     */
+    @BeforeAll
+    static void setUpDatabase() {
+        TestDatabase.start();
+    }
+
+    /**
+     * Start the fake leaderboard, it has 1005 players on two pages.
+     *
+     * @throws IOException if the server couldn't be started.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/mee6/", exchange -> {
+            requests.add(System.currentTimeMillis());
+
+            if (rateLimited.getAndDecrement() > 0) {
+                exchange.getResponseHeaders().add("Retry-After", retryAfter);
+                respond(exchange, 429, "{\"message\":\"rate-limited\"}");
+                return;
+            }
+
+            int page = Integer.parseInt(exchange.getRequestURI().getQuery().replaceAll(".*page=(\\d+).*", "$1"));
+            pages.add(page);
+
+            if (page == failingPage) {
+                respond(exchange, 500, "{\"message\":\"server error\"}");
+                return;
+            }
+
+            JsonArray players = new JsonArray();
+
+            for (int i = page * 1000; i < Math.min(1005, (page + 1) * 1000); i++) {
+                JsonObject player = new JsonObject();
+                player.addProperty("id", String.valueOf(i));
+                player.addProperty("xp", 10_000 - i);
+                players.add(player);
+            }
+
+            JsonObject body = new JsonObject();
+            body.add("players", players);
+            respond(exchange, 200, body.toString());
+        });
+        server.start();
+    }
+
+    /**
+     * Stop the fake leaderboard.
+     */
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Answer a request.
+     *
+     * @param exchange   the {@link HttpExchange}.
+     * @param statusCode the status code.
+     * @param body       the body.
+     * @throws IOException if the answer couldn't be sent.
+     */
+    private static void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * Create a source for the fake leaderboard.
+     *
+     * @return the {@link LeaderboardSource}.
+     */
+    private LeaderboardSource source() {
+        return new Mee6LeaderboardSource("http://127.0.0.1:" + server.getAddress().getPort() + "/mee6/");
+    }
+
+    /**
+     * Get the imported experience of a User.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the User.
+     * @return the experience.
+     */
+    private static long experience(String guildId, String userId) {
+        return SQLSession.getSqlConnector().getSqlWorker().getChatLevelData(guildId, userId).getExperience();
+    }
+
+    @Test
+    void everyPageIsImported() throws Exception {
+        assertEquals(1005, LeaderboardImporter.start("4901", source()).get(30, TimeUnit.SECONDS));
+
+        assertEquals(10_000, experience("4901", "0"));
+        assertEquals(10_000 - 1004, experience("4901", "1004"));
+        assertNull(LeaderboardImporter.getCheckpoint("4901", source()));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void failedImportContinuesAtTheCheckpoint() throws Exception {
+        failingPage = 1;
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> LeaderboardImporter.start("4905", source()).get(30, TimeUnit.SECONDS));
+        assertInstanceOf(LeaderboardImportException.class, exception.getCause());
+
+        // The first page has been written, the checkpoint points at the failed one.
+        Setting checkpoint = SQLSession.getSqlConnector().getSqlWorker().getEntity(new Setting(),
+                "SELECT * FROM Settings WHERE GID=:gid AND NAME=:name", Map.of("gid", "4905", "name", "import_checkpoint_mee6"));
+        assertEquals("1:1000", checkpoint.getStringValue());
+        assertArrayEquals(new int[]{1, 1000}, LeaderboardImporter.getCheckpoint("4905", source()));
+        assertEquals(10_000 - 999, experience("4905", "999"));
+
+        failingPage = -1;
+        pages.clear();
+
+        // Started again, only the remaining page is requested and the count includes the earlier pages.
+        assertEquals(1005, LeaderboardImporter.start("4905", source()).get(30, TimeUnit.SECONDS));
+        assertEquals(List.of(1), pages);
+        assertEquals(10_000 - 1004, experience("4905", "1004"));
+        assertNull(LeaderboardImporter.getCheckpoint("4905", source()));
+    }
+
+    @Test
+    void higherExperienceIsKept() throws Exception {
+        SQLSession.getSqlConnector().getSqlWorker().updateEntity(new ChatUserLevel("4906", "5", 50_000));
+        SQLSession.getSqlConnector().getSqlWorker().updateEntity(new ChatUserLevel("4906", "6", 10));
+
+        assertEquals(1005, LeaderboardImporter.start("4906", source()).get(30, TimeUnit.SECONDS));
+
+        assertEquals(50_000, experience("4906", "5"));
+        assertEquals(10_000 - 6, experience("4906", "6"));
+        assertEquals(10_000 - 7, experience("4906", "7"));
+    }
+
+    @Test
+    void retryAfterIsHonoured() throws Exception {
+        // More than the retries of a single request, so the importer has to wait.
+        rateLimited.set(5);
+
+        assertEquals(1005, LeaderboardImporter.start("4902", source()).get(30, TimeUnit.SECONDS));
+
+        // Every retry waited the second the leaderboard asked for, not the growing pause of 5 seconds and more.
+        for (int i = 1; i <= 5; i++) {
+            long waited = requests.get(i) - requests.get(i - 1);
+            assertTrue(waited >= 900 && waited < 5_000, "Waited " + waited + "ms before request " + i);
+        }
+    }
+
+    @Test
+    void tooLongRetryAfterStopsTheImport() {
+        rateLimited.set(1);
+        retryAfter = "3600";
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> LeaderboardImporter.start("4903", source()).get(30, TimeUnit.SECONDS));
+
+        LeaderboardImportException cause = assertInstanceOf(LeaderboardImportException.class, exception.getCause());
+        assertEquals(LeaderboardImportException.Reason.RATE_LIMITED, cause.getReason());
+        assertEquals(3_600_000, cause.getRetryAfter());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void interruptKeepsTheInterruptFlag() throws Exception {
+        CountDownLatch registered = new CountDownLatch(1);
+
+        // Interrupted while waiting for the rate-limit, like on a shutdown.
+        LeaderboardSource source = new LeaderboardSource() {
+            @Override
+            public String getName() {
+                return "interrupted";
+            }
+
+            @Override
+            public Page fetchPage(String guildId, int page) throws LeaderboardImportException {
+                try {
+                    registered.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+
+                Thread.currentThread().interrupt();
+                throw new LeaderboardImportException(LeaderboardImportException.Reason.RATE_LIMITED, "rate-limited", 10_000);
+            }
+        };
+
+        CompletableFuture<Integer> future = LeaderboardImporter.start("4904", source);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CompletableFuture<Integer> completed = future.whenComplete((imported, throwable) -> interrupted.set(Thread.currentThread().isInterrupted()));
+        registered.countDown();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> completed.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(InterruptedException.class, exception.getCause());
+        assertTrue(interrupted.get());
+    }
+}
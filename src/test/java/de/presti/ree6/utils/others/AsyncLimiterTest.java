@@ -0,0 +1,87 @@
+package de.presti.ree6.utils.others;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link AsyncLimiter}.
+ */
+class AsyncLimiterTest {
+
+    @Test
+    void concurrentTasksAreBounded() throws Exception {
+        AsyncLimiter limiter = new AsyncLimiter(3);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<Future<CompletableFuture<Integer>>> submitted = new ArrayList<>();
+
+        // Submitted from many Threads at once, a third of the tasks fails.
+        for (int i = 0; i < 300; i++) {
+            int task = i;
+            submitted.add(executor.submit(() -> limiter.submit(() -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+
+                if (task % 6 == 0) {
+                    active.decrementAndGet();
+                    throw new IllegalStateException("Task " + task);
+                }
+
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    active.decrementAndGet();
+                    if (task % 6 == 1) throw new IllegalStateException("Task " + task);
+                    return task;
+                }, executor);
+            })));
+        }
+
+        int completed = 0, failed = 0;
+        for (Future<CompletableFuture<Integer>> future : submitted) {
+            try {
+                future.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS);
+                completed++;
+            } catch (ExecutionException exception) {
+                failed++;
+            }
+        }
+
+        executor.shutdown();
+
+        // Failed tasks gave their slot back, otherwise the remaining ones would never have been started.
+        assertEquals(200, completed);
+        assertEquals(100, failed);
+        assertTrue(maxActive.get() <= 3, maxActive.get() + " tasks have been running at once");
+        assertEquals(3, maxActive.get());
+    }
+
+    @Test
+    void limitIsAtLeastOne() throws Exception {
+        AsyncLimiter limiter = new AsyncLimiter(0);
+        CompletableFuture<String> first = new CompletableFuture<>();
+
+        CompletableFuture<String> running = limiter.submit(() -> first);
+        CompletableFuture<String> queued = limiter.submit(() -> CompletableFuture.completedFuture("second"));
+
+        assertFalse(queued.isDone());
+        first.complete("first");
+        assertEquals("first", running.get(1, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,139 @@
+package de.presti.ree6.utils.others;
+
+import de.presti.ree6.TestDatabase;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.SQLWorker;
+import de.presti.ree6.sql.entities.Setting;
+import de.presti.ree6.sql.entities.economy.MoneyHolder;
+import de.presti.ree6.sql.util.SettingsManager;
+import de.presti.ree6.utils.data.EconomyUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link GuildLifecycleJobs}, against the embedded Database.
+ */
+class GuildLifecycleJobsTest {
+
+    /**
+     * A time after which every queued purge is due.
+     */
+    private static final long LATER = System.currentTimeMillis() + Duration.ofDays(1).toMillis();
+
+    /**
+     * Start the Database and add the default settings.
+     */
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.start();
+        SettingsManager.getSettings().add(new Setting("-1", "lifecycle_test_first", "First", true));
+        SettingsManager.getSettings().add(new Setting("-1", "lifecycle_test_second", "Second", "default"));
+    }
+
+    /**
+     * Get the SQLWorker.
+     *
+     * @return the {@link SQLWorker}.
+     */
+    private static SQLWorker sql() {
+        return SQLSession.getSqlConnector().getSqlWorker();
+    }
+
+    /**
+     * Get a setting of a Guild from the Database.
+     *
+     * @param guildId the ID of the Guild.
+     * @param name    the name of the setting.
+     * @return the {@link Setting}, or null if the Guild doesn't have it.
+     */
+    private static Setting stored(String guildId, String name) {
+        return sql().getEntity(new Setting(), "SELECT * FROM Settings WHERE GID=:gid AND NAME=:name", Map.of("gid", guildId, "name", name));
+    }
+
+    /**
+     * Get the purge job of a Guild from the Database.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the {@link Setting} of the job, or null if there is none.
+     */
+    private static Setting job(String guildId) {
+        return stored("0", "purge_" + guildId);
+    }
+
+    @Test
+    void joinCreatesOnlyMissingDefaults() {
+        sql().setSetting("4801", "lifecycle_test_second", "Second", "custom");
+
+        GuildLifecycleJobs.provision("4801");
+        GuildLifecycleJobs.provision("4802");
+        GuildLifecycleJobs.flush();
+
+        assertTrue(stored("4801", "lifecycle_test_first").getBooleanValue());
+        assertEquals("custom", stored("4801", "lifecycle_test_second").getStringValue());
+        assertTrue(stored("4802", "lifecycle_test_first").getBooleanValue());
+        assertEquals("default", stored("4802", "lifecycle_test_second").getStringValue());
+    }
+
+    @Test
+    void joinCancelsTheQueuedPurge() {
+        GuildLifecycleJobs.provision("4803");
+        GuildLifecycleJobs.flush();
+
+        GuildLifecycleJobs.purge("4803");
+        GuildLifecycleJobs.flush();
+        assertNotNull(job("4803"));
+
+        GuildLifecycleJobs.provision("4803");
+        GuildLifecycleJobs.flush();
+        assertNull(job("4803"));
+
+        GuildLifecycleJobs.runPurges(LATER);
+        assertNotNull(stored("4803", "lifecycle_test_first"));
+    }
+
+    @Test
+    void leaveAndJoinInOneBatchKeepsTheData() {
+        GuildLifecycleJobs.purge("4804");
+        GuildLifecycleJobs.provision("4804");
+        GuildLifecycleJobs.flush();
+
+        assertNull(job("4804"));
+        assertNotNull(stored("4804", "lifecycle_test_first"));
+    }
+
+    @Test
+    void duePurgeDeletesTheData() {
+        GuildLifecycleJobs.provision("4805");
+        GuildLifecycleJobs.flush();
+        GuildLifecycleJobs.purge("4805");
+        GuildLifecycleJobs.flush();
+
+        // Not due yet.
+        GuildLifecycleJobs.runPurges(System.currentTimeMillis());
+        assertNotNull(stored("4805", "lifecycle_test_first"));
+
+        GuildLifecycleJobs.runPurges(LATER);
+        assertNull(stored("4805", "lifecycle_test_first"));
+        assertNull(job("4805"));
+    }
+
+    @Test
+    void purgedBalanceIsNotWrittenBack() {
+        MoneyHolder moneyHolder = EconomyUtil.getMoneyHolder(4806, 1);
+        assertTrue(EconomyUtil.pay(null, moneyHolder, 100, false, false, true));
+
+        GuildLifecycleJobs.purge("4806");
+        GuildLifecycleJobs.flush();
+        GuildLifecycleJobs.runPurges(LATER);
+        EconomyUtil.flush();
+
+        assertNull(sql().getEntity(new MoneyHolder(), "SELECT * FROM Money_Holder WHERE guildId = :gid AND userId = :uid",
+                Map.of("gid", 4806L, "uid", 1L)));
+        assertEquals(0, EconomyUtil.getMoneyHolder(4806, 1).getAmount());
+    }
+}